@@ -34,7 +34,8 @@ import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
 
 /**
  * Represents a mapping between a {@link Player}'s name and their {@link UUID}
- * for ease of determining ownership and membership of {@link LiftSign}s.
+ * for ease of determining ownership and membership of {@link LiftSign}s,
+ * along with when the {@link Player} was last seen.
  */
 public final class PlayerDataEntry {
     
@@ -43,28 +44,47 @@ public final class PlayerDataEntry {
     
     private final UUID uniqueId;
     private String name;
+    private final long lastSeen;
     
     /**
-     * Constructs a new {@link PlayerDataEntry} for the given {@link Player}.
+     * Constructs a new {@link PlayerDataEntry} for the given {@link Player},
+     * who is seen now.
      * 
      * @param player The {@link Player} to map.
      */
     public PlayerDataEntry(@NotNull final Player player) {
         this.uniqueId = player.getUniqueId();
         this.name = player.getName();
+        this.lastSeen = System.currentTimeMillis();
     }
     
     /**
      * Constructs a new {@link PlayerDataEntry} for the given name and
      * {@link UUID}, used when deserializing a serialized
-     * {@link PlayerDataEntry}.
+     * {@link PlayerDataEntry}, or loading one from storage. The time the
+     * player was last seen is unknown.
      * 
      * @param uniqueId The {@link UUID} to use for the mapping.
      * @param name The name to map the {@link UUID} to.
      */
-    private PlayerDataEntry(@NotNull final UUID uniqueId, @NotNull final String name) {
+    public PlayerDataEntry(@NotNull final UUID uniqueId, @NotNull final String name) {
+        this(uniqueId, name, 0L);
+    }
+    
+    /**
+     * Constructs a new {@link PlayerDataEntry} for the given name and
+     * {@link UUID}, last seen at the given time, used when loading one from
+     * storage.
+     * 
+     * @param uniqueId The {@link UUID} to use for the mapping.
+     * @param name The name to map the {@link UUID} to.
+     * @param lastSeen The time the player was last seen, in milliseconds
+     *                 since the epoch, or {@code 0} if it is unknown.
+     */
+    public PlayerDataEntry(@NotNull final UUID uniqueId, @NotNull final String name, final long lastSeen) {
         this.uniqueId = uniqueId;
         this.name = name;
+        this.lastSeen = lastSeen;
     }
     
     /**
@@ -78,9 +98,25 @@ public final class PlayerDataEntry {
      */
     @NotNull
     public static PlayerDataEntry deserialize(@NotNull final Configuration data) throws IllegalArgumentException {
-        
-        final String uniqueIdRaw = data.getString(PlayerDataEntry.KEY_UNIQUE_ID, null);
-        final String name = data.getString(PlayerDataEntry.KEY_NAME, null);
+        return PlayerDataEntry.deserialize(data.getString(PlayerDataEntry.KEY_UNIQUE_ID, null), data.getString(PlayerDataEntry.KEY_NAME, null), 0L);
+    }
+    
+    /**
+     * Deserializes the given raw {@link UUID} and name into a
+     * {@link PlayerDataEntry}, applying the same validation as
+     * {@link PlayerDataEntry#deserialize(Configuration)}. This is used when
+     * converting between storage formats.
+     *
+     * @param uniqueIdRaw The raw {@link UUID}.
+     * @param name The name.
+     * @param lastSeen The time the player was last seen, in milliseconds
+     *                 since the epoch, or {@code 0} if it is unknown.
+     * @return The {@link PlayerDataEntry} represented by the given data.
+     * @throws IllegalArgumentException If the {@link PlayerDataEntry} cannot be
+     *                                  re-created or otherwise has bad data.
+     */
+    @NotNull
+    public static PlayerDataEntry deserialize(@Nullable final String uniqueIdRaw, @Nullable final String name, final long lastSeen) throws IllegalArgumentException {
         
         if (uniqueIdRaw == null) {
             throw new IllegalArgumentException("PlayerDataEntry does not have a UUID.");
@@ -95,6 +131,9 @@ public final class PlayerDataEntry {
         if (!PlayerDataEntry.validateString(name, 1, 16)) {
             throw new IllegalArgumentException("Name value is not a valid value.");
         }
+        if (lastSeen < 0L) {
+            throw new IllegalArgumentException("Last seen value is not a valid value.");
+        }
         
         final UUID uniqueId;
         try {
@@ -103,7 +142,7 @@ public final class PlayerDataEntry {
             throw new IllegalArgumentException("PlayerData invalid UUID config value.", e);
         }
         
-        return new PlayerDataEntry(uniqueId, name);
+        return new PlayerDataEntry(uniqueId, name, lastSeen);
     }
     
     /**
@@ -155,6 +194,16 @@ public final class PlayerDataEntry {
         return this.name;
     }
     
+    /**
+     * Gets the time the player of this {@link PlayerDataEntry} was last seen.
+     * 
+     * @return The time the player was last seen, in milliseconds since the
+     *         epoch, or {@code 0} if it is unknown.
+     */
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+    
     /**
      * Sets the name for this {@link PlayerDataEntry}.
      * 
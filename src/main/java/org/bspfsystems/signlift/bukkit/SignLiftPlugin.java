@@ -25,6 +25,9 @@ package org.bspfsystems.signlift.bukkit;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,27 +36,48 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bspfsystems.signlift.bukkit.command.SignLiftTabExecutor;
 import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Server;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabExecutor;
 import org.bukkit.configuration.InvalidConfigurationException;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
 import org.bspfsystems.signlift.bukkit.config.ConfigData;
 import org.bspfsystems.signlift.bukkit.config.ConfigMessage;
+import org.bspfsystems.signlift.bukkit.index.LiftSignCache;
+import org.bspfsystems.signlift.bukkit.index.LiftSignDiscovery;
+import org.bspfsystems.signlift.bukkit.index.LiftSignIndex;
+import org.bspfsystems.signlift.bukkit.index.PrivateLiftSignRegionCache;
+import org.bspfsystems.signlift.bukkit.index.PrivateLiftSignRegistry;
 import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignActivationQueue;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignPreResolver;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignThrottle;
 import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
+import org.bspfsystems.signlift.bukkit.liftsign.PublicLiftSign;
 import org.bspfsystems.signlift.bukkit.listener.SignLiftEventHandler;
+import org.bspfsystems.signlift.bukkit.storage.BinaryPrivateLiftSignFormat;
+import org.bspfsystems.signlift.bukkit.storage.FileSignLiftStorage;
+import org.bspfsystems.signlift.bukkit.storage.PrivateLiftSignData;
+import org.bspfsystems.signlift.bukkit.storage.PrivateLiftSignFormat;
+import org.bspfsystems.signlift.bukkit.storage.SignLiftStorage;
+import org.bspfsystems.signlift.bukkit.storage.SignLiftWriteQueue;
+import org.bspfsystems.signlift.bukkit.storage.SqliteSignLiftStorage;
+import org.bspfsystems.signlift.bukkit.util.ParallelFileLoader;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -63,17 +87,45 @@ import org.jetbrains.annotations.Nullable;
  */
 public final class SignLiftPlugin extends JavaPlugin {
     
+    /**
+     * Represents the state of loading the SignLift data from storage.
+     * <p>
+     * While {@link SignLiftPlugin.LoadState#WARMING}, the
+     * {@link SignLiftStorage} is opened and the player names are loaded in the
+     * background. {@link PrivateLiftSign}s can still be used, as each region
+     * is read on demand when it is first needed.
+     */
+    public enum LoadState {
+        WARMING,
+        READY,
+        FAILED;
+    }
+    
+    
     private Logger logger;
     
     private Server server;
     private BukkitScheduler scheduler;
     
-    private File playerDataFolder;
+    private SignLiftStorage storage;
+    private SignLiftWriteQueue writeQueue;
+    private volatile LoadState loadState;
+    private volatile long loadNanos;
+    private AtomicBoolean loadStarted;
+    private CountDownLatch loaded;
+    private volatile boolean storageOpened;
     private ConcurrentHashMap<String, UUID> nameToUniqueId;
     private ConcurrentHashMap<UUID, String> uniqueIdToName;
     
-    private File privateLiftSignFolder;
-    private ConcurrentHashMap<Location, PrivateLiftSign> privateLiftSigns;
+    private PrivateLiftSignRegistry privateLiftSignRegistry;
+    private PrivateLiftSignRegionCache privateLiftSignRegionCache;
+    
+    private LiftSignIndex liftSignIndex;
+    private LiftSignDiscovery liftSignDiscovery;
+    private LiftSignCache liftSignCache;
+    private LiftSignActivationQueue liftSignActivationQueue;
+    private LiftSignThrottle liftSignThrottle;
+    private LiftSignPreResolver liftSignPreResolver;
     
     private HashSet<UUID> pendingInformation;
     private ConcurrentHashMap<UUID, ChangeData> pendingModifications;
@@ -128,8 +180,9 @@ public final class SignLiftPlugin extends JavaPlugin {
         this.registerCommand("sinfo", signLiftTabExecutor);
         this.registerCommand("smodify", signLiftTabExecutor);
         this.registerCommand("schangeowner", signLiftTabExecutor);
+        this.registerCommand("sstatus", signLiftTabExecutor);
     
-        // PlayerData loading
+        // Data folder setup
         
         final File dataFolder = this.getDataFolder();
         try {
@@ -151,119 +204,116 @@ public final class SignLiftPlugin extends JavaPlugin {
             return;
         }
         
-        this.playerDataFolder = new File(dataFolder, "PlayerData");
-        try {
-            if (!this.playerDataFolder.exists()) {
-                if (!this.playerDataFolder.mkdirs()) {
-                    this.logger.log(Level.WARNING, "SignLift PlayerData directory not created at " + this.playerDataFolder.getPath());
-                    this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-                    return;
-                }
-            } else if (!this.playerDataFolder.isDirectory()) {
-                this.logger.log(Level.WARNING, "SignLift PlayerData directory is not a directory: " + this.playerDataFolder.getPath());
-                this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-                return;
-            }
-        } catch (SecurityException e) {
-            this.logger.log(Level.WARNING, "Unable to validate if the SignLift PlayerData directory has been properly created at " + this.playerDataFolder.getPath());
-            this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-            return;
-        }
+        // Storage setup
         
+        PrivateLiftSignFormat privateLiftSignFormat = PrivateLiftSignFormat.getFormat(ConfigData.getStorageFormat());
+        if (privateLiftSignFormat == null) {
+            privateLiftSignFormat = new BinaryPrivateLiftSignFormat();
+            this.logger.log(Level.WARNING, "Unknown PrivateLiftSign storage format: " + ConfigData.getStorageFormat());
+            this.logger.log(Level.WARNING, "SignLift will use the " + privateLiftSignFormat.getName() + " storage format.");
+        }
         
-        final File[] playerDataConfigFiles = this.playerDataFolder.listFiles();
-        if (playerDataConfigFiles == null) {
-            this.logger.log(Level.WARNING, "SignLift PlayerData directory is not a directory, failed previous check.");
-            this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-            return;
+        final String storageType = ConfigData.getStorageType();
+        if (storageType.equalsIgnoreCase("sqlite")) {
+            this.storage = new SqliteSignLiftStorage(dataFolder, this.logger);
+        } else {
+            this.storage = new FileSignLiftStorage(dataFolder, privateLiftSignFormat, this.logger);
+            if (!storageType.equalsIgnoreCase(this.storage.getName())) {
+                this.logger.log(Level.WARNING, "Unknown SignLift storage type: " + storageType);
+                this.logger.log(Level.WARNING, "SignLift will use the " + this.storage.getName() + " storage type.");
+            }
         }
         
+        this.writeQueue = new SignLiftWriteQueue(this.storage, this.logger);
         this.nameToUniqueId = new ConcurrentHashMap<String, UUID>();
         this.uniqueIdToName = new ConcurrentHashMap<UUID, String>();
         
-        for (final File playerDataConfigFile : playerDataConfigFiles) {
-            
-            final YamlConfiguration playerDataConfig = new YamlConfiguration();
-            try {
-                playerDataConfig.load(playerDataConfigFile);
-            } catch (IOException | IllegalArgumentException | InvalidConfigurationException e) {
-                this.logger.log(Level.WARNING, "Unable to load PlayerData configuration file at " + playerDataConfigFile.getPath());
-                this.logger.log(Level.WARNING, "Skipping player.");
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                continue;
-            }
-            
-            try {
-                final PlayerDataEntry playerDataEntry = PlayerDataEntry.deserialize(playerDataConfig);
-                this.nameToUniqueId.put(playerDataEntry.getName().toLowerCase(), playerDataEntry.getUniqueId());
-                this.uniqueIdToName.put(playerDataEntry.getUniqueId(), playerDataEntry.getName());
-            } catch (IllegalArgumentException e) {
-                this.logger.log(Level.WARNING, "Could not deserialize PlayerDataEntry configuration file at " + playerDataConfigFile.getPath());
-                this.logger.log(Level.WARNING, "Skipping PlayerDataEntry.");
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-            }
-        }
+        // The storage is opened and the PlayerData is loaded in the
+        // background, so that the server does not wait for it to start.
         
-        // PrivateLiftSign loading
-    
-        this.privateLiftSignFolder = new File(dataFolder, "PrivateLiftSigns");
-        try {
-            if (!this.privateLiftSignFolder.exists()) {
-                if (!this.privateLiftSignFolder.mkdirs()) {
-                    this.logger.log(Level.WARNING, "SignLift PrivateLiftSign directory not created at " + this.privateLiftSignFolder.getPath());
-                    this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-                    return;
-                }
-            } else if (!this.privateLiftSignFolder.isDirectory()) {
-                this.logger.log(Level.WARNING, "SignLift PrivateLiftSign directory is not a directory: " + this.privateLiftSignFolder.getPath());
-                this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-                return;
+        this.loadState = LoadState.WARMING;
+        this.loadNanos = System.nanoTime();
+        this.loadStarted = new AtomicBoolean(false);
+        this.loaded = new CountDownLatch(1);
+        this.storageOpened = false;
+        this.scheduler.runTaskAsynchronously(this, () -> this.loadStorage(dataFolder));
+        
+        // PrivateLiftSigns are only read from storage when something in
+        // their region needs them. Chunks that load later are tracked as
+        // they load.
+        
+        this.privateLiftSignRegistry = new PrivateLiftSignRegistry();
+        this.privateLiftSignRegionCache = new PrivateLiftSignRegionCache(this.writeQueue, this.logger);
+        for (final World world : this.server.getWorlds()) {
+            for (final Chunk chunk : world.getLoadedChunks()) {
+                this.loadPrivateLiftSigns(chunk);
             }
-        } catch (SecurityException e) {
-            this.logger.log(Level.WARNING, "Unable to validate if the SignLift PrivateLiftSign directory has been properly created at " + this.privateLiftSignFolder.getPath());
-            this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-            return;
         }
         
-        final File[] privateLiftSignConfigFiles = this.privateLiftSignFolder.listFiles();
-        if (privateLiftSignConfigFiles == null) {
-            this.logger.log(Level.WARNING, "SignLift PrivateLiftSign directory is not a directory, failed previous check.");
-            this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
-            return;
+        // LiftSign index setup
+        
+        this.liftSignIndex = new LiftSignIndex();
+        this.liftSignDiscovery = new LiftSignDiscovery(this, this.liftSignIndex);
+        this.liftSignCache = new LiftSignCache();
+        this.liftSignActivationQueue = new LiftSignActivationQueue(this);
+        this.liftSignThrottle = new LiftSignThrottle();
+        this.liftSignPreResolver = new LiftSignPreResolver(this);
+        
+        // Miscellaneous setup
+        
+        this.pendingInformation = new HashSet<UUID>();
+        this.pendingModifications = new ConcurrentHashMap<UUID, ChangeData>();
+        
+        this.server.getPluginManager().registerEvents(new SignLiftEventHandler(this), this);
+        
+        // Discover any LiftSigns in chunks that were loaded before this
+        // plugin was enabled.
+        
+        for (final World world : this.server.getWorlds()) {
+            this.liftSignDiscovery.discover(world);
         }
         
-        this.privateLiftSigns = new ConcurrentHashMap<Location, PrivateLiftSign>();
+        // Destinations near Players are looked up ahead of time.
         
-        for (final File privateLiftSignConfigFile : privateLiftSignConfigFiles) {
-            
-            final YamlConfiguration privateLiftSignConfig = new YamlConfiguration();
-            try {
-                privateLiftSignConfig.load(privateLiftSignConfigFile);
-            } catch (IOException | IllegalArgumentException | InvalidConfigurationException e) {
-                this.logger.log(Level.WARNING, "Unable to load PrivateLiftSign configuration file at " + privateLiftSignConfigFile.getPath());
-                this.logger.log(Level.WARNING, "Skipping PrivateLiftSign.");
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                continue;
+        final long preResolveInterval = ConfigData.getPreResolveInterval();
+        if (preResolveInterval > 0L) {
+            this.scheduler.runTaskTimer(this, this.liftSignPreResolver::sample, preResolveInterval, preResolveInterval);
+        }
+    }
+    
+    @Override
+    public void onDisable() {
+        
+        // The storage cannot be closed while it is still being opened. If
+        // loading has not started yet, it is prevented from starting.
+        if (this.loaded != null) {
+            if (this.loadStarted.compareAndSet(false, true)) {
+                this.loaded.countDown();
             }
-            
             try {
-                final PrivateLiftSign privateLiftSign = PrivateLiftSign.deserialize(privateLiftSignConfig);
-                this.privateLiftSigns.put(privateLiftSign.getLocation(), privateLiftSign);
-            } catch (SignLiftException e) {
-                this.logger.log(Level.WARNING, "Could not deserialize PrivateLiftSign configuration file at " + privateLiftSignConfigFile.getPath());
-                this.logger.log(Level.WARNING, "Skipping PrivateLiftSign.");
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+                this.loaded.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
         
-        // Miscellaneous setup
-        
-        this.pendingInformation = new HashSet<UUID>();
-        this.pendingModifications = new ConcurrentHashMap<UUID, ChangeData>();
+        if (this.writeQueue != null) {
+            final int lost = this.storageOpened ? this.writeQueue.close() : this.writeQueue.getDepth();
+            if (lost > 0) {
+                this.logger.log(Level.WARNING, "Unable to write " + lost + " queued changes to the SignLift " + this.storage.getName() + " storage.");
+                this.logger.log(Level.WARNING, "These changes have been lost.");
+            }
+        }
         
-        this.server.getPluginManager().registerEvents(new SignLiftEventHandler(this), this);
+        if (this.storage != null && this.storageOpened) {
+            try {
+                this.storage.close();
+            } catch (IOException e) {
+                this.logger.log(Level.WARNING, "Unable to close the SignLift " + this.storage.getName() + " storage.");
+                this.logger.log(Level.WARNING, "Recent changes may not have been written to disk.");
+                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            }
+        }
     }
     
     /**
@@ -365,7 +415,8 @@ public final class SignLiftPlugin extends JavaPlugin {
     
     /**
      * Runs when a {@link Player} joins the {@link Server}, is used to get their
-     * name and {@link UUID} for a {@link PlayerDataEntry}.
+     * name and {@link UUID} for a {@link PlayerDataEntry}, and to record when
+     * they were last seen.
      *
      * @param player The {@link Player} that joined the {@link Server}.
      */
@@ -408,6 +459,9 @@ public final class SignLiftPlugin extends JavaPlugin {
             this.logger.log(Level.CONFIG, "Name : " + currentName);
             this.logger.log(Level.CONFIG, "UUID : " + uniqueId.toString());
             this.logger.log(Level.CONFIG, "================================================");
+            
+            // Only the time the player was last seen has changed.
+            this.savePlayerData(new PlayerDataEntry(player));
         }
     }
     
@@ -504,9 +558,10 @@ public final class SignLiftPlugin extends JavaPlugin {
             return;
         }
         
-        if (LiftSign.isPublicLiftSign(location)) {
+        final LiftSign.Classification classification = LiftSign.classify(location.getBlock());
+        if (classification != null && !classification.isPrivate()) {
             player.sendMessage(ConfigMessage.getLiftsignInfoPublic());
-        } else if (LiftSign.isPrivateLiftSign(location)) {
+        } else if (classification != null) {
             
             final PrivateLiftSign privateLiftSign = this.getPrivateLiftSign(location);
             if (privateLiftSign == null) {
@@ -553,6 +608,195 @@ public final class SignLiftPlugin extends JavaPlugin {
         }
     }
     
+    ////////////////////////////
+    // LIFTSIGN INDEX METHODS //
+    ////////////////////////////
+    
+    /**
+     * Gets the {@link LiftSignIndex} used to look up {@link LiftSign}
+     * destinations.
+     * <p>
+     * The {@link LiftSignIndex} must only be accessed from the main server
+     * thread.
+     *
+     * @return The {@link LiftSignIndex}.
+     */
+    @NotNull
+    public LiftSignIndex getLiftSignIndex() {
+        return this.liftSignIndex;
+    }
+    
+    /**
+     * Clears the {@link LiftSignCache} and {@link LiftSignIndex}, and
+     * discovers all {@link LiftSign}s in the currently-loaded chunks again. This is used when the lift line
+     * settings in the configuration may have changed.
+     */
+    public void reindexLiftSigns() {
+        this.liftSignCache.clear();
+        this.liftSignIndex.clear();
+        for (final World world : this.server.getWorlds()) {
+            this.liftSignDiscovery.discover(world);
+        }
+    }
+    
+    /**
+     * Gets the {@link LiftSignCache} of parsed {@link PublicLiftSign}s.
+     * <p>
+     * The {@link LiftSignCache} must only be accessed from the main server
+     * thread.
+     *
+     * @return The {@link LiftSignCache}.
+     */
+    @NotNull
+    public LiftSignCache getLiftSignCache() {
+        return this.liftSignCache;
+    }
+    
+    /**
+     * Gets the {@link LiftSignActivationQueue} that {@link LiftSign}
+     * activations pass through.
+     * <p>
+     * The {@link LiftSignActivationQueue} must only be accessed from the main
+     * server thread.
+     *
+     * @return The {@link LiftSignActivationQueue}.
+     */
+    @NotNull
+    public LiftSignActivationQueue getLiftSignActivationQueue() {
+        return this.liftSignActivationQueue;
+    }
+    
+    /**
+     * Gets the {@link LiftSignThrottle} that limits how often {@link LiftSign}s
+     * may be activated.
+     * <p>
+     * The {@link LiftSignThrottle} must only be accessed from the main server
+     * thread.
+     *
+     * @return The {@link LiftSignThrottle}.
+     */
+    @NotNull
+    public LiftSignThrottle getLiftSignThrottle() {
+        return this.liftSignThrottle;
+    }
+    
+    /**
+     * Gets the {@link LiftSignPreResolver} that looks up the destinations of
+     * {@link LiftSign}s near {@link Player}s ahead of time.
+     * <p>
+     * The {@link LiftSignPreResolver} must only be accessed from the main
+     * server thread.
+     *
+     * @return The {@link LiftSignPreResolver}.
+     */
+    @NotNull
+    public LiftSignPreResolver getLiftSignPreResolver() {
+        return this.liftSignPreResolver;
+    }
+    
+    /**
+     * Gets the {@link LiftSign} at the given {@link Block}, if one exists.
+     * <p>
+     * {@link PublicLiftSign}s are served from the {@link LiftSignCache} when
+     * possible, and {@link PrivateLiftSign}s are retrieved from the known
+     * {@link PrivateLiftSign}s.
+     *
+     * @param block The {@link Block} to get the {@link LiftSign} at.
+     * @return The {@link LiftSign}, or {@code null} if the {@link Block} is
+     *         not a {@link LiftSign} (or is an unknown
+     *         {@link PrivateLiftSign}).
+     */
+    @Nullable
+    public LiftSign getLiftSign(@NotNull final Block block) {
+        
+        final PublicLiftSign cachedLiftSign = this.liftSignCache.get(block);
+        if (cachedLiftSign != null) {
+            return cachedLiftSign;
+        }
+        
+        final LiftSign.Classification classification = LiftSign.classify(block);
+        if (classification == null) {
+            return null;
+        }
+        if (classification.isPrivate()) {
+            return this.getPrivateLiftSign(block);
+        }
+        
+        final PublicLiftSign liftSign;
+        try {
+            liftSign = new PublicLiftSign(classification);
+        } catch (SignLiftException e) {
+            return null;
+        }
+        this.liftSignCache.put(liftSign);
+        return liftSign;
+    }
+    
+    /**
+     * Gets the {@link LiftSignDiscovery} used to find existing
+     * {@link LiftSign}s as chunks are loaded.
+     *
+     * @return The {@link LiftSignDiscovery}.
+     */
+    @NotNull
+    public LiftSignDiscovery getLiftSignDiscovery() {
+        return this.liftSignDiscovery;
+    }
+    
+    /**
+     * Gets the {@link SignLiftStorage} that SignLift data is stored in.
+     *
+     * @return The {@link SignLiftStorage}, or {@code null} if it could not be
+     *         opened.
+     */
+    @Nullable
+    public SignLiftStorage getStorage() {
+        return this.storage;
+    }
+    
+    /**
+     * Gets the {@link SignLiftWriteQueue} that changes are written to the
+     * {@link SignLiftStorage} through.
+     *
+     * @return The {@link SignLiftWriteQueue}, or {@code null} if the
+     *         {@link SignLiftStorage} could not be opened.
+     */
+    @Nullable
+    public SignLiftWriteQueue getWriteQueue() {
+        return this.writeQueue;
+    }
+    
+    /**
+     * Gets the state of loading the SignLift data from storage.
+     *
+     * @return The {@link SignLiftPlugin.LoadState}, or {@code null} if the
+     *         {@link SignLiftStorage} could not be set up.
+     */
+    @Nullable
+    public LoadState getLoadState() {
+        return this.loadState;
+    }
+    
+    /**
+     * Checks to see if all SignLift data has finished loading from storage.
+     *
+     * @return {@code true} if the {@link SignLiftPlugin.LoadState} is
+     *         {@link SignLiftPlugin.LoadState#READY}, {@code false} otherwise.
+     */
+    public boolean isReady() {
+        return this.loadState == LoadState.READY;
+    }
+    
+    /**
+     * Gets how long loading the SignLift data from storage took, or has taken
+     * so far if it is still {@link SignLiftPlugin.LoadState#WARMING}.
+     *
+     * @return The loading time, in nanoseconds.
+     */
+    public long getLoadNanos() {
+        return this.loadState == LoadState.WARMING ? System.nanoTime() - this.loadNanos : this.loadNanos;
+    }
+    
     ////////////////////////////////////
     // PRIVATE LIFTSIGN BASIC METHODS //
     ////////////////////////////////////
@@ -568,7 +812,103 @@ public final class SignLiftPlugin extends JavaPlugin {
      */
     @Nullable
     public PrivateLiftSign getPrivateLiftSign(@NotNull final Location location) {
-        return this.privateLiftSigns.get(location);
+        final World world = location.getWorld();
+        return world == null ? null : this.getPrivateLiftSign(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSign} at the given {@link Block}, if one
+     * exists. Otherwise, returns {@code null}.
+     *
+     * @param block The {@link Block} to check for a {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSign}, if one exists. {@code null}
+     *         otherwise.
+     */
+    @Nullable
+    public PrivateLiftSign getPrivateLiftSign(@NotNull final Block block) {
+        return this.getPrivateLiftSign(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSign} at the given coordinates in the given
+     * {@link World}, if one exists. Otherwise, returns {@code null}.
+     * <p>
+     * If the {@link PrivateLiftSign} has not been created from its stored
+     * data yet, it is created now, as long as its chunk is loaded. This never
+     * loads a chunk.
+     *
+     * @param world The {@link World} to check for a {@link PrivateLiftSign}.
+     * @param x The X coordinate to check.
+     * @param y The Y coordinate to check.
+     * @param z The Z coordinate to check.
+     * @return The {@link PrivateLiftSign}, if one exists. {@code null}
+     *         otherwise.
+     */
+    @Nullable
+    public PrivateLiftSign getPrivateLiftSign(@NotNull final World world, final int x, final int y, final int z) {
+        
+        final PrivateLiftSign privateLiftSign = this.privateLiftSignRegistry.get(world, x, y, z);
+        if (privateLiftSign != null) {
+            return privateLiftSign;
+        }
+        
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return null;
+        }
+        final PrivateLiftSignData data = this.privateLiftSignRegionCache.get(world, x, y, z);
+        if (data == null) {
+            return null;
+        }
+        
+        try {
+            final PrivateLiftSign restored = PrivateLiftSign.deserialize(world.getBlockAt(x, y, z), data.getOwner(), data.getAdmins(), data.getMembers());
+            this.privateLiftSignRegistry.put(restored);
+            return restored;
+        } catch (SignLiftException e) {
+            this.logger.log(Level.WARNING, "Could not restore PrivateLiftSign from storage.");
+            this.logger.log(Level.WARNING, "World: " + world.getName());
+            this.logger.log(Level.WARNING, "X: " + x);
+            this.logger.log(Level.WARNING, "Y: " + y);
+            this.logger.log(Level.WARNING, "Z: " + z);
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Tracks the given {@link Chunk} as loaded, so that the stored
+     * {@link PrivateLiftSign}s in its region are kept in memory once they
+     * have been read.
+     *
+     * @param chunk The {@link Chunk} that loaded.
+     */
+    public void loadPrivateLiftSigns(@NotNull final Chunk chunk) {
+        this.privateLiftSignRegionCache.chunkLoaded(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+    
+    /**
+     * Drops the {@link PrivateLiftSign}s in the given {@link Chunk} from
+     * memory, along with the stored {@link PrivateLiftSign}s in its region if
+     * no other {@link Chunk}s in the region are loaded.
+     *
+     * @param chunk The {@link Chunk} that unloaded.
+     */
+    public void unloadPrivateLiftSigns(@NotNull final Chunk chunk) {
+        this.privateLiftSignRegistry.unloadChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        this.privateLiftSignRegionCache.chunkUnloaded(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+    
+    /**
+     * Drops the {@link PrivateLiftSign}s in the given {@link World} from
+     * memory. This is used when the {@link World} unloads, so that the
+     * {@link World} is not kept reachable.
+     *
+     * @param world The {@link World} to unload the {@link PrivateLiftSign}s
+     *              for.
+     */
+    public void unloadPrivateLiftSigns(@NotNull final World world) {
+        this.privateLiftSignRegistry.unload(world);
+        this.privateLiftSignRegionCache.unload(world);
     }
     
     /**
@@ -581,6 +921,7 @@ public final class SignLiftPlugin extends JavaPlugin {
      *               {@link PrivateLiftSign}.
      */
     public void addPrivateLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @NotNull final Player player) {
+        this.liftSignIndex.add(privateLiftSign.getWorld(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ(), true);
         this.saveLiftSign(privateLiftSign, player);
     }
     
@@ -589,36 +930,35 @@ public final class SignLiftPlugin extends JavaPlugin {
      * exists.
      *
      * @param privateLiftSign The {@link PrivateLiftSign} to remove.
-     * @param player The {@link Player} triggering the removal.
+     * @param player The {@link Player} triggering the removal, or
+     *               {@code null} if it was not removed by a {@link Player}
+     *               (such as by an explosion).
      */
-    public void removePrivateLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @NotNull final Player player) {
+    public void removePrivateLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @Nullable final Player player) {
+        this.liftSignIndex.remove(privateLiftSign.getWorld(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ());
         this.deleteLiftSign(privateLiftSign, player);
     }
     
     /**
      * Activates the {@link PrivateLiftSign} at the given {@link Location} (if
-     * one exists) for the specified {@link Player}.
+     * one exists) for the specified {@link Player}, through the
+     * {@link LiftSignActivationQueue}.
      *
      * @param location The {@link Location} of the {@link PrivateLiftSign} to
      *                 activate (if one exists).
      * @param player The {@link Player} activating the {@link PrivateLiftSign}.
+     * @deprecated Activations are queued per {@link Player} and tick; use
+     *             {@link LiftSignActivationQueue#enqueue(Player, LiftSign)}
+     *             instead.
      * @see LiftSign#activate(Player, SignLiftPlugin)
      */
+    @Deprecated
     public void usePrivateLiftSign(@NotNull final Location location, @NotNull final Player player) {
         
         final PrivateLiftSign privateLiftSign = this.getPrivateLiftSign(location);
-        if (privateLiftSign == null) {
-            this.logger.log(Level.WARNING, "PrivateLiftSign found twice at Location, cannot retrieve for activation.");
-            this.logger.log(Level.WARNING, "Player Name: " + player.getName());
-            this.logger.log(Level.WARNING, "Player UUID: " + player.getUniqueId());
-            this.logger.log(Level.WARNING, "World: " + (location.getWorld() == null ? "null" : location.getWorld().getName()));
-            this.logger.log(Level.WARNING, "X: " + location.getBlockX());
-            this.logger.log(Level.WARNING, "Y: " + location.getBlockY());
-            this.logger.log(Level.WARNING, "Z: " + location.getBlockZ());
-            return;
+        if (privateLiftSign != null) {
+            this.liftSignActivationQueue.enqueue(player, privateLiftSign);
         }
-        
-        privateLiftSign.activate(player, this);
     }
     
     ///////////////////////////////////////////
@@ -868,161 +1208,256 @@ public final class SignLiftPlugin extends JavaPlugin {
     ////////////////////////////
     
     /**
-     * Saves the given {@link PlayerDataEntry} to a file as a
-     * {@link YamlConfiguration}.
+     * Queues the given {@link PlayerDataEntry} to be saved to storage.
      *
      * @param playerDataEntry The {@link PlayerDataEntry} to save.
      */
     private void savePlayerData(@NotNull final PlayerDataEntry playerDataEntry) {
-    
-        this.scheduler.runTaskAsynchronously(this, () -> {
-            
-            final File configFile = new File(this.playerDataFolder, playerDataEntry.getUniqueId().toString() + ".yml");
-            try {
-                if (!configFile.exists()) {
-                    if (!configFile.createNewFile()) {
-                        this.logger.log(Level.WARNING, "PlayerDataEntry configuration file not created at " + configFile.getPath());
-                        this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry.");
-                        this.logger.log(Level.WARNING, "Name : " + playerDataEntry.getName());
-                        this.logger.log(Level.WARNING, "UUID : " + playerDataEntry.getUniqueId().toString());
-                    }
-                } else if (!configFile.isFile()) {
-                    this.logger.log(Level.WARNING, "PlayerDataEntry configuration file is not a file: " + configFile.getPath());
-                    this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry.");
-                    this.logger.log(Level.WARNING, "Name : " + playerDataEntry.getName());
-                    this.logger.log(Level.WARNING, "UUID : " + playerDataEntry.getUniqueId().toString());
-                }
-            } catch (SecurityException | IOException e) {
-                this.logger.log(Level.WARNING, "Unable to verify if PlayerDataEntry configuration file exists/is a file at " + configFile.getPath());
-                this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry.");
-                this.logger.log(Level.WARNING, "Name : " + playerDataEntry.getName());
-                this.logger.log(Level.WARNING, "UUID : " + playerDataEntry.getUniqueId().toString());
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-            }
-            
-            try {
-                playerDataEntry.serializeForSave().save(configFile);
-            } catch (IOException e) {
-                this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry configuration file at " + configFile.getPath());
-                this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry.");
-                this.logger.log(Level.WARNING, "Name : " + playerDataEntry.getName());
-                this.logger.log(Level.WARNING, "UUID : " + playerDataEntry.getUniqueId().toString());
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-            }
-        });
+        this.writeQueue.savePlayer(playerDataEntry);
     }
     
     /**
      * Saves an updated {@link PrivateLiftSign}, usually used after creation or
-     * after a modification.
+     * after a modification. The change is visible immediately, and is queued
+     * to be written to storage.
      *
      * @param privateLiftSign The {@link PrivateLiftSign} to save.
-     * @param player The {@link Player} triggering the save.
+     * @param player The {@link Player} triggering the save, who is told if
+     *               the change could not be written.
      */
     private void saveLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @NotNull final Player player) {
         
-        this.privateLiftSigns.put(privateLiftSign.getLocation(), privateLiftSign);
-        this.scheduler.runTaskAsynchronously(this, () -> {
+        final PrivateLiftSignData data = PrivateLiftSignData.of(privateLiftSign);
+        this.privateLiftSignRegistry.put(privateLiftSign);
+        this.privateLiftSignRegionCache.put(privateLiftSign.getWorld(), data);
+        
+        final UUID uniqueId = player.getUniqueId();
+        this.writeQueue.savePrivateLiftSign(data, () -> this.sendMessageLater(uniqueId, ConfigMessage.getLiftsignFileErrorSave()));
+    }
+    
+    /**
+     * Deletes the stored data for the {@link PrivateLiftSign} (usually used
+     * when a {@link PrivateLiftSign} is broken or otherwise removed). The
+     * change is visible immediately, and is queued to be written to storage.
+     *
+     * @param privateLiftSign The {@link PrivateLiftSign} to remove.
+     * @param player The {@link Player} triggering the removal, who is told if
+     *               the change could not be written, or {@code null} if it
+     *               was not removed by a {@link Player}.
+     */
+    private void deleteLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @Nullable final Player player) {
+        
+        this.privateLiftSignRegistry.remove(privateLiftSign);
+        this.privateLiftSignRegionCache.remove(privateLiftSign.getWorld(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ());
+        
+        if (player == null) {
+            this.writeQueue.deletePrivateLiftSign(privateLiftSign.getWorld().getName(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ(), null);
+            return;
+        }
         
-            final File configFile = new File(this.privateLiftSignFolder, this.getConfigFileName(privateLiftSign));
+        final UUID uniqueId = player.getUniqueId();
+        this.writeQueue.deletePrivateLiftSign(privateLiftSign.getWorld().getName(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ(), () -> this.sendMessageLater(uniqueId, ConfigMessage.getLiftsignFileErrorDelete()));
+    }
+    
+    /**
+     * Sends the given message to the {@link Player} with the given
+     * {@link UUID} on the main server thread, if they are still online. This
+     * may be called from any thread.
+     *
+     * @param uniqueId The {@link UUID} of the {@link Player}.
+     * @param message The message to send.
+     */
+    private void sendMessageLater(@NotNull final UUID uniqueId, @NotNull final String message) {
+        
+        if (!this.isEnabled()) {
+            return;
+        }
+        
+        this.scheduler.runTask(this, () -> {
+            final Player player = this.server.getPlayer(uniqueId);
+            if (player != null) {
+                player.sendMessage(message);
+            }
+        });
+    }
+    
+    /**
+     * Opens the {@link SignLiftStorage}, loads the PlayerData, and imports any
+     * legacy {@link PrivateLiftSign}s. This runs asynchronously while the
+     * {@link SignLiftPlugin} is {@link SignLiftPlugin.LoadState#WARMING}, and
+     * finishes on the main server thread.
+     *
+     * @param dataFolder The data folder of the {@link SignLiftPlugin}.
+     */
+    private void loadStorage(@NotNull final File dataFolder) {
+        
+        if (!this.loadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        
+        boolean success = false;
+        try {
+            
+            long phaseStart = System.nanoTime();
             try {
-                if (!configFile.exists()) {
-                    if (!configFile.createNewFile()) {
-                        this.logger.log(Level.WARNING, "PrivateLiftSign configuration file not created at " + configFile.getPath());
-                        this.logger.log(Level.WARNING, "Unable to save PrivateLiftSign.");
-                        this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                        this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                        this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                        this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
-                        player.sendMessage(ConfigMessage.getLiftsignFileErrorSave());
-                    }
-                } else if (!configFile.isFile()) {
-                    this.logger.log(Level.WARNING, "PrivateLiftSign configuration file is not a file: " + configFile.getPath());
-                    this.logger.log(Level.WARNING, "Unable to save PrivateLiftSign.");
-                    this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                    this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                    this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                    this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
-                    player.sendMessage(ConfigMessage.getLiftsignFileErrorSave());
-                }
-            } catch (SecurityException | IOException e) {
-                this.logger.log(Level.WARNING, "Unable to verify if PrivateLiftSign configuration file exists/is a file at " + configFile.getPath());
-                this.logger.log(Level.WARNING, "Unable to save PrivateLiftSign.");
-                this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
+                this.storage.open();
+            } catch (IOException e) {
+                this.logger.log(Level.WARNING, "Unable to open the SignLift " + this.storage.getName() + " storage in " + dataFolder.getPath());
+                this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
                 this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                player.sendMessage(ConfigMessage.getLiftsignFileErrorSave());
+                return;
             }
-        
+            this.storageOpened = true;
+            this.logger.log(Level.INFO, "Startup timing: opened " + this.storage.getName() + " storage in " + SignLiftPlugin.getElapsedMillis(phaseStart) + " ms.");
+            
+            // Players that joined in the meantime are already up to date.
+            phaseStart = System.nanoTime();
             try {
-                privateLiftSign.serializeForSave().save(configFile);
+                this.storage.loadPlayers(playerDataEntry -> {
+                    if (this.uniqueIdToName.putIfAbsent(playerDataEntry.getUniqueId(), playerDataEntry.getName()) == null) {
+                        this.nameToUniqueId.putIfAbsent(playerDataEntry.getName().toLowerCase(), playerDataEntry.getUniqueId());
+                    }
+                });
             } catch (IOException e) {
-                this.logger.log(Level.WARNING, "Unable to save PrivateLiftSign configuration file at " + configFile.getPath());
-                this.logger.log(Level.WARNING, "Unable to save PrivateLiftSign.");
-                this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
+                this.logger.log(Level.WARNING, "Unable to load SignLift PlayerData from storage.");
+                this.logger.log(Level.WARNING, "SignLift functionality will be disabled.");
                 this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                player.sendMessage(ConfigMessage.getLiftsignFileErrorSave());
+                return;
             }
-        });
+            this.logger.log(Level.INFO, "Startup timing: loaded " + this.uniqueIdToName.size() + " players in " + SignLiftPlugin.getElapsedMillis(phaseStart) + " ms.");
+            
+            final File legacyFolder = new File(dataFolder, "PrivateLiftSigns");
+            if (legacyFolder.isDirectory()) {
+                phaseStart = System.nanoTime();
+                final int imported = this.importLegacyPrivateLiftSigns(legacyFolder);
+                this.logger.log(Level.INFO, "Startup timing: imported " + imported + " legacy PrivateLiftSigns in " + SignLiftPlugin.getElapsedMillis(phaseStart) + " ms.");
+            }
+            success = true;
+        } finally {
+            this.loaded.countDown();
+            final boolean ready = success;
+            if (this.isEnabled()) {
+                this.scheduler.runTask(this, () -> this.finishLoading(ready));
+            }
+        }
     }
     
     /**
-     * Deletes the configuration file for the {@link PrivateLiftSign} (usually
-     * used when a {@link PrivateLiftSign} is broken or otherwise removed).
+     * Finishes loading the SignLift data from storage on the main server
+     * thread, either starting to write queued changes to the
+     * {@link SignLiftStorage}, or disabling the {@link SignLiftPlugin} if it
+     * could not be loaded.
      *
-     * @param privateLiftSign The {@link PrivateLiftSign} to remove.
-     * @param player The {@link Player} triggering the removal.
+     * @param success {@code true} if the SignLift data was loaded,
+     *                {@code false} otherwise.
      */
-    private void deleteLiftSign(@NotNull final PrivateLiftSign privateLiftSign, @NotNull final Player player) {
+    private void finishLoading(final boolean success) {
         
-        this.privateLiftSigns.remove(privateLiftSign.getLocation());
-        this.scheduler.runTaskAsynchronously(this, () -> {
+        this.loadNanos = System.nanoTime() - this.loadNanos;
+        if (!success) {
+            this.loadState = LoadState.FAILED;
+            this.server.getPluginManager().disablePlugin(this);
+            return;
+        }
+        
+        // Regions read while warming may be missing imported legacy
+        // PrivateLiftSigns.
+        this.privateLiftSignRegionCache.invalidate();
+        
+        final long flushInterval = ConfigData.getStorageFlushInterval();
+        this.scheduler.runTaskTimerAsynchronously(this, this.writeQueue::flush, flushInterval, flushInterval);
+        
+        this.loadState = LoadState.READY;
+        this.logger.log(Level.INFO, "Startup timing: SignLift data ready in " + (this.loadNanos / 1000000L) + " ms.");
+    }
     
-            final File configFile = new File(this.privateLiftSignFolder, this.getConfigFileName(privateLiftSign));
-            try {
-                if (!configFile.delete()) {
-                    this.logger.log(Level.WARNING, "PrivateLiftSign configuration file was not deleted, no Exception thrown.");
-                    this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                    this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                    this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                    this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
-                    player.sendMessage(ConfigMessage.getLiftsignFileErrorDelete());
-                }
-            } catch (SecurityException e) {
-                this.logger.log(Level.WARNING, "Unable to delete PrivateLiftSign configuration file at " + configFile.getPath());
-                this.logger.log(Level.WARNING, "World: " + (privateLiftSign.getLocation().getWorld() == null ? "null" : privateLiftSign.getLocation().getWorld().getName()));
-                this.logger.log(Level.WARNING, "X: " + privateLiftSign.getLocation().getBlockX());
-                this.logger.log(Level.WARNING, "Y: " + privateLiftSign.getLocation().getBlockY());
-                this.logger.log(Level.WARNING, "Z: " + privateLiftSign.getLocation().getBlockZ());
-                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                player.sendMessage(ConfigMessage.getLiftsignFileErrorDelete());
-            }
-        });
+    /**
+     * Imports the {@link PrivateLiftSign}s from the legacy per-file YAML
+     * format in the given folder into the {@link SignLiftStorage}. Once
+     * imported, the folder is renamed so that it is not used again.
+     * <p>
+     * The files are parsed in parallel by a {@link ParallelFileLoader}.
+     *
+     * @param legacyFolder The folder containing the legacy files.
+     * @return The number of {@link PrivateLiftSign}s imported.
+     */
+    private int importLegacyPrivateLiftSigns(@NotNull final File legacyFolder) {
+        
+        if (!legacyFolder.isDirectory()) {
+            return 0;
+        }
+        
+        final ConcurrentLinkedQueue<PrivateLiftSignData> records = new ConcurrentLinkedQueue<PrivateLiftSignData>();
+        final int count;
+        try {
+            count = ParallelFileLoader.load(legacyFolder.toPath(), "*.yml", ParallelFileLoader.getDefaultParallelism(), this::loadLegacyPrivateLiftSign, records::add);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to list legacy PrivateLiftSign directory at " + legacyFolder.getPath());
+            this.logger.log(Level.WARNING, "Legacy PrivateLiftSigns will not be imported.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return 0;
+        }
+        
+        try {
+            this.storage.importPrivateLiftSigns(records);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to save imported PrivateLiftSigns to storage.");
+            this.logger.log(Level.WARNING, "The import will be attempted again on the next startup.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return 0;
+        }
+        
+        final File importedFolder = new File(legacyFolder.getParentFile(), legacyFolder.getName() + ".imported");
+        if (!legacyFolder.renameTo(importedFolder)) {
+            this.logger.log(Level.WARNING, "Unable to rename legacy PrivateLiftSign directory to " + importedFolder.getPath());
+            this.logger.log(Level.WARNING, "It has been imported, and may be removed manually.");
+        }
+        this.logger.log(Level.INFO, "Imported " + count + " PrivateLiftSigns from " + legacyFolder.getPath());
+        return count;
     }
     
     /**
-     * Gets the name of the configuration file that is used for
-     * {@link PrivateLiftSign}s, based on the {@link PrivateLiftSign}'s
-     * {@link Location}.
+     * Loads a single {@link PrivateLiftSign} in the legacy per-file YAML
+     * format, reporting and skipping it if it cannot be loaded.
+     * <p>
+     * The {@link Location} type tag is removed before parsing, so that the
+     * file can be read even if its {@link World} is not loaded.
      *
-     * @param privateLiftSign The {@link PrivateLiftSign} to get the
-     *                        configuration file name for.
-     * @return The name of the configuration file.
+     * @param privateLiftSignConfigPath The {@link Path} of the file.
+     * @return The {@link PrivateLiftSignData}, or {@code null} if it could not
+     *         be loaded.
      */
-    @NotNull
-    private String getConfigFileName(@NotNull final PrivateLiftSign privateLiftSign) {
+    @Nullable
+    private PrivateLiftSignData loadLegacyPrivateLiftSign(@NotNull final Path privateLiftSignConfigPath) {
         
-        final Location location = privateLiftSign.getLocation();
-        final String world = location.getWorld() == null ? "null" : location.getWorld().getName();
-        final String x = String.valueOf(location.getBlockX()).replace("-", "n");
-        final String y = String.valueOf(location.getBlockY()).replace("-", "n");
-        final String z = String.valueOf(location.getBlockZ()).replace("-", "n");
+        final String contents;
+        try {
+            contents = new String(Files.readAllBytes(privateLiftSignConfigPath), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to load PrivateLiftSign configuration file at " + privateLiftSignConfigPath.toString());
+            this.logger.log(Level.WARNING, "Skipping PrivateLiftSign.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
         
-        return world + "-" + x + "-" + y + "-" + z + ".yml";
+        try {
+            return PrivateLiftSignData.deserializeLegacy(contents);
+        } catch (InvalidConfigurationException | SignLiftException e) {
+            this.logger.log(Level.WARNING, "Could not deserialize PrivateLiftSign configuration file at " + privateLiftSignConfigPath.toString());
+            this.logger.log(Level.WARNING, "Skipping PrivateLiftSign.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the number of milliseconds that have passed since the given
+     * {@link System#nanoTime()}, for startup timings.
+     *
+     * @param start The {@link System#nanoTime()} to measure from.
+     * @return The number of milliseconds since the given time.
+     */
+    private static long getElapsedMillis(final long start) {
+        return (System.nanoTime() - start) / 1000000L;
     }
 }
@@ -11,6 +11,11 @@ import org.bspfsystems.signlift.bukkit.ChangeData;
 import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
 import org.bspfsystems.signlift.bukkit.config.ConfigMessage;
 import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignActivationQueue;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignPreResolver;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSignThrottle;
+import org.bspfsystems.signlift.bukkit.storage.SignLiftStorage;
+import org.bspfsystems.signlift.bukkit.storage.SignLiftWriteQueue;
 import org.bukkit.Server;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -156,6 +161,23 @@ public final class SignLiftTabExecutor implements TabExecutor {
                     return true;
                 }
                 return this.changeOwnerCommand(player, argsList.remove(0));
+            } else if (subCommand.equalsIgnoreCase("status")) {
+    
+                final PluginCommand sstatusCommand = server.getPluginCommand("sstatus");
+                if (sstatusCommand == null) {
+                    this.logger.log(Level.WARNING, "/sstatus command not registered. Possible compilation/build issue with the plugin.");
+                    this.logger.log(Level.WARNING, "Cannot execute commandline: " + commandName + " : " + Arrays.toString(args));
+                    player.sendMessage(SignLiftTabExecutor.INTERNAL_ERROR);
+                    return true;
+                }
+                if (!sstatusCommand.testPermission(player)) {
+                    return true;
+                }
+                if (!argsList.isEmpty()) {
+                    player.sendMessage(sstatusCommand.getUsage());
+                    return true;
+                }
+                return this.statusCommand(player);
             } else {
                 return false;
             }
@@ -204,6 +226,15 @@ public final class SignLiftTabExecutor implements TabExecutor {
                 return false;
             }
             return this.changeOwnerCommand(player, argsList.remove(0));
+        } else if (commandName.equalsIgnoreCase("sstatus")) {
+            
+            if (!this.checkShortCommand(player, commandName, args)) {
+                return true;
+            }
+            if (!argsList.isEmpty()) {
+                return false;
+            }
+            return this.statusCommand(player);
         } else {
             this.logger.log(Level.WARNING, "The command " + commandName + " was triggered in the SignLift plugin.");
             this.logger.log(Level.WARNING, "This command is not registered to SignLift.");
@@ -301,6 +332,12 @@ public final class SignLiftTabExecutor implements TabExecutor {
             allowedCommands.add("§r§a/schangeowner§r §b§o<player>§r");
         }
         
+        final PluginCommand sstatusCommand = server.getPluginCommand("sstatus");
+        if (sstatusCommand != null && sstatusCommand.testPermissionSilent(player)) {
+            allowedCommands.add("§r§a/signlift status§r");
+            allowedCommands.add("§r§a/sstatus§r");
+        }
+        
         if (allowedCommands.isEmpty()) {
             player.hasPermission("§r§cNo commands.§r");
             player.sendMessage("§r§8================================================§r");
@@ -412,6 +449,52 @@ public final class SignLiftTabExecutor implements TabExecutor {
         return true;
     }
     
+    /**
+     * Performs the main functionality of the status command.
+     *
+     * @param player The {@link Player} executing the command.
+     * @return {@code true} if command execution was successful, {@code false}
+     *         otherwise.
+     */
+    private boolean statusCommand(@NotNull final Player player) {
+        
+        final SignLiftStorage storage = this.signLiftPlugin.getStorage();
+        final SignLiftWriteQueue writeQueue = this.signLiftPlugin.getWriteQueue();
+        final LiftSignActivationQueue activationQueue = this.signLiftPlugin.getLiftSignActivationQueue();
+        final LiftSignThrottle throttle = this.signLiftPlugin.getLiftSignThrottle();
+        final LiftSignPreResolver preResolver = this.signLiftPlugin.getLiftSignPreResolver();
+        if (storage == null || writeQueue == null) {
+            player.sendMessage("§r§cSignLift storage is not available. Please check the server log for errors.§r");
+            return true;
+        }
+        
+        player.sendMessage("§r§8================================================§r");
+        player.sendMessage("§r§6SignLift Status§r");
+        player.sendMessage("§r§8------------------------------------------------§r");
+        player.sendMessage("§r §f-§r §aStorage type:§r §b" + storage.getName() + "§r");
+        player.sendMessage("§r §f-§r §aLoad state:§r §b" + this.signLiftPlugin.getLoadState() + "§r §a(§r§b" + SignLiftTabExecutor.formatMillis(this.signLiftPlugin.getLoadNanos()) + " ms§r§a)§r");
+        player.sendMessage("§r §f-§r §aQueued changes:§r §b" + writeQueue.getDepth() + "§r");
+        player.sendMessage("§r §f-§r §aLast flush:§r §b" + writeQueue.getLastFlushWrites() + "§r §achanges in§r §b" + SignLiftTabExecutor.formatMillis(writeQueue.getLastFlushNanos()) + " ms§r");
+        player.sendMessage("§r §f-§r §aSlowest flush:§r §b" + SignLiftTabExecutor.formatMillis(writeQueue.getMaxFlushNanos()) + " ms§r");
+        player.sendMessage("§r §f-§r §aChanges written:§r §b" + writeQueue.getTotalWrites() + "§r §a(§r§b" + writeQueue.getTotalCoalesced() + "§r §acoalesced,§r §b" + writeQueue.getTotalFailures() + "§r §afailed)§r");
+        player.sendMessage("§r §f-§r §aLift activations:§r §b" + activationQueue.getTotalActivations() + "§r §a(§r§b" + activationQueue.getTotalCoalesced() + "§r §acoalesced,§r §b" + activationQueue.getTotalResolutions() + "§r §adestination lookups)§r");
+        player.sendMessage("§r §f-§r §aActivations limited:§r §b" + throttle.getTotalPlayerDenials() + "§r §aby player,§r §b" + throttle.getTotalChunkDenials() + "§r §aby chunk (§r§b" + throttle.getTrackedCount() + "§r §abudgets tracked)§r");
+        player.sendMessage("§r §f-§r §aPre-resolved destinations:§r §b" + preResolver.getTotalHits() + "§r §aused,§r §b" + preResolver.getTotalMisses() + "§r §amissed (§r§b" + preResolver.getResolvedCount() + "§r §acurrently resolved)§r");
+        player.sendMessage("§r§8================================================§r");
+        return true;
+    }
+    
+    /**
+     * Formats the given duration as milliseconds, with one decimal place.
+     *
+     * @param nanos The duration, in nanoseconds.
+     * @return The formatted duration.
+     */
+    @NotNull
+    private static String formatMillis(final long nanos) {
+        return String.format("%.1f", nanos / 1000000.0D);
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -483,6 +566,15 @@ public final class SignLiftTabExecutor implements TabExecutor {
             } else if (schangeownerCommand.testPermissionSilent(player)) {
                 completions.add("changeowner");
             }
+    
+            final PluginCommand sstatusCommand = server.getPluginCommand("sstatus");
+            if (sstatusCommand == null) {
+                this.logger.log(Level.WARNING, "/sstatus command not registered. Possible compilation/build issue with the plugin.");
+                this.logger.log(Level.WARNING, "Cannot execute commandline: " + commandName + " : " + Arrays.toString(args));
+                foundError = true;
+            } else if (sstatusCommand.testPermissionSilent(player)) {
+                completions.add("status");
+            }
             
             if (argsList.isEmpty()) {
                 if (foundError) {
@@ -508,6 +600,8 @@ public final class SignLiftTabExecutor implements TabExecutor {
                 return this.getPlayerSuggestions(player, argsList, false);
             } else if (subCommand.equalsIgnoreCase("changeowner")) {
                 return this.getPlayerSuggestions(player, argsList, true);
+            } else if (subCommand.equalsIgnoreCase("status")) {
+                return Collections.emptyList();
             } else {
                 return Collections.emptyList();
             }
@@ -559,6 +653,15 @@ public final class SignLiftTabExecutor implements TabExecutor {
                 return Collections.emptyList();
             }
             return this.getPlayerSuggestions(player, argsList, true);
+        } else if (commandName.equalsIgnoreCase("sstatus")) {
+    
+            final PluginCommand sstatusCommand = server.getPluginCommand("sstatus");
+            if (sstatusCommand == null) {
+                this.logger.log(Level.WARNING, "/sstatus command not registered. Possible compilation/build issue with the plugin.");
+                this.logger.log(Level.WARNING, "Cannot execute commandline: " + commandName + " : " + Arrays.toString(args));
+                player.sendMessage(SignLiftTabExecutor.INTERNAL_ERROR);
+            }
+            return Collections.emptyList();
         } else {
             return Collections.emptyList();
         }
@@ -35,6 +35,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftLineMatcher;
 import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
 
 /**
@@ -52,6 +53,14 @@ public final class ConfigData {
     private static final String KEY_PUBLIC_END = "public_end";
     private static final String KEY_PRIVATE_START = "private_start";
     private static final String KEY_PRIVATE_END = "private_end";
+    private static final String KEY_STORAGE_TYPE = "storage_type";
+    private static final String KEY_STORAGE_FORMAT = "storage_format";
+    private static final String KEY_STORAGE_FLUSH_INTERVAL = "storage_flush_interval";
+    private static final String KEY_PLAYER_ACTIVATION_BURST = "player_activation_burst";
+    private static final String KEY_PLAYER_ACTIVATION_REFILL_TICKS = "player_activation_refill_ticks";
+    private static final String KEY_CHUNK_ACTIVATION_BUDGET = "chunk_activation_budget";
+    private static final String KEY_PRE_RESOLVE_INTERVAL = "pre_resolve_interval";
+    private static final String KEY_PRE_RESOLVE_RADIUS = "pre_resolve_radius";
     
     private static final boolean DEFAULT_CHECK_DESTINATION = true;
     private static final boolean DEFAULT_RELATIVE_TELEPORTING = true;
@@ -62,6 +71,14 @@ public final class ConfigData {
     private static final String DEFAULT_PUBLIC_END = "]";
     private static final String DEFAULT_PRIVATE_START = "{";
     private static final String DEFAULT_PRIVATE_END = "}";
+    private static final String DEFAULT_STORAGE_TYPE = "file";
+    private static final String DEFAULT_STORAGE_FORMAT = "binary";
+    private static final int DEFAULT_STORAGE_FLUSH_INTERVAL = 20;
+    private static final int DEFAULT_PLAYER_ACTIVATION_BURST = 4;
+    private static final int DEFAULT_PLAYER_ACTIVATION_REFILL_TICKS = 10;
+    private static final int DEFAULT_CHUNK_ACTIVATION_BUDGET = 40;
+    private static final int DEFAULT_PRE_RESOLVE_INTERVAL = 10;
+    private static final int DEFAULT_PRE_RESOLVE_RADIUS = 4;
     
     private static boolean checkDestination;
     private static boolean relativeTeleporting;
@@ -72,6 +89,15 @@ public final class ConfigData {
     private static String publicEnd;
     private static String privateStart;
     private static String privateEnd;
+    private static String storageType;
+    private static String storageFormat;
+    private static int storageFlushInterval;
+    private static int playerActivationBurst;
+    private static int playerActivationRefillTicks;
+    private static int chunkActivationBudget;
+    private static int preResolveInterval;
+    private static int preResolveRadius;
+    private static volatile LiftLineMatcher liftLineMatcher;
     
     /**
      * Prevent instantiation.
@@ -123,7 +149,7 @@ public final class ConfigData {
                     logger.log(Level.WARNING, "SignLift will use the default configuration.");
                     if (command) {
                         sender.sendMessage("§r§cAn error has occurred while reloading the SignLift configuration. Please try again. If the error persists, please contact a server administrator.§r");
-                        scheduler.runTask(signLiftPlugin, ConfigData::setDefaults);
+                        scheduler.runTask(signLiftPlugin, () -> ConfigData.setDefaults(signLiftPlugin));
                     } else {
                         ConfigData.setDefaults();
                     }
@@ -136,7 +162,7 @@ public final class ConfigData {
                     logger.log(Level.WARNING, "SignLift will use the default configuration.");
                     if (command) {
                         sender.sendMessage("§r§cAn error has occurred while reloading the SignLift configuration. Please try again. If the error persists, please contact a server administrator.§r");
-                        scheduler.runTask(signLiftPlugin, ConfigData::setDefaults);
+                        scheduler.runTask(signLiftPlugin, () -> ConfigData.setDefaults(signLiftPlugin));
                     } else {
                         ConfigData.setDefaults();
                     }
@@ -153,7 +179,7 @@ public final class ConfigData {
                     logger.log(Level.WARNING, "SignLift will use the default configuration.");
                     if (command) {
                         sender.sendMessage("§r§cAn error has occurred while reloading the SignLift configuration. Please try again. If the error persists, please contact a server administrator.§r");
-                        scheduler.runTask(signLiftPlugin, ConfigData::setDefaults);
+                        scheduler.runTask(signLiftPlugin, () -> ConfigData.setDefaults(signLiftPlugin));
                     } else {
                         ConfigData.setDefaults();
                     }
@@ -182,7 +208,7 @@ public final class ConfigData {
             logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
             if (command) {
                 sender.sendMessage("§r§cAn error has occurred while reloading the SignLift configuration. Please try again. If the error persists, please contact a server administrator.§r");
-                scheduler.runTask(signLiftPlugin, ConfigData::setDefaults);
+                scheduler.runTask(signLiftPlugin, () -> ConfigData.setDefaults(signLiftPlugin));
             } else {
                 ConfigData.setDefaults();
             }
@@ -198,7 +224,7 @@ public final class ConfigData {
             logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
             if (command) {
                 sender.sendMessage("§r§cAn error has occurred while reloading the SignLift configuration. Please try again. If the error persists, please contact a server administrator.§r");
-                scheduler.runTask(signLiftPlugin, ConfigData::setDefaults);
+                scheduler.runTask(signLiftPlugin, () -> ConfigData.setDefaults(signLiftPlugin));
             } else {
                 ConfigData.setDefaults();
             }
@@ -208,6 +234,7 @@ public final class ConfigData {
         if (command) {
             scheduler.runTask(signLiftPlugin, () -> {
                 ConfigData.setValues(config);
+                signLiftPlugin.reindexLiftSigns();
                 sender.sendMessage("§r§aThe SignLift configuration has been reloaded. Please verify that all LiftSigns are working as intended.§r");
             });
         } else {
@@ -230,6 +257,15 @@ public final class ConfigData {
         ConfigData.publicEnd = config.getString(ConfigData.KEY_PUBLIC_END, ConfigData.DEFAULT_PUBLIC_END);
         ConfigData.privateStart = config.getString(ConfigData.KEY_PRIVATE_START, ConfigData.DEFAULT_PRIVATE_START);
         ConfigData.privateEnd = config.getString(ConfigData.KEY_PRIVATE_END, ConfigData.DEFAULT_PRIVATE_END);
+        ConfigData.storageType = config.getString(ConfigData.KEY_STORAGE_TYPE, ConfigData.DEFAULT_STORAGE_TYPE);
+        ConfigData.storageFormat = config.getString(ConfigData.KEY_STORAGE_FORMAT, ConfigData.DEFAULT_STORAGE_FORMAT);
+        ConfigData.storageFlushInterval = Math.max(1, config.getInt(ConfigData.KEY_STORAGE_FLUSH_INTERVAL, ConfigData.DEFAULT_STORAGE_FLUSH_INTERVAL));
+        ConfigData.playerActivationBurst = Math.max(0, config.getInt(ConfigData.KEY_PLAYER_ACTIVATION_BURST, ConfigData.DEFAULT_PLAYER_ACTIVATION_BURST));
+        ConfigData.playerActivationRefillTicks = Math.max(1, config.getInt(ConfigData.KEY_PLAYER_ACTIVATION_REFILL_TICKS, ConfigData.DEFAULT_PLAYER_ACTIVATION_REFILL_TICKS));
+        ConfigData.chunkActivationBudget = Math.max(0, config.getInt(ConfigData.KEY_CHUNK_ACTIVATION_BUDGET, ConfigData.DEFAULT_CHUNK_ACTIVATION_BUDGET));
+        ConfigData.preResolveInterval = Math.max(0, config.getInt(ConfigData.KEY_PRE_RESOLVE_INTERVAL, ConfigData.DEFAULT_PRE_RESOLVE_INTERVAL));
+        ConfigData.preResolveRadius = Math.max(0, Math.min(16, config.getInt(ConfigData.KEY_PRE_RESOLVE_RADIUS, ConfigData.DEFAULT_PRE_RESOLVE_RADIUS)));
+        ConfigData.compileLiftLineMatcher();
     }
     
     /**
@@ -245,6 +281,35 @@ public final class ConfigData {
         ConfigData.publicEnd = ConfigData.DEFAULT_PUBLIC_END;
         ConfigData.privateStart = ConfigData.DEFAULT_PRIVATE_START;
         ConfigData.privateEnd = ConfigData.DEFAULT_PRIVATE_END;
+        ConfigData.storageType = ConfigData.DEFAULT_STORAGE_TYPE;
+        ConfigData.storageFormat = ConfigData.DEFAULT_STORAGE_FORMAT;
+        ConfigData.storageFlushInterval = ConfigData.DEFAULT_STORAGE_FLUSH_INTERVAL;
+        ConfigData.playerActivationBurst = ConfigData.DEFAULT_PLAYER_ACTIVATION_BURST;
+        ConfigData.playerActivationRefillTicks = ConfigData.DEFAULT_PLAYER_ACTIVATION_REFILL_TICKS;
+        ConfigData.chunkActivationBudget = ConfigData.DEFAULT_CHUNK_ACTIVATION_BUDGET;
+        ConfigData.preResolveInterval = ConfigData.DEFAULT_PRE_RESOLVE_INTERVAL;
+        ConfigData.preResolveRadius = ConfigData.DEFAULT_PRE_RESOLVE_RADIUS;
+        ConfigData.compileLiftLineMatcher();
+    }
+    
+    /**
+     * Sets the configuration items to their default values after a reload
+     * was triggered by a command, and re-indexes all {@link LiftSign}s, as
+     * the lift line settings may have changed.
+     * 
+     * @param signLiftPlugin The {@link SignLiftPlugin}.
+     */
+    private static void setDefaults(@NotNull final SignLiftPlugin signLiftPlugin) {
+        ConfigData.setDefaults();
+        signLiftPlugin.reindexLiftSigns();
+    }
+    
+    /**
+     * Compiles the current bracket and direction settings into the
+     * {@link LiftLineMatcher} used to classify lift lines.
+     */
+    private static void compileLiftLineMatcher() {
+        ConfigData.liftLineMatcher = new LiftLineMatcher(ConfigData.publicStart, ConfigData.publicEnd, ConfigData.privateStart, ConfigData.privateEnd, ConfigData.directionUp, ConfigData.directionDown, ConfigData.directionNone);
     }
     
     public static boolean getCheckDestination() {
@@ -289,4 +354,43 @@ public final class ConfigData {
     public static String getPrivateEnd() {
         return ConfigData.privateEnd;
     }
+    
+    @NotNull
+    public static String getStorageType() {
+        return ConfigData.storageType;
+    }
+    
+    @NotNull
+    public static String getStorageFormat() {
+        return ConfigData.storageFormat;
+    }
+    
+    public static int getStorageFlushInterval() {
+        return ConfigData.storageFlushInterval;
+    }
+    
+    public static int getPlayerActivationBurst() {
+        return ConfigData.playerActivationBurst;
+    }
+    
+    public static int getPlayerActivationRefillTicks() {
+        return ConfigData.playerActivationRefillTicks;
+    }
+    
+    public static int getChunkActivationBudget() {
+        return ConfigData.chunkActivationBudget;
+    }
+    
+    public static int getPreResolveInterval() {
+        return ConfigData.preResolveInterval;
+    }
+    
+    public static int getPreResolveRadius() {
+        return ConfigData.preResolveRadius;
+    }
+    
+    @NotNull
+    public static LiftLineMatcher getLiftLineMatcher() {
+        return ConfigData.liftLineMatcher;
+    }
 }
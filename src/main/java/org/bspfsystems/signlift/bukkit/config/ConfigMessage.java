@@ -91,6 +91,8 @@ public final class ConfigMessage {
     private static final String KEY_LIFTSIGN_USE_DISCONNECTED_PRIVATE = "liftsign.use.disconnected.private";
     private static final String KEY_LIFTSIGN_USE_BLOCKED_PUBLIC = "liftsign.use.blocked.public";
     private static final String KEY_LIFTSIGN_USE_BLOCKED_PRIVATE = "liftsign.use.blocked.private";
+    private static final String KEY_LIFTSIGN_USE_LIMITED_PLAYER = "liftsign.use.limited.player";
+    private static final String KEY_LIFTSIGN_USE_LIMITED_CHUNK = "liftsign.use.limited.chunk";
     private static final String KEY_LIFTSIGN_FILE_ERROR_SAVE = "liftsign.file.error.save";
     private static final String KEY_LIFTSIGN_FILE_ERROR_DELETE = "liftsign.file.error.delete";
     
@@ -143,6 +145,8 @@ public final class ConfigMessage {
     private static final String DEFAULT_LIFTSIGN_USE_DISCONNECTED_PRIVATE = "§r§6This private lift sign is not connected to another lift sign.§r";
     private static final String DEFAULT_LIFTSIGN_USE_BLOCKED_PUBLIC = "§r§6The destination for this lift sign is blocked.§r";
     private static final String DEFAULT_LIFTSIGN_USE_BLOCKED_PRIVATE = "§r§6The destination for this private lift sign is blocked.§r";
+    private static final String DEFAULT_LIFTSIGN_USE_LIMITED_PLAYER = "§r§6You are using lift signs too quickly. Please wait a moment.§r";
+    private static final String DEFAULT_LIFTSIGN_USE_LIMITED_CHUNK = "§r§6This lift is busy. Please wait a moment.§r";
     private static final String DEFAULT_LIFTSIGN_FILE_ERROR_SAVE = "§r§cInternal error saving private lift file data. Please contact a server administrator with your location, and where the sign is.§r";
     private static final String DEFAULT_LIFTSIGN_FILE_ERROR_DELETE = "§r§cInternal error deleting private lift file data. Please contact a server administrator with your location, and where the sign was.§r";
     
@@ -195,6 +199,8 @@ public final class ConfigMessage {
     private static String liftsignUseDisconnectedPrivate;
     private static String liftsignUseBlockedPublic;
     private static String liftsignUseBlockedPrivate;
+    private static String liftsignUseLimitedPlayer;
+    private static String liftsignUseLimitedChunk;
     private static String liftsignFileErrorSave;
     private static String liftsignFileErrorDelete;
     
@@ -389,6 +395,8 @@ public final class ConfigMessage {
         ConfigMessage.liftsignUseDisconnectedPrivate = messages.getString(ConfigMessage.KEY_LIFTSIGN_USE_DISCONNECTED_PRIVATE, ConfigMessage.DEFAULT_LIFTSIGN_USE_DISCONNECTED_PRIVATE);
         ConfigMessage.liftsignUseBlockedPublic = messages.getString(ConfigMessage.KEY_LIFTSIGN_USE_BLOCKED_PUBLIC, ConfigMessage.DEFAULT_LIFTSIGN_USE_BLOCKED_PUBLIC);
         ConfigMessage.liftsignUseBlockedPrivate = messages.getString(ConfigMessage.KEY_LIFTSIGN_USE_BLOCKED_PRIVATE, ConfigMessage.DEFAULT_LIFTSIGN_USE_BLOCKED_PRIVATE);
+        ConfigMessage.liftsignUseLimitedPlayer = messages.getString(ConfigMessage.KEY_LIFTSIGN_USE_LIMITED_PLAYER, ConfigMessage.DEFAULT_LIFTSIGN_USE_LIMITED_PLAYER);
+        ConfigMessage.liftsignUseLimitedChunk = messages.getString(ConfigMessage.KEY_LIFTSIGN_USE_LIMITED_CHUNK, ConfigMessage.DEFAULT_LIFTSIGN_USE_LIMITED_CHUNK);
         ConfigMessage.liftsignFileErrorSave = messages.getString(ConfigMessage.KEY_LIFTSIGN_FILE_ERROR_SAVE, ConfigMessage.DEFAULT_LIFTSIGN_FILE_ERROR_SAVE);
         ConfigMessage.liftsignFileErrorDelete = messages.getString(ConfigMessage.KEY_LIFTSIGN_FILE_ERROR_DELETE, ConfigMessage.DEFAULT_LIFTSIGN_FILE_ERROR_DELETE);
     }
@@ -446,6 +454,8 @@ public final class ConfigMessage {
         ConfigMessage.liftsignUseDisconnectedPrivate = ConfigMessage.DEFAULT_LIFTSIGN_USE_DISCONNECTED_PRIVATE;
         ConfigMessage.liftsignUseBlockedPublic = ConfigMessage.DEFAULT_LIFTSIGN_USE_BLOCKED_PUBLIC;
         ConfigMessage.liftsignUseBlockedPrivate = ConfigMessage.DEFAULT_LIFTSIGN_USE_BLOCKED_PRIVATE;
+        ConfigMessage.liftsignUseLimitedPlayer = ConfigMessage.DEFAULT_LIFTSIGN_USE_LIMITED_PLAYER;
+        ConfigMessage.liftsignUseLimitedChunk = ConfigMessage.DEFAULT_LIFTSIGN_USE_LIMITED_CHUNK;
         ConfigMessage.liftsignFileErrorSave = ConfigMessage.DEFAULT_LIFTSIGN_FILE_ERROR_SAVE;
         ConfigMessage.liftsignFileErrorDelete = ConfigMessage.DEFAULT_LIFTSIGN_FILE_ERROR_DELETE;
     }
@@ -695,6 +705,16 @@ public final class ConfigMessage {
         return ConfigMessage.liftsignUseBlockedPrivate;
     }
     
+    @NotNull
+    public static String getLiftsignUseLimitedPlayer() {
+        return ConfigMessage.liftsignUseLimitedPlayer;
+    }
+    
+    @NotNull
+    public static String getLiftsignUseLimitedChunk() {
+        return ConfigMessage.liftsignUseLimitedChunk;
+    }
+    
     @NotNull
     public static String getLiftsignFileErrorSave() {
         return ConfigMessage.liftsignFileErrorSave;
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import java.util.Arrays;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
+
+/**
+ * Represents a scanner that finds all {@link LiftSign}s in a single (X,Z)
+ * column of a {@link World}.
+ * <p>
+ * The column is read from a single {@link ChunkSnapshot} between the minimum
+ * and maximum heights of the {@link World}, skipping any empty 16-block chunk
+ * sections entirely, and a {@link BlockState} is only created for
+ * {@link org.bukkit.block.Block}s whose {@link Material} is a sign. The
+ * results are stored in buffers that are reused between scans.
+ * <p>
+ * This is not thread-safe, and must only be used from the main server
+ * thread.
+ */
+final class ColumnScanner {
+    
+    private int[] levels;
+    private byte[] types;
+    private int size;
+    
+    /**
+     * Constructs a new {@link ColumnScanner}.
+     */
+    ColumnScanner() {
+        this.levels = new int[8];
+        this.types = new byte[8];
+        this.size = 0;
+    }
+    
+    /**
+     * Scans the given (X,Z) column of the given {@link World} for
+     * {@link LiftSign}s. The results are in ascending Y order, and are valid
+     * until the next scan.
+     *
+     * @param world The {@link World} to scan.
+     * @param x The X coordinate of the column.
+     * @param z The Z coordinate of the column.
+     * @return The number of {@link LiftSign}s found.
+     * @see ColumnScanner#getLevel(int)
+     * @see ColumnScanner#getType(int)
+     */
+    int scan(@NotNull final World world, final int x, final int z) {
+        
+        this.size = 0;
+        
+        final ChunkSnapshot snapshot = world.getChunkAt(x >> 4, z >> 4).getChunkSnapshot(false, false, false);
+        final int localX = x & 15;
+        final int localZ = z & 15;
+        final int minHeight = LiftSign.getMinHeight(world);
+        final int maxHeight = world.getMaxHeight();
+        
+        // Chunk sections are indexed from the bottom of the World, which may
+        // be below Y=0.
+        for (int sectionY = minHeight; sectionY < maxHeight; sectionY += 16) {
+            
+            if (snapshot.isSectionEmpty((sectionY - minHeight) >> 4)) {
+                continue;
+            }
+            
+            final int sectionTop = Math.min(sectionY + 16, maxHeight);
+            for (int checkY = sectionY; checkY < sectionTop; checkY++) {
+                
+                if (!LiftSign.isSign(snapshot.getBlockType(localX, checkY, localZ))) {
+                    continue;
+                }
+                
+                final LiftSign.Classification classification = LiftSign.classify(world.getBlockAt(x, checkY, z).getState());
+                if (classification != null) {
+                    this.add(checkY, classification.isPrivate() ? LiftSignIndex.TYPE_PRIVATE : LiftSignIndex.TYPE_PUBLIC);
+                }
+            }
+        }
+        
+        return this.size;
+    }
+    
+    /**
+     * Gets the Y level of the {@link LiftSign} at the given index of the
+     * last scan.
+     *
+     * @param index The index of the result.
+     * @return The Y level of the {@link LiftSign}.
+     */
+    int getLevel(final int index) {
+        return this.levels[index];
+    }
+    
+    /**
+     * Gets the type of the {@link LiftSign} at the given index of the last
+     * scan.
+     *
+     * @param index The index of the result.
+     * @return {@link LiftSignIndex#TYPE_PUBLIC} or
+     *         {@link LiftSignIndex#TYPE_PRIVATE}.
+     */
+    byte getType(final int index) {
+        return this.types[index];
+    }
+    
+    /**
+     * Adds a result to the buffers, growing them if needed.
+     *
+     * @param y The Y level of the {@link LiftSign}.
+     * @param type The type of the {@link LiftSign}.
+     */
+    private void add(final int y, final byte type) {
+        if (this.size == this.levels.length) {
+            this.levels = Arrays.copyOf(this.levels, this.size * 2);
+            this.types = Arrays.copyOf(this.types, this.size * 2);
+        }
+        this.levels[this.size] = y;
+        this.types[this.size] = type;
+        this.size++;
+    }
+}
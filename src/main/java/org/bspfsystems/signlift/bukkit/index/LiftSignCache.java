@@ -0,0 +1,163 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import java.util.HashMap;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
+import org.bspfsystems.signlift.bukkit.liftsign.PublicLiftSign;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents a cache of parsed {@link PublicLiftSign}s, keyed by the packed
+ * {@link BlockPosition} of each {@link PublicLiftSign} in each {@link World}
+ * with a {@link LongObjectHashMap}.
+ * <p>
+ * {@link PublicLiftSign}s are immutable, so a cached instance can be shared
+ * by every activation of (and every destination lookup to) the same
+ * {@link org.bukkit.block.Sign}. Entries must be invalidated whenever the
+ * {@link org.bukkit.block.Sign} may have changed or been destroyed.
+ * <p>
+ * This cache is not thread-safe, and must only be accessed from the main
+ * server thread.
+ */
+public final class LiftSignCache {
+    
+    private final HashMap<UUID, LongObjectHashMap<PublicLiftSign>> worlds;
+    
+    /**
+     * Constructs a new, empty {@link LiftSignCache}.
+     */
+    public LiftSignCache() {
+        this.worlds = new HashMap<UUID, LongObjectHashMap<PublicLiftSign>>();
+    }
+    
+    /**
+     * Gets the cached {@link PublicLiftSign} for the given {@link Block}, if
+     * one exists.
+     * <p>
+     * As a safety net against changes that were not reported, the entry is
+     * discarded if the {@link Block} is no longer a
+     * {@link org.bukkit.block.Sign}.
+     *
+     * @param block The {@link Block} to get the {@link PublicLiftSign} for.
+     * @return The cached {@link PublicLiftSign}, or {@code null} if none is
+     *         cached.
+     */
+    @Nullable
+    public PublicLiftSign get(@NotNull final Block block) {
+        
+        final LongObjectHashMap<PublicLiftSign> liftSigns = this.worlds.get(block.getWorld().getUID());
+        if (liftSigns == null) {
+            return null;
+        }
+        
+        final long position = BlockPosition.pack(block.getX(), block.getY(), block.getZ());
+        final PublicLiftSign liftSign = liftSigns.get(position);
+        if (liftSign != null && !LiftSign.isSign(block.getType())) {
+            liftSigns.remove(position);
+            return null;
+        }
+        return liftSign;
+    }
+    
+    /**
+     * Caches the given {@link PublicLiftSign}.
+     *
+     * @param liftSign The {@link PublicLiftSign} to cache.
+     */
+    public void put(@NotNull final PublicLiftSign liftSign) {
+        this.worlds.computeIfAbsent(liftSign.getWorld().getUID(), uid -> new LongObjectHashMap<PublicLiftSign>()).put(BlockPosition.pack(liftSign.getX(), liftSign.getY(), liftSign.getZ()), liftSign);
+    }
+    
+    /**
+     * Invalidates the cached {@link PublicLiftSign} at the given
+     * coordinates, if one exists.
+     *
+     * @param world The {@link World} of the {@link PublicLiftSign}.
+     * @param x The X coordinate of the {@link PublicLiftSign}.
+     * @param y The Y coordinate of the {@link PublicLiftSign}.
+     * @param z The Z coordinate of the {@link PublicLiftSign}.
+     */
+    public void invalidate(@NotNull final World world, final int x, final int y, final int z) {
+        final LongObjectHashMap<PublicLiftSign> liftSigns = this.worlds.get(world.getUID());
+        if (liftSigns != null) {
+            liftSigns.remove(BlockPosition.pack(x, y, z));
+        }
+    }
+    
+    /**
+     * Invalidates the cached {@link PublicLiftSign} at the given
+     * {@link Block}, if one exists.
+     *
+     * @param block The {@link Block} of the {@link PublicLiftSign}.
+     */
+    public void invalidate(@NotNull final Block block) {
+        this.invalidate(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    
+    /**
+     * Invalidates all cached {@link PublicLiftSign}s in the chunk at the given
+     * chunk coordinates.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     */
+    public void invalidateChunk(@NotNull final World world, final int chunkX, final int chunkZ) {
+        
+        final LongObjectHashMap<PublicLiftSign> liftSigns = this.worlds.get(world.getUID());
+        if (liftSigns == null || liftSigns.isEmpty()) {
+            return;
+        }
+        
+        for (final long position : liftSigns.keys()) {
+            if (BlockPosition.getX(position) >> 4 == chunkX && BlockPosition.getZ(position) >> 4 == chunkZ) {
+                liftSigns.remove(position);
+            }
+        }
+    }
+    
+    /**
+     * Invalidates all cached {@link PublicLiftSign}s in the given
+     * {@link World}.
+     *
+     * @param world The {@link World} to invalidate.
+     */
+    public void clear(@NotNull final World world) {
+        this.worlds.remove(world.getUID());
+    }
+    
+    /**
+     * Invalidates all cached {@link PublicLiftSign}s.
+     */
+    public void clear() {
+        this.worlds.clear();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
+import org.bspfsystems.signlift.bukkit.config.ConfigData;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftLineMatcher;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
+
+/**
+ * Represents the discovery of existing {@link LiftSign}s in chunks as they
+ * load, such as {@link LiftSign}s that were created before the
+ * {@link SignLiftPlugin} was installed, or that were pasted into the
+ * {@link World}.
+ * <p>
+ * The {@link Sign}s in a chunk are captured on the main server thread, their
+ * lift lines are classified asynchronously, and the results are merged back
+ * into the {@link LiftSignIndex} on the main server thread.
+ */
+public final class LiftSignDiscovery {
+    
+    private final SignLiftPlugin signLiftPlugin;
+    private final BukkitScheduler scheduler;
+    private final LiftSignIndex liftSignIndex;
+    
+    /**
+     * Constructs a new {@link LiftSignDiscovery}.
+     *
+     * @param signLiftPlugin The {@link SignLiftPlugin}.
+     * @param liftSignIndex The {@link LiftSignIndex} to add discovered
+     *                      {@link LiftSign}s to.
+     */
+    public LiftSignDiscovery(@NotNull final SignLiftPlugin signLiftPlugin, @NotNull final LiftSignIndex liftSignIndex) {
+        this.signLiftPlugin = signLiftPlugin;
+        this.scheduler = signLiftPlugin.getServer().getScheduler();
+        this.liftSignIndex = liftSignIndex;
+    }
+    
+    /**
+     * Discovers the {@link LiftSign}s in every chunk that is currently loaded
+     * in the given {@link World}. This is used when the {@link SignLiftPlugin}
+     * is enabled after the {@link World} has already loaded.
+     *
+     * @param world The {@link World} to discover.
+     */
+    public void discover(@NotNull final World world) {
+        for (final Chunk chunk : world.getLoadedChunks()) {
+            this.discover(chunk);
+        }
+    }
+    
+    /**
+     * Discovers the {@link LiftSign}s in the given {@link Chunk}.
+     * <p>
+     * This must be called from the main server thread. If the {@link Chunk}
+     * contains no {@link Sign}s, it is marked as discovered immediately.
+     *
+     * @param chunk The {@link Chunk} to discover.
+     */
+    public void discover(@NotNull final Chunk chunk) {
+        
+        final World world = chunk.getWorld();
+        final int chunkX = chunk.getX();
+        final int chunkZ = chunk.getZ();
+        final long stamp = this.liftSignIndex.startDiscovery(world, chunkX, chunkZ);
+        
+        final BlockState[] states = chunk.getTileEntities();
+        int count = 0;
+        for (final BlockState state : states) {
+            if (state instanceof Sign) {
+                count++;
+            }
+        }
+        
+        final int[] positions = new int[count];
+        final String[] liftLines = new String[count];
+        final byte[] types = new byte[count];
+        
+        if (count == 0) {
+            this.liftSignIndex.completeDiscovery(world, chunkX, chunkZ, stamp, positions, types);
+            return;
+        }
+        
+        int index = 0;
+        for (final BlockState state : states) {
+            if (state instanceof Sign) {
+                positions[index] = LiftSignIndex.getChunkPosition(state.getX(), state.getY(), state.getZ());
+                liftLines[index] = ((Sign) state).getLine(1);
+                index++;
+            }
+        }
+        
+        this.scheduler.runTaskAsynchronously(this.signLiftPlugin, () -> {
+            
+            final LiftLineMatcher liftLineMatcher = ConfigData.getLiftLineMatcher();
+            for (int signIndex = 0; signIndex < liftLines.length; signIndex++) {
+                final LiftLineMatcher.Match match = liftLineMatcher.match(liftLines[signIndex]);
+                if (match != null) {
+                    types[signIndex] = match.isPrivate() ? LiftSignIndex.TYPE_PRIVATE : LiftSignIndex.TYPE_PUBLIC;
+                }
+            }
+            
+            if (this.signLiftPlugin.isEnabled()) {
+                this.scheduler.runTask(this.signLiftPlugin, () -> this.complete(world, chunkX, chunkZ, stamp, positions, types));
+            }
+        });
+    }
+    
+    /**
+     * Merges the results of a discovery into the {@link LiftSignIndex}. If
+     * the chunk was modified while the discovery was in progress, the chunk
+     * will be discovered again.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @param stamp The modification stamp of the chunk when the discovery
+     *              started.
+     * @param positions The packed positions of the discovered {@link Sign}s.
+     * @param types The types of the discovered {@link Sign}s.
+     */
+    private void complete(@NotNull final World world, final int chunkX, final int chunkZ, final long stamp, @NotNull final int[] positions, @NotNull final byte[] types) {
+        
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            this.liftSignIndex.clear(world, chunkX, chunkZ);
+            return;
+        }
+        
+        if (!this.liftSignIndex.completeDiscovery(world, chunkX, chunkZ, stamp, positions, types)) {
+            this.discover(world.getChunkAt(chunkX, chunkZ));
+        }
+    }
+}
@@ -0,0 +1,678 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Sign;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
+import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
+import org.bspfsystems.signlift.bukkit.liftsign.PublicLiftSign;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+
+/**
+ * Represents an in-memory index of the {@link LiftSign}s in each vertical
+ * (X,Z) column of each {@link World}.
+ * <p>
+ * Each column holds a sorted array of the Y levels that contain a
+ * {@link LiftSign}, along with the type of each {@link LiftSign}, so that the
+ * next floor up or down can be found with a binary search instead of checking
+ * every {@link org.bukkit.block.Block} in the column.
+ * <p>
+ * A column is only considered authoritative once it is complete (every
+ * {@link LiftSign} in it is known), either because the column was scanned, or
+ * because its entire chunk was discovered when it loaded (see
+ * {@link LiftSignDiscovery}). Columns that only have individually-added
+ * entries (from {@link LiftSign} creation) must be scanned before they can be
+ * used to answer destination lookups.
+ * <p>
+ * Each chunk also counts its {@link LiftSign}s, and remembers whether it has
+ * any {@link Sign}s at all, so that {@link Block}s in discovered chunks
+ * without any {@link LiftSign}s can be skipped without looking at them.
+ * <p>
+ * This index is not thread-safe, and must only be accessed from the main
+ * server thread.
+ */
+public final class LiftSignIndex {
+    
+    /**
+     * Returned by {@link LiftSignIndex#getNextY(World, int, int, int, LiftSign.Direction)}
+     * when the column is complete, but there is no {@link LiftSign} in the
+     * requested direction.
+     */
+    public static final int NO_DESTINATION = Integer.MAX_VALUE;
+    
+    /**
+     * Returned by {@link LiftSignIndex#getNextY(World, int, int, int, LiftSign.Direction)}
+     * when the column has not been completely indexed, and must be scanned
+     * before the result can be trusted.
+     */
+    public static final int NOT_INDEXED = Integer.MIN_VALUE;
+    
+    /**
+     * Represents a {@link PublicLiftSign} in a column.
+     */
+    public static final byte TYPE_PUBLIC = 1;
+    
+    /**
+     * Represents a {@link PrivateLiftSign} in a column.
+     */
+    public static final byte TYPE_PRIVATE = 2;
+    
+    private final HashMap<UUID, HashMap<Long, LiftChunk>> worlds;
+    private long stamp;
+    private final ColumnScanner columnScanner;
+    
+    /**
+     * Constructs a new, empty {@link LiftSignIndex}.
+     */
+    public LiftSignIndex() {
+        this.worlds = new HashMap<UUID, HashMap<Long, LiftChunk>>();
+        this.stamp = 0L;
+        this.columnScanner = new ColumnScanner();
+    }
+    
+    /**
+     * Adds (or updates) a {@link LiftSign} at the given coordinates.
+     *
+     * @param world The {@link World} the {@link LiftSign} is in.
+     * @param x The X coordinate of the {@link LiftSign}.
+     * @param y The Y coordinate of the {@link LiftSign}.
+     * @param z The Z coordinate of the {@link LiftSign}.
+     * @param isPrivate {@code true} if the {@link LiftSign} is a
+     *                  {@link PrivateLiftSign}, {@code false} if it is a
+     *                  {@link PublicLiftSign}.
+     */
+    public void add(@NotNull final World world, final int x, final int y, final int z, final boolean isPrivate) {
+        final LiftChunk chunk = this.getOrCreateChunk(world, x >> 4, z >> 4);
+        chunk.add(x, y, z, isPrivate ? LiftSignIndex.TYPE_PRIVATE : LiftSignIndex.TYPE_PUBLIC);
+        chunk.stamp = ++this.stamp;
+    }
+    
+    /**
+     * Removes the {@link LiftSign} at the given coordinates from this index,
+     * if one is present.
+     *
+     * @param world The {@link World} the {@link LiftSign} was in.
+     * @param x The X coordinate of the {@link LiftSign}.
+     * @param y The Y coordinate of the {@link LiftSign}.
+     * @param z The Z coordinate of the {@link LiftSign}.
+     * @return {@code true} if an entry was removed, {@code false} otherwise.
+     */
+    public boolean remove(@NotNull final World world, final int x, final int y, final int z) {
+        
+        final LiftChunk chunk = this.getChunk(world, x >> 4, z >> 4);
+        if (chunk == null) {
+            return false;
+        }
+        
+        // Always mark the chunk as modified, as a discovery that is in
+        // progress may have captured the LiftSign before it was removed.
+        chunk.stamp = ++this.stamp;
+        final LiftColumn column = chunk.columns[LiftSignIndex.getColumnIndex(x, z)];
+        if (column == null || !column.remove(y)) {
+            return false;
+        }
+        chunk.liftSigns--;
+        return true;
+    }
+    
+    /**
+     * Gets the type of the {@link LiftSign} indexed at the given coordinates.
+     *
+     * @param world The {@link World} to check.
+     * @param x The X coordinate to check.
+     * @param y The Y coordinate to check.
+     * @param z The Z coordinate to check.
+     * @return {@link LiftSignIndex#TYPE_PUBLIC}, {@link LiftSignIndex#TYPE_PRIVATE},
+     *         or {@code 0} if there is no {@link LiftSign} indexed at the given
+     *         coordinates.
+     */
+    public byte getType(@NotNull final World world, final int x, final int y, final int z) {
+        final LiftColumn column = this.getColumn(world, x, z);
+        if (column == null) {
+            return 0;
+        }
+        final int index = Arrays.binarySearch(column.levels, 0, column.size, y);
+        return index < 0 ? 0 : column.types[index];
+    }
+    
+    /**
+     * Gets the Y level of the next {@link LiftSign} in the given
+     * {@link LiftSign.Direction} from the given coordinates.
+     *
+     * @param world The {@link World} to search in.
+     * @param x The X coordinate of the column.
+     * @param y The Y coordinate to start from (exclusive).
+     * @param z The Z coordinate of the column.
+     * @param direction The {@link LiftSign.Direction} to search in.
+     * @return The Y level of the next {@link LiftSign},
+     *         {@link LiftSignIndex#NO_DESTINATION} if the column is complete
+     *         and has no {@link LiftSign} in the given direction, or
+     *         {@link LiftSignIndex#NOT_INDEXED} if the column must be scanned
+     *         first.
+     */
+    public int getNextY(@NotNull final World world, final int x, final int y, final int z, @NotNull final LiftSign.Direction direction) {
+        
+        final LiftChunk chunk = this.getChunk(world, x >> 4, z >> 4);
+        if (chunk == null) {
+            return LiftSignIndex.NOT_INDEXED;
+        }
+        
+        final LiftColumn column = chunk.columns[LiftSignIndex.getColumnIndex(x, z)];
+        if (column == null) {
+            return chunk.discovered ? LiftSignIndex.NO_DESTINATION : LiftSignIndex.NOT_INDEXED;
+        }
+        if (!column.complete && !chunk.discovered) {
+            return LiftSignIndex.NOT_INDEXED;
+        }
+        
+        final int index = Arrays.binarySearch(column.levels, 0, column.size, y);
+        final int next;
+        if (direction == LiftSign.Direction.UP) {
+            next = index >= 0 ? index + 1 : -index - 1;
+        } else if (direction == LiftSign.Direction.DOWN) {
+            next = index >= 0 ? index - 1 : -index - 2;
+        } else {
+            return LiftSignIndex.NO_DESTINATION;
+        }
+        
+        return next >= 0 && next < column.size ? column.levels[next] : LiftSignIndex.NO_DESTINATION;
+    }
+    
+    /**
+     * Collects the positions of the indexed {@link LiftSign}s within the
+     * given distance of the given coordinates (in a box around them), as
+     * packed {@link BlockPosition}s. Only as many positions as fit in the
+     * given array are collected.
+     *
+     * @param world The {@link World} to search in.
+     * @param x The X coordinate of the center.
+     * @param y The Y coordinate of the center.
+     * @param z The Z coordinate of the center.
+     * @param radius The distance from the center to search, in blocks.
+     * @param positions The array to store the positions in.
+     * @return The number of positions collected.
+     */
+    public int getNearby(@NotNull final World world, final int x, final int y, final int z, final int radius, @NotNull final long[] positions) {
+        
+        final HashMap<Long, LiftChunk> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            return 0;
+        }
+        
+        int count = 0;
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                
+                final LiftChunk chunk = chunks.get(LiftSignIndex.getChunkKey(chunkX, chunkZ));
+                if (chunk == null || chunk.liftSigns == 0) {
+                    continue;
+                }
+                
+                final int minX = Math.max(x - radius, chunkX << 4);
+                final int maxX = Math.min(x + radius, (chunkX << 4) + 15);
+                final int minZ = Math.max(z - radius, chunkZ << 4);
+                final int maxZ = Math.min(z + radius, (chunkZ << 4) + 15);
+                for (int columnX = minX; columnX <= maxX; columnX++) {
+                    for (int columnZ = minZ; columnZ <= maxZ; columnZ++) {
+                        
+                        final LiftColumn column = chunk.columns[LiftSignIndex.getColumnIndex(columnX, columnZ)];
+                        if (column == null) {
+                            continue;
+                        }
+                        
+                        int index = Arrays.binarySearch(column.levels, 0, column.size, y - radius);
+                        index = index >= 0 ? index : -index - 1;
+                        for (; index < column.size && column.levels[index] <= y + radius; index++) {
+                            if (count == positions.length) {
+                                return count;
+                            }
+                            positions[count++] = BlockPosition.pack(columnX, column.levels[index], columnZ);
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Gets the modification stamp of the chunk at the given chunk
+     * coordinates. The stamp changes whenever a {@link LiftSign} in the chunk
+     * is added or removed, or the chunk is discovered again.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The modification stamp of the chunk, or {@code 0} if the chunk
+     *         has not been modified or discovered since it was last cleared.
+     */
+    public long getStamp(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final LiftChunk chunk = this.getChunk(world, chunkX, chunkZ);
+        return chunk == null ? 0L : chunk.stamp;
+    }
+    
+    /**
+     * Scans the entire (X,Z) column in the given {@link World} for
+     * {@link LiftSign}s (see {@link ColumnScanner}), replaces any existing entries for the column with the
+     * results, and marks the column as complete.
+     *
+     * @param world The {@link World} to scan.
+     * @param x The X coordinate of the column.
+     * @param z The Z coordinate of the column.
+     */
+    public void indexColumn(@NotNull final World world, final int x, final int z) {
+        
+        final LiftChunk chunk = this.getOrCreateChunk(world, x >> 4, z >> 4);
+        final LiftColumn column = chunk.getOrCreateColumn(x, z);
+        chunk.liftSigns -= column.size;
+        column.size = 0;
+        
+        final int count = this.columnScanner.scan(world, x, z);
+        for (int index = 0; index < count; index++) {
+            column.add(this.columnScanner.getLevel(index), this.columnScanner.getType(index));
+        }
+        
+        chunk.liftSigns += column.size;
+        chunk.signs |= column.size > 0;
+        column.complete = true;
+    }
+    
+    /**
+     * Checks to see if the chunk at the given chunk coordinates has been
+     * discovered.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return {@code true} if every {@link LiftSign} in the chunk is known,
+     *         {@code false} otherwise.
+     */
+    public boolean isDiscovered(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final LiftChunk chunk = this.getChunk(world, chunkX, chunkZ);
+        return chunk != null && chunk.discovered;
+    }
+    
+    /**
+     * Records that a {@link Sign} of any kind was placed at the given
+     * coordinates, so that its chunk is no longer known to contain no
+     * {@link Sign}s.
+     *
+     * @param world The {@link World} the {@link Sign} is in.
+     * @param x The X coordinate of the {@link Sign}.
+     * @param z The Z coordinate of the {@link Sign}.
+     */
+    public void addSign(@NotNull final World world, final int x, final int z) {
+        
+        final LiftChunk chunk = this.getChunk(world, x >> 4, z >> 4);
+        if (chunk == null) {
+            return;
+        }
+        
+        // A discovery that is in progress may not have captured the Sign.
+        chunk.signs = true;
+        chunk.stamp = ++this.stamp;
+    }
+    
+    /**
+     * Checks to see if the chunk at the given chunk coordinates is known to
+     * contain no {@link LiftSign}s.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return {@code true} if the chunk has been discovered and contains no
+     *         {@link LiftSign}s, {@code false} if it contains any
+     *         {@link LiftSign}s, or has not been discovered.
+     */
+    public boolean containsNoLiftSigns(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final LiftChunk chunk = this.getChunk(world, chunkX, chunkZ);
+        return chunk != null && chunk.discovered && chunk.liftSigns == 0;
+    }
+    
+    /**
+     * Checks to see if the chunk at the given chunk coordinates is known to
+     * contain no {@link Sign}s of any kind. Unlike
+     * {@link LiftSignIndex#containsNoLiftSigns(World, int, int)}, this also
+     * rules out chains of {@link Sign}s that lead to a {@link LiftSign} in
+     * another chunk.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return {@code true} if the chunk has been discovered and contained no
+     *         {@link Sign}s, and none have been placed since, {@code false}
+     *         otherwise.
+     */
+    public boolean containsNoSigns(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final LiftChunk chunk = this.getChunk(world, chunkX, chunkZ);
+        return chunk != null && chunk.discovered && !chunk.signs;
+    }
+    
+    /**
+     * Starts the discovery of the chunk at the given chunk coordinates,
+     * returning the current modification stamp of the chunk.
+     * <p>
+     * The returned stamp must be passed to
+     * {@link LiftSignIndex#completeDiscovery(World, int, int, long, int[], byte[])}
+     * so that results captured before a later modification are not merged.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The modification stamp of the chunk.
+     */
+    public long startDiscovery(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final LiftChunk chunk = this.getOrCreateChunk(world, chunkX, chunkZ);
+        if (chunk.stamp == 0L) {
+            chunk.stamp = ++this.stamp;
+        }
+        return chunk.stamp;
+    }
+    
+    /**
+     * Completes the discovery of the chunk at the given chunk coordinates,
+     * replacing all entries for the chunk with the given {@link LiftSign}s and
+     * marking every column in the chunk as complete.
+     * <p>
+     * The positions are packed chunk-relative positions, as created by
+     * {@link LiftSignIndex#getChunkPosition(int, int, int)}. Any position with
+     * a type of {@code 0} is ignored.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @param stamp The stamp returned by
+     *              {@link LiftSignIndex#startDiscovery(World, int, int)}.
+     * @param positions The packed positions of the discovered {@link Sign}s.
+     * @param types The types of the discovered {@link Sign}s.
+     * @return {@code true} if the results were merged (or the chunk is no
+     *         longer indexed), {@code false} if the chunk was modified since
+     *         the discovery started, and must be discovered again.
+     */
+    public boolean completeDiscovery(@NotNull final World world, final int chunkX, final int chunkZ, final long stamp, @NotNull final int[] positions, @NotNull final byte[] types) {
+        
+        final LiftChunk chunk = this.getChunk(world, chunkX, chunkZ);
+        if (chunk == null) {
+            return true;
+        }
+        if (chunk.stamp != stamp) {
+            return false;
+        }
+        
+        Arrays.fill(chunk.columns, null);
+        chunk.liftSigns = 0;
+        chunk.signs = positions.length > 0;
+        for (int index = 0; index < positions.length; index++) {
+            if (types[index] == 0) {
+                continue;
+            }
+            final int position = positions[index];
+            chunk.add(position >> 4, position >> 8, position, types[index]);
+        }
+        chunk.discovered = true;
+        return true;
+    }
+    
+    /**
+     * Removes all entries for the chunk at the given chunk coordinates from
+     * this index.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     */
+    public void clear(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final HashMap<Long, LiftChunk> chunks = this.worlds.get(world.getUID());
+        if (chunks != null) {
+            chunks.remove(LiftSignIndex.getChunkKey(chunkX, chunkZ));
+        }
+    }
+    
+    /**
+     * Removes all entries for the given {@link World} from this index.
+     *
+     * @param world The {@link World} to forget.
+     */
+    public void clear(@NotNull final World world) {
+        this.worlds.remove(world.getUID());
+    }
+    
+    /**
+     * Removes all entries from this index.
+     */
+    public void clear() {
+        this.worlds.clear();
+    }
+    
+    /**
+     * Gets the {@link LiftColumn} for the given (X,Z) coordinates, if one
+     * exists.
+     *
+     * @param world The {@link World} of the column.
+     * @param x The X coordinate of the column.
+     * @param z The Z coordinate of the column.
+     * @return The {@link LiftColumn}, or {@code null} if none exists.
+     */
+    @Nullable
+    private LiftColumn getColumn(@NotNull final World world, final int x, final int z) {
+        final LiftChunk chunk = this.getChunk(world, x >> 4, z >> 4);
+        return chunk == null ? null : chunk.columns[LiftSignIndex.getColumnIndex(x, z)];
+    }
+    
+    /**
+     * Gets the {@link LiftChunk} for the given chunk coordinates, if one
+     * exists.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The {@link LiftChunk}, or {@code null} if none exists.
+     */
+    @Nullable
+    private LiftChunk getChunk(@NotNull final World world, final int chunkX, final int chunkZ) {
+        final HashMap<Long, LiftChunk> chunks = this.worlds.get(world.getUID());
+        return chunks == null ? null : chunks.get(LiftSignIndex.getChunkKey(chunkX, chunkZ));
+    }
+    
+    /**
+     * Gets the {@link LiftChunk} for the given chunk coordinates, creating it
+     * (and any containing structures) if it does not yet exist.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The {@link LiftChunk}.
+     */
+    @NotNull
+    private LiftChunk getOrCreateChunk(@NotNull final World world, final int chunkX, final int chunkZ) {
+        return this.worlds.computeIfAbsent(world.getUID(), uid -> new HashMap<Long, LiftChunk>()).computeIfAbsent(LiftSignIndex.getChunkKey(chunkX, chunkZ), key -> new LiftChunk());
+    }
+    
+    /**
+     * Packs the given chunk coordinates into a single {@code long}.
+     *
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The packed chunk coordinates.
+     */
+    public static long getChunkKey(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Packs the given block coordinates into a single {@code int}, relative
+     * to the chunk containing them.
+     *
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @return The packed chunk-relative position.
+     */
+    public static int getChunkPosition(final int x, final int y, final int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+    
+    /**
+     * Gets the index of the given (X,Z) column within its chunk.
+     *
+     * @param x The X coordinate of the column.
+     * @param z The Z coordinate of the column.
+     * @return The index of the column within its chunk ({@code 0-255}).
+     */
+    private static int getColumnIndex(final int x, final int z) {
+        return ((x & 15) << 4) | (z & 15);
+    }
+    
+    /**
+     * Represents the indexed columns of a single chunk.
+     */
+    private static final class LiftChunk {
+        
+        private final LiftColumn[] columns;
+        private int liftSigns;
+        private boolean signs;
+        private boolean discovered;
+        private long stamp;
+        
+        private LiftChunk() {
+            this.columns = new LiftColumn[256];
+            this.liftSigns = 0;
+            this.signs = false;
+            this.discovered = false;
+            this.stamp = 0L;
+        }
+        
+        /**
+         * Adds (or updates) the {@link LiftSign} at the given coordinates,
+         * counting it if it is new.
+         *
+         * @param x The X coordinate of the {@link LiftSign}.
+         * @param y The Y coordinate of the {@link LiftSign}.
+         * @param z The Z coordinate of the {@link LiftSign}.
+         * @param type The type of the {@link LiftSign}.
+         */
+        private void add(final int x, final int y, final int z, final byte type) {
+            if (this.getOrCreateColumn(x, z).add(y, type)) {
+                this.liftSigns++;
+            }
+            this.signs = true;
+        }
+        
+        /**
+         * Gets the {@link LiftColumn} for the given (X,Z) coordinates,
+         * creating it if it does not yet exist.
+         *
+         * @param x The X coordinate of the column.
+         * @param z The Z coordinate of the column.
+         * @return The {@link LiftColumn}.
+         */
+        @NotNull
+        private LiftColumn getOrCreateColumn(final int x, final int z) {
+            
+            final int columnIndex = LiftSignIndex.getColumnIndex(x, z);
+            LiftColumn column = this.columns[columnIndex];
+            if (column == null) {
+                column = new LiftColumn();
+                this.columns[columnIndex] = column;
+            }
+            return column;
+        }
+    }
+    
+    /**
+     * Represents a single indexed (X,Z) column, holding the sorted Y levels
+     * of its {@link LiftSign}s and their types in parallel primitive arrays.
+     */
+    private static final class LiftColumn {
+        
+        private int[] levels;
+        private byte[] types;
+        private int size;
+        private boolean complete;
+        
+        private LiftColumn() {
+            this.levels = new int[4];
+            this.types = new byte[4];
+            this.size = 0;
+            this.complete = false;
+        }
+        
+        /**
+         * Adds (or updates) the given Y level, keeping the levels sorted.
+         *
+         * @param y The Y level to add.
+         * @param type The type of the {@link LiftSign} at the Y level.
+         * @return {@code true} if the Y level was added, {@code false} if it
+         *         was updated.
+         */
+        private boolean add(final int y, final byte type) {
+            
+            int index = Arrays.binarySearch(this.levels, 0, this.size, y);
+            if (index >= 0) {
+                this.types[index] = type;
+                return false;
+            }
+            
+            index = -index - 1;
+            if (this.size == this.levels.length) {
+                this.levels = Arrays.copyOf(this.levels, this.size * 2);
+                this.types = Arrays.copyOf(this.types, this.size * 2);
+            }
+            
+            System.arraycopy(this.levels, index, this.levels, index + 1, this.size - index);
+            System.arraycopy(this.types, index, this.types, index + 1, this.size - index);
+            this.levels[index] = y;
+            this.types[index] = type;
+            this.size++;
+            return true;
+        }
+        
+        /**
+         * Removes the given Y level, if present.
+         *
+         * @param y The Y level to remove.
+         * @return {@code true} if the Y level was removed, {@code false}
+         *         otherwise.
+         */
+        private boolean remove(final int y) {
+            
+            final int index = Arrays.binarySearch(this.levels, 0, this.size, y);
+            if (index < 0) {
+                return false;
+            }
+            
+            System.arraycopy(this.levels, index + 1, this.levels, index, this.size - index - 1);
+            System.arraycopy(this.types, index + 1, this.types, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
+import org.bspfsystems.signlift.bukkit.storage.PrivateLiftSignData;
+import org.bspfsystems.signlift.bukkit.storage.SignLiftWriteQueue;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents a cache of {@link PrivateLiftSignData} for the regions (32 by 32
+ * chunks) that currently have loaded chunks.
+ * <p>
+ * The number of loaded chunks in each region is tracked as chunks load and
+ * unload. The {@link PrivateLiftSignData} of a region is only read through the
+ * {@link SignLiftWriteQueue} the first time it is needed, and is evicted once
+ * the last loaded chunk in the region unloads, so only active regions are
+ * ever held in memory. The region is then released in the
+ * {@link SignLiftWriteQueue} as well, so that the storage can drop it too.
+ * <p>
+ * This cache is not thread-safe, and must only be accessed from the main
+ * server thread.
+ */
+public final class PrivateLiftSignRegionCache {
+    
+    /**
+     * Represents a single region with at least one loaded chunk.
+     */
+    private static final class Region {
+        
+        private int loadedChunks;
+        private LongObjectHashMap<PrivateLiftSignData> records;
+        
+        /**
+         * Constructs a new {@link PrivateLiftSignRegionCache.Region}, whose
+         * {@link PrivateLiftSignData} has not been read yet.
+         */
+        private Region() {
+            this.loadedChunks = 0;
+            this.records = null;
+        }
+    }
+    
+    private final SignLiftWriteQueue writeQueue;
+    private final Logger logger;
+    private final HashMap<UUID, LongObjectHashMap<Region>> worlds;
+    
+    /**
+     * Constructs a new, empty {@link PrivateLiftSignRegionCache}.
+     *
+     * @param writeQueue The {@link SignLiftWriteQueue} to read regions
+     *                   through.
+     * @param logger The {@link Logger} to report read errors to.
+     */
+    public PrivateLiftSignRegionCache(@NotNull final SignLiftWriteQueue writeQueue, @NotNull final Logger logger) {
+        this.writeQueue = writeQueue;
+        this.logger = logger;
+        this.worlds = new HashMap<UUID, LongObjectHashMap<Region>>();
+    }
+    
+    /**
+     * Records that the chunk at the given chunk coordinates has loaded.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     */
+    public void chunkLoaded(@NotNull final World world, final int chunkX, final int chunkZ) {
+        
+        final LongObjectHashMap<Region> regions = this.worlds.computeIfAbsent(world.getUID(), uid -> new LongObjectHashMap<Region>());
+        final long regionKey = PrivateLiftSignRegionCache.getRegionKey(chunkX >> 5, chunkZ >> 5);
+        Region region = regions.get(regionKey);
+        if (region == null) {
+            region = new Region();
+            regions.put(regionKey, region);
+        }
+        region.loadedChunks++;
+    }
+    
+    /**
+     * Records that the chunk at the given chunk coordinates has unloaded,
+     * evicting its region if it was the last loaded chunk in it.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     */
+    public void chunkUnloaded(@NotNull final World world, final int chunkX, final int chunkZ) {
+        
+        final LongObjectHashMap<Region> regions = this.worlds.get(world.getUID());
+        if (regions == null) {
+            return;
+        }
+        
+        final long regionKey = PrivateLiftSignRegionCache.getRegionKey(chunkX >> 5, chunkZ >> 5);
+        final Region region = regions.get(regionKey);
+        if (region != null && --region.loadedChunks <= 0) {
+            regions.remove(regionKey);
+            if (regions.isEmpty()) {
+                this.worlds.remove(world.getUID());
+            }
+            this.writeQueue.releasePrivateLiftSignRegion(world.getName(), chunkX >> 5, chunkZ >> 5);
+        }
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSignData} at the given coordinates, reading
+     * its region through the {@link SignLiftWriteQueue} if needed.
+     * <p>
+     * If the region has no loaded chunks, it is read but not cached, and is
+     * released again right away.
+     *
+     * @param world The {@link World} of the {@link PrivateLiftSign}.
+     * @param x The X coordinate of the {@link PrivateLiftSign}.
+     * @param y The Y coordinate of the {@link PrivateLiftSign}.
+     * @param z The Z coordinate of the {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSignData}, or {@code null} if none exists
+     *         or the region could not be read.
+     */
+    @Nullable
+    public PrivateLiftSignData get(@NotNull final World world, final int x, final int y, final int z) {
+        
+        final LongObjectHashMap<Region> regions = this.worlds.get(world.getUID());
+        final Region region = regions == null ? null : regions.get(PrivateLiftSignRegionCache.getRegionKey(x >> 9, z >> 9));
+        if (region != null && region.records != null) {
+            return region.records.get(BlockPosition.pack(x, y, z));
+        }
+        
+        final LongObjectHashMap<PrivateLiftSignData> records = this.read(world, x >> 9, z >> 9);
+        if (records == null) {
+            return null;
+        }
+        if (region != null) {
+            region.records = records;
+        } else {
+            this.writeQueue.releasePrivateLiftSignRegion(world.getName(), x >> 9, z >> 9);
+        }
+        return records.get(BlockPosition.pack(x, y, z));
+    }
+    
+    /**
+     * Updates the cached {@link PrivateLiftSignData} after it has been
+     * stored, if its region has been read.
+     *
+     * @param world The {@link World} of the {@link PrivateLiftSign}.
+     * @param data The stored {@link PrivateLiftSignData}.
+     */
+    public void put(@NotNull final World world, @NotNull final PrivateLiftSignData data) {
+        final LongObjectHashMap<PrivateLiftSignData> records = this.getRecords(world, data.getX(), data.getZ());
+        if (records != null) {
+            records.put(data.getPosition(), data);
+        }
+    }
+    
+    /**
+     * Removes the cached {@link PrivateLiftSignData} at the given
+     * coordinates after it has been deleted, if its region has been read.
+     *
+     * @param world The {@link World} of the {@link PrivateLiftSign}.
+     * @param x The X coordinate of the {@link PrivateLiftSign}.
+     * @param y The Y coordinate of the {@link PrivateLiftSign}.
+     * @param z The Z coordinate of the {@link PrivateLiftSign}.
+     */
+    public void remove(@NotNull final World world, final int x, final int y, final int z) {
+        final LongObjectHashMap<PrivateLiftSignData> records = this.getRecords(world, x, z);
+        if (records != null) {
+            records.remove(BlockPosition.pack(x, y, z));
+        }
+    }
+    
+    /**
+     * Evicts and releases all regions in the given {@link World}. This is
+     * used when the {@link World} unloads.
+     *
+     * @param world The {@link World} to evict.
+     */
+    public void unload(@NotNull final World world) {
+        
+        final LongObjectHashMap<Region> regions = this.worlds.remove(world.getUID());
+        if (regions == null) {
+            return;
+        }
+        for (final long regionKey : regions.keys()) {
+            this.writeQueue.releasePrivateLiftSignRegion(world.getName(), (int) (regionKey >> 32), (int) regionKey);
+        }
+    }
+    
+    /**
+     * Discards the {@link PrivateLiftSignData} of all regions, so that each
+     * region is read again the next time it is needed. The loaded chunks are
+     * still tracked.
+     */
+    public void invalidate() {
+        for (final LongObjectHashMap<Region> regions : this.worlds.values()) {
+            for (final Region region : regions.values()) {
+                region.records = null;
+            }
+        }
+    }
+    
+    /**
+     * Evicts all regions.
+     */
+    public void clear() {
+        this.worlds.clear();
+    }
+    
+    /**
+     * Gets the cached {@link PrivateLiftSignData} of the region containing
+     * the given coordinates, if it has been read.
+     *
+     * @param world The {@link World} of the region.
+     * @param x An X coordinate in the region.
+     * @param z A Z coordinate in the region.
+     * @return The cached {@link PrivateLiftSignData}, or {@code null} if the
+     *         region has not been read.
+     */
+    @Nullable
+    private LongObjectHashMap<PrivateLiftSignData> getRecords(@NotNull final World world, final int x, final int z) {
+        final LongObjectHashMap<Region> regions = this.worlds.get(world.getUID());
+        final Region region = regions == null ? null : regions.get(PrivateLiftSignRegionCache.getRegionKey(x >> 9, z >> 9));
+        return region == null ? null : region.records;
+    }
+    
+    /**
+     * Reads the {@link PrivateLiftSignData} in the given region through the
+     * {@link SignLiftWriteQueue}, including changes that have not been
+     * written yet.
+     *
+     * @param world The {@link World} of the region.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link PrivateLiftSignData}, keyed by packed
+     *         {@link BlockPosition}, or {@code null} if the region could not
+     *         be read.
+     */
+    @Nullable
+    private LongObjectHashMap<PrivateLiftSignData> read(@NotNull final World world, final int regionX, final int regionZ) {
+        
+        final LongObjectHashMap<PrivateLiftSignData> records = new LongObjectHashMap<PrivateLiftSignData>();
+        try {
+            for (final PrivateLiftSignData data : this.writeQueue.getPrivateLiftSignsInRegion(world.getName(), regionX, regionZ)) {
+                records.put(data.getPosition(), data);
+            }
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to load PrivateLiftSigns from storage.");
+            this.logger.log(Level.WARNING, "World: " + world.getName());
+            this.logger.log(Level.WARNING, "Region X: " + regionX);
+            this.logger.log(Level.WARNING, "Region Z: " + regionZ);
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
+        return records;
+    }
+    
+    /**
+     * Packs the given region coordinates into a single {@code long} key.
+     *
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The packed region coordinates.
+     */
+    private static long getRegionKey(final int regionX, final int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.index;
+
+import java.util.HashMap;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents the registry of {@link PrivateLiftSign}s that have been created
+ * from their stored data in the currently-loaded chunks.
+ * <p>
+ * Each {@link World} has its own {@link LongObjectHashMap}, keyed by the
+ * packed {@link BlockPosition} of each {@link PrivateLiftSign}, so lookups do
+ * not need to allocate a {@link org.bukkit.Location}. When a chunk or
+ * {@link World} unloads, its {@link PrivateLiftSign}s are dropped so that the
+ * {@link World} is not kept reachable, and they are created again from the
+ * {@link PrivateLiftSignRegionCache} the next time they are needed.
+ * <p>
+ * This registry is not thread-safe, and must only be accessed from the main
+ * server thread.
+ */
+public final class PrivateLiftSignRegistry {
+    
+    private final HashMap<UUID, LongObjectHashMap<PrivateLiftSign>> worlds;
+    
+    /**
+     * Constructs a new, empty {@link PrivateLiftSignRegistry}.
+     */
+    public PrivateLiftSignRegistry() {
+        this.worlds = new HashMap<UUID, LongObjectHashMap<PrivateLiftSign>>();
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSign} at the given coordinates, if one
+     * exists.
+     *
+     * @param world The {@link World} of the {@link PrivateLiftSign}.
+     * @param x The X coordinate of the {@link PrivateLiftSign}.
+     * @param y The Y coordinate of the {@link PrivateLiftSign}.
+     * @param z The Z coordinate of the {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSign}, or {@code null} if none exists.
+     */
+    @Nullable
+    public PrivateLiftSign get(@NotNull final World world, final int x, final int y, final int z) {
+        final LongObjectHashMap<PrivateLiftSign> privateLiftSigns = this.worlds.get(world.getUID());
+        return privateLiftSigns == null ? null : privateLiftSigns.get(BlockPosition.pack(x, y, z));
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSign} at the given {@link Block}, if one
+     * exists.
+     *
+     * @param block The {@link Block} of the {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSign}, or {@code null} if none exists.
+     */
+    @Nullable
+    public PrivateLiftSign get(@NotNull final Block block) {
+        return this.get(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    
+    /**
+     * Adds the given {@link PrivateLiftSign}, replacing any
+     * {@link PrivateLiftSign} already at the same position.
+     *
+     * @param privateLiftSign The {@link PrivateLiftSign} to add.
+     */
+    public void put(@NotNull final PrivateLiftSign privateLiftSign) {
+        this.worlds.computeIfAbsent(privateLiftSign.getWorld().getUID(), uid -> new LongObjectHashMap<PrivateLiftSign>()).put(BlockPosition.pack(privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ()), privateLiftSign);
+    }
+    
+    /**
+     * Removes the given {@link PrivateLiftSign}, if it is known.
+     *
+     * @param privateLiftSign The {@link PrivateLiftSign} to remove.
+     */
+    public void remove(@NotNull final PrivateLiftSign privateLiftSign) {
+        
+        final LongObjectHashMap<PrivateLiftSign> privateLiftSigns = this.worlds.get(privateLiftSign.getWorld().getUID());
+        if (privateLiftSigns == null) {
+            return;
+        }
+        
+        privateLiftSigns.remove(BlockPosition.pack(privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ()));
+        if (privateLiftSigns.isEmpty()) {
+            this.worlds.remove(privateLiftSign.getWorld().getUID());
+        }
+    }
+    
+    /**
+     * Drops all {@link PrivateLiftSign}s in the chunk at the given chunk
+     * coordinates. This is used when the chunk unloads.
+     *
+     * @param world The {@link World} of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     */
+    public void unloadChunk(@NotNull final World world, final int chunkX, final int chunkZ) {
+        
+        final LongObjectHashMap<PrivateLiftSign> privateLiftSigns = this.worlds.get(world.getUID());
+        if (privateLiftSigns == null) {
+            return;
+        }
+        
+        for (final long position : privateLiftSigns.keys()) {
+            if (BlockPosition.getX(position) >> 4 == chunkX && BlockPosition.getZ(position) >> 4 == chunkZ) {
+                privateLiftSigns.remove(position);
+            }
+        }
+        if (privateLiftSigns.isEmpty()) {
+            this.worlds.remove(world.getUID());
+        }
+    }
+    
+    /**
+     * Drops all {@link PrivateLiftSign}s in the given {@link World}. This is
+     * used when the {@link World} unloads.
+     *
+     * @param world The {@link World} to drop.
+     */
+    public void unload(@NotNull final World world) {
+        this.worlds.remove(world.getUID());
+    }
+    
+    /**
+     * Gets the number of known {@link PrivateLiftSign}s in the given
+     * {@link World}.
+     *
+     * @param world The {@link World} to count.
+     * @return The number of known {@link PrivateLiftSign}s.
+     */
+    public int size(@NotNull final World world) {
+        final LongObjectHashMap<PrivateLiftSign> privateLiftSigns = this.worlds.get(world.getUID());
+        return privateLiftSigns == null ? 0 : privateLiftSigns.size();
+    }
+    
+    /**
+     * Drops all known {@link PrivateLiftSign}s.
+     */
+    public void clear() {
+        this.worlds.clear();
+    }
+}
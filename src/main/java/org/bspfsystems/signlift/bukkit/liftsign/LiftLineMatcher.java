@@ -0,0 +1,194 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.liftsign;
+
+import org.bukkit.block.Sign;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.config.ConfigData;
+
+/**
+ * Represents an immutable matcher for lift lines (the second line of a
+ * {@link Sign}), compiled from the bracket and direction settings in the
+ * {@link ConfigData}.
+ * <p>
+ * A lift line is classified in a single pass, without creating any
+ * substrings, into one of the shared {@link LiftLineMatcher.Match}es, or
+ * {@code null} if the line does not represent a {@link LiftSign}.
+ * <p>
+ * Instances are safe to use from any thread.
+ */
+public final class LiftLineMatcher {
+    
+    /**
+     * Represents the result of successfully matching a lift line. There is
+     * exactly one instance for each combination of {@link LiftSign} type and
+     * {@link LiftSign.Direction}, so results may be compared by identity.
+     */
+    public static final class Match {
+        
+        private static final Match[] PUBLIC = { new Match(false, LiftSign.Direction.UP), new Match(false, LiftSign.Direction.DOWN), new Match(false, LiftSign.Direction.NONE) };
+        private static final Match[] PRIVATE = { new Match(true, LiftSign.Direction.UP), new Match(true, LiftSign.Direction.DOWN), new Match(true, LiftSign.Direction.NONE) };
+        
+        private final boolean isPrivate;
+        private final LiftSign.Direction direction;
+        
+        /**
+         * Constructs a new {@link LiftLineMatcher.Match}.
+         *
+         * @param isPrivate {@code true} if the lift line represents a
+         *                  {@link PrivateLiftSign}, {@code false} if it
+         *                  represents a {@link PublicLiftSign}.
+         * @param direction The {@link LiftSign.Direction} of the lift line.
+         */
+        private Match(final boolean isPrivate, @NotNull final LiftSign.Direction direction) {
+            this.isPrivate = isPrivate;
+            this.direction = direction;
+        }
+        
+        /**
+         * Gets whether the lift line represents a {@link PrivateLiftSign}.
+         *
+         * @return {@code true} if the lift line represents a
+         *         {@link PrivateLiftSign}, {@code false} if it represents a
+         *         {@link PublicLiftSign}.
+         */
+        public boolean isPrivate() {
+            return this.isPrivate;
+        }
+        
+        /**
+         * Gets the {@link LiftSign.Direction} of the lift line.
+         *
+         * @return The {@link LiftSign.Direction} of the lift line.
+         */
+        @NotNull
+        public LiftSign.Direction getDirection() {
+            return this.direction;
+        }
+    }
+    
+    private final String publicStart;
+    private final String publicEnd;
+    private final String privateStart;
+    private final String privateEnd;
+    private final String directionUp;
+    private final String directionDown;
+    private final String directionNone;
+    
+    /**
+     * Constructs a new {@link LiftLineMatcher} from the given bracket and
+     * direction settings.
+     *
+     * @param publicStart The opening bracket of a {@link PublicLiftSign}.
+     * @param publicEnd The closing bracket of a {@link PublicLiftSign}.
+     * @param privateStart The opening bracket of a {@link PrivateLiftSign}.
+     * @param privateEnd The closing bracket of a {@link PrivateLiftSign}.
+     * @param directionUp The text for {@link LiftSign.Direction#UP}.
+     * @param directionDown The text for {@link LiftSign.Direction#DOWN}.
+     * @param directionNone The text for {@link LiftSign.Direction#NONE}.
+     */
+    public LiftLineMatcher(@NotNull final String publicStart, @NotNull final String publicEnd, @NotNull final String privateStart, @NotNull final String privateEnd, @NotNull final String directionUp, @NotNull final String directionDown, @NotNull final String directionNone) {
+        this.publicStart = publicStart;
+        this.publicEnd = publicEnd;
+        this.privateStart = privateStart;
+        this.privateEnd = privateEnd;
+        this.directionUp = directionUp;
+        this.directionDown = directionDown;
+        this.directionNone = directionNone;
+    }
+    
+    /**
+     * Matches the given lift line.
+     * <p>
+     * {@link PublicLiftSign} brackets take precedence over
+     * {@link PrivateLiftSign} brackets. If the line has {@link PublicLiftSign}
+     * brackets but no valid {@link LiftSign.Direction}, it is not a lift line.
+     *
+     * @param liftLine The lift line to match.
+     * @return The {@link LiftLineMatcher.Match} for the lift line, or
+     *         {@code null} if the lift line does not represent a
+     *         {@link LiftSign}.
+     */
+    @Nullable
+    public Match match(@NotNull final String liftLine) {
+        
+        if (liftLine.length() < 3) {
+            return null;
+        }
+        
+        final Match[] matches;
+        final int start;
+        final int end;
+        if (LiftLineMatcher.hasBrackets(liftLine, this.publicStart, this.publicEnd)) {
+            matches = Match.PUBLIC;
+            start = this.publicStart.length();
+            end = liftLine.length() - this.publicEnd.length();
+        } else if (LiftLineMatcher.hasBrackets(liftLine, this.privateStart, this.privateEnd)) {
+            matches = Match.PRIVATE;
+            start = this.privateStart.length();
+            end = liftLine.length() - this.privateEnd.length();
+        } else {
+            return null;
+        }
+        
+        if (LiftLineMatcher.regionEquals(liftLine, start, end, this.directionUp)) {
+            return matches[0];
+        } else if (LiftLineMatcher.regionEquals(liftLine, start, end, this.directionDown)) {
+            return matches[1];
+        } else if (LiftLineMatcher.regionEquals(liftLine, start, end, this.directionNone)) {
+            return matches[2];
+        }
+        return null;
+    }
+    
+    /**
+     * Checks to see if the given lift line starts and ends with the given
+     * brackets, without the brackets overlapping.
+     *
+     * @param liftLine The lift line to check.
+     * @param start The opening bracket.
+     * @param end The closing bracket.
+     * @return {@code true} if the lift line has the given brackets,
+     *         {@code false} otherwise.
+     */
+    private static boolean hasBrackets(@NotNull final String liftLine, @NotNull final String start, @NotNull final String end) {
+        return liftLine.length() >= start.length() + end.length() && liftLine.startsWith(start) && liftLine.endsWith(end);
+    }
+    
+    /**
+     * Checks to see if the region of the given lift line between the given
+     * indexes is equal to the given direction, ignoring case.
+     *
+     * @param liftLine The lift line to check.
+     * @param start The start index of the region (inclusive).
+     * @param end The end index of the region (exclusive).
+     * @param direction The direction text to compare against.
+     * @return {@code true} if the region equals the direction text,
+     *         {@code false} otherwise.
+     */
+    private static boolean regionEquals(@NotNull final String liftLine, final int start, final int end, @NotNull final String direction) {
+        return end - start == direction.length() && liftLine.regionMatches(true, start, direction, 0, direction.length());
+    }
+}
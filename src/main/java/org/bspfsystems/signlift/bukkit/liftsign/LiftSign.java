@@ -23,7 +23,13 @@
 
 package org.bspfsystems.signlift.bukkit.liftsign;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
@@ -36,12 +42,100 @@ import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
 import org.bspfsystems.signlift.bukkit.config.ConfigData;
 import org.bspfsystems.signlift.bukkit.config.ConfigMessage;
 import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bspfsystems.signlift.bukkit.index.LiftSignIndex;
 
 /**
  * Represents the base lift sign that can be used for vertical transportation.
  */
 public abstract class LiftSign {
     
+    /**
+     * Represents the result of classifying a {@link Block} as a
+     * {@link LiftSign}, holding the {@link Sign} snapshot that was read along
+     * with the type, {@link LiftSign.Direction} and label of the
+     * {@link LiftSign}, so that none of them need to be read or parsed again.
+     */
+    public static final class Classification {
+        
+        private final Sign sign;
+        private final LiftLineMatcher.Match match;
+        private final String label;
+        
+        /**
+         * Constructs a new {@link LiftSign.Classification}.
+         * 
+         * @param sign The {@link Sign} that was classified.
+         * @param match The {@link LiftLineMatcher.Match} of the lift line of
+         *              the {@link Sign}.
+         */
+        private Classification(@NotNull final Sign sign, @NotNull final LiftLineMatcher.Match match) {
+            this.sign = sign;
+            this.match = match;
+            this.label = sign.getLine(0);
+        }
+        
+        /**
+         * Gets the {@link Sign} snapshot that was classified.
+         * 
+         * @return The {@link Sign} snapshot.
+         */
+        @NotNull
+        public Sign getSign() {
+            return this.sign;
+        }
+        
+        /**
+         * Gets whether the {@link Sign} is a {@link PrivateLiftSign}.
+         * 
+         * @return {@code true} if the {@link Sign} is a
+         *         {@link PrivateLiftSign}, {@code false} if it is a
+         *         {@link PublicLiftSign}.
+         */
+        public boolean isPrivate() {
+            return this.match.isPrivate();
+        }
+        
+        /**
+         * Gets the {@link LiftSign.Direction} of the {@link Sign}.
+         * 
+         * @return The {@link LiftSign.Direction} of the {@link Sign}.
+         */
+        @NotNull
+        public Direction getDirection() {
+            return this.match.getDirection();
+        }
+        
+        /**
+         * Gets the label (first line) of the {@link Sign}.
+         * 
+         * @return The label of the {@link Sign}.
+         */
+        @NotNull
+        public String getLabel() {
+            return this.label;
+        }
+    }
+    
+    private static final Set<Material> SIGN_MATERIALS;
+    private static final Method GET_MIN_HEIGHT;
+    
+    static {
+        
+        final Set<Material> signMaterials = EnumSet.noneOf(Material.class);
+        signMaterials.addAll(Tag.SIGNS.getValues());
+        SIGN_MATERIALS = signMaterials;
+        
+        // World#getMinHeight() only exists on newer versions of the API, so
+        // it must be looked up reflectively to remain compatible.
+        Method getMinHeight;
+        try {
+            getMinHeight = World.class.getMethod("getMinHeight");
+        } catch (NoSuchMethodException e) {
+            getMinHeight = null;
+        }
+        GET_MIN_HEIGHT = getMinHeight;
+    }
+    
     /**
      * Represents the direction of the {@link LiftSign}.
      */
@@ -89,9 +183,7 @@ public abstract class LiftSign {
         }
         
         final Sign sign = (Sign) state;
-        final String liftLine = sign.getLine(1);
-        
-        LiftSign.validateLiftLine(liftLine);
+        final LiftLineMatcher.Match match = LiftSign.matchLiftLine(sign.getLine(1));
         
         final Location location = sign.getLocation();
         this.world = location.getWorld();
@@ -99,13 +191,36 @@ public abstract class LiftSign {
         this.y = location.getBlockY();
         this.z = location.getBlockZ();
         this.label = sign.getLine(0);
-        this.direction = LiftSign.getLiftDirection(liftLine.substring(1, liftLine.length() - 1));
+        this.direction = match.getDirection();
         
         if (this.world == null) {
             throw new SignLiftException("Location is in a null World.");
         }
-        if (this.direction == null) {
-            throw new SignLiftException("Sign lift line does not have a valid direction.");
+    }
+    
+    /**
+     * Creates a new {@link LiftSign} from the given
+     * {@link LiftSign.Classification}, without reading or parsing the
+     * {@link Sign} again.
+     * 
+     * @param classification The {@link LiftSign.Classification} to create the
+     *                       {@link LiftSign} from.
+     * @throws SignLiftException If the {@link World} of the {@link Sign} is
+     *                           {@code null}.
+     * @see LiftSign#classify(Block)
+     */
+    protected LiftSign(@NotNull final Classification classification) throws SignLiftException {
+        
+        final Location location = classification.getSign().getLocation();
+        this.world = location.getWorld();
+        this.x = location.getBlockX();
+        this.y = location.getBlockY();
+        this.z = location.getBlockZ();
+        this.label = classification.getLabel();
+        this.direction = classification.getDirection();
+        
+        if (this.world == null) {
+            throw new SignLiftException("Location is in a null World.");
         }
     }
     
@@ -131,22 +246,18 @@ public abstract class LiftSign {
             throw new SignLiftException("Block at location is not a sign.");
         }
         
-        final String liftLine = lines[1];
-        LiftSign.validateLiftLine(liftLine);
+        final LiftLineMatcher.Match match = LiftSign.matchLiftLine(lines[1]);
         
         this.world = location.getWorld();
         this.x = location.getBlockX();
         this.y = location.getBlockY();
         this.z = location.getBlockZ();
         this.label = lines[0];
-        this.direction = LiftSign.getLiftDirection(liftLine.substring(1, liftLine.length() - 1));
+        this.direction = match.getDirection();
     
         if (this.world == null) {
             throw new SignLiftException("Location is in a null World.");
         }
-        if (this.direction == null) {
-            throw new SignLiftException("Lift lines do not have a valid direction.");
-        }
     }
     
     /**
@@ -200,7 +311,18 @@ public abstract class LiftSign {
             return false;
         }
     
-        final LiftSign destination = this.getDestination(plugin);
+        // The activation limits are checked before anything is read from the
+        // World.
+        final LiftSignThrottle.Result result = plugin.getLiftSignThrottle().tryActivate(player, this);
+        if (result == LiftSignThrottle.Result.PLAYER_LIMITED) {
+            player.sendMessage(ConfigMessage.getLiftsignUseLimitedPlayer());
+            return false;
+        } else if (result == LiftSignThrottle.Result.CHUNK_LIMITED) {
+            player.sendMessage(ConfigMessage.getLiftsignUseLimitedChunk());
+            return false;
+        }
+    
+        final LiftSign destination = plugin.getLiftSignActivationQueue().getDestination(this);
         if (destination == null) {
             player.sendMessage(this.isPrivate() ? ConfigMessage.getLiftsignUseDisconnectedPrivate() : ConfigMessage.getLiftsignUseDisconnectedPublic());
             return false;
@@ -223,7 +345,7 @@ public abstract class LiftSign {
             isSafe = LiftSign.isBlockSafe(destinationBlock) && LiftSign.isBlockSafe(destinationBlockOffset);
         }
     
-        if (destinationBlock.getY() > 0 && !isSafe) {
+        if (destinationBlock.getY() > LiftSign.getMinHeight(destinationBlock.getWorld()) && !isSafe) {
             final Block destinationBlockOffset = destination.getAdjustedBlock(playerLocation, -1);
             teleportLocation.setY(destinationBlock.getY() - 1);
             isSafe = LiftSign.isBlockSafe(destinationBlock) && LiftSign.isBlockSafe(destinationBlockOffset);
@@ -249,6 +371,43 @@ public abstract class LiftSign {
         return new Location(this.world, this.x, this.y, this.z);
     }
     
+    /**
+     * Gets the {@link World} of this {@link LiftSign}.
+     *
+     * @return The {@link World} of this {@link LiftSign}.
+     */
+    @NotNull
+    public final World getWorld() {
+        return this.world;
+    }
+    
+    /**
+     * Gets the X coordinate of this {@link LiftSign}.
+     *
+     * @return The X coordinate of this {@link LiftSign}.
+     */
+    public final int getX() {
+        return this.x;
+    }
+    
+    /**
+     * Gets the Y coordinate of this {@link LiftSign}.
+     *
+     * @return The Y coordinate of this {@link LiftSign}.
+     */
+    public final int getY() {
+        return this.y;
+    }
+    
+    /**
+     * Gets the Z coordinate of this {@link LiftSign}.
+     *
+     * @return The Z coordinate of this {@link LiftSign}.
+     */
+    public final int getZ() {
+        return this.z;
+    }
+    
     /**
      * Gets the destination {@link LiftSign} from this {@link LiftSign}, or
      * {@code null} if there is no destination
@@ -262,34 +421,34 @@ public abstract class LiftSign {
     @Nullable
     protected final LiftSign getDestination(@NotNull final SignLiftPlugin plugin) {
         
-        final int worldHeight = this.world.getMaxHeight();
-        final int change;
-        if (this.direction == Direction.UP) {
-            change = 1;
-        } else if (this.direction == Direction.DOWN) {
-            change = -1;
-        } else {
+        if (this.direction == Direction.NONE) {
             return null;
         }
         
-        for (int checkY = y + change; 0 < checkY && checkY < worldHeight; checkY += change) {
+        // Columns that have not been fully indexed yet are scanned once, after
+        // which every lookup in the column is a binary search.
+        final LiftSignIndex index = plugin.getLiftSignIndex();
+        int checkY = index.getNextY(this.world, this.x, this.y, this.z, this.direction);
+        if (checkY == LiftSignIndex.NOT_INDEXED) {
+            index.indexColumn(this.world, this.x, this.z);
+            checkY = index.getNextY(this.world, this.x, this.y, this.z, this.direction);
+        }
+        
+        while (checkY != LiftSignIndex.NO_DESTINATION && checkY != LiftSignIndex.NOT_INDEXED) {
             
-            final Block block = this.world.getBlockAt(x, checkY, z);
-            final BlockState state = block.getState();
-            if (!(state instanceof Sign)) {
-                continue;
+            final Block block = this.world.getBlockAt(this.x, checkY, this.z);
+            final LiftSign destination = plugin.getLiftSign(block);
+            if (destination != null) {
+                return destination;
+            } else if (LiftSign.classify(block) != null) {
+                return null; // Unknown PrivateLiftSign, treat as disconnected.
             }
             
-            final Location location = block.getLocation();
-            if (LiftSign.isPublicLiftSign(location)) {
-                try {
-                    return new PublicLiftSign(state);
-                } catch (SignLiftException e) {
-                    return null;
-                }
-            } else if (LiftSign.isPrivateLiftSign(location)) {
-                return plugin.getPrivateLiftSign(location);
-            }
+            // The LiftSign was removed without the index being updated (by
+            // another plugin, for example), so drop the stale entry and try the
+            // next one.
+            index.remove(this.world, this.x, checkY, this.z);
+            checkY = index.getNextY(this.world, this.x, this.y, this.z, this.direction);
         }
         
         return null;
@@ -352,6 +511,57 @@ public abstract class LiftSign {
         return teleportMessage;
     }
     
+    /**
+     * Classifies the given {@link Block} as a {@link LiftSign}.
+     * <p>
+     * The {@link Material} of the {@link Block} is checked first, so a
+     * {@link BlockState} is only created for {@link Block}s that are
+     * {@link Sign}s, and it is only created once.
+     * 
+     * @param block The {@link Block} to classify.
+     * @return The {@link LiftSign.Classification} of the {@link Block}, or
+     *         {@code null} if the {@link Block} is not a {@link LiftSign}.
+     */
+    @Nullable
+    public static Classification classify(@NotNull final Block block) {
+        if (!LiftSign.isSign(block.getType())) {
+            return null;
+        }
+        return LiftSign.classify(block.getState());
+    }
+    
+    /**
+     * Classifies the given {@link BlockState} as a {@link LiftSign}.
+     * 
+     * @param state The {@link BlockState} to classify.
+     * @return The {@link LiftSign.Classification} of the {@link BlockState},
+     *         or {@code null} if the {@link BlockState} does not represent a
+     *         {@link LiftSign}.
+     */
+    @Nullable
+    public static Classification classify(@NotNull final BlockState state) {
+        
+        if (!(state instanceof Sign)) {
+            return null;
+        }
+        
+        final Sign sign = (Sign) state;
+        final LiftLineMatcher.Match match = ConfigData.getLiftLineMatcher().match(sign.getLine(1));
+        return match == null ? null : new Classification(sign, match);
+    }
+    
+    /**
+     * Checks to see if the given {@link Material} is any type of
+     * {@link Sign}.
+     * 
+     * @param material The {@link Material} to check.
+     * @return {@code true} if the {@link Material} is a {@link Sign},
+     *         {@code false} otherwise.
+     */
+    public static boolean isSign(@NotNull final Material material) {
+        return LiftSign.SIGN_MATERIALS.contains(material);
+    }
+    
     /**
      * Checks to see if the given {@link Location} contains a {@link LiftSign}.
      * 
@@ -507,7 +717,8 @@ public abstract class LiftSign {
      *         matches the requirements, {@code false} otherwise.
      */
     private static boolean checkLiftSign(@NotNull final Block block, final boolean checkPublic) {
-        return LiftSign.checkLiftSign(block.getState(), checkPublic);
+        final Classification classification = LiftSign.classify(block);
+        return classification != null && classification.isPrivate() != checkPublic;
     }
     
     /**
@@ -532,71 +743,49 @@ public abstract class LiftSign {
      *         otherwise.
      */
     private static boolean checkLiftSign(@NotNull final BlockState state, final boolean checkPublic) {
-        if(!(state instanceof Sign)) {
-            return false;
-        }
-    
-        final String liftLine = ((Sign) state).getLine(1);
-        try {
-            LiftSign.validateLiftLine(liftLine);
-        } catch (SignLiftException e) {
-            return false;
-        }
-    
-        if (liftLine.startsWith(ConfigData.getPublicStart()) && liftLine.endsWith(ConfigData.getPublicEnd()) && checkPublic) {
-            return true;
-        }
-        
-        return liftLine.startsWith(ConfigData.getPrivateStart()) && liftLine.endsWith(ConfigData.getPrivateEnd()) && !checkPublic;
+        final Classification classification = LiftSign.classify(state);
+        return classification != null && classification.isPrivate() != checkPublic;
     }
     
     /**
-     * Validates that the lift line passed in is valid for either a
+     * Matches the lift line passed in, which must be valid for either a
      * {@link PublicLiftSign} or a {@link PrivateLiftSign}.
      * 
-     * @param liftLine The line to validate.
+     * @param liftLine The line to match.
+     * @return The {@link LiftLineMatcher.Match} for the lift line.
      * @throws SignLiftException If the line is not valid for a
      *                           {@link LiftSign}.
      */
-    private static void validateLiftLine(@NotNull final String liftLine) throws SignLiftException {
+    @NotNull
+    private static LiftLineMatcher.Match matchLiftLine(@NotNull final String liftLine) throws SignLiftException {
         
-        if (liftLine.length() < 3) {
-            throw new SignLiftException("Lift line is less than 3 characters long: " + liftLine);
-        }
-        
-        if (liftLine.startsWith(ConfigData.getPublicStart()) && liftLine.endsWith(ConfigData.getPublicEnd())) {
-            if (LiftSign.getLiftDirection(liftLine.substring(1, liftLine.length() - 1)) == null) {
-                throw new SignLiftException("Invalid lift direction for public lift sign: " + liftLine);
-            }
-        } else if (liftLine.startsWith(ConfigData.getPrivateStart()) && liftLine.endsWith(ConfigData.getPrivateEnd())) {
-            if (LiftSign.getLiftDirection(liftLine.substring(1, liftLine.length() - 1)) == null) {
-                throw new SignLiftException("Invalid lift direction for private lift sign: " + liftLine);
-            }
-        }
-        else {
-            throw new SignLiftException("Invalid lift brackets: " + liftLine);
+        final LiftLineMatcher.Match match = ConfigData.getLiftLineMatcher().match(liftLine);
+        if (match == null) {
+            throw new SignLiftException("Invalid lift line: " + liftLine);
         }
+        return match;
     }
     
     /**
-     * Gets the {@link LiftSign.Direction} based on the value of the given
-     * {@link String}.
+     * Gets the minimum height (the lowest Y level that can contain a
+     * {@link Block}) of the given {@link World}.
+     * <p>
+     * If the server does not support {@link World}s with a minimum height
+     * below {@code 0}, this will always return {@code 0}.
      * 
-     * @param liftDirection The value representing the
-     *                      {@link LiftSign.Direction}.
-     * @return The {@link LiftSign.Direction} represented by the given
-     *         {@link String}, or {@code null} if the value is not valid.
+     * @param world The {@link World} to get the minimum height of.
+     * @return The minimum height of the {@link World}.
      */
-    @Nullable
-    private static Direction getLiftDirection(@NotNull final String liftDirection) {
-        if (liftDirection.equalsIgnoreCase(ConfigData.getDirectionNone())) {
-            return Direction.NONE;
-        } else if (liftDirection.equalsIgnoreCase(ConfigData.getDirectionUp())) {
-            return Direction.UP;
-        } else if (liftDirection.equalsIgnoreCase(ConfigData.getDirectionDown())) {
-            return Direction.DOWN;
-        } else {
-            return null;
+    public static int getMinHeight(@NotNull final World world) {
+        
+        if (LiftSign.GET_MIN_HEIGHT == null) {
+            return 0;
+        }
+        
+        try {
+            return (Integer) LiftSign.GET_MIN_HEIGHT.invoke(world);
+        } catch (IllegalAccessException | InvocationTargetException | ClassCastException e) {
+            return 0;
         }
     }
     
@@ -0,0 +1,262 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package org.bspfsystems.signlift.bukkit.liftsign;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents the queue that {@link LiftSign} activations pass through.
+ * <p>
+ * A single right-click can fire a {@link PlayerInteractEvent} for each hand,
+ * and fast clickers can activate a {@link LiftSign} many times per tick.
+ * Activations are collected for the current tick with at most one per
+ * {@link Player}, and any further activations are coalesced into it. The
+ * collected activations are performed together on the next tick, and the
+ * destination of each source {@link LiftSign} is only resolved once while
+ * they are performed. As the world may have changed in between, each source
+ * {@link LiftSign} is checked again before its activation is performed.
+ * <p>
+ * This queue is not thread-safe, and must only be accessed from the main
+ * server thread.
+ */
+public final class LiftSignActivationQueue {
+    
+    /**
+     * Represents a queued activation of a {@link LiftSign} by a
+     * {@link Player}.
+     */
+    private static final class Activation {
+        
+        private final Player player;
+        private final LiftSign liftSign;
+        
+        /**
+         * Constructs a new {@link Activation}.
+         *
+         * @param player The {@link Player} activating the {@link LiftSign}.
+         * @param liftSign The {@link LiftSign} being activated.
+         */
+        private Activation(@NotNull final Player player, @NotNull final LiftSign liftSign) {
+            this.player = player;
+            this.liftSign = liftSign;
+        }
+    }
+    
+    /**
+     * Represents the resolved destination of a source {@link LiftSign}, which
+     * may be that there is none.
+     */
+    private static final class Destination {
+        
+        private final LiftSign liftSign;
+        
+        /**
+         * Constructs a new {@link Destination}.
+         *
+         * @param liftSign The destination {@link LiftSign}, or {@code null} if
+         *                 there is none.
+         */
+        private Destination(@Nullable final LiftSign liftSign) {
+            this.liftSign = liftSign;
+        }
+    }
+    
+    private final SignLiftPlugin signLiftPlugin;
+    private final BukkitScheduler scheduler;
+    
+    private final LinkedHashMap<UUID, Activation> pending;
+    private final HashMap<UUID, LongObjectHashMap<Destination>> destinations;
+    private boolean scheduled;
+    private boolean flushing;
+    
+    private long totalActivations;
+    private long totalCoalesced;
+    private long totalResolutions;
+    
+    /**
+     * Constructs a new, empty {@link LiftSignActivationQueue}.
+     *
+     * @param signLiftPlugin The {@link SignLiftPlugin}.
+     */
+    public LiftSignActivationQueue(@NotNull final SignLiftPlugin signLiftPlugin) {
+        this.signLiftPlugin = signLiftPlugin;
+        this.scheduler = signLiftPlugin.getServer().getScheduler();
+        this.pending = new LinkedHashMap<UUID, Activation>();
+        this.destinations = new HashMap<UUID, LongObjectHashMap<Destination>>();
+        this.scheduled = false;
+        this.flushing = false;
+        this.totalActivations = 0L;
+        this.totalCoalesced = 0L;
+        this.totalResolutions = 0L;
+    }
+    
+    /**
+     * Queues the activation of the given {@link LiftSign} by the given
+     * {@link Player}. If the {@link Player} has already activated a
+     * {@link LiftSign} this tick, this activation is coalesced into it.
+     *
+     * @param player The {@link Player} activating the {@link LiftSign}.
+     * @param liftSign The {@link LiftSign} being activated.
+     * @return {@code true} if the activation was queued, {@code false} if it
+     *         was coalesced.
+     */
+    public boolean enqueue(@NotNull final Player player, @NotNull final LiftSign liftSign) {
+        
+        if (this.pending.containsKey(player.getUniqueId())) {
+            this.totalCoalesced++;
+            return false;
+        }
+        
+        this.pending.put(player.getUniqueId(), new Activation(player, liftSign));
+        if (!this.scheduled) {
+            this.scheduled = true;
+            this.scheduler.runTask(this.signLiftPlugin, this::flush);
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the destination of the given {@link LiftSign}. While the queued
+     * activations are being performed, the destination of each source
+     * {@link LiftSign} is only resolved once. Destinations that were
+     * pre-resolved by the {@link LiftSignPreResolver} are used if they are
+     * still valid.
+     *
+     * @param liftSign The source {@link LiftSign}.
+     * @return The destination {@link LiftSign}, or {@code null} if there is
+     *         none.
+     * @see LiftSignPreResolver#getDestination(LiftSign)
+     */
+    @Nullable
+    LiftSign getDestination(@NotNull final LiftSign liftSign) {
+        
+        if (!this.flushing) {
+            this.totalResolutions++;
+            return this.signLiftPlugin.getLiftSignPreResolver().getDestination(liftSign);
+        }
+        
+        final LongObjectHashMap<Destination> destinations = this.destinations.computeIfAbsent(liftSign.getWorld().getUID(), uid -> new LongObjectHashMap<Destination>());
+        final long position = BlockPosition.pack(liftSign.getX(), liftSign.getY(), liftSign.getZ());
+        final Destination cached = destinations.get(position);
+        if (cached != null) {
+            return cached.liftSign;
+        }
+        
+        this.totalResolutions++;
+        final LiftSign destination = this.signLiftPlugin.getLiftSignPreResolver().getDestination(liftSign);
+        destinations.put(position, new Destination(destination));
+        return destination;
+    }
+    
+    /**
+     * Performs all activations that were queued during the previous tick.
+     */
+    private void flush() {
+        
+        this.scheduled = false;
+        final List<Activation> activations = new ArrayList<Activation>(this.pending.values());
+        this.pending.clear();
+        
+        this.flushing = true;
+        try {
+            for (final Activation activation : activations) {
+                if (activation.player.isOnline() && LiftSignActivationQueue.isStillLiftSign(activation.liftSign)) {
+                    this.totalActivations++;
+                    activation.liftSign.activate(activation.player, this.signLiftPlugin);
+                }
+            }
+        } finally {
+            this.flushing = false;
+            this.destinations.clear();
+        }
+    }
+    
+    /**
+     * Checks to see if the source {@link LiftSign} of a queued activation is
+     * still there, as it may have been broken or changed since it was
+     * queued on the previous tick. The chunk is never loaded by this check.
+     *
+     * @param liftSign The source {@link LiftSign}.
+     * @return {@code true} if the {@link Block} is still a {@link LiftSign}
+     *         of the same kind, {@code false} otherwise.
+     */
+    private static boolean isStillLiftSign(@NotNull final LiftSign liftSign) {
+        
+        final World world = liftSign.getWorld();
+        if (!world.isChunkLoaded(liftSign.getX() >> 4, liftSign.getZ() >> 4)) {
+            return false;
+        }
+        
+        final Block block = world.getBlockAt(liftSign.getX(), liftSign.getY(), liftSign.getZ());
+        final LiftSign.Classification classification = LiftSign.classify(block);
+        return classification != null && classification.isPrivate() == liftSign instanceof PrivateLiftSign;
+    }
+    
+    /**
+     * Gets the total number of {@link LiftSign} activations that have been
+     * performed.
+     *
+     * @return The total number of activations.
+     */
+    public long getTotalActivations() {
+        return this.totalActivations;
+    }
+    
+    /**
+     * Gets the total number of {@link LiftSign} activations that were
+     * coalesced into an activation already queued for the same
+     * {@link Player} and tick.
+     *
+     * @return The total number of coalesced activations.
+     */
+    public long getTotalCoalesced() {
+        return this.totalCoalesced;
+    }
+    
+    /**
+     * Gets the total number of times the destination of a {@link LiftSign}
+     * has been resolved.
+     *
+     * @return The total number of destination resolutions.
+     */
+    public long getTotalResolutions() {
+        return this.totalResolutions;
+    }
+}
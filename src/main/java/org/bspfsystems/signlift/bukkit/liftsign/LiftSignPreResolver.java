@@ -0,0 +1,281 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package org.bspfsystems.signlift.bukkit.liftsign;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
+import org.bspfsystems.signlift.bukkit.config.ConfigData;
+import org.bspfsystems.signlift.bukkit.index.LiftSignIndex;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents the speculative resolution of the destinations of
+ * {@link LiftSign}s that {@link Player}s are near, so that activating one
+ * does not have to look up its destination.
+ * <p>
+ * The positions of online {@link Player}s are sampled periodically (rather
+ * than on every movement), and the {@link LiftSign}s near each one are found
+ * through the {@link LiftSignIndex}. The destination of each of those
+ * {@link LiftSign}s is resolved and kept along with the modification stamp of
+ * its chunk. As a destination is always in the same column (and therefore
+ * the same chunk) as its source {@link LiftSign}, the resolution stays valid
+ * for as long as that stamp does not change. Resolutions for
+ * {@link LiftSign}s that no {@link Player} is near any more are dropped on
+ * the next sample.
+ * <p>
+ * This is not thread-safe, and must only be accessed from the main server
+ * thread.
+ */
+public final class LiftSignPreResolver {
+    
+    private static final int MAX_NEARBY = 256;
+    
+    /**
+     * Represents the resolved destination of a single {@link LiftSign}.
+     */
+    private static final class Resolution {
+        
+        private final LiftSign destination;
+        private final long stamp;
+        private long sample;
+        
+        /**
+         * Constructs a new {@link Resolution}.
+         *
+         * @param destination The destination {@link LiftSign}, or
+         *                    {@code null} if there is none.
+         * @param stamp The modification stamp of the chunk when the
+         *              destination was resolved.
+         * @param sample The sample that the destination was resolved in.
+         */
+        private Resolution(@Nullable final LiftSign destination, final long stamp, final long sample) {
+            this.destination = destination;
+            this.stamp = stamp;
+            this.sample = sample;
+        }
+    }
+    
+    private final SignLiftPlugin signLiftPlugin;
+    private final HashMap<UUID, LongObjectHashMap<Resolution>> worlds;
+    private final long[] nearby;
+    private long sample;
+    
+    private long totalHits;
+    private long totalMisses;
+    
+    /**
+     * Constructs a new {@link LiftSignPreResolver}.
+     *
+     * @param signLiftPlugin The {@link SignLiftPlugin}.
+     */
+    public LiftSignPreResolver(@NotNull final SignLiftPlugin signLiftPlugin) {
+        this.signLiftPlugin = signLiftPlugin;
+        this.worlds = new HashMap<UUID, LongObjectHashMap<Resolution>>();
+        this.nearby = new long[LiftSignPreResolver.MAX_NEARBY];
+        this.sample = 0L;
+        this.totalHits = 0L;
+        this.totalMisses = 0L;
+    }
+    
+    /**
+     * Samples the positions of all online {@link Player}s, and resolves the
+     * destinations of the {@link LiftSign}s near them that have not been
+     * resolved yet, or whose chunks have changed since.
+     */
+    public void sample() {
+        
+        final LiftSignIndex liftSignIndex = this.signLiftPlugin.getLiftSignIndex();
+        final int radius = ConfigData.getPreResolveRadius();
+        this.sample++;
+        
+        for (final Player player : this.signLiftPlugin.getServer().getOnlinePlayers()) {
+            
+            final Location location = player.getLocation();
+            final World world = location.getWorld();
+            if (world == null) {
+                continue;
+            }
+            
+            final int count = liftSignIndex.getNearby(world, location.getBlockX(), location.getBlockY(), location.getBlockZ(), radius, this.nearby);
+            if (count == 0) {
+                continue;
+            }
+            
+            LongObjectHashMap<Resolution> resolutions = this.worlds.get(world.getUID());
+            if (resolutions == null) {
+                resolutions = new LongObjectHashMap<Resolution>();
+                this.worlds.put(world.getUID(), resolutions);
+            }
+            
+            for (int index = 0; index < count; index++) {
+                this.resolve(world, this.nearby[index], resolutions, liftSignIndex);
+            }
+        }
+        
+        final Iterator<LongObjectHashMap<Resolution>> iterator = this.worlds.values().iterator();
+        while (iterator.hasNext()) {
+            final LongObjectHashMap<Resolution> resolutions = iterator.next();
+            for (final long position : resolutions.keys()) {
+                if (resolutions.get(position).sample != this.sample) {
+                    resolutions.remove(position);
+                }
+            }
+            if (resolutions.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Resolves the destination of the {@link LiftSign} at the given position,
+     * unless it is already resolved and its chunk has not changed since.
+     *
+     * @param world The {@link World} of the {@link LiftSign}.
+     * @param position The packed {@link BlockPosition} of the
+     *                 {@link LiftSign}.
+     * @param resolutions The {@link Resolution}s in the {@link World}.
+     * @param liftSignIndex The {@link LiftSignIndex}.
+     */
+    private void resolve(@NotNull final World world, final long position, @NotNull final LongObjectHashMap<Resolution> resolutions, @NotNull final LiftSignIndex liftSignIndex) {
+        
+        final int x = BlockPosition.getX(position);
+        final int y = BlockPosition.getY(position);
+        final int z = BlockPosition.getZ(position);
+        
+        // Chunks that have never been modified or discovered have no stamp to
+        // validate against.
+        final long stamp = liftSignIndex.getStamp(world, x >> 4, z >> 4);
+        if (stamp == 0L) {
+            return;
+        }
+        
+        final Resolution resolution = resolutions.get(position);
+        if (resolution != null && resolution.stamp == stamp) {
+            resolution.sample = this.sample;
+            return;
+        }
+        
+        final LiftSign source;
+        if (liftSignIndex.getType(world, x, y, z) == LiftSignIndex.TYPE_PRIVATE) {
+            source = this.signLiftPlugin.getPrivateLiftSign(world, x, y, z);
+        } else {
+            source = this.signLiftPlugin.getLiftSign(world.getBlockAt(x, y, z));
+        }
+        if (source == null) {
+            resolutions.remove(position);
+            return;
+        }
+        
+        // Resolving the destination may drop stale entries from the
+        // LiftSignIndex, so the stamp is read again afterwards.
+        final LiftSign destination = source.getDestination(this.signLiftPlugin);
+        resolutions.put(position, new Resolution(destination, liftSignIndex.getStamp(world, x >> 4, z >> 4), this.sample));
+    }
+    
+    /**
+     * Gets the destination of the given {@link LiftSign}, using its
+     * pre-resolved destination if it is still valid. The destination
+     * {@link org.bukkit.block.Block} must also still be a
+     * {@link org.bukkit.block.Sign}, in case the {@link LiftSign} was removed
+     * without the {@link LiftSignIndex} being updated.
+     *
+     * @param liftSign The source {@link LiftSign}.
+     * @return The destination {@link LiftSign}, or {@code null} if there is
+     *         none.
+     * @see LiftSign#getDestination(SignLiftPlugin)
+     */
+    @Nullable
+    LiftSign getDestination(@NotNull final LiftSign liftSign) {
+        
+        final World world = liftSign.getWorld();
+        final LongObjectHashMap<Resolution> resolutions = this.worlds.get(world.getUID());
+        final Resolution resolution = resolutions == null ? null : resolutions.get(BlockPosition.pack(liftSign.getX(), liftSign.getY(), liftSign.getZ()));
+        
+        if (resolution != null && resolution.stamp == this.signLiftPlugin.getLiftSignIndex().getStamp(world, liftSign.getX() >> 4, liftSign.getZ() >> 4)) {
+            final LiftSign destination = resolution.destination;
+            if (destination == null || LiftSign.isSign(world.getBlockAt(destination.getX(), destination.getY(), destination.getZ()).getType())) {
+                this.totalHits++;
+                return destination;
+            }
+        }
+        
+        this.totalMisses++;
+        return liftSign.getDestination(this.signLiftPlugin);
+    }
+    
+    /**
+     * Removes all pre-resolved destinations in the given {@link World}, such
+     * as when it is unloaded.
+     *
+     * @param world The {@link World}.
+     */
+    public void clear(@NotNull final World world) {
+        this.worlds.remove(world.getUID());
+    }
+    
+    /**
+     * Gets the number of {@link LiftSign}s whose destinations are currently
+     * pre-resolved.
+     *
+     * @return The number of pre-resolved destinations.
+     */
+    public int getResolvedCount() {
+        
+        int count = 0;
+        for (final LongObjectHashMap<Resolution> resolutions : this.worlds.values()) {
+            count += resolutions.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Gets the total number of activations that used a pre-resolved
+     * destination.
+     *
+     * @return The total number of hits.
+     */
+    public long getTotalHits() {
+        return this.totalHits;
+    }
+    
+    /**
+     * Gets the total number of activations that had to resolve their
+     * destination themselves.
+     *
+     * @return The total number of misses.
+     */
+    public long getTotalMisses() {
+        return this.totalMisses;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package org.bspfsystems.signlift.bukkit.liftsign;
+
+import java.util.HashMap;
+import java.util.UUID;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.signlift.bukkit.config.ConfigData;
+import org.bspfsystems.signlift.bukkit.index.LiftSignIndex;
+import org.bspfsystems.signlift.bukkit.util.TokenBucketTable;
+
+/**
+ * Represents the limits on how often {@link LiftSign}s may be activated.
+ * <p>
+ * Each {@link Player} has a token bucket that holds up to a configured number
+ * of activations and refills one activation at a time, so short bursts are
+ * allowed while sustained clicking is slowed down. Each chunk has a similar
+ * budget of activations per second that is shared by every {@link Player}
+ * using the {@link LiftSign}s in it. Both are kept in
+ * {@link TokenBucketTable}s, so checking them does not allocate.
+ * <p>
+ * This is not thread-safe, and must only be accessed from the main server
+ * thread.
+ */
+public final class LiftSignThrottle {
+    
+    /**
+     * Represents the result of attempting to activate a {@link LiftSign}.
+     */
+    public enum Result {
+        ALLOWED,
+        PLAYER_LIMITED,
+        CHUNK_LIMITED;
+    }
+    
+    private final TokenBucketTable players;
+    private final HashMap<UUID, TokenBucketTable> chunks;
+    
+    private long totalPlayerDenials;
+    private long totalChunkDenials;
+    
+    /**
+     * Constructs a new {@link LiftSignThrottle}.
+     */
+    public LiftSignThrottle() {
+        this.players = new TokenBucketTable();
+        this.chunks = new HashMap<UUID, TokenBucketTable>();
+        this.totalPlayerDenials = 0L;
+        this.totalChunkDenials = 0L;
+    }
+    
+    /**
+     * Attempts to activate the given {@link LiftSign} for the given
+     * {@link Player}, taking from both the {@link Player}'s and the chunk's
+     * budget if both have an activation available. This does not read
+     * anything from the {@link World}.
+     *
+     * @param player The {@link Player} activating the {@link LiftSign}.
+     * @param liftSign The {@link LiftSign} being activated.
+     * @return The {@link LiftSignThrottle.Result} of the attempt.
+     */
+    @NotNull
+    public Result tryActivate(@NotNull final Player player, @NotNull final LiftSign liftSign) {
+        
+        final int playerBurst = ConfigData.getPlayerActivationBurst();
+        final int chunkBudget = ConfigData.getChunkActivationBudget();
+        if (playerBurst <= 0 && chunkBudget <= 0) {
+            return Result.ALLOWED;
+        }
+        
+        final long now = System.nanoTime() / 1000000L;
+        final long playerRefillMillis = ConfigData.getPlayerActivationRefillTicks() * 50L;
+        final long chunkRefillMillis = chunkBudget <= 0 ? 0L : 1000L / chunkBudget;
+        
+        // The halves of the UUID are folded into a single key. Two Players
+        // would only share a budget if their folded keys collide.
+        final UUID uniqueId = player.getUniqueId();
+        final long playerKey = uniqueId.getMostSignificantBits() ^ uniqueId.getLeastSignificantBits();
+        final long chunkKey = LiftSignIndex.getChunkKey(liftSign.getX() >> 4, liftSign.getZ() >> 4);
+        
+        TokenBucketTable chunkBuckets = null;
+        if (chunkBudget > 0) {
+            chunkBuckets = this.chunks.get(liftSign.getWorld().getUID());
+            if (chunkBuckets == null) {
+                chunkBuckets = new TokenBucketTable();
+                this.chunks.put(liftSign.getWorld().getUID(), chunkBuckets);
+            }
+        }
+        
+        if (playerBurst > 0 && !this.players.hasToken(playerKey, now, playerBurst, playerRefillMillis)) {
+            this.totalPlayerDenials++;
+            return Result.PLAYER_LIMITED;
+        }
+        if (chunkBuckets != null && !chunkBuckets.hasToken(chunkKey, now, chunkBudget, chunkRefillMillis)) {
+            this.totalChunkDenials++;
+            return Result.CHUNK_LIMITED;
+        }
+        
+        if (playerBurst > 0) {
+            this.players.take(playerKey, now, playerBurst, playerRefillMillis);
+        }
+        if (chunkBuckets != null) {
+            chunkBuckets.take(chunkKey, now, chunkBudget, chunkRefillMillis);
+        }
+        return Result.ALLOWED;
+    }
+    
+    /**
+     * Removes the activation budgets of all chunks in the given
+     * {@link World}, such as when it is unloaded.
+     *
+     * @param world The {@link World}.
+     */
+    public void clear(@NotNull final World world) {
+        this.chunks.remove(world.getUID());
+    }
+    
+    /**
+     * Gets the number of {@link Player}s and chunks whose activation budgets
+     * are currently being tracked (have been used, and have not refilled).
+     *
+     * @return The number of tracked budgets.
+     */
+    public int getTrackedCount() {
+        
+        int count = this.players.size();
+        for (final TokenBucketTable chunkBuckets : this.chunks.values()) {
+            count += chunkBuckets.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Gets the total number of activations denied because the
+     * {@link Player} had used up their budget.
+     *
+     * @return The total number of {@link Player} denials.
+     */
+    public long getTotalPlayerDenials() {
+        return this.totalPlayerDenials;
+    }
+    
+    /**
+     * Gets the total number of activations denied because the chunk of the
+     * {@link LiftSign} had used up its budget.
+     *
+     * @return The total number of chunk denials.
+     */
+    public long getTotalChunkDenials() {
+        return this.totalChunkDenials;
+    }
+}
@@ -25,6 +25,7 @@
 package org.bspfsystems.signlift.bukkit.liftsign;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,6 +43,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.block.SignChangeEvent;
 import org.jetbrains.annotations.NotNull;
 import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
+import org.bspfsystems.signlift.bukkit.storage.PrivateLiftSignData;
 
 /**
  * Represents the private (access-controlled) implementation of a
@@ -121,15 +123,15 @@ public final class PrivateLiftSign extends LiftSign {
     }
     
     /**
-     * Creates a new {@link PrivateLiftSign} from the given {@link Location}
-     * with the given {@link UUID} as the owner, along with the given admins
-     * and members.
+     * Creates a new {@link PrivateLiftSign} from the given {@link Block} with
+     * the given {@link UUID} as the owner, along with the given admins and
+     * members.
      * <p>
-     * This is used when deserializing the {@link PrivateLiftSign} from a
-     * {@link Configuration}.
+     * This is used when deserializing the {@link PrivateLiftSign} from
+     * storage.
      *
-     * @param location The {@link Location} that is to contain the
-     *                 {@link PrivateLiftSign}.
+     * @param block The {@link Block} that is to contain the
+     *              {@link PrivateLiftSign}.
      * @param owner The {@link UUID} of the owner of the
      *              {@link PrivateLiftSign}.
      * @param admins The {@link HashSet} of {@link UUID}s of the admins of the
@@ -139,8 +141,8 @@ public final class PrivateLiftSign extends LiftSign {
      * @throws SignLiftException If the {@link PrivateLiftSign} cannot be
      *                           deserialized.
      */
-    private PrivateLiftSign(@NotNull final Location location, @NotNull final UUID owner, @NotNull final HashSet<UUID> admins, @NotNull final HashSet<UUID> members) throws SignLiftException {
-        super(location.getBlock());
+    private PrivateLiftSign(@NotNull final Block block, @NotNull final UUID owner, @NotNull final HashSet<UUID> admins, @NotNull final HashSet<UUID> members) throws SignLiftException {
+        super(block);
         this.owner = owner;
         this.admins = admins;
         this.members = members;
@@ -177,47 +179,54 @@ public final class PrivateLiftSign extends LiftSign {
             throw new SignLiftException("Unable to parse owner UUID for PrivateLiftSign.", e);
         }
         
-        final HashSet<UUID> adminIds = new HashSet<UUID>();
+        final List<UUID> adminIds = new ArrayList<UUID>();
         for (final String adminIdRaw : adminIdsRaw) {
-            
-            final UUID adminId;
             try {
-                adminId = UUID.fromString(adminIdRaw);
+                adminIds.add(UUID.fromString(adminIdRaw));
             } catch (IllegalArgumentException e) {
                 throw new SignLiftException("Unable to parse admin UUID for PrivateLiftSign.", e);
             }
-            
-            if (ownerId.equals(adminId)) {
-                throw new SignLiftException("Admin UUID (" + adminIdRaw + ") matches owner UUID for PrivateLiftSign.");
-            }
-            if (!adminIds.add(adminId)) {
-                throw new SignLiftException("Duplicate admin UUID (" + adminIdRaw + ") for PrivateLiftSign.");
-            }
         }
         
-        final HashSet<UUID> memberIds = new HashSet<UUID>();
+        final List<UUID> memberIds = new ArrayList<UUID>();
         for (final String memberIdRaw : memberIdsRaw) {
-            
-            final UUID memberId;
             try {
-                memberId = UUID.fromString(memberIdRaw);
+                memberIds.add(UUID.fromString(memberIdRaw));
             } catch (IllegalArgumentException e) {
                 throw new SignLiftException("Unable to parse member UUID for PrivateLiftSign.", e);
             }
-            
-            if (ownerId.equals(memberId)) {
-                throw new SignLiftException("Member UUID (" + memberIdRaw + ") matches owner UUID for PrivateLiftSign.");
-            }
-            if (adminIds.contains(memberId)) {
-                throw new SignLiftException("Member UUID (" + memberIdRaw + ") matches an admin UUID for PrivateLiftSign.");
-            }
-            if (!memberIds.add(memberId)) {
-                throw new SignLiftException("Duplicate member UUID (" + memberIdRaw + ") for PrivateLiftSign.");
-            }
         }
         
+        return PrivateLiftSign.deserialize(location.getBlock(), ownerId, adminIds, memberIds);
+    }
+    
+    /**
+     * Deserializes the given owner, admins, and members into a
+     * {@link PrivateLiftSign} at the given {@link Block}.
+     * <p>
+     * The admins and members are validated by
+     * {@link PrivateLiftSignData#validateAccess(UUID, Collection, Collection)}.
+     *
+     * @param block The {@link Block} that contains the {@link PrivateLiftSign}.
+     * @param ownerId The {@link UUID} of the owner of the
+     *                {@link PrivateLiftSign}.
+     * @param adminIds The {@link UUID}s of the admins of the
+     *                 {@link PrivateLiftSign}.
+     * @param memberIds The {@link UUID}s of the members of the
+     *                  {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSign} represented by the given data.
+     * @throws SignLiftException If the {@link PrivateLiftSign} cannot be
+     *                           re-created or otherwise has bad data.
+     */
+    @NotNull
+    public static PrivateLiftSign deserialize(@NotNull final Block block, @NotNull final UUID ownerId, @NotNull final Collection<UUID> adminIds, @NotNull final Collection<UUID> memberIds) throws SignLiftException {
+        
+        PrivateLiftSignData.validateAccess(ownerId, adminIds, memberIds);
+        final HashSet<UUID> admins = new HashSet<UUID>(adminIds);
+        final HashSet<UUID> members = new HashSet<UUID>(memberIds);
+        
         try {
-            return new PrivateLiftSign(location, ownerId, adminIds, memberIds);
+            return new PrivateLiftSign(block, ownerId, admins, members);
         } catch (SignLiftException e) {
             throw new SignLiftException("Cannot re-create the PrivateLiftSign.", e);
         }
@@ -65,6 +65,24 @@ public final class PublicLiftSign extends LiftSign {
         super(state);
     }
     
+    /**
+     * Creates a new {@link PublicLiftSign} from the given
+     * {@link LiftSign.Classification}.
+     * 
+     * @param classification The {@link LiftSign.Classification} to create the
+     *                       {@link PublicLiftSign} from.
+     * @throws SignLiftException If the {@link LiftSign.Classification} is not
+     *                           for a {@link PublicLiftSign}, or the
+     *                           {@link PublicLiftSign} cannot be created.
+     * @see LiftSign#LiftSign(LiftSign.Classification)
+     */
+    public PublicLiftSign(@NotNull final Classification classification) throws SignLiftException {
+        super(classification);
+        if (classification.isPrivate()) {
+            throw new SignLiftException("Sign is not a public lift sign.");
+        }
+    }
+    
     /**
      * Creates a new {@link PublicLiftSign} from the given {@link Location} and
      * {@link String} array of lines.
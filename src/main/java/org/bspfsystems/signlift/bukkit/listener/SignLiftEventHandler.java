@@ -23,14 +23,18 @@
 
 package org.bspfsystems.signlift.bukkit.listener;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.block.BlockState;
 import org.bukkit.block.Sign;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.Directional;
@@ -42,21 +46,35 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
 import org.bukkit.event.block.BlockCanBuildEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.PlayerCommandSendEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.bspfsystems.signlift.bukkit.SignLiftPlugin;
 import org.bspfsystems.signlift.bukkit.config.ConfigData;
 import org.bspfsystems.signlift.bukkit.config.ConfigMessage;
 import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bspfsystems.signlift.bukkit.index.LiftSignCache;
+import org.bspfsystems.signlift.bukkit.index.LiftSignIndex;
+import org.bspfsystems.signlift.bukkit.liftsign.LiftLineMatcher;
 import org.bspfsystems.signlift.bukkit.liftsign.LiftSign;
 import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
 import org.bspfsystems.signlift.bukkit.liftsign.PublicLiftSign;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
 
 /**
  * Represents a {@link Listener} for all {@link Event}s that are relevant to
@@ -86,17 +104,20 @@ public final class SignLiftEventHandler implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onBlockBreak(final BlockBreakEvent event) {
         
-        final Player player = event.getPlayer();
         final Block block = event.getBlock();
-        final BlockState state = block.getState();
-        final Location location = block.getLocation();
+        if (!this.mayHaveLiftSigns(block, true)) {
+            return;
+        }
+        
+        final Player player = event.getPlayer();
+        final LiftSign.Classification classification = LiftSign.classify(block);
         
         int signResult = -1;
         
-        // Block is a Sign of some sort.
-        if (state instanceof Sign && (signResult = this.checkSign(player, (Sign) state)) == 0) {
+        // Block is a LiftSign of some sort.
+        if (classification != null && (signResult = this.checkSign(player, classification)) == 0) {
             event.setCancelled(true);
-            if (LiftSign.isPublicLiftSign(location)) {
+            if (!classification.isPrivate()) {
                 player.sendMessage(ConfigMessage.getLiftsignRemovePublicDeny());
             } else {
                 player.sendMessage(ConfigMessage.getLiftsignRemovePrivateDeny());
@@ -120,7 +141,7 @@ public final class SignLiftEventHandler implements Listener {
         
         // Only the given Block is a LiftSign, can be removed.
         if (signResult == 1) {
-            if (LiftSign.isPublicLiftSign(location)) {
+            if (!classification.isPrivate()) {
                 player.sendMessage(ConfigMessage.getLiftsignRemovePublicAllow());
             } else {
                 player.sendMessage(ConfigMessage.getLiftsignRemovePrivateAllow());
@@ -129,23 +150,31 @@ public final class SignLiftEventHandler implements Listener {
     }
     
     /**
-     * Checks to see if the specified {@link Sign} can be broken by the
-     * specified {@link Player}.
+     * Checks to see if the specified classified {@link Sign} can be broken by
+     * the specified {@link Player}.
      * 
      * @param player The {@link Player} attempting to break the {@link Sign}.
-     * @param sign The {@link Sign} attempting to be broken.
+     * @param classification The {@link LiftSign.Classification} of the
+     *                       {@link Sign} attempting to be broken, or
+     *                       {@code null} if the {@link Sign} is not a
+     *                       {@link LiftSign}.
      * @return {@code -1} if the {@link Sign} is not a {@link LiftSign} and
      *         can be broken. {@code 1} if the {@link Sign} is a
      *         {@link LiftSign} and can be broken. Otherwise, {@code 0} (is a
-     *         {@link LiftSign}, but cannot be broken).
+     *         {@link LiftSign}, but cannot be broken, or is a
+     *         {@link PrivateLiftSign} that has not been loaded yet).
      */
-    private int checkSign(@NotNull final Player player, @NotNull final Sign sign) {
+    private int checkSign(@NotNull final Player player, @Nullable final LiftSign.Classification classification) {
         
-        final Location location = sign.getLocation();
-        if (LiftSign.isPublicLiftSign(location)) {
+        if (classification == null) {
+            return -1; // No LiftSign found.
+        }
+        
+        final Location location = classification.getSign().getLocation();
+        if (!classification.isPrivate()) {
             final PublicLiftSign liftSign;
             try {
-                liftSign = new PublicLiftSign(sign);
+                liftSign = new PublicLiftSign(classification);
             } catch (SignLiftException e) {
                 this.logger.log(Level.WARNING, "PublicLiftSign found at Location, cannot \"create\".");
                 this.logger.log(Level.WARNING, "World: " + (location.getWorld() == null ? "null" : location.getWorld().getName()));
@@ -156,8 +185,13 @@ public final class SignLiftEventHandler implements Listener {
                 return -1; // Not LiftSign somehow, show LiftSign not found.
             }
             return liftSign.canRemove(player) ? 1 : 0;
-        } else if (LiftSign.isPrivateLiftSign(location)) {
+        } else {
             final PrivateLiftSign liftSign = this.signLiftPlugin.getPrivateLiftSign(location);
+            if (liftSign == null && !this.signLiftPlugin.isReady()) {
+                // Legacy PrivateLiftSigns are not visible until they have
+                // been imported, so nobody may break one until then.
+                return 0;
+            }
             if (liftSign == null) {
                 this.logger.log(Level.WARNING, "PrivateLiftSign found at Location, cannot retrieve from plugin.");
                 this.logger.log(Level.WARNING, "World: " + (location.getWorld() == null ? "null" : location.getWorld().getName()));
@@ -168,8 +202,104 @@ public final class SignLiftEventHandler implements Listener {
             }
             return liftSign.canRemove(player) ? 1 : 0;
         }
+    }
+    
+    /**
+     * Checks to see if there may be a {@link LiftSign} at the given
+     * {@link Block}, or attached to it, so that {@link Block}s in chunks
+     * without any {@link LiftSign}s can be skipped without looking at them.
+     * <p>
+     * For the {@link Block} itself, its chunk must have been discovered and
+     * contain no {@link LiftSign}s. As attached {@link Sign}s may be chained
+     * into other chunks, including them requires the chunk to contain no
+     * {@link Sign}s at all, along with the chunk next to the {@link Block} if
+     * it is on the edge of its chunk.
+     * <p>
+     * As {@link Sign}s can be placed without an {@link Event}, such as by
+     * another plugin, the {@link Block}s themselves are still looked at
+     * before anything is skipped.
+     *
+     * @param block The {@link Block} to check.
+     * @param attached {@code true} if {@link LiftSign}s attached to the
+     *                 {@link Block} should be included, {@code false} if only
+     *                 the {@link Block} itself matters.
+     * @return {@code true} if there may be a {@link LiftSign}, {@code false}
+     *         if there is none.
+     * @see SignLiftEventHandler#hasUnindexedSigns(Block, boolean)
+     */
+    private boolean mayHaveLiftSigns(@NotNull final Block block, final boolean attached) {
+        
+        final LiftSignIndex liftSignIndex = this.signLiftPlugin.getLiftSignIndex();
+        final World world = block.getWorld();
+        final int chunkX = block.getX() >> 4;
+        final int chunkZ = block.getZ() >> 4;
+        if (!attached) {
+            return !liftSignIndex.containsNoLiftSigns(world, chunkX, chunkZ) || this.hasUnindexedSigns(block, false);
+        }
+        if (!liftSignIndex.containsNoSigns(world, chunkX, chunkZ)) {
+            return true;
+        }
         
-        return -1; // No LiftSign found.
+        final int x = block.getX() & 15;
+        final int z = block.getZ() & 15;
+        return (x == 0 && !liftSignIndex.containsNoSigns(world, chunkX - 1, chunkZ)) || (x == 15 && !liftSignIndex.containsNoSigns(world, chunkX + 1, chunkZ)) || (z == 0 && !liftSignIndex.containsNoSigns(world, chunkX, chunkZ - 1)) || (z == 15 && !liftSignIndex.containsNoSigns(world, chunkX, chunkZ + 1)) || this.hasUnindexedSigns(block, true);
+    }
+    
+    /**
+     * Checks to see if there is a {@link Sign} at the given {@link Block}
+     * (or attached to it) that the {@link LiftSignIndex} has ruled out, as it
+     * was placed without an {@link Event}. Each chunk that such a
+     * {@link Sign} is in is forgotten and discovered again, so that it is
+     * fully checked until the discovery completes.
+     * <p>
+     * For the {@link Block} alone, only a {@link Sign} that is a
+     * {@link LiftSign} counts, as the chunk may contain other {@link Sign}s.
+     * With attached {@link Sign}s included, the chunks are known to contain
+     * no {@link Sign}s at all, so any {@link Sign} counts.
+     *
+     * @param block The {@link Block} to check.
+     * @param attached {@code true} if the {@link Block}s that a {@link Sign}
+     *                 could be attached from should be checked as well,
+     *                 {@code false} if only the {@link Block} itself matters.
+     * @return {@code true} if an unindexed {@link Sign} was found,
+     *         {@code false} otherwise.
+     */
+    private boolean hasUnindexedSigns(@NotNull final Block block, final boolean attached) {
+        
+        if (!attached) {
+            return LiftSign.isSign(block.getType()) && LiftSign.classify(block) != null && this.rediscover(block);
+        }
+        
+        boolean found = LiftSign.isSign(block.getType()) && this.rediscover(block);
+        final BlockFace[] blockFaces = { BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP };
+        for (final BlockFace blockFace : blockFaces) {
+            final Block neighborBlock = block.getRelative(blockFace);
+            if (LiftSign.isSign(neighborBlock.getType())) {
+                found |= this.rediscover(neighborBlock);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Forgets the chunk of the given {@link Block} in the
+     * {@link LiftSignIndex} and discovers it again, unless a discovery is
+     * already in progress.
+     *
+     * @param block The {@link Block} in the chunk to discover again.
+     * @return Always {@code true}.
+     */
+    private boolean rediscover(@NotNull final Block block) {
+        
+        final LiftSignIndex liftSignIndex = this.signLiftPlugin.getLiftSignIndex();
+        final World world = block.getWorld();
+        final int chunkX = block.getX() >> 4;
+        final int chunkZ = block.getZ() >> 4;
+        if (liftSignIndex.isDiscovered(world, chunkX, chunkZ)) {
+            liftSignIndex.clear(world, chunkX, chunkZ);
+            this.signLiftPlugin.getLiftSignDiscovery().discover(world.getChunkAt(chunkX, chunkZ));
+        }
+        return true;
     }
     
     /**
@@ -208,25 +338,15 @@ public final class SignLiftEventHandler implements Listener {
             }
             
             final Block neighborBlock = block.getRelative(blockFace);
-            final BlockState  neighborState = neighborBlock.getState();
-            if (!(neighborState instanceof Sign)) {
+            if (!LiftSign.isSign(neighborBlock.getType())) {
                 continue; // Not a Sign, does not matter.
             }
             
-            final Sign neighborSign = (Sign) neighborState;
-            final BlockData neighborData = neighborBlock.getBlockData();
-            if (neighborData instanceof WallSign) {
-                final WallSign neighborWallSign = (WallSign) neighborData;
-                if (!neighborBlock.getRelative(neighborWallSign.getFacing().getOppositeFace()).getLocation().equals(block.getLocation())) {
-                    continue; // WallSign is not attached to the given Block.
-                }
-            } else if (neighborData instanceof org.bukkit.block.data.type.Sign) {
-                if (!neighborBlock.getRelative(BlockFace.DOWN).getLocation().equals(block.getLocation())) {
-                    continue; // "Normal" Sign is not attached to the given Block.
-                }
+            if (!this.isAttached(neighborBlock, block)) {
+                continue; // Sign is not attached to the given Block.
             }
             
-            final int signResult = this.checkSign(player, neighborSign);
+            final int signResult = this.checkSign(player, LiftSign.classify(neighborBlock));
             if (signResult == 0) {
                  return 0;
             }
@@ -243,6 +363,388 @@ public final class SignLiftEventHandler implements Listener {
         return foundSign ? 1 : -1;
     }
     
+    /**
+     * Checks to see if the given {@link Sign} {@link Block} is attached to
+     * (and would be broken along with) the given {@link Block}.
+     *
+     * @param signBlock The {@link Block} containing the {@link Sign}.
+     * @param block The {@link Block} that the {@link Sign} may be attached to.
+     * @return {@code true} if the {@link Sign} is attached to the given
+     *         {@link Block}, {@code false} otherwise.
+     */
+    private boolean isAttached(@NotNull final Block signBlock, @NotNull final Block block) {
+        
+        final BlockData signData = signBlock.getBlockData();
+        if (signData instanceof WallSign) {
+            return signBlock.getRelative(((WallSign) signData).getFacing().getOppositeFace()).getLocation().equals(block.getLocation());
+        } else if (signData instanceof org.bukkit.block.data.type.Sign) {
+            return signBlock.getRelative(BlockFace.DOWN).getLocation().equals(block.getLocation());
+        }
+        return true;
+    }
+    
+    /**
+     * Runs after a {@link Block} has been broken by a {@link Player} (and the
+     * break has not been cancelled) to remove any {@link LiftSign}s that were
+     * destroyed from the {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex}
+     * and the known {@link PrivateLiftSign}s.
+     * <p>
+     * {@link LiftSign}s that were attached to the broken {@link Block} are not
+     * removed from the world until after this {@link Event}, so the removal is
+     * verified on the next tick.
+     *
+     * @param event The {@link BlockBreakEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBroken(final BlockBreakEvent event) {
+        
+        final Block block = event.getBlock();
+        final List<Block> liftSignBlocks = new ArrayList<Block>();
+        this.signLiftPlugin.getLiftSignCache().invalidate(block);
+        if (!this.mayHaveLiftSigns(block, true)) {
+            return;
+        }
+        
+        if (LiftSign.classify(block) != null) {
+            liftSignBlocks.add(block);
+        }
+        this.collectAttachedLiftSigns(block, BlockFace.UP, liftSignBlocks);
+        
+        if (liftSignBlocks.isEmpty()) {
+            return;
+        }
+        
+        final Player player = event.getPlayer();
+        this.signLiftPlugin.getServer().getScheduler().runTask(this.signLiftPlugin, () -> {
+            for (final Block liftSignBlock : liftSignBlocks) {
+                if (LiftSign.classify(liftSignBlock) == null) {
+                    this.forgetLiftSign(liftSignBlock, player);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Collects the {@link Block}s of any {@link LiftSign}s that are attached
+     * to the given {@link Block}, following chains of attached {@link Sign}s
+     * in the same manner as
+     * {@link SignLiftEventHandler#checkBlocksAround(Player, Block, BlockFace)}.
+     *
+     * @param block The {@link Block} to check around.
+     * @param exclude Any other {@link BlockFace} to exclude (other than
+     *                {@link BlockFace#UP}).
+     * @param liftSignBlocks The {@link List} to add any {@link LiftSign}
+     *                       {@link Block}s to.
+     */
+    private void collectAttachedLiftSigns(@NotNull final Block block, @NotNull final BlockFace exclude, @NotNull final List<Block> liftSignBlocks) {
+        
+        final BlockFace[] blockFaces = { BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP };
+        for (final BlockFace blockFace : blockFaces) {
+            
+            if (exclude == blockFace) {
+                continue;
+            }
+            
+            final Block neighborBlock = block.getRelative(blockFace);
+            if (!LiftSign.isSign(neighborBlock.getType()) || !this.isAttached(neighborBlock, block)) {
+                continue;
+            }
+            
+            if (LiftSign.classify(neighborBlock) != null) {
+                liftSignBlocks.add(neighborBlock);
+            }
+            this.collectAttachedLiftSigns(neighborBlock, blockFace.getOppositeFace(), liftSignBlocks);
+        }
+    }
+    
+    /**
+     * Removes the {@link LiftSign} that was at the given {@link Block} from
+     * the {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex}, and
+     * removes the {@link PrivateLiftSign} data if it was a
+     * {@link PrivateLiftSign}.
+     *
+     * @param block The {@link Block} that no longer contains a
+     *              {@link LiftSign}.
+     * @param player The {@link Player} that broke the {@link LiftSign}, or
+     *               {@code null} if it was not broken by a {@link Player}.
+     */
+    private void forgetLiftSign(@NotNull final Block block, @Nullable final Player player) {
+        
+        this.signLiftPlugin.getLiftSignCache().invalidate(block);
+        this.signLiftPlugin.getLiftSignIndex().remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        
+        final PrivateLiftSign privateLiftSign = this.signLiftPlugin.getPrivateLiftSign(block);
+        if (privateLiftSign != null) {
+            this.signLiftPlugin.removePrivateLiftSign(privateLiftSign, player);
+        }
+    }
+    
+    /**
+     * Runs when an {@link org.bukkit.entity.Entity} explodes to keep any
+     * {@link LiftSign}s, and the {@link Block}s that they are attached to,
+     * from being destroyed.
+     *
+     * @param event The {@link EntityExplodeEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityExplode(final EntityExplodeEvent event) {
+        this.removeProtectedBlocks(event.blockList());
+    }
+    
+    /**
+     * Runs after an {@link org.bukkit.entity.Entity} explodes to invalidate
+     * any cached {@link PublicLiftSign}s that were destroyed, and to forget
+     * any {@link LiftSign}s that were destroyed anyway.
+     *
+     * @param event The {@link EntityExplodeEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExploded(final EntityExplodeEvent event) {
+        this.invalidateAll(event.blockList());
+        this.forgetDestroyedLiftSigns(event.blockList());
+    }
+    
+    /**
+     * Runs when a {@link Block} explodes to keep any {@link LiftSign}s, and
+     * the {@link Block}s that they are attached to, from being destroyed.
+     *
+     * @param event The {@link BlockExplodeEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockExplode(final BlockExplodeEvent event) {
+        this.removeProtectedBlocks(event.blockList());
+    }
+    
+    /**
+     * Runs after a {@link Block} explodes to invalidate any cached
+     * {@link PublicLiftSign}s that were destroyed, and to forget any
+     * {@link LiftSign}s that were destroyed anyway.
+     *
+     * @param event The {@link BlockExplodeEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExploded(final BlockExplodeEvent event) {
+        this.invalidateAll(event.blockList());
+        this.forgetDestroyedLiftSigns(event.blockList());
+    }
+    
+    /**
+     * Runs when a piston extends to prevent it from moving any {@link Block}s
+     * that have {@link LiftSign}s attached to them.
+     *
+     * @param event The {@link BlockPistonExtendEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockPistonExtend(final BlockPistonExtendEvent event) {
+        if (this.containsProtectedBlock(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+    
+    /**
+     * Runs after a piston extends to invalidate any cached
+     * {@link PublicLiftSign}s that were moved or destroyed.
+     *
+     * @param event The {@link BlockPistonExtendEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPistonExtended(final BlockPistonExtendEvent event) {
+        this.invalidateAll(event.getBlocks());
+    }
+    
+    /**
+     * Runs when a piston retracts to prevent it from moving any
+     * {@link Block}s that have {@link LiftSign}s attached to them.
+     *
+     * @param event The {@link BlockPistonRetractEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockPistonRetract(final BlockPistonRetractEvent event) {
+        if (this.containsProtectedBlock(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+    
+    /**
+     * Runs after a piston retracts to invalidate any cached
+     * {@link PublicLiftSign}s that were moved or destroyed.
+     *
+     * @param event The {@link BlockPistonRetractEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPistonRetracted(final BlockPistonRetractEvent event) {
+        this.invalidateAll(event.getBlocks());
+    }
+    
+    /**
+     * Runs when a {@link Block} burns away to keep any {@link LiftSign}s
+     * attached to it from being destroyed.
+     *
+     * @param event The {@link BlockBurnEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockBurn(final BlockBurnEvent event) {
+        
+        final Block block = event.getBlock();
+        if (this.mayHaveLiftSigns(block, true) && this.collectLiftSigns(block, new ArrayList<Block>())) {
+            event.setCancelled(true);
+        }
+    }
+    
+    /**
+     * Runs when a fluid flows into a {@link Block} to keep it from replacing
+     * a {@link LiftSign}.
+     *
+     * @param event The {@link BlockFromToEvent}.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockFromTo(final BlockFromToEvent event) {
+        
+        final Block block = event.getToBlock();
+        if (this.mayHaveLiftSigns(block, false) && LiftSign.classify(block) != null) {
+            event.setCancelled(true);
+        }
+    }
+    
+    /**
+     * Removes any {@link Block}s from the given {@link List} that are
+     * {@link LiftSign}s, or have {@link LiftSign}s attached to them, so that
+     * they are not destroyed.
+     *
+     * @param blocks The {@link List} of {@link Block}s to be destroyed.
+     */
+    private void removeProtectedBlocks(@NotNull final List<Block> blocks) {
+        
+        final LongObjectHashMap<Boolean> skippableChunks = new LongObjectHashMap<Boolean>();
+        final List<Block> liftSignBlocks = new ArrayList<Block>();
+        final Iterator<Block> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            final Block block = iterator.next();
+            if (!this.isSkippable(block, skippableChunks) && this.collectLiftSigns(block, liftSignBlocks)) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Checks to see if any of the given {@link Block}s are {@link LiftSign}s,
+     * or have {@link LiftSign}s attached to them.
+     *
+     * @param blocks The {@link Block}s to check.
+     * @return {@code true} if at least 1 of the {@link Block}s is protected,
+     *         {@code false} otherwise.
+     */
+    private boolean containsProtectedBlock(@NotNull final List<Block> blocks) {
+        
+        final LongObjectHashMap<Boolean> skippableChunks = new LongObjectHashMap<Boolean>();
+        final List<Block> liftSignBlocks = new ArrayList<Block>();
+        for (final Block block : blocks) {
+            if (!this.isSkippable(block, skippableChunks) && this.collectLiftSigns(block, liftSignBlocks)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Collects any {@link LiftSign}s that are among, or attached to, the
+     * given destroyed {@link Block}s, and forgets the ones that are gone on
+     * the next tick. This catches any {@link LiftSign}s that were destroyed
+     * despite the protection (such as by another plugin), so that no stale
+     * data is left behind.
+     *
+     * @param blocks The {@link Block}s that were destroyed.
+     */
+    private void forgetDestroyedLiftSigns(@NotNull final List<Block> blocks) {
+        
+        final LongObjectHashMap<Boolean> skippableChunks = new LongObjectHashMap<Boolean>();
+        final List<Block> liftSignBlocks = new ArrayList<Block>();
+        for (final Block block : blocks) {
+            if (!this.isSkippable(block, skippableChunks)) {
+                this.collectLiftSigns(block, liftSignBlocks);
+            }
+        }
+        
+        if (liftSignBlocks.isEmpty()) {
+            return;
+        }
+        
+        this.signLiftPlugin.getServer().getScheduler().runTask(this.signLiftPlugin, () -> {
+            for (final Block liftSignBlock : liftSignBlocks) {
+                if (LiftSign.classify(liftSignBlock) == null) {
+                    this.forgetLiftSign(liftSignBlock, null);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Checks to see if the given {@link Block} can be skipped when looking
+     * for {@link LiftSign}s in a batch of {@link Block}s. The chunks that the
+     * {@link Block}s are in are looked up in the
+     * {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex} once per
+     * batch, so that large batches in chunks without any {@link Sign}s near
+     * them cost a single lookup per {@link Block}.
+     *
+     * @param block The {@link Block} to check.
+     * @param skippableChunks Whether each chunk already seen in the batch can
+     *                        be skipped, keyed by
+     *                        {@link LiftSignIndex#getChunkKey(int, int)}.
+     * @return {@code true} if there cannot be any {@link LiftSign}s at or
+     *         attached to the {@link Block}, {@code false} otherwise.
+     */
+    private boolean isSkippable(@NotNull final Block block, @NotNull final LongObjectHashMap<Boolean> skippableChunks) {
+        
+        final int chunkX = block.getX() >> 4;
+        final int chunkZ = block.getZ() >> 4;
+        final long chunkKey = LiftSignIndex.getChunkKey(chunkX, chunkZ);
+        
+        Boolean skippable = skippableChunks.get(chunkKey);
+        if (skippable == null) {
+            final LiftSignIndex liftSignIndex = this.signLiftPlugin.getLiftSignIndex();
+            final World world = block.getWorld();
+            skippable = liftSignIndex.containsNoSigns(world, chunkX, chunkZ) && liftSignIndex.containsNoSigns(world, chunkX - 1, chunkZ) && liftSignIndex.containsNoSigns(world, chunkX + 1, chunkZ) && liftSignIndex.containsNoSigns(world, chunkX, chunkZ - 1) && liftSignIndex.containsNoSigns(world, chunkX, chunkZ + 1);
+            skippableChunks.put(chunkKey, skippable);
+        }
+        return skippable ? !this.hasUnindexedSigns(block, true) : !this.mayHaveLiftSigns(block, true);
+    }
+    
+    /**
+     * Collects the given {@link Block} if it is a {@link LiftSign}, along with
+     * any {@link LiftSign}s attached to it.
+     *
+     * @param block The {@link Block} to check.
+     * @param liftSignBlocks The {@link List} to add any {@link LiftSign}
+     *                       {@link Block}s to.
+     * @return {@code true} if any {@link LiftSign}s were found, {@code false}
+     *         otherwise.
+     */
+    private boolean collectLiftSigns(@NotNull final Block block, @NotNull final List<Block> liftSignBlocks) {
+        
+        final int size = liftSignBlocks.size();
+        if (LiftSign.classify(block) != null) {
+            liftSignBlocks.add(block);
+        }
+        
+        // Nothing below a Block can be attached to it, so every other side is
+        // checked.
+        this.collectAttachedLiftSigns(block, BlockFace.DOWN, liftSignBlocks);
+        return liftSignBlocks.size() > size;
+    }
+    
+    /**
+     * Invalidates any cached {@link PublicLiftSign}s at the given
+     * {@link Block}s.
+     *
+     * @param blocks The {@link Block}s to invalidate.
+     */
+    private void invalidateAll(@NotNull final List<Block> blocks) {
+        final LiftSignCache liftSignCache = this.signLiftPlugin.getLiftSignCache();
+        for (final Block block : blocks) {
+            liftSignCache.invalidate(block);
+        }
+    }
+    
     /**
      * Runs when a {@link Player} attempts to place a {@link Block}. Allows
      * handling of placing {@link Block}s on {@link LiftSign}s.
@@ -254,25 +756,19 @@ public final class SignLiftEventHandler implements Listener {
         
         final Player player = event.getPlayer();
         final Block block = event.getBlock();
-        final BlockState state = block.getState();
-        
-        if (!(state instanceof Sign)) {
+        if (!this.mayHaveLiftSigns(block, false)) {
             return;
         }
         
-        final Location location = block.getLocation();
-        final boolean isPrivate;
-        
         // See if the Block is being placed on a LiftSign. If so, prevent
         // that from happening.
-        if (LiftSign.isPublicLiftSign(location)) {
-            isPrivate = false;
-        } else if (LiftSign.isPrivateLiftSign(location)) {
-            isPrivate = true;
-        } else {
+        final LiftSign.Classification classification = LiftSign.classify(block);
+        if (classification == null) {
             return;
         }
         
+        final boolean isPrivate = classification.isPrivate();
+        
         event.setBuildable(false);
         
         if (isPrivate) {
@@ -293,25 +789,26 @@ public final class SignLiftEventHandler implements Listener {
         
         final Player player = event.getPlayer();
         final Block blockAgainst = event.getBlockAgainst();
-        final BlockState stateAgainst = blockAgainst.getState();
         
-        if (!(stateAgainst instanceof Sign)) {
+        // A new Sign may become part of a chain of Signs, so its chunk can no
+        // longer be skipped when Blocks are broken.
+        final Block blockPlaced = event.getBlockPlaced();
+        if (LiftSign.isSign(blockPlaced.getType())) {
+            this.signLiftPlugin.getLiftSignIndex().addSign(blockPlaced.getWorld(), blockPlaced.getX(), blockPlaced.getZ());
+        }
+        if (!this.mayHaveLiftSigns(blockAgainst, false)) {
             return;
         }
         
-        final Location locationAgainst = blockAgainst.getLocation();
-        final boolean isPrivate;
-        
         // See if the Block is being placed on a LiftSign. If so, prevent
         // that from happening.
-        if (LiftSign.isPublicLiftSign(locationAgainst)) {
-            isPrivate = false;
-        } else if (LiftSign.isPrivateLiftSign(locationAgainst)) {
-            isPrivate = true;
-        } else {
+        final LiftSign.Classification classification = LiftSign.classify(blockAgainst);
+        if (classification == null) {
             return;
         }
         
+        final boolean isPrivate = classification.isPrivate();
+        
         event.setCancelled(true);
         if (isPrivate) {
             player.sendMessage(ConfigMessage.getLiftsignBuildDenyPrivate());
@@ -357,9 +854,10 @@ public final class SignLiftEventHandler implements Listener {
                 // Player has prepared the modification command.
                 if (this.signLiftPlugin.isPendingModification(player)) {
                     
-                    if (LiftSign.isPrivateLiftSign(location)) {
+                    final LiftSign.Classification classification = LiftSign.classify(block);
+                    if (classification != null && classification.isPrivate()) {
                         this.signLiftPlugin.modifyPrivateLiftSign(location, player);
-                    } else if (LiftSign.isPublicLiftSign(location)) {
+                    } else if (classification != null) {
                         player.sendMessage(ConfigMessage.getLiftsignModifyPublic());
                     } else {
                         player.sendMessage(ConfigMessage.getLiftsignModifyOther());
@@ -391,38 +889,19 @@ public final class SignLiftEventHandler implements Listener {
                     block = block.getRelative(((Directional) block.getBlockData()).getFacing(), -2);
                 }
                 
-                final BlockState state = block.getState();
-                if (!(state instanceof Sign)) {
-                    return;
-                }
-                
-                if (LiftSign.isPublicLiftSign(location)) {
-                    
-                    final PublicLiftSign liftSign;
-                    try {
-                        liftSign = new PublicLiftSign(state);
-                    } catch (SignLiftException e) {
-                        this.logger.log(Level.WARNING, "PublicLiftSign found at Location, cannot \"create\".");
-                        this.logger.log(Level.WARNING, "World: " + (location.getWorld() == null ? "null" : location.getWorld().getName()));
-                        this.logger.log(Level.WARNING, "X: " + location.getBlockX());
-                        this.logger.log(Level.WARNING, "Y: " + location.getBlockY());
-                        this.logger.log(Level.WARNING, "Z: " + location.getBlockZ());
-                        this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
-                        return; // Not LiftSign somehow, show LiftSign not found.
-                    }
-                    liftSign.activate(player, this.signLiftPlugin);
-                } else if (LiftSign.isPrivateLiftSign(location)) {
-                    
-                    final PrivateLiftSign liftSign = this.signLiftPlugin.getPrivateLiftSign(location);
-                    if (liftSign == null) {
-                        this.logger.log(Level.WARNING, "PrivateLiftSign found at Location, cannot retrieve from plugin.");
-                        this.logger.log(Level.WARNING, "World: " + (location.getWorld() == null ? "null" : location.getWorld().getName()));
-                        this.logger.log(Level.WARNING, "X: " + location.getBlockX());
-                        this.logger.log(Level.WARNING, "Y: " + location.getBlockY());
-                        this.logger.log(Level.WARNING, "Z: " + location.getBlockZ());
-                        return; // Not LiftSign somehow, show LiftSign not found.
-                    }
-                    this.signLiftPlugin.usePrivateLiftSign(liftSign.getLocation(), player);
+                // Repeat activations of the same PublicLiftSign are served
+                // from the LiftSignCache without parsing the Sign again. The
+                // activation itself is performed once per Player per tick.
+                final LiftSign liftSign = this.signLiftPlugin.getLiftSign(block);
+                if (liftSign != null) {
+                    this.signLiftPlugin.getLiftSignActivationQueue().enqueue(player, liftSign);
+                } else if (LiftSign.isPrivateLiftSign(block)) {
+                    final Location signLocation = block.getLocation();
+                    this.logger.log(Level.WARNING, "PrivateLiftSign found at Location, cannot retrieve from plugin.");
+                    this.logger.log(Level.WARNING, "World: " + (signLocation.getWorld() == null ? "null" : signLocation.getWorld().getName()));
+                    this.logger.log(Level.WARNING, "X: " + signLocation.getBlockX());
+                    this.logger.log(Level.WARNING, "Y: " + signLocation.getBlockY());
+                    this.logger.log(Level.WARNING, "Z: " + signLocation.getBlockZ());
                 }
                 break;
                 
@@ -432,6 +911,52 @@ public final class SignLiftEventHandler implements Listener {
         }
     }
     
+    /**
+     * Runs when a {@link Chunk} is loaded to discover any existing
+     * {@link LiftSign}s in the {@link Chunk}, and to track it for the
+     * {@link PrivateLiftSign}s stored in its region.
+     *
+     * @param event The {@link ChunkLoadEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(final ChunkLoadEvent event) {
+        this.signLiftPlugin.loadPrivateLiftSigns(event.getChunk());
+        this.signLiftPlugin.getLiftSignDiscovery().discover(event.getChunk());
+    }
+    
+    /**
+     * Runs when a {@link Chunk} is unloaded to remove the {@link LiftSign}s in
+     * the {@link Chunk} from the
+     * {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex}, and to drop
+     * its {@link PrivateLiftSign}s from memory.
+     *
+     * @param event The {@link ChunkUnloadEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(final ChunkUnloadEvent event) {
+        final Chunk chunk = event.getChunk();
+        this.signLiftPlugin.getLiftSignCache().invalidateChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        this.signLiftPlugin.getLiftSignIndex().clear(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        this.signLiftPlugin.unloadPrivateLiftSigns(chunk);
+    }
+    
+    /**
+     * Runs when a {@link World} is unloaded to remove all {@link LiftSign}s
+     * in the {@link World} from the
+     * {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex}, and to drop
+     * its {@link PrivateLiftSign}s from memory.
+     *
+     * @param event The {@link WorldUnloadEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(final WorldUnloadEvent event) {
+        this.signLiftPlugin.getLiftSignCache().clear(event.getWorld());
+        this.signLiftPlugin.getLiftSignIndex().clear(event.getWorld());
+        this.signLiftPlugin.getLiftSignThrottle().clear(event.getWorld());
+        this.signLiftPlugin.getLiftSignPreResolver().clear(event.getWorld());
+        this.signLiftPlugin.unloadPrivateLiftSigns(event.getWorld());
+    }
+    
     /**
      * Runs when a {@link Player} joins the server. Used to get the name to
      * {@link UUID} mapping of the {@link Player}.
@@ -455,22 +980,16 @@ public final class SignLiftEventHandler implements Listener {
     public void onSignChange(final SignChangeEvent event) {
         
         final String[] lines = event.getLines();
-        final String liftLine = lines[1];
-        if (liftLine.length() < 3) {
-            return; // Ignore short lines.
-        }
-        
-        final String liftDirection = liftLine.substring(1, liftLine.length() - 1);
-        if (!liftDirection.equalsIgnoreCase(ConfigData.getDirectionNone()) && !liftDirection.equalsIgnoreCase(ConfigData.getDirectionUp()) && !liftDirection.equalsIgnoreCase(ConfigData.getDirectionDown())) {
-            return; // Ignore text that does not match a lift direction.
+        final LiftLineMatcher.Match match = ConfigData.getLiftLineMatcher().match(lines[1]);
+        if (match == null) {
+            return; // Ignore text that does not match a lift line.
         }
         
         final Block block = event.getBlock();
         final Player player = event.getPlayer();
-        final boolean isPrivate;
+        final boolean isPrivate = match.isPrivate();
         
-        if (liftLine.startsWith(ConfigData.getPublicStart()) && liftLine.endsWith(ConfigData.getPublicEnd())) {
-            isPrivate = false;
+        if (!isPrivate) {
             
             // Check for PublicLiftSign build permission.
             if (!player.hasPermission("signlift.create.public")) {
@@ -479,8 +998,7 @@ public final class SignLiftEventHandler implements Listener {
                 this.returnSign(block, player);
                 return;
             }
-        } else if (liftLine.startsWith(ConfigData.getPrivateStart()) && liftLine.endsWith(ConfigData.getPrivateEnd())) {
-            isPrivate = true;
+        } else {
             
             // Check for PrivateLiftSign build permission.
             if (!player.hasPermission("signlift.create.private")) {
@@ -489,8 +1007,6 @@ public final class SignLiftEventHandler implements Listener {
                 this.returnSign(block, player);
                 return;
             }
-        } else {
-            return;
         }
         
         final Location location = block.getLocation();
@@ -501,7 +1017,8 @@ public final class SignLiftEventHandler implements Listener {
                 this.signLiftPlugin.addPrivateLiftSign(new PrivateLiftSign(location, lines, player), player);
                 player.sendMessage(ConfigMessage.getLiftsignCreatePrivateAllow());
             } else {
-                new PublicLiftSign(location, lines);
+                final PublicLiftSign liftSign = new PublicLiftSign(location, lines);
+                this.signLiftPlugin.getLiftSignIndex().add(liftSign.getWorld(), liftSign.getX(), liftSign.getY(), liftSign.getZ(), false);
                 player.sendMessage(ConfigMessage.getLiftsignCreatePublicAllow());
             }
         } catch (SignLiftException e) {
@@ -531,6 +1048,29 @@ public final class SignLiftEventHandler implements Listener {
         }
     }
     
+    /**
+     * Runs after a {@link Sign} has been changed (and the change has not been
+     * cancelled) to invalidate any cached {@link PublicLiftSign} for it, and to
+     * remove the {@link Sign} from the
+     * {@link org.bspfsystems.signlift.bukkit.index.LiftSignIndex} if it no
+     * longer represents a {@link LiftSign}.
+     *
+     * @param event The {@link SignChangeEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChanged(final SignChangeEvent event) {
+        
+        this.signLiftPlugin.getLiftSignCache().invalidate(event.getBlock());
+        
+        final String liftLine = event.getLine(1);
+        if (liftLine != null && ConfigData.getLiftLineMatcher().match(liftLine) != null) {
+            return;
+        }
+        
+        final Block block = event.getBlock();
+        this.signLiftPlugin.getLiftSignIndex().remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    
     /**
      * Returns the specified {@link Block} (which should be a {@link Sign}) to
      * the specified {@link Player}.
@@ -0,0 +1,273 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+
+/**
+ * Represents the compact binary {@link PrivateLiftSignFormat}.
+ * <p>
+ * Snapshots start with a table of {@link org.bukkit.World} names, followed by
+ * one record per {@link PrivateLiftSignData} that refers to its
+ * {@link org.bukkit.World} by index. Positions are stored as packed
+ * {@link BlockPosition}s, {@link UUID}s as two raw {@code long}s, and the
+ * admins and members as length-prefixed arrays. The snapshot ends with a
+ * CRC32 of everything before it.
+ * <p>
+ * Snapshots are read into a heap {@link ByteBuffer} in one go, and parsed
+ * from it without any intermediate streams. The {@link ByteBuffer} is only
+ * held for the duration of the read.
+ */
+public final class BinaryPrivateLiftSignFormat implements PrivateLiftSignFormat {
+    
+    private static final int MAGIC = 0x534C5331; // "SLS1"
+    private static final int VERSION = 2;
+    private static final int MAX_UNIQUE_IDS = 65536;
+    
+    /**
+     * Constructs a new {@link BinaryPrivateLiftSignFormat}.
+     */
+    public BinaryPrivateLiftSignFormat() {
+        // Nothing to set up.
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getName() {
+        return "binary";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getExtension() {
+        return "dat";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(@NotNull final OutputStream out, @NotNull final Collection<PrivateLiftSignData> records) throws IOException {
+        
+        final LinkedHashMap<String, Integer> worlds = new LinkedHashMap<String, Integer>();
+        for (final PrivateLiftSignData data : records) {
+            worlds.putIfAbsent(data.getWorld(), worlds.size());
+        }
+        
+        final CRC32 checksum = new CRC32();
+        final DataOutputStream snapshot = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(out, 65536), checksum));
+        snapshot.writeInt(BinaryPrivateLiftSignFormat.MAGIC);
+        snapshot.writeInt(BinaryPrivateLiftSignFormat.VERSION);
+        
+        snapshot.writeInt(worlds.size());
+        for (final String world : worlds.keySet()) {
+            final byte[] name = world.getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF) {
+                throw new IOException("World name is too long: " + world);
+            }
+            snapshot.writeShort(name.length);
+            snapshot.write(name);
+        }
+        
+        snapshot.writeInt(records.size());
+        for (final PrivateLiftSignData data : records) {
+            snapshot.writeInt(worlds.get(data.getWorld()));
+            snapshot.writeLong(data.getPosition());
+            BinaryPrivateLiftSignFormat.writeUniqueId(snapshot, data.getOwner());
+            snapshot.writeInt(data.getAdmins().size());
+            for (final UUID admin : data.getAdmins()) {
+                BinaryPrivateLiftSignFormat.writeUniqueId(snapshot, admin);
+            }
+            snapshot.writeInt(data.getMembers().size());
+            for (final UUID member : data.getMembers()) {
+                BinaryPrivateLiftSignFormat.writeUniqueId(snapshot, member);
+            }
+        }
+        
+        snapshot.writeInt((int) checksum.getValue());
+        snapshot.flush();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(@NotNull final File file, @NotNull final Consumer<PrivateLiftSignData> consumer) throws IOException {
+        
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            
+            final long size = channel.size();
+            if (size < 16L || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid PrivateLiftSign snapshot size (" + size + " bytes): " + file.getPath());
+            }
+            
+            // Nothing is mapped, as a mapped file cannot be moved or deleted
+            // on some platforms until the mapping is garbage collected.
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of PrivateLiftSign snapshot: " + file.getPath());
+                }
+            }
+            buffer.flip();
+            this.read(buffer, file.getPath(), consumer);
+        }
+    }
+    
+    /**
+     * Reads a complete snapshot from the given {@link ByteBuffer}, from its
+     * position to its limit, passing each {@link PrivateLiftSignData} to the
+     * given {@link Consumer}.
+     *
+     * @param buffer The {@link ByteBuffer} to read from.
+     * @param source The source of the snapshot, for error reporting.
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PrivateLiftSignData} to.
+     * @throws IOException If the snapshot is invalid or corrupt.
+     */
+    void read(@NotNull final ByteBuffer buffer, @NotNull final String source, @NotNull final Consumer<PrivateLiftSignData> consumer) throws IOException {
+        
+        if (buffer.remaining() < 16) {
+            throw new IOException("Invalid PrivateLiftSign snapshot size (" + buffer.remaining() + " bytes): " + source);
+        }
+        
+        try {
+            
+            final int end = buffer.limit() - 4;
+            
+            final CRC32 checksum = new CRC32();
+            final ByteBuffer checked = buffer.duplicate();
+            checked.limit(end);
+            checksum.update(checked);
+            if (buffer.getInt(end) != (int) checksum.getValue()) {
+                throw new IOException("PrivateLiftSign snapshot checksum mismatch: " + source);
+            }
+            buffer.limit(end);
+            
+            if (buffer.getInt() != BinaryPrivateLiftSignFormat.MAGIC) {
+                throw new IOException("Not a PrivateLiftSign snapshot: " + source);
+            }
+            final int version = buffer.getInt();
+            if (version != BinaryPrivateLiftSignFormat.VERSION) {
+                throw new IOException("Unsupported PrivateLiftSign snapshot version " + version + ": " + source);
+            }
+            
+            final String[] worlds = new String[BinaryPrivateLiftSignFormat.readCount(buffer, Integer.MAX_VALUE)];
+            for (int index = 0; index < worlds.length; index++) {
+                final byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                worlds[index] = new String(name, StandardCharsets.UTF_8);
+            }
+            
+            final int count = BinaryPrivateLiftSignFormat.readCount(buffer, Integer.MAX_VALUE);
+            for (int index = 0; index < count; index++) {
+                
+                final int worldIndex = buffer.getInt();
+                if (worldIndex < 0 || worldIndex >= worlds.length) {
+                    throw new IOException("Invalid World index " + worldIndex + " in PrivateLiftSign snapshot: " + source);
+                }
+                final long position = buffer.getLong();
+                final UUID owner = new UUID(buffer.getLong(), buffer.getLong());
+                final List<UUID> admins = BinaryPrivateLiftSignFormat.readUniqueIds(buffer);
+                final List<UUID> members = BinaryPrivateLiftSignFormat.readUniqueIds(buffer);
+                
+                consumer.accept(new PrivateLiftSignData(worlds[worldIndex], BlockPosition.getX(position), BlockPosition.getY(position), BlockPosition.getZ(position), owner, admins, members));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("PrivateLiftSign snapshot is truncated: " + source, e);
+        }
+    }
+    
+    /**
+     * Writes the given {@link UUID} as two raw {@code long}s.
+     *
+     * @param out The {@link DataOutputStream} to write to.
+     * @param uniqueId The {@link UUID} to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeUniqueId(@NotNull final DataOutputStream out, @NotNull final UUID uniqueId) throws IOException {
+        out.writeLong(uniqueId.getMostSignificantBits());
+        out.writeLong(uniqueId.getLeastSignificantBits());
+    }
+    
+    /**
+     * Reads a length-prefixed array of {@link UUID}s.
+     *
+     * @param buffer The {@link ByteBuffer} to read from.
+     * @return The {@link UUID}s.
+     * @throws IOException If the length is invalid.
+     */
+    @NotNull
+    private static List<UUID> readUniqueIds(@NotNull final ByteBuffer buffer) throws IOException {
+        
+        final int count = BinaryPrivateLiftSignFormat.readCount(buffer, BinaryPrivateLiftSignFormat.MAX_UNIQUE_IDS);
+        final List<UUID> uniqueIds = new ArrayList<UUID>(count);
+        for (int index = 0; index < count; index++) {
+            uniqueIds.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return uniqueIds;
+    }
+    
+    /**
+     * Reads a count, checking that it is between zero and the given maximum.
+     *
+     * @param buffer The {@link ByteBuffer} to read from.
+     * @param max The maximum count.
+     * @return The count.
+     * @throws IOException If the count is invalid.
+     */
+    private static int readCount(@NotNull final ByteBuffer buffer, final int max) throws IOException {
+        final int count = buffer.getInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid count in PrivateLiftSign snapshot: " + count);
+        }
+        return count;
+    }
+}
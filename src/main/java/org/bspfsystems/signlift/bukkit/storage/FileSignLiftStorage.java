@@ -0,0 +1,333 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+import org.bspfsystems.signlift.bukkit.util.AtomicFileBatch;
+import org.bspfsystems.signlift.bukkit.util.ParallelFileLoader;
+
+/**
+ * Represents the file-based {@link SignLiftStorage}.
+ * <p>
+ * All {@link PlayerDataEntry}s are kept in memory and persisted by a
+ * {@link PlayerNameIndex} in a single append-only file. The
+ * {@link PrivateLiftSignData} is persisted by a {@link PrivateLiftSignJournal}
+ * in one region file per 32x32 chunks, and only the regions used by loaded
+ * chunks, or with changes that have not been compacted yet, are kept in
+ * memory. Lookups by player are answered from a per-player index of regions.
+ * <p>
+ * {@link PlayerDataEntry}s used to be stored in one YAML file each in the
+ * {@code PlayerData} folder. Any such files are loaded in parallel by a
+ * {@link ParallelFileLoader}, imported into the {@link PlayerNameIndex}, and
+ * deleted when the {@link FileSignLiftStorage} is opened.
+ */
+public final class FileSignLiftStorage implements SignLiftStorage {
+    
+    private final Logger logger;
+    private final File playerDataFolder;
+    private final PlayerNameIndex playerNameIndex;
+    private final PrivateLiftSignJournal privateLiftSignJournal;
+    
+    /**
+     * Constructs a new {@link FileSignLiftStorage} that stores its files in
+     * the given folder.
+     *
+     * @param folder The folder to store the files in.
+     * @param format The {@link PrivateLiftSignFormat} to write
+     *               {@link PrivateLiftSignData} region files in.
+     * @param logger The {@link Logger} to report skipped data to.
+     */
+    public FileSignLiftStorage(@NotNull final File folder, @NotNull final PrivateLiftSignFormat format, @NotNull final Logger logger) {
+        this.logger = logger;
+        this.playerDataFolder = new File(folder, "PlayerData");
+        this.playerNameIndex = new PlayerNameIndex(folder, logger);
+        this.privateLiftSignJournal = new PrivateLiftSignJournal(folder, format, logger);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getName() {
+        return "file";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open() throws IOException {
+        
+        this.playerNameIndex.open();
+        if (this.playerDataFolder.isDirectory()) {
+            this.migratePlayers();
+        }
+        this.privateLiftSignJournal.open();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The {@link Consumer} is only called from the calling thread.
+     */
+    @Override
+    public void loadPlayers(@NotNull final Consumer<PlayerDataEntry> consumer) {
+        for (final PlayerDataEntry playerDataEntry : this.playerNameIndex.getAll()) {
+            consumer.accept(playerDataEntry);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The {@link PlayerDataEntry} is appended to the
+     * {@link PlayerNameIndex} by the next {@link FileSignLiftStorage#flush()}.
+     */
+    @Override
+    public void savePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+        this.playerNameIndex.put(playerDataEntry);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSigns(@NotNull final String world) throws IOException {
+        return this.privateLiftSignJournal.get(world);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSignsInChunk(@NotNull final String world, final int chunkX, final int chunkZ) throws IOException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        final List<PrivateLiftSignData> region = this.privateLiftSignJournal.isOpen() ? this.privateLiftSignJournal.read(world, chunkX >> 5, chunkZ >> 5) : this.privateLiftSignJournal.peek(world, chunkX >> 5, chunkZ >> 5);
+        for (final PrivateLiftSignData data : region) {
+            if (data.getX() >> 4 == chunkX && data.getZ() >> 4 == chunkZ) {
+                records.add(data);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The region is kept in memory by the {@link PrivateLiftSignJournal}
+     * until it is released. While the {@link PrivateLiftSignJournal} is still
+     * being opened, the region is read directly from its files instead.
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSignsInRegion(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        return this.privateLiftSignJournal.isOpen() ? this.privateLiftSignJournal.get(world, regionX, regionZ) : this.privateLiftSignJournal.peek(world, regionX, regionZ);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSignsOwnedBy(@NotNull final UUID owner) throws IOException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        for (final PrivateLiftSignData data : this.privateLiftSignJournal.getByPlayer(owner)) {
+            if (data.getOwner().equals(owner)) {
+                records.add(data);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSignsWithAccess(@NotNull final UUID uniqueId) throws IOException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        for (final PrivateLiftSignData data : this.privateLiftSignJournal.getByPlayer(uniqueId)) {
+            if (data.getAdmins().contains(uniqueId) || data.getMembers().contains(uniqueId)) {
+                records.add(data);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releasePrivateLiftSignRegion(@NotNull final String world, final int regionX, final int regionZ) {
+        this.privateLiftSignJournal.release(world, regionX, regionZ);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void savePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException {
+        this.privateLiftSignJournal.put(data);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deletePrivateLiftSign(@NotNull final String world, final int x, final int y, final int z) throws IOException {
+        this.privateLiftSignJournal.remove(world, x, y, z);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void importPrivateLiftSigns(@NotNull final Collection<PrivateLiftSignData> records) throws IOException {
+        this.privateLiftSignJournal.importAll(records);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The {@link PrivateLiftSignJournal} and the saved
+     * {@link PlayerDataEntry}s are forced to disk, and each is compacted once
+     * it has grown large enough. The {@link PrivateLiftSignJournal} is also
+     * compacted into the changed region files when there is a migration to
+     * finish.
+     */
+    @Override
+    public void flush() throws IOException {
+        
+        this.privateLiftSignJournal.flush();
+        this.playerNameIndex.flush();
+        if (this.playerNameIndex.needsCompaction()) {
+            this.playerNameIndex.compact();
+        }
+        if (this.privateLiftSignJournal.needsCompaction()) {
+            this.privateLiftSignJournal.compact();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.playerNameIndex.close();
+        } finally {
+            this.privateLiftSignJournal.close();
+        }
+    }
+    
+    /**
+     * Imports the {@link PlayerDataEntry}s in the legacy {@code PlayerData}
+     * folder into the {@link PlayerNameIndex}, and deletes the imported files.
+     * The folder itself is deleted once it is empty.
+     *
+     * @throws IOException If the {@link PlayerNameIndex} cannot be written.
+     */
+    private void migratePlayers() throws IOException {
+        
+        final List<PlayerDataEntry> playerDataEntries = new ArrayList<PlayerDataEntry>();
+        ParallelFileLoader.load(this.playerDataFolder.toPath(), "*.yml", ParallelFileLoader.getDefaultParallelism(), this::loadPlayer, playerDataEntry -> {
+            synchronized (playerDataEntries) {
+                playerDataEntries.add(playerDataEntry);
+            }
+        });
+        this.playerNameIndex.importAll(playerDataEntries);
+        
+        // Files that could not be loaded are kept for the server owner to
+        // inspect, and are tried again on the next startup.
+        AtomicFileBatch.deleteTempFiles(this.playerDataFolder.toPath());
+        for (final PlayerDataEntry playerDataEntry : playerDataEntries) {
+            Files.deleteIfExists(new File(this.playerDataFolder, playerDataEntry.getUniqueId().toString() + ".yml").toPath());
+        }
+        
+        final String[] remaining = this.playerDataFolder.list();
+        if (remaining != null && remaining.length == 0) {
+            Files.delete(this.playerDataFolder.toPath());
+        } else if (remaining != null) {
+            this.logger.log(Level.WARNING, remaining.length + " files in " + this.playerDataFolder.getPath() + " could not be migrated, and have been kept.");
+        }
+        this.logger.log(Level.INFO, "Migrated " + playerDataEntries.size() + " PlayerData files to " + this.playerNameIndex.getFile().getPath() + ".");
+    }
+    
+    /**
+     * Loads the {@link PlayerDataEntry} from the given legacy file, reporting
+     * and skipping it if it cannot be loaded. The time the player was last
+     * seen is taken from the time the file was last modified.
+     *
+     * @param playerDataConfigPath The {@link Path} of the file.
+     * @return The {@link PlayerDataEntry}, or {@code null} if it could not be
+     *         loaded.
+     */
+    @Nullable
+    private PlayerDataEntry loadPlayer(@NotNull final Path playerDataConfigPath) {
+        
+        final File playerDataConfigFile = playerDataConfigPath.toFile();
+        final YamlConfiguration playerDataConfig = new YamlConfiguration();
+        try {
+            playerDataConfig.load(playerDataConfigFile);
+        } catch (IOException | IllegalArgumentException | InvalidConfigurationException e) {
+            this.logger.log(Level.WARNING, "Unable to load PlayerData configuration file at " + playerDataConfigFile.getPath());
+            this.logger.log(Level.WARNING, "Skipping player.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
+        
+        final PlayerDataEntry playerDataEntry;
+        try {
+            playerDataEntry = PlayerDataEntry.deserialize(playerDataConfig);
+        } catch (IllegalArgumentException e) {
+            this.logger.log(Level.WARNING, "Could not deserialize PlayerDataEntry configuration file at " + playerDataConfigFile.getPath());
+            this.logger.log(Level.WARNING, "Skipping PlayerDataEntry.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return null;
+        }
+        return new PlayerDataEntry(playerDataEntry.getUniqueId(), playerDataEntry.getName(), playerDataConfigFile.lastModified());
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+import org.bspfsystems.signlift.bukkit.util.AtomicFileBatch;
+
+/**
+ * Represents the storage engine for {@link PlayerDataEntry}s, kept in a
+ * single append-only file.
+ * <p>
+ * Each {@link PlayerDataEntry} is stored as a small, checksummed record of
+ * its {@link UUID}, name, and the time it was last seen, and the latest
+ * record for each {@link UUID} wins. New records are buffered and appended
+ * together by {@link PlayerNameIndex#flush()}, and the file is loaded with a
+ * single sequential read. Once most of the records have been superseded, the
+ * file is compacted by rewriting it with only the latest record for each
+ * {@link UUID}, and replacing it atomically.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class PlayerNameIndex {
+    
+    private static final int INDEX_MAGIC = 0x534C5031; // "SLP1"
+    
+    private static final int MAX_RECORD_LENGTH = 1 << 10;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+    
+    private final Logger logger;
+    private final File indexFile;
+    private final AtomicFileBatch indexBatch;
+    
+    private final HashMap<UUID, PlayerDataEntry> entries;
+    
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream record;
+    private final CRC32 recordChecksum;
+    
+    private FileOutputStream indexOut;
+    private DataOutputStream index;
+    private int indexRecords;
+    
+    private boolean closed;
+    
+    /**
+     * Constructs a new {@link PlayerNameIndex} that stores its file in the
+     * given folder. The {@link PlayerNameIndex} must be opened before it is
+     * used.
+     *
+     * @param folder The folder to store the file in.
+     * @param logger The {@link Logger} to report recovered errors to.
+     * @see PlayerNameIndex#open()
+     */
+    public PlayerNameIndex(@NotNull final File folder, @NotNull final Logger logger) {
+        
+        this.logger = logger;
+        this.indexFile = new File(folder, "PlayerNames.dat");
+        this.indexBatch = new AtomicFileBatch();
+        
+        this.entries = new HashMap<UUID, PlayerDataEntry>();
+        
+        this.recordBytes = new ByteArrayOutputStream(64);
+        this.record = new DataOutputStream(this.recordBytes);
+        this.recordChecksum = new CRC32();
+        
+        this.indexRecords = 0;
+        this.closed = false;
+    }
+    
+    /**
+     * Opens this {@link PlayerNameIndex}, loading every record in the file.
+     *
+     * @throws IOException If the file is not a {@link PlayerNameIndex}, or an
+     *                     I/O error occurs.
+     */
+    public synchronized void open() throws IOException {
+        
+        Files.deleteIfExists(new File(this.indexFile.getPath() + ".tmp").toPath());
+        if (this.indexFile.exists()) {
+            this.indexRecords = this.load();
+        }
+        this.openIndex();
+    }
+    
+    /**
+     * Gets the file that this {@link PlayerNameIndex} is stored in.
+     *
+     * @return The file of this {@link PlayerNameIndex}.
+     */
+    @NotNull
+    public File getFile() {
+        return this.indexFile;
+    }
+    
+    /**
+     * Gets all {@link PlayerDataEntry}s.
+     *
+     * @return A copy of all {@link PlayerDataEntry}s.
+     */
+    @NotNull
+    public synchronized List<PlayerDataEntry> getAll() {
+        return new ArrayList<PlayerDataEntry>(this.entries.values());
+    }
+    
+    /**
+     * Gets the number of {@link PlayerDataEntry}s.
+     *
+     * @return The number of {@link PlayerDataEntry}s.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    
+    /**
+     * Stores the given {@link PlayerDataEntry}, replacing any
+     * {@link PlayerDataEntry} with the same {@link UUID}. The record is
+     * buffered, and is only appended to the file by the next
+     * {@link PlayerNameIndex#flush()}.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry} to store.
+     * @throws IOException If the record could not be buffered.
+     */
+    public synchronized void put(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+        
+        if (this.closed) {
+            throw new IOException("PlayerData index is closed.");
+        }
+        
+        final PlayerDataEntry copy = new PlayerDataEntry(playerDataEntry.getUniqueId(), playerDataEntry.getName(), playerDataEntry.getLastSeen());
+        this.entries.put(copy.getUniqueId(), copy);
+        this.appendRecord(copy);
+    }
+    
+    /**
+     * Stores all of the given {@link PlayerDataEntry}s whose {@link UUID}s
+     * are not already stored, and compacts. This is used to import legacy
+     * data, which is always older than anything in the file.
+     *
+     * @param playerDataEntries The {@link PlayerDataEntry}s to import.
+     * @throws IOException If the file could not be rewritten.
+     */
+    public synchronized void importAll(@NotNull final Collection<PlayerDataEntry> playerDataEntries) throws IOException {
+        
+        for (final PlayerDataEntry playerDataEntry : playerDataEntries) {
+            if (!this.entries.containsKey(playerDataEntry.getUniqueId())) {
+                this.entries.put(playerDataEntry.getUniqueId(), new PlayerDataEntry(playerDataEntry.getUniqueId(), playerDataEntry.getName(), playerDataEntry.getLastSeen()));
+            }
+        }
+        this.compact();
+    }
+    
+    /**
+     * Appends the buffered records to the file, and forces them to disk.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void flush() throws IOException {
+        if (!this.closed) {
+            this.index.flush();
+            this.indexOut.getChannel().force(false);
+        }
+    }
+    
+    /**
+     * Checks to see if most of the records in the file have been superseded,
+     * so that it should be compacted.
+     *
+     * @return {@code true} if the file should be compacted, {@code false}
+     *         otherwise.
+     */
+    public synchronized boolean needsCompaction() {
+        return !this.closed && this.indexRecords >= Math.max(PlayerNameIndex.MIN_COMPACTION_RECORDS, this.entries.size() * 2);
+    }
+    
+    /**
+     * Compacts the file, rewriting it with only the latest record for each
+     * {@link UUID}.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void compact() throws IOException {
+        
+        if (this.closed) {
+            return;
+        }
+        
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(this.entries.size() * 48 + 4);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(PlayerNameIndex.INDEX_MAGIC);
+        for (final PlayerDataEntry playerDataEntry : this.entries.values()) {
+            this.writeRecord(out, playerDataEntry);
+        }
+        out.flush();
+        
+        this.closeIndex();
+        try {
+            this.indexBatch.stage(this.indexFile, bytes.toByteArray());
+            this.indexBatch.commit();
+            this.indexRecords = this.entries.size();
+        } finally {
+            this.openIndex();
+        }
+    }
+    
+    /**
+     * Appends any buffered records, and closes the file. No further changes
+     * may be made.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            this.closeIndex();
+        }
+    }
+    
+    /**
+     * Loads every record in the file into memory. Any incomplete or corrupt
+     * records at the end of the file are truncated.
+     *
+     * @return The number of records loaded.
+     * @throws IOException If the file is not a {@link PlayerNameIndex}, or an
+     *                     I/O error occurs.
+     */
+    private int load() throws IOException {
+        
+        long valid = 0L;
+        int count = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.indexFile), 65536))) {
+            
+            if (in.readInt() != PlayerNameIndex.INDEX_MAGIC) {
+                throw new IOException("Not a PlayerData index: " + this.indexFile.getPath());
+            }
+            valid = 4L;
+            
+            while (true) {
+                
+                final int length = in.readInt();
+                if (length <= 0 || length > PlayerNameIndex.MAX_RECORD_LENGTH) {
+                    break;
+                }
+                
+                final byte[] body = new byte[length];
+                in.readFully(body);
+                final int checksum = in.readInt();
+                
+                this.recordChecksum.reset();
+                this.recordChecksum.update(body, 0, length);
+                if ((int) this.recordChecksum.getValue() != checksum) {
+                    break;
+                }
+                
+                final DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+                final UUID uniqueId = new UUID(bodyIn.readLong(), bodyIn.readLong());
+                final long lastSeen = bodyIn.readLong();
+                final String name = bodyIn.readUTF();
+                this.entries.put(uniqueId, new PlayerDataEntry(uniqueId, name, lastSeen));
+                
+                valid += 8L + length;
+                count++;
+            }
+        } catch (EOFException e) {
+            // Either the end of the file, or an incomplete record that is
+            // truncated below.
+        }
+        
+        if (this.indexFile.length() > valid) {
+            this.logger.log(Level.WARNING, "PlayerData index has an incomplete or corrupt record, likely from an unclean shutdown.");
+            this.logger.log(Level.WARNING, "Index: " + this.indexFile.getPath());
+            this.logger.log(Level.WARNING, "Truncating " + (this.indexFile.length() - valid) + " bytes at offset " + valid + ".");
+            try (final RandomAccessFile truncate = new RandomAccessFile(this.indexFile, "rw")) {
+                truncate.setLength(valid);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Buffers a record of the given {@link PlayerDataEntry} to be appended to
+     * the file.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry} to append.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void appendRecord(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+        this.writeRecord(this.index, playerDataEntry);
+        this.indexRecords++;
+    }
+    
+    /**
+     * Writes a record of the given {@link PlayerDataEntry} to the given
+     * {@link DataOutputStream}, as {@code [length][body][crc32]}.
+     *
+     * @param out The {@link DataOutputStream} to write to.
+     * @param playerDataEntry The {@link PlayerDataEntry} to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeRecord(@NotNull final DataOutputStream out, @NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+        
+        this.recordBytes.reset();
+        this.record.writeLong(playerDataEntry.getUniqueId().getMostSignificantBits());
+        this.record.writeLong(playerDataEntry.getUniqueId().getLeastSignificantBits());
+        this.record.writeLong(playerDataEntry.getLastSeen());
+        this.record.writeUTF(playerDataEntry.getName());
+        
+        this.recordChecksum.reset();
+        this.recordChecksum.update(this.recordBytes.toByteArray(), 0, this.recordBytes.size());
+        
+        out.writeInt(this.recordBytes.size());
+        this.recordBytes.writeTo(out);
+        out.writeInt((int) this.recordChecksum.getValue());
+    }
+    
+    /**
+     * Opens the file for appending, writing its header if it is empty.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void openIndex() throws IOException {
+        
+        final boolean empty = !this.indexFile.exists() || this.indexFile.length() == 0L;
+        this.indexOut = new FileOutputStream(this.indexFile, true);
+        this.index = new DataOutputStream(new BufferedOutputStream(this.indexOut, 65536));
+        if (empty) {
+            this.index.writeInt(PlayerNameIndex.INDEX_MAGIC);
+            this.index.flush();
+        }
+    }
+    
+    /**
+     * Appends any buffered records, forces them to disk, and closes the file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void closeIndex() throws IOException {
+        
+        if (this.index == null) {
+            return;
+        }
+        
+        try {
+            this.index.flush();
+            this.indexOut.getChannel().force(false);
+        } finally {
+            this.index.close();
+            this.index = null;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import org.bukkit.World;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+
+/**
+ * Represents the stored form of a {@link PrivateLiftSign}.
+ * <p>
+ * Unlike a {@link PrivateLiftSign}, this refers to its {@link World} by name,
+ * so it can be read and written while the {@link World} is not loaded, and
+ * it is immutable, so it can be safely handed between threads.
+ */
+public final class PrivateLiftSignData {
+    
+    // Keys of the YAML formats. The legacy per-file format nests the
+    // coordinates under the location key.
+    private static final String KEY_LOCATION = "location";
+    private static final String KEY_WORLD = "world";
+    private static final String KEY_X = "x";
+    private static final String KEY_Y = "y";
+    private static final String KEY_Z = "z";
+    private static final String KEY_OWNER_UNIQUE_ID = "owner_unique_id";
+    private static final String KEY_ADMIN_UNIQUE_IDS = "admin_unique_ids";
+    private static final String KEY_MEMBER_UNIQUE_IDS = "member_unique_ids";
+    private static final String KEY_PITCH = "pitch";
+    private static final String KEY_YAW = "yaw";
+    private static final String KEY_TYPE = "==";
+    
+    private static final String LEGACY_LOCATION_TYPE = "org.bukkit.Location";
+    private static final Pattern LEGACY_LOCATION_TAG = Pattern.compile("^[ \\t]*==:[ \\t]*org\\.bukkit\\.Location[ \\t]*$", Pattern.MULTILINE);
+    
+    private final String world;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final UUID owner;
+    private final List<UUID> admins;
+    private final List<UUID> members;
+    
+    /**
+     * Constructs a new {@link PrivateLiftSignData}.
+     *
+     * @param world The name of the {@link World} of the
+     *              {@link PrivateLiftSign}.
+     * @param x The X coordinate of the {@link PrivateLiftSign}.
+     * @param y The Y coordinate of the {@link PrivateLiftSign}.
+     * @param z The Z coordinate of the {@link PrivateLiftSign}.
+     * @param owner The {@link UUID} of the owner.
+     * @param admins The {@link UUID}s of the admins.
+     * @param members The {@link UUID}s of the members.
+     */
+    public PrivateLiftSignData(@NotNull final String world, final int x, final int y, final int z, @NotNull final UUID owner, @NotNull final Collection<UUID> admins, @NotNull final Collection<UUID> members) {
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.owner = owner;
+        this.admins = Collections.unmodifiableList(new ArrayList<UUID>(admins));
+        this.members = Collections.unmodifiableList(new ArrayList<UUID>(members));
+    }
+    
+    /**
+     * Creates the {@link PrivateLiftSignData} for the current state of the
+     * given {@link PrivateLiftSign}.
+     *
+     * @param privateLiftSign The {@link PrivateLiftSign}.
+     * @return The {@link PrivateLiftSignData}.
+     */
+    @NotNull
+    public static PrivateLiftSignData of(@NotNull final PrivateLiftSign privateLiftSign) {
+        return new PrivateLiftSignData(privateLiftSign.getWorld().getName(), privateLiftSign.getX(), privateLiftSign.getY(), privateLiftSign.getZ(), privateLiftSign.getOwner(), privateLiftSign.getAdmins(), privateLiftSign.getMembers());
+    }
+    
+    /**
+     * Validates the given owner, admins, and members of a
+     * {@link PrivateLiftSign}. The owner may not also be an admin or a member,
+     * a member may not also be an admin, and no admin or member may be listed
+     * more than once.
+     *
+     * @param ownerId The {@link UUID} of the owner.
+     * @param adminIds The {@link UUID}s of the admins.
+     * @param memberIds The {@link UUID}s of the members.
+     * @throws SignLiftException If the admins or members are not valid.
+     */
+    public static void validateAccess(@NotNull final UUID ownerId, @NotNull final Collection<UUID> adminIds, @NotNull final Collection<UUID> memberIds) throws SignLiftException {
+        
+        final HashSet<UUID> admins = new HashSet<UUID>();
+        for (final UUID adminId : adminIds) {
+            if (ownerId.equals(adminId)) {
+                throw new SignLiftException("Admin UUID (" + adminId + ") matches owner UUID for PrivateLiftSign.");
+            }
+            if (!admins.add(adminId)) {
+                throw new SignLiftException("Duplicate admin UUID (" + adminId + ") for PrivateLiftSign.");
+            }
+        }
+        
+        final HashSet<UUID> members = new HashSet<UUID>();
+        for (final UUID memberId : memberIds) {
+            if (ownerId.equals(memberId)) {
+                throw new SignLiftException("Member UUID (" + memberId + ") matches owner UUID for PrivateLiftSign.");
+            }
+            if (admins.contains(memberId)) {
+                throw new SignLiftException("Member UUID (" + memberId + ") matches an admin UUID for PrivateLiftSign.");
+            }
+            if (!members.add(memberId)) {
+                throw new SignLiftException("Duplicate member UUID (" + memberId + ") for PrivateLiftSign.");
+            }
+        }
+    }
+    
+    /**
+     * Deserializes the given {@link Configuration} in the legacy per-file YAML
+     * format into a {@link PrivateLiftSignData}.
+     * <p>
+     * The {@link Configuration} must have been loaded with the
+     * {@link org.bukkit.Location} type tag removed, so that it can be read
+     * without the {@link World} being loaded.
+     *
+     * @param data The {@link Configuration} to deserialize.
+     * @return The {@link PrivateLiftSignData} represented by the given data.
+     * @throws SignLiftException If the data is missing or cannot be parsed.
+     */
+    @NotNull
+    public static PrivateLiftSignData deserializeLegacy(@NotNull final Configuration data) throws SignLiftException {
+        
+        final ConfigurationSection location = data.getConfigurationSection(PrivateLiftSignData.KEY_LOCATION);
+        if (location == null) {
+            throw new SignLiftException("PrivateLiftSign does not have Location data.");
+        }
+        
+        final String world = location.getString(PrivateLiftSignData.KEY_WORLD, null);
+        if (world == null) {
+            throw new SignLiftException("PrivateLiftSign does not have World data.");
+        }
+        if (!location.isSet(PrivateLiftSignData.KEY_X) || !location.isSet(PrivateLiftSignData.KEY_Y) || !location.isSet(PrivateLiftSignData.KEY_Z)) {
+            throw new SignLiftException("PrivateLiftSign does not have coordinate data.");
+        }
+        
+        final String ownerIdRaw = data.getString(PrivateLiftSignData.KEY_OWNER_UNIQUE_ID, null);
+        if (ownerIdRaw == null) {
+            throw new SignLiftException("PrivateLiftSign does not have owner UUID data.");
+        }
+        
+        try {
+            final UUID owner = UUID.fromString(ownerIdRaw);
+            final List<UUID> admins = new ArrayList<UUID>();
+            for (final String adminIdRaw : data.getStringList(PrivateLiftSignData.KEY_ADMIN_UNIQUE_IDS)) {
+                admins.add(UUID.fromString(adminIdRaw));
+            }
+            final List<UUID> members = new ArrayList<UUID>();
+            for (final String memberIdRaw : data.getStringList(PrivateLiftSignData.KEY_MEMBER_UNIQUE_IDS)) {
+                members.add(UUID.fromString(memberIdRaw));
+            }
+            
+            final int x = (int) Math.floor(location.getDouble(PrivateLiftSignData.KEY_X));
+            final int y = (int) Math.floor(location.getDouble(PrivateLiftSignData.KEY_Y));
+            final int z = (int) Math.floor(location.getDouble(PrivateLiftSignData.KEY_Z));
+            return new PrivateLiftSignData(world, x, y, z, owner, admins, members);
+        } catch (IllegalArgumentException e) {
+            throw new SignLiftException("Unable to parse UUID for PrivateLiftSign.", e);
+        }
+    }
+    
+    /**
+     * Deserializes the given contents of a file in the legacy per-file YAML
+     * format into a {@link PrivateLiftSignData}.
+     * <p>
+     * The {@link org.bukkit.Location} type tag is removed before parsing, so
+     * that the file can be read even if its {@link World} is not loaded, or
+     * without a server at all.
+     *
+     * @param contents The contents of the file.
+     * @return The {@link PrivateLiftSignData} represented by the given
+     *         contents.
+     * @throws InvalidConfigurationException If the contents are not valid
+     *                                       YAML.
+     * @throws SignLiftException If the data is missing or cannot be parsed.
+     * @see PrivateLiftSignData#serializeLegacy()
+     */
+    @NotNull
+    public static PrivateLiftSignData deserializeLegacy(@NotNull final String contents) throws InvalidConfigurationException, SignLiftException {
+        
+        final YamlConfiguration data = new YamlConfiguration();
+        data.loadFromString(PrivateLiftSignData.LEGACY_LOCATION_TAG.matcher(contents).replaceAll(""));
+        return PrivateLiftSignData.deserializeLegacy(data);
+    }
+    
+    /**
+     * Serializes this {@link PrivateLiftSignData} into a
+     * {@link FileConfiguration} in the legacy per-file YAML format, as written
+     * by {@link PrivateLiftSign#serializeForSave()}.
+     * <p>
+     * The {@link org.bukkit.Location} is written with its type tag, but
+     * without needing its {@link World} to be loaded.
+     *
+     * @return The serialized {@link PrivateLiftSignData}.
+     * @see PrivateLiftSignData#deserializeLegacy(String)
+     */
+    @NotNull
+    public FileConfiguration serializeLegacy() {
+        
+        final Map<String, Object> location = new LinkedHashMap<String, Object>();
+        location.put(PrivateLiftSignData.KEY_TYPE, PrivateLiftSignData.LEGACY_LOCATION_TYPE);
+        location.put(PrivateLiftSignData.KEY_WORLD, this.world);
+        location.put(PrivateLiftSignData.KEY_X, (double) this.x);
+        location.put(PrivateLiftSignData.KEY_Y, (double) this.y);
+        location.put(PrivateLiftSignData.KEY_Z, (double) this.z);
+        location.put(PrivateLiftSignData.KEY_PITCH, 0.0F);
+        location.put(PrivateLiftSignData.KEY_YAW, 0.0F);
+        
+        final Map<String, Object> data = this.serialize();
+        final FileConfiguration legacy = new YamlConfiguration();
+        legacy.set(PrivateLiftSignData.KEY_LOCATION, location);
+        legacy.set(PrivateLiftSignData.KEY_OWNER_UNIQUE_ID, data.get(PrivateLiftSignData.KEY_OWNER_UNIQUE_ID));
+        legacy.set(PrivateLiftSignData.KEY_ADMIN_UNIQUE_IDS, data.get(PrivateLiftSignData.KEY_ADMIN_UNIQUE_IDS));
+        legacy.set(PrivateLiftSignData.KEY_MEMBER_UNIQUE_IDS, data.get(PrivateLiftSignData.KEY_MEMBER_UNIQUE_IDS));
+        return legacy;
+    }
+    
+    /**
+     * Serializes this {@link PrivateLiftSignData} into a flat {@link Map}, as
+     * used by the {@link YamlPrivateLiftSignFormat}.
+     *
+     * @return The serialized {@link PrivateLiftSignData}.
+     * @see PrivateLiftSignData#deserialize(Map)
+     */
+    @NotNull
+    public Map<String, Object> serialize() {
+        
+        final List<String> adminIds = new ArrayList<String>(this.admins.size());
+        for (final UUID admin : this.admins) {
+            adminIds.add(admin.toString());
+        }
+        final List<String> memberIds = new ArrayList<String>(this.members.size());
+        for (final UUID member : this.members) {
+            memberIds.add(member.toString());
+        }
+        
+        final Map<String, Object> data = new LinkedHashMap<String, Object>();
+        data.put(PrivateLiftSignData.KEY_WORLD, this.world);
+        data.put(PrivateLiftSignData.KEY_X, this.x);
+        data.put(PrivateLiftSignData.KEY_Y, this.y);
+        data.put(PrivateLiftSignData.KEY_Z, this.z);
+        data.put(PrivateLiftSignData.KEY_OWNER_UNIQUE_ID, this.owner.toString());
+        data.put(PrivateLiftSignData.KEY_ADMIN_UNIQUE_IDS, adminIds);
+        data.put(PrivateLiftSignData.KEY_MEMBER_UNIQUE_IDS, memberIds);
+        return data;
+    }
+    
+    /**
+     * Deserializes the given flat {@link Map} into a
+     * {@link PrivateLiftSignData}.
+     *
+     * @param data The {@link Map} to deserialize.
+     * @return The {@link PrivateLiftSignData} represented by the given data.
+     * @throws SignLiftException If the data is missing or cannot be parsed.
+     * @see PrivateLiftSignData#serialize()
+     */
+    @NotNull
+    public static PrivateLiftSignData deserialize(@NotNull final Map<?, ?> data) throws SignLiftException {
+        
+        final Object world = data.get(PrivateLiftSignData.KEY_WORLD);
+        if (!(world instanceof String)) {
+            throw new SignLiftException("PrivateLiftSign does not have World data.");
+        }
+        
+        final Object x = data.get(PrivateLiftSignData.KEY_X);
+        final Object y = data.get(PrivateLiftSignData.KEY_Y);
+        final Object z = data.get(PrivateLiftSignData.KEY_Z);
+        if (!(x instanceof Number) || !(y instanceof Number) || !(z instanceof Number)) {
+            throw new SignLiftException("PrivateLiftSign does not have coordinate data.");
+        }
+        
+        final Object ownerIdRaw = data.get(PrivateLiftSignData.KEY_OWNER_UNIQUE_ID);
+        if (!(ownerIdRaw instanceof String)) {
+            throw new SignLiftException("PrivateLiftSign does not have owner UUID data.");
+        }
+        
+        try {
+            final UUID owner = UUID.fromString((String) ownerIdRaw);
+            final List<UUID> admins = PrivateLiftSignData.parseUniqueIds(data.get(PrivateLiftSignData.KEY_ADMIN_UNIQUE_IDS));
+            final List<UUID> members = PrivateLiftSignData.parseUniqueIds(data.get(PrivateLiftSignData.KEY_MEMBER_UNIQUE_IDS));
+            return new PrivateLiftSignData((String) world, ((Number) x).intValue(), ((Number) y).intValue(), ((Number) z).intValue(), owner, admins, members);
+        } catch (IllegalArgumentException e) {
+            throw new SignLiftException("Unable to parse UUID for PrivateLiftSign.", e);
+        }
+    }
+    
+    /**
+     * Parses the given serialized {@link List} of {@link UUID}s. A missing
+     * {@link List} is treated as empty.
+     *
+     * @param uniqueIdsRaw The serialized {@link List}, or {@code null}.
+     * @return The {@link UUID}s.
+     * @throws SignLiftException If the value is not a {@link List}.
+     * @throws IllegalArgumentException If a {@link UUID} cannot be parsed.
+     */
+    @NotNull
+    private static List<UUID> parseUniqueIds(@Nullable final Object uniqueIdsRaw) throws SignLiftException {
+        
+        if (uniqueIdsRaw == null) {
+            return new ArrayList<UUID>();
+        }
+        if (!(uniqueIdsRaw instanceof List)) {
+            throw new SignLiftException("PrivateLiftSign UUID data is not a list.");
+        }
+        
+        final List<UUID> uniqueIds = new ArrayList<UUID>();
+        for (final Object uniqueIdRaw : (List<?>) uniqueIdsRaw) {
+            uniqueIds.add(UUID.fromString(String.valueOf(uniqueIdRaw)));
+        }
+        return uniqueIds;
+    }
+    
+    /**
+     * Writes this {@link PrivateLiftSignData} in the compact binary format.
+     *
+     * @param out The {@link DataOutput} to write to.
+     * @throws IOException If an I/O error occurs.
+     * @see PrivateLiftSignData#read(DataInput)
+     */
+    public void write(@NotNull final DataOutput out) throws IOException {
+        
+        out.writeUTF(this.world);
+        out.writeLong(this.getPosition());
+        out.writeLong(this.owner.getMostSignificantBits());
+        out.writeLong(this.owner.getLeastSignificantBits());
+        
+        out.writeInt(this.admins.size());
+        for (final UUID admin : this.admins) {
+            out.writeLong(admin.getMostSignificantBits());
+            out.writeLong(admin.getLeastSignificantBits());
+        }
+        
+        out.writeInt(this.members.size());
+        for (final UUID member : this.members) {
+            out.writeLong(member.getMostSignificantBits());
+            out.writeLong(member.getLeastSignificantBits());
+        }
+    }
+    
+    /**
+     * Reads a {@link PrivateLiftSignData} in the compact binary format.
+     *
+     * @param in The {@link DataInput} to read from.
+     * @return The {@link PrivateLiftSignData}.
+     * @throws IOException If an I/O error occurs, or the data is malformed.
+     * @see PrivateLiftSignData#write(DataOutput)
+     */
+    @NotNull
+    public static PrivateLiftSignData read(@NotNull final DataInput in) throws IOException {
+        
+        final String world = in.readUTF();
+        final long position = in.readLong();
+        final UUID owner = new UUID(in.readLong(), in.readLong());
+        final List<UUID> admins = PrivateLiftSignData.readUniqueIds(in);
+        final List<UUID> members = PrivateLiftSignData.readUniqueIds(in);
+        
+        return new PrivateLiftSignData(world, BlockPosition.getX(position), BlockPosition.getY(position), BlockPosition.getZ(position), owner, admins, members);
+    }
+    
+    /**
+     * Reads a length-prefixed list of {@link UUID}s.
+     *
+     * @param in The {@link DataInput} to read from.
+     * @return The {@link UUID}s.
+     * @throws IOException If an I/O error occurs, or the length is invalid.
+     */
+    @NotNull
+    private static List<UUID> readUniqueIds(@NotNull final DataInput in) throws IOException {
+        
+        final int count = in.readInt();
+        if (count < 0 || count > 65536) {
+            throw new IOException("Invalid UUID count: " + count);
+        }
+        
+        final List<UUID> uniqueIds = new ArrayList<UUID>(count);
+        for (int index = 0; index < count; index++) {
+            uniqueIds.add(new UUID(in.readLong(), in.readLong()));
+        }
+        return uniqueIds;
+    }
+    
+    /**
+     * Gets the name of the {@link World} of the {@link PrivateLiftSign}.
+     *
+     * @return The name of the {@link World}.
+     */
+    @NotNull
+    public String getWorld() {
+        return this.world;
+    }
+    
+    /**
+     * Gets the X coordinate of the {@link PrivateLiftSign}.
+     *
+     * @return The X coordinate.
+     */
+    public int getX() {
+        return this.x;
+    }
+    
+    /**
+     * Gets the Y coordinate of the {@link PrivateLiftSign}.
+     *
+     * @return The Y coordinate.
+     */
+    public int getY() {
+        return this.y;
+    }
+    
+    /**
+     * Gets the Z coordinate of the {@link PrivateLiftSign}.
+     *
+     * @return The Z coordinate.
+     */
+    public int getZ() {
+        return this.z;
+    }
+    
+    /**
+     * Gets the packed {@link BlockPosition} of the {@link PrivateLiftSign}.
+     *
+     * @return The packed position.
+     */
+    public long getPosition() {
+        return BlockPosition.pack(this.x, this.y, this.z);
+    }
+    
+    /**
+     * Gets the {@link UUID} of the owner of the {@link PrivateLiftSign}.
+     *
+     * @return The {@link UUID} of the owner.
+     */
+    @NotNull
+    public UUID getOwner() {
+        return this.owner;
+    }
+    
+    /**
+     * Gets the {@link UUID}s of the admins of the {@link PrivateLiftSign}.
+     *
+     * @return An unmodifiable {@link List} of the admin {@link UUID}s.
+     */
+    @NotNull
+    public List<UUID> getAdmins() {
+        return this.admins;
+    }
+    
+    /**
+     * Gets the {@link UUID}s of the members of the {@link PrivateLiftSign}.
+     *
+     * @return An unmodifiable {@link List} of the member {@link UUID}s.
+     */
+    @NotNull
+    public List<UUID> getMembers() {
+        return this.members;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a file format for snapshots of {@link PrivateLiftSignData}.
+ * <p>
+ * The format used for new region files is chosen in the configuration.
+ * Region files in any other known format are read and converted the next
+ * time the {@link PrivateLiftSignJournal} is opened.
+ */
+public interface PrivateLiftSignFormat {
+    
+    /**
+     * Gets the name of this {@link PrivateLiftSignFormat}, as used in the
+     * configuration.
+     *
+     * @return The name of this {@link PrivateLiftSignFormat}.
+     */
+    @NotNull
+    String getName();
+    
+    /**
+     * Gets the file extension of snapshots in this
+     * {@link PrivateLiftSignFormat}, without the leading dot.
+     *
+     * @return The file extension of snapshots.
+     */
+    @NotNull
+    String getExtension();
+    
+    /**
+     * Gets the name of the single-file snapshot in this
+     * {@link PrivateLiftSignFormat}, which held every
+     * {@link PrivateLiftSignData} before snapshots were split into region
+     * files.
+     *
+     * @return The name of the single-file snapshot.
+     */
+    @NotNull
+    default String getFileName() {
+        return "PrivateLiftSigns." + this.getExtension();
+    }
+    
+    /**
+     * Writes the given {@link PrivateLiftSignData} as a complete snapshot to
+     * the given {@link OutputStream}. The {@link OutputStream} is flushed, but
+     * not closed.
+     *
+     * @param out The {@link OutputStream} to write to.
+     * @param records The {@link PrivateLiftSignData} to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    void write(@NotNull OutputStream out, @NotNull Collection<PrivateLiftSignData> records) throws IOException;
+    
+    /**
+     * Reads a complete snapshot from the given {@link File}, passing each
+     * {@link PrivateLiftSignData} to the given {@link Consumer}.
+     *
+     * @param file The snapshot {@link File}.
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PrivateLiftSignData} to.
+     * @throws IOException If the snapshot is invalid or corrupt, or an I/O
+     *                     error occurs.
+     */
+    void read(@NotNull File file, @NotNull Consumer<PrivateLiftSignData> consumer) throws IOException;
+    
+    /**
+     * Gets all known {@link PrivateLiftSignFormat}s.
+     *
+     * @return All known {@link PrivateLiftSignFormat}s.
+     */
+    @NotNull
+    static List<PrivateLiftSignFormat> getFormats() {
+        return Arrays.asList(new BinaryPrivateLiftSignFormat(), new YamlPrivateLiftSignFormat());
+    }
+    
+    /**
+     * Gets the {@link PrivateLiftSignFormat} with the given name, ignoring
+     * case.
+     *
+     * @param name The name of the {@link PrivateLiftSignFormat}.
+     * @return The {@link PrivateLiftSignFormat}, or {@code null} if there is
+     *         no {@link PrivateLiftSignFormat} with the given name.
+     */
+    @Nullable
+    static PrivateLiftSignFormat getFormat(@NotNull final String name) {
+        for (final PrivateLiftSignFormat format : PrivateLiftSignFormat.getFormats()) {
+            if (format.getName().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,1982 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.signlift.bukkit.util.AtomicFileBatch;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+import org.bspfsystems.signlift.bukkit.util.ParallelFileLoader;
+
+/**
+ * Represents the storage engine for {@link PrivateLiftSignData}.
+ * <p>
+ * Every change is appended to a journal as a small, checksummed frame, and
+ * the journal is periodically compacted into region files, written in the
+ * configured {@link PrivateLiftSignFormat}. Like the Anvil format of the
+ * {@link org.bukkit.World}s themselves, there is one region file for each
+ * area of 32x32 chunks that contains any {@link PrivateLiftSignData}, stored
+ * as {@code PrivateLiftSignRegions/<world>/r.<x>.<z>.<extension>}. Only the
+ * region files that changed since the last compaction are rewritten, and
+ * they are replaced atomically with a single group commit. If the server
+ * stopped in the middle of an append, the incomplete frame is detected by its
+ * length or checksum and truncated away.
+ * <p>
+ * A region file is only read the first time its region is needed, and the
+ * region is kept in memory while a loaded chunk uses it, or while it has
+ * changes that have not been compacted yet. Every other region is exactly as
+ * in its region file. At startup, the region files are scanned once to build
+ * a small per-player index of the regions that hold
+ * {@link PrivateLiftSignData} owned by or shared with each player, and the
+ * journal is replayed on top of them. Lookups by player only read the regions
+ * in the index.
+ * <p>
+ * To compact, the journal is first rotated to a separate file, so that new
+ * changes can keep being appended while the region files are written. The
+ * rotated journal is only deleted once every changed region file has been
+ * atomically moved into place. Replaying either journal again on top of
+ * newer region files is harmless, as every frame records the full state of a
+ * position.
+ * <p>
+ * A single-file snapshot from before region files were used, or region files
+ * in a different {@link PrivateLiftSignFormat}, are loaded into memory at
+ * startup and migrated by the next compaction, while the server keeps running. The old
+ * files are only deleted once the migration has been written.
+ * <p>
+ * When the {@link PrivateLiftSignJournal} is closed cleanly, the per-player
+ * index and the regions with changes that have not been compacted yet are
+ * also written to a single boot snapshot, along with a fingerprint of the
+ * journal and region files. If the fingerprint still matches the next time
+ * the {@link PrivateLiftSignJournal} is opened, the boot snapshot is read in
+ * one go instead of scanning every region file and replaying the journal.
+ * The journal and region files remain the source of truth, and the boot
+ * snapshot is deleted once it has been read.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class PrivateLiftSignJournal {
+    
+    /**
+     * Represents the {@link PrivateLiftSignData} in a single region of a
+     * {@link org.bukkit.World}.
+     */
+    private static final class Region {
+        
+        private final String world;
+        private final int regionX;
+        private final int regionZ;
+        private final LongObjectHashMap<PrivateLiftSignData> records;
+        private boolean dirty;
+        private boolean used;
+        
+        /**
+         * Constructs a new, empty {@link Region}.
+         *
+         * @param world The name of the {@link org.bukkit.World}.
+         * @param regionX The region X coordinate.
+         * @param regionZ The region Z coordinate.
+         */
+        private Region(@NotNull final String world, final int regionX, final int regionZ) {
+            this.world = world;
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+            this.records = new LongObjectHashMap<PrivateLiftSignData>();
+            this.dirty = false;
+            this.used = false;
+        }
+    }
+    
+    /**
+     * Represents what the single-file snapshot and the journal(s) hold for a
+     * single region, for answering lookups while the
+     * {@link PrivateLiftSignJournal} is still opening.
+     */
+    private static final class PeekRegion {
+        
+        private final LongObjectHashMap<PrivateLiftSignData> snapshot;
+        private final LongObjectHashMap<PrivateLiftSignData> changed;
+        private final LongObjectHashMap<Boolean> removed;
+        
+        /**
+         * Constructs a new, empty {@link PeekRegion}.
+         */
+        private PeekRegion() {
+            this.snapshot = new LongObjectHashMap<PrivateLiftSignData>();
+            this.changed = new LongObjectHashMap<PrivateLiftSignData>();
+            this.removed = new LongObjectHashMap<Boolean>();
+        }
+    }
+    
+    private static final int JOURNAL_MAGIC = 0x534C4A31; // "SLJ1"
+    private static final int BOOT_MAGIC = 0x534C4232; // "SLB2"
+    
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    
+    private static final int MAX_FRAME_LENGTH = 1 << 20;
+    private static final int FINGERPRINT_LENGTH = 32;
+    private static final int MIN_COMPACTION_RECORDS = 4096;
+    
+    private final Logger logger;
+    private final PrivateLiftSignFormat format;
+    
+    private final File folder;
+    private final File regionFolder;
+    private final File journalFile;
+    private final File rotatedJournalFile;
+    private final File bootFile;
+    
+    private final AtomicFileBatch regionBatch;
+    
+    private final HashMap<String, LongObjectHashMap<Region>> worlds;
+    private final HashMap<UUID, HashMap<String, LongObjectHashMap<int[]>>> players;
+    private int size;
+    private final List<File> migratedFiles;
+    
+    private final ByteArrayOutputStream frameBytes;
+    private final DataOutputStream frame;
+    private final CRC32 frameChecksum;
+    
+    private FileOutputStream journalOut;
+    private DataOutputStream journal;
+    private int journalRecords;
+    
+    private final Object peekLock;
+    private HashMap<String, LongObjectHashMap<PeekRegion>> peekRegions;
+    
+    private final Object releaseLock;
+    private HashMap<String, LongObjectHashMap<Boolean>> releasedRegions;
+    
+    private volatile boolean opened;
+    private boolean compacting;
+    private boolean closed;
+    
+    /**
+     * Constructs a new {@link PrivateLiftSignJournal} that stores its files in
+     * the given folder. The {@link PrivateLiftSignJournal} must be opened
+     * before it is used.
+     *
+     * @param folder The folder to store the files in.
+     * @param format The {@link PrivateLiftSignFormat} to write region files
+     *               in.
+     * @param logger The {@link Logger} to report recovered errors to.
+     * @see PrivateLiftSignJournal#open()
+     */
+    public PrivateLiftSignJournal(@NotNull final File folder, @NotNull final PrivateLiftSignFormat format, @NotNull final Logger logger) {
+        
+        this.logger = logger;
+        this.format = format;
+        
+        this.folder = folder;
+        this.regionFolder = new File(folder, "PrivateLiftSignRegions");
+        this.journalFile = new File(folder, "PrivateLiftSigns.journal");
+        this.rotatedJournalFile = new File(folder, "PrivateLiftSigns.journal.old");
+        this.bootFile = new File(folder, "PrivateLiftSigns.boot");
+        
+        this.regionBatch = new AtomicFileBatch();
+        
+        this.worlds = new HashMap<String, LongObjectHashMap<Region>>();
+        this.players = new HashMap<UUID, HashMap<String, LongObjectHashMap<int[]>>>();
+        this.size = 0;
+        this.migratedFiles = new ArrayList<File>();
+        
+        this.frameBytes = new ByteArrayOutputStream(256);
+        this.frame = new DataOutputStream(this.frameBytes);
+        this.frameChecksum = new CRC32();
+        
+        this.peekLock = new Object();
+        this.peekRegions = null;
+        
+        this.releaseLock = new Object();
+        this.releasedRegions = new HashMap<String, LongObjectHashMap<Boolean>>();
+        
+        this.journalRecords = 0;
+        this.opened = false;
+        this.compacting = false;
+        this.closed = false;
+    }
+    
+    /**
+     * Opens this {@link PrivateLiftSignJournal}, scanning the region files to
+     * build the per-player index and replaying the journal(s) on top of them,
+     * or reading the boot snapshot if it is still valid.
+     * <p>
+     * Any single-file snapshot, and any region files in a
+     * {@link PrivateLiftSignFormat} other than the configured one, are loaded
+     * as well, and are migrated by the next compaction.
+     *
+     * @throws IOException If a snapshot or region file is corrupt, or an I/O
+     *                     error occurs.
+     */
+    public synchronized void open() throws IOException {
+        
+        // The boot snapshot can only be trusted for the files it was written
+        // from, so it is used at most once.
+        if (this.bootFile.exists()) {
+            final boolean booted = this.readBootSnapshot();
+            try {
+                Files.delete(this.bootFile.toPath());
+            } catch (IOException | SecurityException e) {
+                this.logger.log(Level.WARNING, "Unable to delete the PrivateLiftSign boot snapshot at " + this.bootFile.getPath());
+                this.logger.log(Level.WARNING, "It will be checked against the files again on the next startup.");
+                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            }
+            if (booted) {
+                this.openJournal();
+                this.opened = true;
+                this.clearPeekRegions();
+                return;
+            }
+        }
+        
+        // A single-file snapshot is loaded first, as any region files next to
+        // it were written from it by a migration that did not finish.
+        for (final PrivateLiftSignFormat snapshotFormat : PrivateLiftSignFormat.getFormats()) {
+            final File snapshotFile = new File(this.folder, snapshotFormat.getFileName());
+            Files.deleteIfExists(new File(this.folder, snapshotFormat.getFileName() + ".tmp").toPath());
+            if (snapshotFile.exists()) {
+                snapshotFormat.read(snapshotFile, data -> this.storeRecord(data, true));
+                this.migratedFiles.add(snapshotFile);
+            }
+        }
+        
+        final File[] worldFolders = this.regionFolder.listFiles(File::isDirectory);
+        if (worldFolders != null) {
+            for (final File worldFolder : worldFolders) {
+                this.loadRegions(worldFolder);
+            }
+        }
+        
+        // Everything still in memory is to be migrated, and was not indexed
+        // while the region files were scanned.
+        for (final LongObjectHashMap<Region> regions : this.worlds.values()) {
+            for (final Region region : regions.values()) {
+                for (final PrivateLiftSignData data : region.records.values()) {
+                    this.index(data, 1);
+                }
+                this.size += region.records.size();
+            }
+        }
+        
+        if (this.rotatedJournalFile.exists()) {
+            this.journalRecords += this.replay(this.rotatedJournalFile);
+        }
+        if (this.journalFile.exists()) {
+            this.journalRecords += this.replay(this.journalFile);
+        }
+        this.openJournal();
+        this.opened = true;
+        this.clearPeekRegions();
+        
+        if (!this.migratedFiles.isEmpty()) {
+            this.logger.log(Level.INFO, this.size + " PrivateLiftSigns will be migrated to " + this.format.getName() + " region files in " + this.regionFolder.getPath() + " in the background.");
+        }
+    }
+    
+    /**
+     * Opens this {@link PrivateLiftSignJournal} for a bulk import, without
+     * loading anything into memory. Only
+     * {@link PrivateLiftSignJournal#append(PrivateLiftSignData)} and
+     * {@link PrivateLiftSignJournal#close()} may be used afterwards.
+     * <p>
+     * The appended changes are compacted into region files the next time the
+     * {@link PrivateLiftSignJournal} is opened normally. To keep the imported
+     * changes from being replayed on top of unrelated data, the folder must
+     * not contain any stored {@link PrivateLiftSignData} yet.
+     *
+     * @throws IOException If the folder already contains stored
+     *                     {@link PrivateLiftSignData}, or an I/O error
+     *                     occurs.
+     */
+    public synchronized void openForImport() throws IOException {
+        
+        boolean exists = this.journalFile.exists() || this.rotatedJournalFile.exists() || this.bootFile.exists() || this.regionFolder.exists();
+        for (final PrivateLiftSignFormat snapshotFormat : PrivateLiftSignFormat.getFormats()) {
+            exists |= new File(this.folder, snapshotFormat.getFileName()).exists();
+        }
+        if (exists) {
+            throw new IOException("PrivateLiftSigns are already stored in " + this.folder.getPath());
+        }
+        
+        if (!this.folder.isDirectory() && !this.folder.mkdirs()) {
+            throw new IOException("PrivateLiftSign directory not created at " + this.folder.getPath());
+        }
+        this.openJournal();
+    }
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the {@link org.bukkit.World}
+     * with the given name. The region files of the regions that are not in
+     * memory are read, but not kept.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @return A copy of the {@link PrivateLiftSignData} in the
+     *         {@link org.bukkit.World}.
+     * @throws IOException If a region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    @NotNull
+    public synchronized List<PrivateLiftSignData> get(@NotNull final String world) throws IOException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        final LongObjectHashMap<Region> regions = this.worlds.get(world);
+        if (regions != null) {
+            for (final Region region : regions.values()) {
+                records.addAll(region.records.values());
+            }
+        }
+        
+        final String suffix = "." + this.format.getExtension();
+        final File[] regionFiles = new File(this.regionFolder, world).listFiles((folder, name) -> name.startsWith("r.") && name.endsWith(suffix));
+        if (regionFiles == null) {
+            return records;
+        }
+        for (final File regionFile : regionFiles) {
+            final Region region;
+            try {
+                region = this.readRegion(world, regionFile, this.format);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (region != null && this.getRegion(world, region.regionX, region.regionZ) == null) {
+                records.addAll(region.records.values());
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the region at the given region
+     * coordinates in the {@link org.bukkit.World} with the given name.
+     * <p>
+     * The region file is read the first time the region is needed, and the
+     * region is kept in memory until it is released.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return A copy of the {@link PrivateLiftSignData} in the region.
+     * @throws IOException If the region file is corrupt, or an I/O error
+     *                     occurs.
+     * @see PrivateLiftSignJournal#release(String, int, int)
+     */
+    @NotNull
+    public synchronized List<PrivateLiftSignData> get(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        this.applyReleases();
+        final Region region = this.loadRegion(world, regionX, regionZ);
+        region.used = true;
+        return region.records.values();
+    }
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the region at the given region
+     * coordinates in the {@link org.bukkit.World} with the given name,
+     * without keeping the region in memory if it is not already.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return A copy of the {@link PrivateLiftSignData} in the region.
+     * @throws IOException If the region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    @NotNull
+    public synchronized List<PrivateLiftSignData> read(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        final Region region = this.getRegion(world, regionX, regionZ);
+        if (region != null) {
+            return region.records.values();
+        }
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        final File regionFile = this.getRegionFile(world, regionX, regionZ);
+        if (regionFile.exists()) {
+            this.format.read(regionFile, records::add);
+        }
+        return records;
+    }
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} that the player with the given
+     * {@link UUID} owns, or is an admin or member of. Only the regions in the
+     * per-player index are read.
+     *
+     * @param uniqueId The {@link UUID} of the player.
+     * @return A copy of the {@link PrivateLiftSignData} of the player.
+     * @throws IOException If a region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    @NotNull
+    public synchronized List<PrivateLiftSignData> getByPlayer(@NotNull final UUID uniqueId) throws IOException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        final HashMap<String, LongObjectHashMap<int[]>> worlds = this.players.get(uniqueId);
+        if (worlds == null) {
+            return records;
+        }
+        
+        for (final Map.Entry<String, LongObjectHashMap<int[]>> entry : worlds.entrySet()) {
+            for (final long regionKey : entry.getValue().keys()) {
+                for (final PrivateLiftSignData data : this.read(entry.getKey(), (int) (regionKey >> 32), (int) regionKey)) {
+                    if (data.getOwner().equals(uniqueId) || data.getAdmins().contains(uniqueId) || data.getMembers().contains(uniqueId)) {
+                        records.add(data);
+                    }
+                }
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Releases the region at the given region coordinates in the
+     * {@link org.bukkit.World} with the given name, once no loaded chunk uses
+     * it any more. The region is dropped from memory as soon as it has no
+     * changes that have not been compacted yet.
+     * <p>
+     * This does not wait for the lock, which may be held while a region file
+     * is read. The release is recorded, and applied the next time the region
+     * is looked up or the journal is flushed.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     */
+    public void release(@NotNull final String world, final int regionX, final int regionZ) {
+        
+        // Nothing is kept in use while opening, as lookups are answered from
+        // the files.
+        if (!this.opened) {
+            return;
+        }
+        
+        synchronized (this.releaseLock) {
+            PrivateLiftSignJournal.getOrCreate(this.releasedRegions, world).put(PrivateLiftSignJournal.getRegionKey(regionX, regionZ), Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Checks to see if this {@link PrivateLiftSignJournal} has finished
+     * opening.
+     *
+     * @return {@code true} if this {@link PrivateLiftSignJournal} is open,
+     *         {@code false} if it is still being opened, or failed to open.
+     */
+    public boolean isOpen() {
+        return this.opened;
+    }
+    
+    /**
+     * Reads all {@link PrivateLiftSignData} in the region at the given region
+     * coordinates directly from the files, without waiting for this
+     * {@link PrivateLiftSignJournal} to be opened. This is used to answer
+     * lookups while the {@link PrivateLiftSignJournal} is still opening on
+     * another thread.
+     * <p>
+     * Only the region file and the frames in the journal(s) for the region
+     * are applied, and nothing is changed on disk. If there is a single-file
+     * snapshot that has not been migrated yet, it is used as well.
+     * <p>
+     * The single-file snapshot and the journal(s) do not change while this
+     * {@link PrivateLiftSignJournal} is opening, so they are only read by the
+     * first lookup, and kept by region until it has opened. Each lookup after
+     * that only reads its region file.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link PrivateLiftSignData} in the region.
+     * @throws IOException If a file is corrupt, or an I/O error occurs.
+     */
+    @NotNull
+    public List<PrivateLiftSignData> peek(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        final PeekRegion peekRegion;
+        synchronized (this.peekLock) {
+            HashMap<String, LongObjectHashMap<PeekRegion>> peekRegions = this.peekRegions;
+            if (peekRegions == null) {
+                peekRegions = this.readPeekRegions();
+                if (!this.opened) {
+                    this.peekRegions = peekRegions;
+                }
+            }
+            final LongObjectHashMap<PeekRegion> regions = peekRegions.get(world);
+            peekRegion = regions == null ? null : regions.get(PrivateLiftSignJournal.getRegionKey(regionX, regionZ));
+        }
+        
+        final LongObjectHashMap<PrivateLiftSignData> records = new LongObjectHashMap<PrivateLiftSignData>();
+        final Consumer<PrivateLiftSignData> put = data -> {
+            if (data.getWorld().equals(world) && data.getX() >> 9 == regionX && data.getZ() >> 9 == regionZ) {
+                records.put(data.getPosition(), data);
+            }
+        };
+        
+        // Files are applied in the same order as when opening, so a region
+        // file in the configured format replaces everything before it.
+        if (peekRegion != null) {
+            for (final PrivateLiftSignData data : peekRegion.snapshot.values()) {
+                records.put(data.getPosition(), data);
+            }
+        }
+        
+        final File worldFolder = new File(this.regionFolder, world);
+        final File regionFile = new File(worldFolder, PrivateLiftSignJournal.getRegionFileName(regionX, regionZ, this.format));
+        if (regionFile.exists()) {
+            records.clear();
+            this.format.read(regionFile, put);
+        } else {
+            for (final PrivateLiftSignFormat otherFormat : PrivateLiftSignFormat.getFormats()) {
+                final File otherFile = new File(worldFolder, PrivateLiftSignJournal.getRegionFileName(regionX, regionZ, otherFormat));
+                if (otherFile.exists()) {
+                    records.clear();
+                    otherFormat.read(otherFile, put);
+                }
+            }
+        }
+        
+        if (peekRegion != null) {
+            for (final PrivateLiftSignData data : peekRegion.changed.values()) {
+                records.put(data.getPosition(), data);
+            }
+            for (final long position : peekRegion.removed.keys()) {
+                records.remove(position);
+            }
+        }
+        return records.values();
+    }
+    
+    /**
+     * Reads all stored {@link PrivateLiftSignData} directly from the files,
+     * passing each one to the given {@link Consumer}, without this
+     * {@link PrivateLiftSignJournal} being opened. This is used to convert
+     * the stored {@link PrivateLiftSignData} to another format.
+     * <p>
+     * The region files are read in parallel and handed on one region at a
+     * time, with the changes in the journal(s) applied as they go, so only
+     * the journal(s) and the regions being read are held in memory. Nothing
+     * is changed on disk, and the boot snapshot is ignored, as the journal
+     * and region files are the source of truth. The {@link Consumer} may be
+     * called from multiple threads, but never concurrently.
+     *
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PrivateLiftSignData} to.
+     * @return The number of {@link PrivateLiftSignData} passed to the
+     *         {@link Consumer}.
+     * @throws IOException If a file is corrupt, or an I/O error occurs.
+     */
+    public int export(@NotNull final Consumer<PrivateLiftSignData> consumer) throws IOException {
+        
+        final HashMap<String, LongObjectHashMap<PrivateLiftSignData>> changed = new HashMap<String, LongObjectHashMap<PrivateLiftSignData>>();
+        final HashMap<String, LongObjectHashMap<Boolean>> removed = new HashMap<String, LongObjectHashMap<Boolean>>();
+        final Consumer<PrivateLiftSignData> put = data -> {
+            PrivateLiftSignJournal.getOrCreate(changed, data.getWorld()).put(data.getPosition(), data);
+            PrivateLiftSignJournal.getOrCreate(removed, data.getWorld()).remove(data.getPosition());
+        };
+        final BiConsumer<String, Long> remove = (world, position) -> {
+            PrivateLiftSignJournal.getOrCreate(changed, world).remove(position);
+            PrivateLiftSignJournal.getOrCreate(removed, world).put(position, Boolean.TRUE);
+        };
+        for (final File file : new File[] { this.rotatedJournalFile, this.journalFile }) {
+            if (file.exists()) {
+                this.readJournal(file, put, remove, false);
+            }
+        }
+        
+        // Each position is handed on once, with its latest change from the
+        // journal(s) if there is one.
+        final int[] count = new int[1];
+        final Consumer<PrivateLiftSignData> export = data -> {
+            synchronized (changed) {
+                final LongObjectHashMap<Boolean> worldRemoved = removed.get(data.getWorld());
+                if (worldRemoved != null && worldRemoved.get(data.getPosition()) != null) {
+                    return;
+                }
+                final LongObjectHashMap<PrivateLiftSignData> worldChanged = changed.get(data.getWorld());
+                final PrivateLiftSignData change = worldChanged == null ? null : worldChanged.remove(data.getPosition());
+                consumer.accept(change == null ? data : change);
+                count[0]++;
+            }
+        };
+        
+        // Region files in the configured format take precedence over any in
+        // another format, and any region file over a single-file snapshot,
+        // in the same way as when opening.
+        final HashMap<String, LongObjectHashMap<Boolean>> exported = new HashMap<String, LongObjectHashMap<Boolean>>();
+        final File[] worldFolders = this.regionFolder.listFiles(File::isDirectory);
+        if (worldFolders != null) {
+            for (final File worldFolder : worldFolders) {
+                final LongObjectHashMap<Boolean> regions = PrivateLiftSignJournal.getOrCreate(exported, worldFolder.getName());
+                this.exportRegions(worldFolder, this.format, regions, export);
+                for (final PrivateLiftSignFormat otherFormat : PrivateLiftSignFormat.getFormats()) {
+                    if (!otherFormat.getName().equals(this.format.getName())) {
+                        this.exportRegions(worldFolder, otherFormat, regions, export);
+                    }
+                }
+            }
+        }
+        
+        for (final PrivateLiftSignFormat snapshotFormat : PrivateLiftSignFormat.getFormats()) {
+            final File snapshotFile = new File(this.folder, snapshotFormat.getFileName());
+            if (snapshotFile.exists()) {
+                snapshotFormat.read(snapshotFile, data -> {
+                    final LongObjectHashMap<Boolean> regions = exported.get(data.getWorld());
+                    if (regions == null || regions.get(PrivateLiftSignJournal.getRegionKey(data.getX() >> 9, data.getZ() >> 9)) == null) {
+                        export.accept(data);
+                    }
+                });
+            }
+        }
+        
+        // Anything left in the journal(s) is in a region without a file.
+        for (final LongObjectHashMap<PrivateLiftSignData> worldChanged : changed.values()) {
+            for (final PrivateLiftSignData data : worldChanged.values()) {
+                consumer.accept(data);
+                count[0]++;
+            }
+        }
+        return count[0];
+    }
+    
+    /**
+     * Gets the number of stored {@link PrivateLiftSignData}.
+     *
+     * @return The number of stored {@link PrivateLiftSignData}.
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+    
+    /**
+     * Stores the given {@link PrivateLiftSignData}, replacing any
+     * {@link PrivateLiftSignData} at the same position, and appends the
+     * change to the journal.
+     *
+     * @param data The {@link PrivateLiftSignData} to store.
+     * @throws IOException If the change could not be appended.
+     */
+    public synchronized void put(@NotNull final PrivateLiftSignData data) throws IOException {
+        
+        this.putRecord(data);
+        
+        this.frameBytes.reset();
+        this.frame.writeByte(PrivateLiftSignJournal.OP_PUT);
+        data.write(this.frame);
+        this.appendFrame();
+    }
+    
+    /**
+     * Removes the {@link PrivateLiftSignData} at the given position, if any,
+     * and appends the change to the journal.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @throws IOException If the change could not be appended.
+     */
+    public synchronized void remove(@NotNull final String world, final int x, final int y, final int z) throws IOException {
+        
+        final long position = BlockPosition.pack(x, y, z);
+        if (!this.removeRecord(world, position)) {
+            return;
+        }
+        
+        this.frameBytes.reset();
+        this.frame.writeByte(PrivateLiftSignJournal.OP_REMOVE);
+        this.frame.writeUTF(world);
+        this.frame.writeLong(position);
+        this.appendFrame();
+    }
+    
+    /**
+     * Appends the given {@link PrivateLiftSignData} to the journal, without
+     * keeping it in memory. This may only be used after
+     * {@link PrivateLiftSignJournal#openForImport()}.
+     * <p>
+     * Unlike {@link PrivateLiftSignJournal#put(PrivateLiftSignData)}, the
+     * change is not handed to the operating system right away, and is only
+     * written to disk once the journal is closed.
+     *
+     * @param data The {@link PrivateLiftSignData} to append.
+     * @throws IOException If this {@link PrivateLiftSignJournal} is not open
+     *                     for an import, or the change could not be
+     *                     appended.
+     */
+    public synchronized void append(@NotNull final PrivateLiftSignData data) throws IOException {
+        
+        if (this.opened || this.journal == null) {
+            throw new IOException("PrivateLiftSign journal is not open for an import.");
+        }
+        
+        this.frameBytes.reset();
+        this.frame.writeByte(PrivateLiftSignJournal.OP_PUT);
+        data.write(this.frame);
+        this.writeFrame();
+    }
+    
+    /**
+     * Stores all of the given {@link PrivateLiftSignData} that does not
+     * conflict with already-stored data, and compacts. This is used to import
+     * legacy data, which is always older than anything in the journal.
+     * <p>
+     * The lock is only held while the {@link PrivateLiftSignData} is stored
+     * in memory, and not while the region files are written. The regions
+     * that are read to check for conflicts are dropped again by the
+     * compaction.
+     *
+     * @param records The {@link PrivateLiftSignData} to import.
+     * @throws IOException If the region files could not be written.
+     */
+    public void importAll(@NotNull final Collection<PrivateLiftSignData> records) throws IOException {
+        
+        synchronized (this) {
+            for (final PrivateLiftSignData data : records) {
+                final Region region = this.loadRegion(data.getWorld(), data.getX() >> 9, data.getZ() >> 9);
+                if (region.records.get(data.getPosition()) == null) {
+                    this.putRecord(data);
+                }
+            }
+        }
+        this.compact();
+    }
+    
+    /**
+     * Flushes appended changes to disk, and applies any recorded releases.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void flush() throws IOException {
+        
+        final FileChannel channel;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.applyReleases();
+            this.journal.flush();
+            channel = this.journalOut.getChannel();
+        }
+        
+        // The slow part is done without holding the lock, so that changes
+        // can be appended in the meantime.
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // The journal was rotated, and was forced when it was closed.
+        }
+    }
+    
+    /**
+     * Checks to see if the journal has grown large enough that it should be
+     * compacted, or if there is a migration or an interrupted compaction to
+     * finish.
+     * <p>
+     * As only the changed region files are rewritten, the cost of a
+     * compaction depends on the number of changes, not on the number of
+     * stored {@link PrivateLiftSignData}.
+     *
+     * @return {@code true} if the journal should be compacted, {@code false}
+     *         otherwise.
+     */
+    public synchronized boolean needsCompaction() {
+        return !this.closed && !this.compacting && (this.journalRecords >= PrivateLiftSignJournal.MIN_COMPACTION_RECORDS || !this.migratedFiles.isEmpty() || this.rotatedJournalFile.exists());
+    }
+    
+    /**
+     * Compacts the journal into the region files, rewriting only the region
+     * files that have changed. Afterwards, the regions that are no longer
+     * used are dropped from memory.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void compact() throws IOException {
+        
+        final Map<Region, List<PrivateLiftSignData>> changed = new LinkedHashMap<Region, List<PrivateLiftSignData>>();
+        final List<File> migrated;
+        synchronized (this) {
+            if (this.closed || this.compacting) {
+                return;
+            }
+            
+            // If a rotated journal is left over from a failed compaction, the
+            // current journal is compacted along with it instead.
+            if (!this.rotatedJournalFile.exists()) {
+                this.closeJournal();
+                try {
+                    Files.move(this.journalFile.toPath(), this.rotatedJournalFile.toPath());
+                } finally {
+                    this.openJournal();
+                }
+                this.journalRecords = 0;
+            }
+            
+            for (final LongObjectHashMap<Region> regions : this.worlds.values()) {
+                for (final Region region : regions.values()) {
+                    if (region.dirty) {
+                        region.dirty = false;
+                        changed.put(region, region.records.values());
+                    }
+                }
+            }
+            migrated = new ArrayList<File>(this.migratedFiles);
+            this.compacting = true;
+        }
+        
+        boolean written = false;
+        try {
+            for (final Map.Entry<Region, List<PrivateLiftSignData>> entry : changed.entrySet()) {
+                this.writeRegion(entry.getKey(), entry.getValue());
+            }
+            this.regionBatch.commit();
+            for (final File migratedFile : migrated) {
+                Files.deleteIfExists(migratedFile.toPath());
+            }
+            Files.delete(this.rotatedJournalFile.toPath());
+            written = true;
+        } finally {
+            synchronized (this) {
+                this.compacting = false;
+                if (written) {
+                    this.migratedFiles.removeAll(migrated);
+                } else {
+                    for (final Region region : changed.keySet()) {
+                        region.dirty = true;
+                    }
+                }
+                this.evictAll();
+            }
+        }
+        
+        if (!migrated.isEmpty()) {
+            this.logger.log(Level.INFO, "Finished migrating PrivateLiftSigns to " + this.format.getName() + " region files in " + this.regionFolder.getPath() + ".");
+        }
+    }
+    
+    /**
+     * Flushes and closes the journal, and writes the boot snapshot. No
+     * further changes may be made.
+     * <p>
+     * The boot snapshot is not written if this {@link PrivateLiftSignJournal}
+     * was never opened, or while a migration or a compaction is unfinished,
+     * as the files would be loaded differently.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void close() throws IOException {
+        
+        if (this.closed) {
+            return;
+        }
+        
+        this.closed = true;
+        this.closeJournal();
+        if (this.opened && this.migratedFiles.isEmpty() && !this.compacting && !this.rotatedJournalFile.exists()) {
+            this.writeBootSnapshot();
+        }
+    }
+    
+    /**
+     * Scans the region files in the given {@link org.bukkit.World} folder, in
+     * parallel. The {@link PrivateLiftSignData} in region files in the
+     * configured {@link PrivateLiftSignFormat} is only indexed, unless it
+     * replaces a region already in memory, and region files in any other
+     * {@link PrivateLiftSignFormat} are loaded into memory to be migrated.
+     *
+     * @param worldFolder The {@link org.bukkit.World} folder.
+     * @throws IOException If a region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    private void loadRegions(@NotNull final File worldFolder) throws IOException {
+        
+        AtomicFileBatch.deleteTempFiles(worldFolder.toPath());
+        
+        // The regions are handed on concurrently while the calling thread
+        // waits with the lock held, so they are applied under a separate one.
+        final Object scanLock = new Object();
+        this.readRegions(worldFolder, this.format, region -> {
+            synchronized (scanLock) {
+                if (this.getRegion(region.world, region.regionX, region.regionZ) != null) {
+                    this.setRegion(region);
+                    return;
+                }
+                for (final PrivateLiftSignData data : region.records.values()) {
+                    this.index(data, 1);
+                }
+                this.size += region.records.size();
+            }
+        });
+        
+        for (final PrivateLiftSignFormat otherFormat : PrivateLiftSignFormat.getFormats()) {
+            if (otherFormat.getName().equals(this.format.getName())) {
+                continue;
+            }
+            this.readRegions(worldFolder, otherFormat, region -> {
+                
+                // The region was already migrated, but the old file was not
+                // deleted yet.
+                final File otherFile = new File(worldFolder, PrivateLiftSignJournal.getRegionFileName(region.regionX, region.regionZ, otherFormat));
+                if (new File(worldFolder, PrivateLiftSignJournal.getRegionFileName(region.regionX, region.regionZ, this.format)).exists()) {
+                    try {
+                        Files.deleteIfExists(otherFile.toPath());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return;
+                }
+                
+                synchronized (scanLock) {
+                    region.dirty = true;
+                    this.setRegion(region);
+                    this.migratedFiles.add(otherFile);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Reads every region file in the given {@link PrivateLiftSignFormat} in
+     * the given {@link org.bukkit.World} folder, in parallel, passing each
+     * {@link Region} to the given {@link Consumer}.
+     *
+     * @param worldFolder The {@link org.bukkit.World} folder.
+     * @param regionFormat The {@link PrivateLiftSignFormat} of the region
+     *                     files.
+     * @param consumer The {@link Consumer} to pass each {@link Region} to. It
+     *                 is called concurrently from multiple threads.
+     * @throws IOException If a region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    private void readRegions(@NotNull final File worldFolder, @NotNull final PrivateLiftSignFormat regionFormat, @NotNull final Consumer<Region> consumer) throws IOException {
+        try {
+            ParallelFileLoader.load(worldFolder.toPath(), "r.*.*." + regionFormat.getExtension(), ParallelFileLoader.getDefaultParallelism(), path -> this.readRegion(worldFolder.getName(), path.toFile(), regionFormat), consumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Reads a single region file. This is called concurrently, so it must
+     * not touch any state of this {@link PrivateLiftSignJournal}.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param file The region file.
+     * @param regionFormat The {@link PrivateLiftSignFormat} of the region
+     *                     file.
+     * @return The {@link Region} that was read, or {@code null} if the file
+     *         is not a region file.
+     * @throws UncheckedIOException If the region file is corrupt, or an I/O
+     *                              error occurs.
+     */
+    @Nullable
+    private Region readRegion(@NotNull final String world, @NotNull final File file, @NotNull final PrivateLiftSignFormat regionFormat) {
+        
+        final String name = file.getName();
+        final String[] coordinates = name.substring(2, name.length() - regionFormat.getExtension().length() - 1).split("\\.");
+        Region region = null;
+        if (coordinates.length == 2) {
+            try {
+                region = new Region(world, Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]));
+            } catch (NumberFormatException e) {
+                // Handled below.
+            }
+        }
+        if (region == null) {
+            this.logger.log(Level.WARNING, "Ignoring unknown file in PrivateLiftSign region folder.");
+            this.logger.log(Level.WARNING, "File: " + file.getPath());
+            return null;
+        }
+        
+        try {
+            final LongObjectHashMap<PrivateLiftSignData> records = region.records;
+            regionFormat.read(file, data -> records.put(data.getPosition(), data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return region;
+    }
+    
+    /**
+     * Gets the {@link Region} at the given region coordinates in the
+     * {@link org.bukkit.World} with the given name.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link Region}, or {@code null} if there is none.
+     */
+    @Nullable
+    private Region getRegion(@NotNull final String world, final int regionX, final int regionZ) {
+        final LongObjectHashMap<Region> regions = this.worlds.get(world);
+        return regions == null ? null : regions.get(PrivateLiftSignJournal.getRegionKey(regionX, regionZ));
+    }
+    
+    /**
+     * Gets the {@link Region} at the given region coordinates in the
+     * {@link org.bukkit.World} with the given name, reading its region file
+     * into memory if it is not there yet.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link Region}, which is empty if there is no region file.
+     * @throws IOException If the region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    @NotNull
+    private Region loadRegion(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        final Region loaded = this.getRegion(world, regionX, regionZ);
+        if (loaded != null) {
+            return loaded;
+        }
+        
+        // The region file was indexed when it was written or scanned, so the
+        // per-player index does not change.
+        final Region region = new Region(world, regionX, regionZ);
+        final File regionFile = this.getRegionFile(world, regionX, regionZ);
+        if (regionFile.exists()) {
+            this.format.read(regionFile, data -> region.records.put(data.getPosition(), data));
+        }
+        this.setRegion(region);
+        return region;
+    }
+    
+    /**
+     * Stores the given {@link Region} in memory, replacing any {@link Region}
+     * at the same region coordinates.
+     *
+     * @param region The {@link Region} to store.
+     */
+    private void setRegion(@NotNull final Region region) {
+        this.worlds.computeIfAbsent(region.world, world -> new LongObjectHashMap<Region>()).put(PrivateLiftSignJournal.getRegionKey(region.regionX, region.regionZ), region);
+    }
+    
+    /**
+     * Stores the given {@link PrivateLiftSignData} in memory, without reading
+     * its region file or updating the per-player index. This is only used
+     * while opening, before the index is built.
+     *
+     * @param data The {@link PrivateLiftSignData} to store.
+     * @param dirty {@code true} if the region file of the
+     *              {@link PrivateLiftSignData} must be rewritten by the next
+     *              compaction, {@code false} otherwise.
+     */
+    private void storeRecord(@NotNull final PrivateLiftSignData data, final boolean dirty) {
+        
+        final int regionX = data.getX() >> 9;
+        final int regionZ = data.getZ() >> 9;
+        Region region = this.getRegion(data.getWorld(), regionX, regionZ);
+        if (region == null) {
+            region = new Region(data.getWorld(), regionX, regionZ);
+            this.setRegion(region);
+        }
+        region.records.put(data.getPosition(), data);
+        region.dirty |= dirty;
+    }
+    
+    /**
+     * Stores the given {@link PrivateLiftSignData} in memory, reading its
+     * region file first if needed, and updates the per-player index. The
+     * region file must be rewritten by the next compaction.
+     *
+     * @param data The {@link PrivateLiftSignData} to store.
+     * @throws IOException If the region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    private void putRecord(@NotNull final PrivateLiftSignData data) throws IOException {
+        
+        final Region region = this.loadRegion(data.getWorld(), data.getX() >> 9, data.getZ() >> 9);
+        final PrivateLiftSignData replaced = region.records.put(data.getPosition(), data);
+        if (replaced == null) {
+            this.size++;
+        } else {
+            this.index(replaced, -1);
+        }
+        this.index(data, 1);
+        region.dirty = true;
+    }
+    
+    /**
+     * Removes the {@link PrivateLiftSignData} at the given position from
+     * memory, reading its region file first if needed, and updates the
+     * per-player index. The {@link Region} is kept until its region file has
+     * been rewritten by a compaction.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param position The packed position.
+     * @return {@code true} if any {@link PrivateLiftSignData} was removed,
+     *         {@code false} otherwise.
+     * @throws IOException If the region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    private boolean removeRecord(@NotNull final String world, final long position) throws IOException {
+        
+        final Region region = this.loadRegion(world, BlockPosition.getX(position) >> 9, BlockPosition.getZ(position) >> 9);
+        final PrivateLiftSignData removed = region.records.remove(position);
+        if (removed == null) {
+            this.evict(region);
+            return false;
+        }
+        
+        this.size--;
+        this.index(removed, -1);
+        region.dirty = true;
+        return true;
+    }
+    
+    /**
+     * Adds the given {@link PrivateLiftSignData} to, or removes it from, the
+     * per-player index, for its owner, admins, and members.
+     *
+     * @param data The {@link PrivateLiftSignData}.
+     * @param delta {@code 1} to add the {@link PrivateLiftSignData}, or
+     *              {@code -1} to remove it.
+     */
+    private void index(@NotNull final PrivateLiftSignData data, final int delta) {
+        
+        this.index(data.getOwner(), data, delta);
+        for (final UUID admin : data.getAdmins()) {
+            this.index(admin, data, delta);
+        }
+        for (final UUID member : data.getMembers()) {
+            this.index(member, data, delta);
+        }
+    }
+    
+    /**
+     * Changes the number of {@link PrivateLiftSignData} in the region of the
+     * given {@link PrivateLiftSignData} that the player with the given
+     * {@link UUID} owns, or is an admin or member of. The region is removed
+     * from the per-player index once the number reaches zero.
+     *
+     * @param uniqueId The {@link UUID} of the player.
+     * @param data The {@link PrivateLiftSignData}.
+     * @param delta The change in the number of {@link PrivateLiftSignData}.
+     */
+    private void index(@NotNull final UUID uniqueId, @NotNull final PrivateLiftSignData data, final int delta) {
+        
+        final HashMap<String, LongObjectHashMap<int[]>> worlds = this.players.computeIfAbsent(uniqueId, key -> new HashMap<String, LongObjectHashMap<int[]>>());
+        final LongObjectHashMap<int[]> regions = PrivateLiftSignJournal.getOrCreate(worlds, data.getWorld());
+        final long regionKey = PrivateLiftSignJournal.getRegionKey(data.getX() >> 9, data.getZ() >> 9);
+        int[] count = regions.get(regionKey);
+        if (count == null) {
+            count = new int[1];
+            regions.put(regionKey, count);
+        }
+        
+        count[0] += delta;
+        if (count[0] > 0) {
+            return;
+        }
+        regions.remove(regionKey);
+        if (regions.isEmpty()) {
+            worlds.remove(data.getWorld());
+            if (worlds.isEmpty()) {
+                this.players.remove(uniqueId);
+            }
+        }
+    }
+    
+    /**
+     * Drops the given {@link Region} from memory if it is no longer used and
+     * has no changes that have not been compacted yet. Nothing is dropped
+     * while compacting, as the region files being written are not in place
+     * yet.
+     *
+     * @param region The {@link Region} to drop.
+     */
+    private void evict(@NotNull final Region region) {
+        
+        if (region.used || region.dirty || this.compacting) {
+            return;
+        }
+        
+        final LongObjectHashMap<Region> regions = this.worlds.get(region.world);
+        final long regionKey = PrivateLiftSignJournal.getRegionKey(region.regionX, region.regionZ);
+        if (regions != null && regions.get(regionKey) == region) {
+            regions.remove(regionKey);
+            if (regions.isEmpty()) {
+                this.worlds.remove(region.world);
+            }
+        }
+    }
+    
+    /**
+     * Applies the releases recorded by
+     * {@link PrivateLiftSignJournal#release(String, int, int)}, dropping the
+     * released {@link Region}s from memory where possible.
+     */
+    private void applyReleases() {
+        
+        final HashMap<String, LongObjectHashMap<Boolean>> released;
+        synchronized (this.releaseLock) {
+            if (this.releasedRegions.isEmpty()) {
+                return;
+            }
+            released = this.releasedRegions;
+            this.releasedRegions = new HashMap<String, LongObjectHashMap<Boolean>>();
+        }
+        
+        for (final Map.Entry<String, LongObjectHashMap<Boolean>> entry : released.entrySet()) {
+            final LongObjectHashMap<Region> regions = this.worlds.get(entry.getKey());
+            if (regions == null) {
+                continue;
+            }
+            for (final long regionKey : entry.getValue().keys()) {
+                final Region region = regions.get(regionKey);
+                if (region != null) {
+                    region.used = false;
+                    this.evict(region);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drops every {@link Region} from memory that is no longer used and has
+     * no changes that have not been compacted yet.
+     */
+    private void evictAll() {
+        
+        final List<Region> loaded = new ArrayList<Region>();
+        for (final LongObjectHashMap<Region> regions : this.worlds.values()) {
+            loaded.addAll(regions.values());
+        }
+        for (final Region region : loaded) {
+            this.evict(region);
+        }
+    }
+    
+    /**
+     * Writes the per-player index and the {@link Region}s that must be
+     * rewritten by the next compaction to the boot snapshot, replacing it
+     * atomically. This must only be called once the journal is closed.
+     * <p>
+     * The boot snapshot is {@code [magic][header length][header][crc32]},
+     * followed by a snapshot of the {@link PrivateLiftSignData} in those
+     * {@link Region}s in the {@link BinaryPrivateLiftSignFormat}. The header
+     * holds the fingerprint of the files, the number of frames in the
+     * journal, the number of stored {@link PrivateLiftSignData}, the
+     * per-player index, and the {@link Region}s. Failures are only reported,
+     * as the boot snapshot is optional.
+     */
+    private void writeBootSnapshot() {
+        
+        try {
+            
+            final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            final DataOutputStream header = new DataOutputStream(headerBytes);
+            header.write(this.getFingerprint());
+            header.writeInt(this.journalRecords);
+            header.writeInt(this.size);
+            
+            header.writeInt(this.players.size());
+            for (final Map.Entry<UUID, HashMap<String, LongObjectHashMap<int[]>>> player : this.players.entrySet()) {
+                header.writeLong(player.getKey().getMostSignificantBits());
+                header.writeLong(player.getKey().getLeastSignificantBits());
+                header.writeInt(player.getValue().size());
+                for (final Map.Entry<String, LongObjectHashMap<int[]>> world : player.getValue().entrySet()) {
+                    PrivateLiftSignJournal.writeName(header, world.getKey());
+                    final long[] regionKeys = world.getValue().keys();
+                    header.writeInt(regionKeys.length);
+                    for (final long regionKey : regionKeys) {
+                        header.writeLong(regionKey);
+                        header.writeInt(world.getValue().get(regionKey)[0]);
+                    }
+                }
+            }
+            
+            // Every other region is exactly as in its region file.
+            final List<Region> dirty = new ArrayList<Region>();
+            final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+            for (final LongObjectHashMap<Region> regions : this.worlds.values()) {
+                for (final Region region : regions.values()) {
+                    if (region.dirty) {
+                        dirty.add(region);
+                        records.addAll(region.records.values());
+                    }
+                }
+            }
+            
+            header.writeInt(dirty.size());
+            for (final Region region : dirty) {
+                PrivateLiftSignJournal.writeName(header, region.world);
+                header.writeInt(region.regionX);
+                header.writeInt(region.regionZ);
+            }
+            header.flush();
+            
+            this.frameChecksum.reset();
+            this.frameChecksum.update(headerBytes.toByteArray(), 0, headerBytes.size());
+            
+            final ByteArrayOutputStream contents = new ByteArrayOutputStream(64 + headerBytes.size() + records.size() * 64);
+            final DataOutputStream out = new DataOutputStream(contents);
+            out.writeInt(PrivateLiftSignJournal.BOOT_MAGIC);
+            out.writeInt(headerBytes.size());
+            headerBytes.writeTo(out);
+            out.writeInt((int) this.frameChecksum.getValue());
+            new BinaryPrivateLiftSignFormat().write(out, records);
+            
+            this.regionBatch.stage(this.bootFile, contents.toByteArray());
+            this.regionBatch.commit();
+        } catch (IOException | SecurityException e) {
+            this.logger.log(Level.WARNING, "Unable to write the PrivateLiftSign boot snapshot at " + this.bootFile.getPath());
+            this.logger.log(Level.WARNING, "The region files will be loaded on the next startup instead.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+        }
+    }
+    
+    /**
+     * Reads the per-player index and the {@link Region}s that must be
+     * rewritten by the next compaction from the boot snapshot, if its
+     * fingerprint matches the current files. Nothing is changed in memory
+     * unless the whole boot snapshot is valid.
+     *
+     * @return {@code true} if the boot snapshot was read, {@code false} if it
+     *         is out of date or invalid.
+     */
+    private boolean readBootSnapshot() {
+        
+        // A migration or a compaction was started after the boot snapshot
+        // was written.
+        if (this.rotatedJournalFile.exists()) {
+            return false;
+        }
+        for (final PrivateLiftSignFormat snapshotFormat : PrivateLiftSignFormat.getFormats()) {
+            if (new File(this.folder, snapshotFormat.getFileName()).exists()) {
+                return false;
+            }
+        }
+        
+        final int bootJournalRecords;
+        final int bootSize;
+        final HashMap<UUID, HashMap<String, LongObjectHashMap<int[]>>> players = new HashMap<UUID, HashMap<String, LongObjectHashMap<int[]>>>();
+        final List<Region> dirty = new ArrayList<Region>();
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        try (final FileChannel channel = FileChannel.open(this.bootFile.toPath(), StandardOpenOption.READ)) {
+            
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid PrivateLiftSign boot snapshot size (" + size + " bytes): " + this.bootFile.getPath());
+            }
+            
+            // The boot snapshot is read onto the heap rather than mapped, as
+            // a mapped file cannot be deleted on some platforms until the
+            // mapping is garbage collected.
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of PrivateLiftSign boot snapshot: " + this.bootFile.getPath());
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != PrivateLiftSignJournal.BOOT_MAGIC) {
+                throw new IOException("Not a PrivateLiftSign boot snapshot: " + this.bootFile.getPath());
+            }
+            
+            final int headerLength = buffer.getInt();
+            if (headerLength < 0 || headerLength > buffer.remaining() - 4) {
+                throw new IOException("Invalid PrivateLiftSign boot snapshot header length " + headerLength + ": " + this.bootFile.getPath());
+            }
+            final ByteBuffer header = buffer.slice();
+            header.limit(headerLength);
+            this.frameChecksum.reset();
+            this.frameChecksum.update(header.duplicate());
+            buffer.position(buffer.position() + headerLength);
+            if (buffer.getInt() != (int) this.frameChecksum.getValue()) {
+                throw new IOException("PrivateLiftSign boot snapshot header checksum mismatch: " + this.bootFile.getPath());
+            }
+            
+            final byte[] fingerprint = new byte[PrivateLiftSignJournal.FINGERPRINT_LENGTH];
+            header.get(fingerprint);
+            if (!Arrays.equals(fingerprint, this.getFingerprint())) {
+                this.logger.log(Level.INFO, "PrivateLiftSign files have changed since the boot snapshot was written, loading the region files instead.");
+                return false;
+            }
+            
+            bootJournalRecords = header.getInt();
+            bootSize = header.getInt();
+            
+            final int playerCount = header.getInt();
+            for (int playerIndex = 0; playerIndex < playerCount; playerIndex++) {
+                final HashMap<String, LongObjectHashMap<int[]>> worlds = new HashMap<String, LongObjectHashMap<int[]>>();
+                players.put(new UUID(header.getLong(), header.getLong()), worlds);
+                final int worldCount = header.getInt();
+                for (int worldIndex = 0; worldIndex < worldCount; worldIndex++) {
+                    final LongObjectHashMap<int[]> regions = PrivateLiftSignJournal.getOrCreate(worlds, PrivateLiftSignJournal.readName(header));
+                    final int regionCount = header.getInt();
+                    for (int regionIndex = 0; regionIndex < regionCount; regionIndex++) {
+                        regions.put(header.getLong(), new int[] { header.getInt() });
+                    }
+                }
+            }
+            
+            final int dirtyCount = header.getInt();
+            for (int index = 0; index < dirtyCount; index++) {
+                dirty.add(new Region(PrivateLiftSignJournal.readName(header), header.getInt(), header.getInt()));
+            }
+            
+            new BinaryPrivateLiftSignFormat().read(buffer.slice(), this.bootFile.getPath(), records::add);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | SecurityException e) {
+            this.logger.log(Level.WARNING, "Unable to read the PrivateLiftSign boot snapshot at " + this.bootFile.getPath());
+            this.logger.log(Level.WARNING, "Loading the region files instead.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            return false;
+        }
+        
+        for (final PrivateLiftSignData data : records) {
+            this.storeRecord(data, false);
+        }
+        for (final Region region : dirty) {
+            final Region existing = this.getRegion(region.world, region.regionX, region.regionZ);
+            if (existing != null) {
+                existing.dirty = true;
+            } else {
+                region.dirty = true;
+                this.setRegion(region);
+            }
+        }
+        this.players.putAll(players);
+        this.size = bootSize;
+        this.journalRecords = bootJournalRecords;
+        return true;
+    }
+    
+    /**
+     * Gets the fingerprint of the journal and region files, from their names,
+     * sizes, and modification times, and the modification times of the
+     * {@link org.bukkit.World} folders. Any change to the files, including
+     * region files being added or removed, changes the fingerprint.
+     *
+     * @return The fingerprint of the files.
+     * @throws IOException If the fingerprint cannot be calculated.
+     */
+    @NotNull
+    private byte[] getFingerprint() throws IOException {
+        
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available.", e);
+        }
+        
+        final ByteArrayOutputStream fingerprintBytes = new ByteArrayOutputStream();
+        final DataOutputStream fingerprint = new DataOutputStream(fingerprintBytes);
+        fingerprint.writeUTF(this.format.getName());
+        fingerprint.writeLong(this.journalFile.length());
+        fingerprint.writeLong(this.journalFile.lastModified());
+        
+        final File[] worldFolders = this.regionFolder.listFiles(File::isDirectory);
+        if (worldFolders != null) {
+            Arrays.sort(worldFolders);
+            for (final File worldFolder : worldFolders) {
+                
+                fingerprint.writeUTF(worldFolder.getName());
+                fingerprint.writeLong(worldFolder.lastModified());
+                
+                final File[] regionFiles = worldFolder.listFiles();
+                if (regionFiles == null) {
+                    throw new IOException("Unable to list PrivateLiftSign region files in " + worldFolder.getPath());
+                }
+                Arrays.sort(regionFiles);
+                for (final File regionFile : regionFiles) {
+                    fingerprint.writeUTF(regionFile.getName());
+                    fingerprint.writeLong(regionFile.length());
+                    fingerprint.writeLong(regionFile.lastModified());
+                }
+            }
+        }
+        
+        fingerprint.flush();
+        return digest.digest(fingerprintBytes.toByteArray());
+    }
+    
+    /**
+     * Appends the current frame to the journal as
+     * {@code [length][body][crc32]}.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void appendFrame() throws IOException {
+        
+        this.writeFrame();
+        
+        // Hand the frame to the operating system right away, so that it
+        // survives the server process dying. It is forced to disk by flush().
+        this.journal.flush();
+        this.journalRecords++;
+    }
+    
+    /**
+     * Writes the current frame to the journal buffer as
+     * {@code [length][body][crc32]}.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeFrame() throws IOException {
+        
+        if (this.closed) {
+            throw new IOException("PrivateLiftSign journal is closed.");
+        }
+        
+        this.frameChecksum.reset();
+        this.frameChecksum.update(this.frameBytes.toByteArray(), 0, this.frameBytes.size());
+        
+        this.journal.writeInt(this.frameBytes.size());
+        this.frameBytes.writeTo(this.journal);
+        this.journal.writeInt((int) this.frameChecksum.getValue());
+    }
+    
+    /**
+     * Reads every region file in the given {@link PrivateLiftSignFormat} in
+     * the given {@link org.bukkit.World} folder in parallel, passing the
+     * {@link PrivateLiftSignData} of each region that was not already
+     * exported to the given {@link Consumer}.
+     *
+     * @param worldFolder The {@link org.bukkit.World} folder.
+     * @param regionFormat The {@link PrivateLiftSignFormat} of the region
+     *                     files.
+     * @param exported The keys of the regions that were already exported,
+     *                 which are added to.
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PrivateLiftSignData} to.
+     * @throws IOException If a region file is corrupt, or an I/O error
+     *                     occurs.
+     */
+    private void exportRegions(@NotNull final File worldFolder, @NotNull final PrivateLiftSignFormat regionFormat, @NotNull final LongObjectHashMap<Boolean> exported, @NotNull final Consumer<PrivateLiftSignData> consumer) throws IOException {
+        
+        try {
+            ParallelFileLoader.load(worldFolder.toPath(), "r.*.*." + regionFormat.getExtension(), ParallelFileLoader.getDefaultParallelism(), path -> this.readRegion(worldFolder.getName(), path.toFile(), regionFormat), region -> {
+                synchronized (exported) {
+                    final long key = PrivateLiftSignJournal.getRegionKey(region.regionX, region.regionZ);
+                    if (exported.get(key) != null) {
+                        return;
+                    }
+                    exported.put(key, Boolean.TRUE);
+                    for (final PrivateLiftSignData data : region.records.values()) {
+                        consumer.accept(data);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Reads the single-file snapshot, if there is one, and the journal(s),
+     * and sorts what they hold by region. For each position, only the latest
+     * change in the journal(s) is kept.
+     *
+     * @return The {@link PeekRegion}s, by {@link org.bukkit.World} name and
+     *         region key.
+     * @throws IOException If a file is corrupt, or an I/O error occurs.
+     */
+    @NotNull
+    private HashMap<String, LongObjectHashMap<PeekRegion>> readPeekRegions() throws IOException {
+        
+        final HashMap<String, LongObjectHashMap<PeekRegion>> peekRegions = new HashMap<String, LongObjectHashMap<PeekRegion>>();
+        for (final PrivateLiftSignFormat snapshotFormat : PrivateLiftSignFormat.getFormats()) {
+            final File snapshotFile = new File(this.folder, snapshotFormat.getFileName());
+            if (snapshotFile.exists()) {
+                snapshotFormat.read(snapshotFile, data -> PrivateLiftSignJournal.getPeekRegion(peekRegions, data.getWorld(), data.getX() >> 9, data.getZ() >> 9).snapshot.put(data.getPosition(), data));
+            }
+        }
+        
+        final Consumer<PrivateLiftSignData> put = data -> {
+            final PeekRegion peekRegion = PrivateLiftSignJournal.getPeekRegion(peekRegions, data.getWorld(), data.getX() >> 9, data.getZ() >> 9);
+            peekRegion.changed.put(data.getPosition(), data);
+            peekRegion.removed.remove(data.getPosition());
+        };
+        final BiConsumer<String, Long> remove = (world, position) -> {
+            final PeekRegion peekRegion = PrivateLiftSignJournal.getPeekRegion(peekRegions, world, BlockPosition.getX(position) >> 9, BlockPosition.getZ(position) >> 9);
+            peekRegion.changed.remove(position);
+            peekRegion.removed.put(position, Boolean.TRUE);
+        };
+        for (final File file : new File[] { this.rotatedJournalFile, this.journalFile }) {
+            if (file.exists()) {
+                this.readJournal(file, put, remove, false);
+            }
+        }
+        return peekRegions;
+    }
+    
+    /**
+     * Discards the {@link PeekRegion}s once this
+     * {@link PrivateLiftSignJournal} has opened, as lookups no longer need
+     * them.
+     */
+    private void clearPeekRegions() {
+        synchronized (this.peekLock) {
+            this.peekRegions = null;
+        }
+    }
+    
+    /**
+     * Gets the {@link PeekRegion} for the given region from the given
+     * {@link Map}, creating it if there is none.
+     *
+     * @param peekRegions The {@link PeekRegion}s, by
+     *                    {@link org.bukkit.World} name and region key.
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link PeekRegion}.
+     */
+    @NotNull
+    private static PeekRegion getPeekRegion(@NotNull final Map<String, LongObjectHashMap<PeekRegion>> peekRegions, @NotNull final String world, final int regionX, final int regionZ) {
+        
+        final LongObjectHashMap<PeekRegion> regions = PrivateLiftSignJournal.getOrCreate(peekRegions, world);
+        final long regionKey = PrivateLiftSignJournal.getRegionKey(regionX, regionZ);
+        PeekRegion peekRegion = regions.get(regionKey);
+        if (peekRegion == null) {
+            peekRegion = new PeekRegion();
+            regions.put(regionKey, peekRegion);
+        }
+        return peekRegion;
+    }
+    
+    /**
+     * Gets the {@link LongObjectHashMap} for the {@link org.bukkit.World}
+     * with the given name from the given {@link Map}, creating it if there is
+     * none.
+     *
+     * @param worlds The {@link LongObjectHashMap}s by {@link org.bukkit.World}
+     *               name.
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param <V> The type of the values.
+     * @return The {@link LongObjectHashMap}.
+     */
+    @NotNull
+    private static <V> LongObjectHashMap<V> getOrCreate(@NotNull final Map<String, LongObjectHashMap<V>> worlds, @NotNull final String world) {
+        return worlds.computeIfAbsent(world, key -> new LongObjectHashMap<V>());
+    }
+    
+    /**
+     * Replays the frames in the given journal file into memory, reading the
+     * region files of the changed regions. Any incomplete or corrupt frames
+     * at the end of the file are truncated.
+     *
+     * @param file The journal file.
+     * @return The number of frames replayed.
+     * @throws IOException If the file is not a journal, or an I/O error
+     *                     occurs.
+     */
+    private int replay(@NotNull final File file) throws IOException {
+        try {
+            return this.readJournal(file, data -> {
+                try {
+                    this.putRecord(data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, (world, position) -> {
+                try {
+                    this.removeRecord(world, position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Reads the frames in the given journal file, passing each change to the
+     * given {@link Consumer} or {@link BiConsumer}. Reading stops at the
+     * first incomplete or corrupt frame.
+     * <p>
+     * This does not use any state of this {@link PrivateLiftSignJournal}
+     * unless the changes are applied to it, so it may be called without
+     * holding the lock.
+     *
+     * @param file The journal file.
+     * @param put The {@link Consumer} to pass each stored
+     *            {@link PrivateLiftSignData} to.
+     * @param remove The {@link BiConsumer} to pass the
+     *               {@link org.bukkit.World} name and packed position of
+     *               each removal to.
+     * @param truncate {@code true} if any incomplete or corrupt frames at the
+     *                 end of the file should be truncated, {@code false} if
+     *                 the file must not be changed.
+     * @return The number of frames read.
+     * @throws IOException If the file is not a journal, or an I/O error
+     *                     occurs.
+     */
+    private int readJournal(@NotNull final File file, @NotNull final Consumer<PrivateLiftSignData> put, @NotNull final BiConsumer<String, Long> remove, final boolean truncate) throws IOException {
+        
+        final CRC32 checksum = new CRC32();
+        long valid = 0L;
+        int count = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+            
+            if (in.readInt() != PrivateLiftSignJournal.JOURNAL_MAGIC) {
+                throw new IOException("Not a PrivateLiftSign journal: " + file.getPath());
+            }
+            valid = 4L;
+            
+            while (true) {
+                
+                final int length = in.readInt();
+                if (length <= 0 || length > PrivateLiftSignJournal.MAX_FRAME_LENGTH) {
+                    break;
+                }
+                
+                final byte[] body = new byte[length];
+                in.readFully(body);
+                
+                checksum.reset();
+                checksum.update(body, 0, length);
+                if ((int) checksum.getValue() != in.readInt()) {
+                    break;
+                }
+                
+                PrivateLiftSignJournal.apply(body, file, valid, put, remove);
+                valid += 8L + length;
+                count++;
+            }
+        } catch (EOFException e) {
+            // Either the end of the journal, or an incomplete frame that is
+            // truncated below.
+        }
+        
+        if (truncate && file.length() > valid) {
+            this.logger.log(Level.WARNING, "PrivateLiftSign journal has an incomplete or corrupt frame, likely from an unclean shutdown.");
+            this.logger.log(Level.WARNING, "Journal: " + file.getPath());
+            this.logger.log(Level.WARNING, "Truncating " + (file.length() - valid) + " bytes at offset " + valid + ".");
+            try (final RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+                truncated.setLength(valid);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Applies the given journal frame body to the given {@link Consumer} or
+     * {@link BiConsumer}.
+     *
+     * @param body The frame body.
+     * @param file The journal file, for error reporting.
+     * @param offset The offset of the frame, for error reporting.
+     * @param put The {@link Consumer} to pass a stored
+     *            {@link PrivateLiftSignData} to.
+     * @param remove The {@link BiConsumer} to pass a removal to.
+     * @throws IOException If the frame body is malformed.
+     */
+    private static void apply(@NotNull final byte[] body, @NotNull final File file, final long offset, @NotNull final Consumer<PrivateLiftSignData> put, @NotNull final BiConsumer<String, Long> remove) throws IOException {
+        
+        // The checksum matched, so a malformed body is not from an unclean
+        // shutdown, and must not be mistaken for the end of the journal.
+        try {
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            final byte op = in.readByte();
+            if (op == PrivateLiftSignJournal.OP_PUT) {
+                put.accept(PrivateLiftSignData.read(in));
+            } else if (op == PrivateLiftSignJournal.OP_REMOVE) {
+                remove.accept(in.readUTF(), in.readLong());
+            } else {
+                throw new IOException("Unknown operation " + op + " in PrivateLiftSign journal frame at offset " + offset + ": " + file.getPath());
+            }
+        } catch (EOFException e) {
+            throw new IOException("Malformed PrivateLiftSign journal frame at offset " + offset + ": " + file.getPath(), e);
+        }
+    }
+    
+    /**
+     * Opens the journal file for appending, writing its header if it is
+     * empty.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void openJournal() throws IOException {
+        
+        final boolean empty = !this.journalFile.exists() || this.journalFile.length() == 0L;
+        this.journalOut = new FileOutputStream(this.journalFile, true);
+        this.journal = new DataOutputStream(new BufferedOutputStream(this.journalOut, 65536));
+        if (empty) {
+            this.journal.writeInt(PrivateLiftSignJournal.JOURNAL_MAGIC);
+            this.journal.flush();
+        }
+    }
+    
+    /**
+     * Flushes, forces to disk, and closes the journal file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void closeJournal() throws IOException {
+        
+        if (this.journal == null) {
+            return;
+        }
+        
+        try {
+            this.journal.flush();
+            this.journalOut.getChannel().force(false);
+        } finally {
+            this.journal.close();
+            this.journal = null;
+        }
+    }
+    
+    /**
+     * Stages the given {@link PrivateLiftSignData} as the region file of the
+     * given {@link Region}, in the configured {@link PrivateLiftSignFormat}.
+     * The region file is replaced when the region files changed by the
+     * compaction are committed together. If there is no
+     * {@link PrivateLiftSignData}, the region file is deleted instead.
+     *
+     * @param region The {@link Region} to write.
+     * @param records The {@link PrivateLiftSignData} in the {@link Region}.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeRegion(@NotNull final Region region, @NotNull final List<PrivateLiftSignData> records) throws IOException {
+        
+        final File worldFolder = new File(this.regionFolder, region.world);
+        final File regionFile = new File(worldFolder, PrivateLiftSignJournal.getRegionFileName(region.regionX, region.regionZ, this.format));
+        if (records.isEmpty()) {
+            this.regionBatch.delete(regionFile);
+            return;
+        }
+        
+        if (!worldFolder.isDirectory() && !worldFolder.mkdirs()) {
+            throw new IOException("PrivateLiftSign region directory not created at " + worldFolder.getPath());
+        }
+        
+        final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        this.format.write(contents, records);
+        this.regionBatch.stage(regionFile, contents.toByteArray());
+    }
+    
+    /**
+     * Writes the given {@link org.bukkit.World} name to the given
+     * {@link DataOutputStream} as {@code [length][UTF-8 bytes]}.
+     *
+     * @param out The {@link DataOutputStream}.
+     * @param world The name of the {@link org.bukkit.World}.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeName(@NotNull final DataOutputStream out, @NotNull final String world) throws IOException {
+        
+        final byte[] name = world.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+    }
+    
+    /**
+     * Reads a {@link org.bukkit.World} name written by
+     * {@link PrivateLiftSignJournal#writeName(DataOutputStream, String)}
+     * from the given {@link ByteBuffer}.
+     *
+     * @param in The {@link ByteBuffer}.
+     * @return The name of the {@link org.bukkit.World}.
+     * @throws BufferUnderflowException If the name is incomplete.
+     */
+    @NotNull
+    private static String readName(@NotNull final ByteBuffer in) {
+        
+        final byte[] name = new byte[in.getShort() & 0xFFFF];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Gets the region file at the given region coordinates in the
+     * {@link org.bukkit.World} with the given name, in the configured
+     * {@link PrivateLiftSignFormat}.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The region file.
+     */
+    @NotNull
+    private File getRegionFile(@NotNull final String world, final int regionX, final int regionZ) {
+        return new File(new File(this.regionFolder, world), PrivateLiftSignJournal.getRegionFileName(regionX, regionZ, this.format));
+    }
+    
+    /**
+     * Gets the name of the region file at the given region coordinates in
+     * the given {@link PrivateLiftSignFormat}.
+     *
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @param regionFormat The {@link PrivateLiftSignFormat}.
+     * @return The name of the region file.
+     */
+    @NotNull
+    private static String getRegionFileName(final int regionX, final int regionZ, @NotNull final PrivateLiftSignFormat regionFormat) {
+        return "r." + regionX + "." + regionZ + "." + regionFormat.getExtension();
+    }
+    
+    /**
+     * Packs the given region coordinates into a single {@code long} key.
+     *
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The packed region coordinates.
+     */
+    private static long getRegionKey(final int regionX, final int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+}
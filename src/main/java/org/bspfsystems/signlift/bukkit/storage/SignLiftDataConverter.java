@@ -0,0 +1,1031 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.bspfsystems.signlift.bukkit.util.ParallelFileLoader;
+
+/**
+ * Represents a standalone tool that converts stored
+ * {@link PrivateLiftSignData} and {@link PlayerDataEntry}s between layouts,
+ * without a server. The supported layouts are:
+ * <ul>
+ *     <li>{@code yaml}: the legacy per-file layout, with one file per
+ *     {@link org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign} in
+ *     {@code PrivateLiftSigns/} and one file per player in
+ *     {@code PlayerData/}.</li>
+ *     <li>{@code journal}: the layout of the {@link FileSignLiftStorage},
+ *     with the {@link PrivateLiftSignJournal} and its region files, and the
+ *     {@link PlayerNameIndex}.</li>
+ *     <li>{@code csv}: {@code PrivateLiftSigns.csv} and
+ *     {@code PlayerNames.csv}, with a header line and the {@link java.util.UUID}s
+ *     of the admins and members separated by semicolons.</li>
+ *     <li>{@code jsonl}: {@code PrivateLiftSigns.jsonl} and
+ *     {@code PlayerNames.jsonl}, with one JSON object per line.</li>
+ * </ul>
+ * <p>
+ * Records are streamed one at a time from the source to the target, and are
+ * parsed in parallel, so memory use does not grow with the number of
+ * {@link PrivateLiftSignData}. Every record goes through the same
+ * serialization and validation as the plugin itself, so a conversion does
+ * not lose or change anything, and any record that fails validation is
+ * reported and skipped. The target must not contain any data in its layout
+ * yet.
+ * <p>
+ * The tool only needs the Bukkit API on the class path for its YAML parser,
+ * and can be run with:
+ * <pre>
+ * java -cp SignLift.jar:spigot-api.jar org.bspfsystems.signlift.bukkit.storage.SignLiftDataConverter &lt;from-layout&gt; &lt;from-folder&gt; &lt;to-layout&gt; &lt;to-folder&gt; [format] [threads]
+ * </pre>
+ * where {@code format} is the {@link PrivateLiftSignFormat} of the region
+ * files in the {@code journal} layout, which defaults to {@code binary}.
+ */
+public final class SignLiftDataConverter {
+    
+    private static final String LAYOUT_YAML = "yaml";
+    private static final String LAYOUT_JOURNAL = "journal";
+    private static final String LAYOUT_CSV = "csv";
+    private static final String LAYOUT_JSON_LINES = "jsonl";
+    
+    private static final String FOLDER_PRIVATE_LIFT_SIGNS = "PrivateLiftSigns";
+    private static final String FOLDER_PLAYER_DATA = "PlayerData";
+    private static final String FILE_PRIVATE_LIFT_SIGNS = "PrivateLiftSigns";
+    private static final String FILE_PLAYER_NAMES = "PlayerNames";
+    
+    // Keys of the serialized PrivateLiftSignData and PlayerDataEntry, which
+    // are also the CSV columns.
+    private static final String KEY_WORLD = "world";
+    private static final String KEY_X = "x";
+    private static final String KEY_Y = "y";
+    private static final String KEY_Z = "z";
+    private static final String KEY_OWNER_UNIQUE_ID = "owner_unique_id";
+    private static final String KEY_ADMIN_UNIQUE_IDS = "admin_unique_ids";
+    private static final String KEY_MEMBER_UNIQUE_IDS = "member_unique_ids";
+    private static final String KEY_UNIQUE_ID = "unique_id";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_LAST_SEEN = "last_seen";
+    
+    private static final List<String> PRIVATE_LIFT_SIGN_COLUMNS = Arrays.asList(SignLiftDataConverter.KEY_WORLD, SignLiftDataConverter.KEY_X, SignLiftDataConverter.KEY_Y, SignLiftDataConverter.KEY_Z, SignLiftDataConverter.KEY_OWNER_UNIQUE_ID, SignLiftDataConverter.KEY_ADMIN_UNIQUE_IDS, SignLiftDataConverter.KEY_MEMBER_UNIQUE_IDS);
+    private static final List<String> PLAYER_COLUMNS = Arrays.asList(SignLiftDataConverter.KEY_UNIQUE_ID, SignLiftDataConverter.KEY_NAME, SignLiftDataConverter.KEY_LAST_SEEN);
+    
+    /**
+     * Represents the target of a conversion. Records may be written from
+     * multiple threads concurrently.
+     */
+    private interface Sink extends Closeable {
+        
+        /**
+         * Writes the given {@link PrivateLiftSignData}.
+         *
+         * @param data The {@link PrivateLiftSignData} to write.
+         * @throws IOException If an I/O error occurs.
+         */
+        void writePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException;
+        
+        /**
+         * Writes the given {@link PlayerDataEntry}.
+         *
+         * @param playerDataEntry The {@link PlayerDataEntry} to write.
+         * @throws IOException If an I/O error occurs.
+         */
+        void writePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException;
+    }
+    
+    /**
+     * Represents a {@link Sink} in the legacy per-file YAML layout. Files are
+     * written directly from the calling threads.
+     */
+    private static final class YamlSink implements Sink {
+        
+        private final File privateLiftSignFolder;
+        private final File playerDataFolder;
+        
+        /**
+         * Constructs a new {@link YamlSink} in the given folder.
+         *
+         * @param folder The folder to write to.
+         * @throws IOException If the folder already contains data, or an I/O
+         *                     error occurs.
+         */
+        private YamlSink(@NotNull final File folder) throws IOException {
+            this.privateLiftSignFolder = SignLiftDataConverter.createFolder(new File(folder, SignLiftDataConverter.FOLDER_PRIVATE_LIFT_SIGNS));
+            this.playerDataFolder = SignLiftDataConverter.createFolder(new File(folder, SignLiftDataConverter.FOLDER_PLAYER_DATA));
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException {
+            final String fileName = data.getWorld() + "-" + data.getX() + "-" + data.getY() + "-" + data.getZ() + ".yml";
+            Files.write(new File(this.privateLiftSignFolder, fileName).toPath(), data.serializeLegacy().saveToString().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+            
+            final File playerDataFile = new File(this.playerDataFolder, playerDataEntry.getUniqueId().toString() + ".yml");
+            Files.write(playerDataFile.toPath(), playerDataEntry.serializeForSave().saveToString().getBytes(StandardCharsets.UTF_8));
+            
+            // The legacy layout keeps the time the player was last seen as
+            // the time the file was last modified.
+            if (playerDataEntry.getLastSeen() > 0L && !playerDataFile.setLastModified(playerDataEntry.getLastSeen())) {
+                throw new IOException("Unable to set the last modified time of " + playerDataFile.getPath());
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            // Every file is complete once written.
+        }
+    }
+    
+    /**
+     * Represents a {@link Sink} in the layout of the
+     * {@link FileSignLiftStorage}. The {@link PrivateLiftSignData} is
+     * appended to a new journal, and compacted into region files the next
+     * time the plugin opens it.
+     */
+    private static final class JournalSink implements Sink {
+        
+        private final PrivateLiftSignJournal journal;
+        private final PlayerNameIndex playerNameIndex;
+        
+        /**
+         * Constructs a new {@link JournalSink} in the given folder.
+         *
+         * @param folder The folder to write to.
+         * @param format The {@link PrivateLiftSignFormat} of the region
+         *               files.
+         * @param logger The {@link Logger} to report recovered errors to.
+         * @throws IOException If the folder already contains data, or an I/O
+         *                     error occurs.
+         */
+        private JournalSink(@NotNull final File folder, @NotNull final PrivateLiftSignFormat format, @NotNull final Logger logger) throws IOException {
+            
+            this.journal = new PrivateLiftSignJournal(folder, format, logger);
+            this.playerNameIndex = new PlayerNameIndex(folder, logger);
+            if (this.playerNameIndex.getFile().exists()) {
+                throw new IOException("Players are already stored in " + this.playerNameIndex.getFile().getPath());
+            }
+            
+            this.journal.openForImport();
+            try {
+                this.playerNameIndex.open();
+            } catch (IOException e) {
+                this.journal.close();
+                throw e;
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException {
+            this.journal.append(data);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+            this.playerNameIndex.put(playerDataEntry);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.playerNameIndex.close();
+            } finally {
+                this.journal.close();
+            }
+        }
+    }
+    
+    /**
+     * Represents a {@link Sink} that writes one line per record to a file for
+     * the {@link PrivateLiftSignData} and a file for the
+     * {@link PlayerDataEntry}s.
+     */
+    private static final class LineSink implements Sink {
+        
+        private final BufferedWriter privateLiftSigns;
+        private final BufferedWriter players;
+        private final Function<PrivateLiftSignData, String> privateLiftSignFormatter;
+        private final Function<PlayerDataEntry, String> playerFormatter;
+        
+        /**
+         * Constructs a new {@link LineSink} in the given folder.
+         *
+         * @param folder The folder to write to.
+         * @param extension The extension of the files.
+         * @param privateLiftSignHeader The first line of the
+         *                              {@link PrivateLiftSignData} file, or
+         *                              {@code null} if there is none.
+         * @param playerHeader The first line of the {@link PlayerDataEntry}
+         *                     file, or {@code null} if there is none.
+         * @param privateLiftSignFormatter The formatter for each
+         *                                 {@link PrivateLiftSignData}.
+         * @param playerFormatter The formatter for each
+         *                        {@link PlayerDataEntry}.
+         * @throws IOException If a file already exists, or an I/O error
+         *                     occurs.
+         */
+        private LineSink(@NotNull final File folder, @NotNull final String extension, @Nullable final String privateLiftSignHeader, @Nullable final String playerHeader, @NotNull final Function<PrivateLiftSignData, String> privateLiftSignFormatter, @NotNull final Function<PlayerDataEntry, String> playerFormatter) throws IOException {
+            
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new IOException("Directory not created at " + folder.getPath());
+            }
+            
+            this.privateLiftSigns = LineSink.open(new File(folder, SignLiftDataConverter.FILE_PRIVATE_LIFT_SIGNS + "." + extension), privateLiftSignHeader);
+            try {
+                this.players = LineSink.open(new File(folder, SignLiftDataConverter.FILE_PLAYER_NAMES + "." + extension), playerHeader);
+            } catch (IOException e) {
+                this.privateLiftSigns.close();
+                throw e;
+            }
+            this.privateLiftSignFormatter = privateLiftSignFormatter;
+            this.playerFormatter = playerFormatter;
+        }
+        
+        /**
+         * Creates the given file, writing the given header to it.
+         *
+         * @param file The file to create.
+         * @param header The first line of the file, or {@code null} if there
+         *               is none.
+         * @return The {@link BufferedWriter} for the file.
+         * @throws IOException If the file already exists, or an I/O error
+         *                     occurs.
+         */
+        @NotNull
+        private static BufferedWriter open(@NotNull final File file, @Nullable final String header) throws IOException {
+            
+            if (file.exists()) {
+                throw new IOException("File already exists at " + file.getPath());
+            }
+            
+            final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+            if (header != null) {
+                writer.write(header);
+                writer.newLine();
+            }
+            return writer;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException {
+            final String line = this.privateLiftSignFormatter.apply(data);
+            synchronized (this.privateLiftSigns) {
+                this.privateLiftSigns.write(line);
+                this.privateLiftSigns.newLine();
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+            final String line = this.playerFormatter.apply(playerDataEntry);
+            synchronized (this.players) {
+                this.players.write(line);
+                this.players.newLine();
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.players.close();
+            } finally {
+                this.privateLiftSigns.close();
+            }
+        }
+    }
+    
+    private final Logger logger;
+    private final PrivateLiftSignFormat format;
+    private final int parallelism;
+    
+    private final AtomicInteger privateLiftSignCount;
+    private final AtomicInteger playerCount;
+    private final AtomicInteger skippedCount;
+    
+    /**
+     * Constructs a new {@link SignLiftDataConverter}.
+     *
+     * @param logger The {@link Logger} to report skipped records to.
+     * @param format The {@link PrivateLiftSignFormat} of the region files in
+     *               the {@code journal} layout.
+     * @param parallelism The number of threads to parse records with.
+     */
+    public SignLiftDataConverter(@NotNull final Logger logger, @NotNull final PrivateLiftSignFormat format, final int parallelism) {
+        
+        this.logger = logger;
+        this.format = format;
+        this.parallelism = parallelism;
+        
+        this.privateLiftSignCount = new AtomicInteger();
+        this.playerCount = new AtomicInteger();
+        this.skippedCount = new AtomicInteger();
+    }
+    
+    /**
+     * Runs the {@link SignLiftDataConverter} from the command line.
+     *
+     * @param args The layout and folder to convert from, the layout and
+     *             folder to convert to, and optionally the
+     *             {@link PrivateLiftSignFormat} of the region files and the
+     *             number of threads.
+     */
+    public static void main(@NotNull final String[] args) {
+        
+        final Logger logger = Logger.getLogger(SignLiftDataConverter.class.getName());
+        if (args.length < 4 || args.length > 6) {
+            System.err.println("Usage: java -cp SignLift.jar:spigot-api.jar " + SignLiftDataConverter.class.getName() + " <from-layout> <from-folder> <to-layout> <to-folder> [format] [threads]");
+            System.err.println("Layouts: " + String.join(", ", SignLiftDataConverter.LAYOUT_YAML, SignLiftDataConverter.LAYOUT_JOURNAL, SignLiftDataConverter.LAYOUT_CSV, SignLiftDataConverter.LAYOUT_JSON_LINES));
+            System.exit(2);
+            return;
+        }
+        
+        final PrivateLiftSignFormat format = PrivateLiftSignFormat.getFormat(args.length > 4 ? args[4] : "binary");
+        if (format == null) {
+            System.err.println("Unknown PrivateLiftSign format: " + args[4]);
+            System.exit(2);
+            return;
+        }
+        
+        int parallelism = ParallelFileLoader.getDefaultParallelism();
+        if (args.length > 5) {
+            try {
+                parallelism = Integer.parseInt(args[5]);
+            } catch (NumberFormatException e) {
+                parallelism = 0;
+            }
+            if (parallelism < 1) {
+                System.err.println("Invalid number of threads: " + args[5]);
+                System.exit(2);
+                return;
+            }
+        }
+        
+        final SignLiftDataConverter converter = new SignLiftDataConverter(logger, format, parallelism);
+        final long start = System.nanoTime();
+        try {
+            converter.convert(args[0], new File(args[1]), args[2], new File(args[3]));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Unable to convert from " + args[0] + " at " + args[1] + " to " + args[2] + " at " + args[3]);
+            logger.log(Level.SEVERE, e.getClass().getSimpleName() + " thrown.", e);
+            System.exit(1);
+            return;
+        }
+        
+        logger.log(Level.INFO, "Converted " + converter.getPrivateLiftSignCount() + " PrivateLiftSigns and " + converter.getPlayerCount() + " players in " + ((System.nanoTime() - start) / 1000000L) + " ms.");
+        if (converter.getSkippedCount() > 0) {
+            logger.log(Level.WARNING, converter.getSkippedCount() + " records could not be converted, and were skipped.");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Converts all {@link PlayerDataEntry}s and {@link PrivateLiftSignData}
+     * in the given layout in the given folder to the given layout in the
+     * given folder.
+     *
+     * @param fromLayout The layout to convert from.
+     * @param fromFolder The folder to convert from.
+     * @param toLayout The layout to convert to.
+     * @param toFolder The folder to convert to.
+     * @throws IOException If the target already contains data, a source file
+     *                     is corrupt, or an I/O error occurs.
+     * @throws IllegalArgumentException If a layout is unknown.
+     */
+    public void convert(@NotNull final String fromLayout, @NotNull final File fromFolder, @NotNull final String toLayout, @NotNull final File toFolder) throws IOException, IllegalArgumentException {
+        
+        SignLiftDataConverter.checkLayout(fromLayout);
+        if (!fromFolder.isDirectory()) {
+            throw new IOException("Directory does not exist at " + fromFolder.getPath());
+        }
+        
+        try (final Sink sink = this.openSink(toLayout, toFolder)) {
+            
+            final Consumer<PlayerDataEntry> players = playerDataEntry -> {
+                try {
+                    sink.writePlayer(playerDataEntry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                this.playerCount.incrementAndGet();
+            };
+            final Consumer<PrivateLiftSignData> privateLiftSigns = data -> {
+                try {
+                    sink.writePrivateLiftSign(data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                this.privateLiftSignCount.incrementAndGet();
+            };
+            
+            this.readPlayers(fromLayout, fromFolder, players);
+            this.readPrivateLiftSigns(fromLayout, fromFolder, privateLiftSigns);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Gets the number of {@link PrivateLiftSignData} converted so far.
+     *
+     * @return The number of {@link PrivateLiftSignData} converted.
+     */
+    public int getPrivateLiftSignCount() {
+        return this.privateLiftSignCount.get();
+    }
+    
+    /**
+     * Gets the number of {@link PlayerDataEntry}s converted so far.
+     *
+     * @return The number of {@link PlayerDataEntry}s converted.
+     */
+    public int getPlayerCount() {
+        return this.playerCount.get();
+    }
+    
+    /**
+     * Gets the number of records that could not be converted so far, and
+     * were reported and skipped.
+     *
+     * @return The number of skipped records.
+     */
+    public int getSkippedCount() {
+        return this.skippedCount.get();
+    }
+    
+    /**
+     * Opens the {@link Sink} for the given layout in the given folder.
+     *
+     * @param layout The layout.
+     * @param folder The folder.
+     * @return The {@link Sink}.
+     * @throws IOException If the folder already contains data, or an I/O
+     *                     error occurs.
+     * @throws IllegalArgumentException If the layout is unknown.
+     */
+    @NotNull
+    private Sink openSink(@NotNull final String layout, @NotNull final File folder) throws IOException, IllegalArgumentException {
+        
+        SignLiftDataConverter.checkLayout(layout);
+        if (layout.equals(SignLiftDataConverter.LAYOUT_YAML)) {
+            return new YamlSink(folder);
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_JOURNAL)) {
+            return new JournalSink(folder, this.format, this.logger);
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_CSV)) {
+            return new LineSink(folder, SignLiftDataConverter.LAYOUT_CSV, String.join(",", SignLiftDataConverter.PRIVATE_LIFT_SIGN_COLUMNS), String.join(",", SignLiftDataConverter.PLAYER_COLUMNS), SignLiftDataConverter::formatCsvPrivateLiftSign, SignLiftDataConverter::formatCsvPlayer);
+        } else {
+            return new LineSink(folder, SignLiftDataConverter.LAYOUT_JSON_LINES, null, null, SignLiftDataConverter::formatJsonPrivateLiftSign, SignLiftDataConverter::formatJsonPlayer);
+        }
+    }
+    
+    /**
+     * Reads every {@link PlayerDataEntry} in the given layout in the given
+     * folder.
+     *
+     * @param layout The layout.
+     * @param folder The folder.
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PlayerDataEntry} to. It may be called
+     *                 concurrently from multiple threads.
+     * @throws IOException If a file is corrupt, or an I/O error occurs.
+     */
+    private void readPlayers(@NotNull final String layout, @NotNull final File folder, @NotNull final Consumer<PlayerDataEntry> consumer) throws IOException {
+        
+        if (layout.equals(SignLiftDataConverter.LAYOUT_YAML)) {
+            final File playerDataFolder = new File(folder, SignLiftDataConverter.FOLDER_PLAYER_DATA);
+            if (playerDataFolder.isDirectory()) {
+                ParallelFileLoader.load(playerDataFolder.toPath(), "*.yml", this.parallelism, this::loadYamlPlayer, consumer);
+            }
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_JOURNAL)) {
+            
+            // The index is small enough to always be held in memory.
+            final PlayerNameIndex playerNameIndex = new PlayerNameIndex(folder, this.logger);
+            if (playerNameIndex.getFile().exists()) {
+                playerNameIndex.open();
+                try {
+                    playerNameIndex.getAll().forEach(consumer);
+                } finally {
+                    playerNameIndex.close();
+                }
+            }
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_CSV)) {
+            this.readLines(new File(folder, SignLiftDataConverter.FILE_PLAYER_NAMES + "." + layout), this::parseCsvPlayer, consumer);
+        } else {
+            this.readLines(new File(folder, SignLiftDataConverter.FILE_PLAYER_NAMES + "." + layout), this::parseJsonPlayer, consumer);
+        }
+    }
+    
+    /**
+     * Reads every {@link PrivateLiftSignData} in the given layout in the given
+     * folder. Any {@link PrivateLiftSignData} with an invalid admin or member
+     * list is skipped.
+     *
+     * @param layout The layout.
+     * @param folder The folder.
+     * @param valid The {@link Consumer} to pass each valid
+     *              {@link PrivateLiftSignData} to. It may be called
+     *              concurrently from multiple threads.
+     * @throws IOException If a file is corrupt, or an I/O error occurs.
+     */
+    private void readPrivateLiftSigns(@NotNull final String layout, @NotNull final File folder, @NotNull final Consumer<PrivateLiftSignData> valid) throws IOException {
+        
+        final Consumer<PrivateLiftSignData> consumer = data -> {
+            try {
+                PrivateLiftSignData.validateAccess(data.getOwner(), data.getAdmins(), data.getMembers());
+            } catch (SignLiftException e) {
+                this.skip("PrivateLiftSign at " + data.getWorld() + " " + data.getX() + "," + data.getY() + "," + data.getZ(), e);
+                return;
+            }
+            valid.accept(data);
+        };
+        
+        if (layout.equals(SignLiftDataConverter.LAYOUT_YAML)) {
+            final File privateLiftSignFolder = new File(folder, SignLiftDataConverter.FOLDER_PRIVATE_LIFT_SIGNS);
+            if (privateLiftSignFolder.isDirectory()) {
+                ParallelFileLoader.load(privateLiftSignFolder.toPath(), "*.yml", this.parallelism, this::loadYamlPrivateLiftSign, consumer);
+            }
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_JOURNAL)) {
+            new PrivateLiftSignJournal(folder, this.format, this.logger).export(consumer);
+        } else if (layout.equals(SignLiftDataConverter.LAYOUT_CSV)) {
+            this.readLines(new File(folder, SignLiftDataConverter.FILE_PRIVATE_LIFT_SIGNS + "." + layout), this::parseCsvPrivateLiftSign, consumer);
+        } else {
+            this.readLines(new File(folder, SignLiftDataConverter.FILE_PRIVATE_LIFT_SIGNS + "." + layout), this::parseJsonPrivateLiftSign, consumer);
+        }
+    }
+    
+    /**
+     * Parses every line of the given file in parallel, if it exists.
+     *
+     * @param file The file.
+     * @param parser The parser for each line.
+     * @param consumer The {@link Consumer} to pass each result to.
+     * @param <T> The type of the parsed results.
+     * @throws IOException If an I/O error occurs.
+     */
+    private <T> void readLines(@NotNull final File file, @NotNull final Function<String, T> parser, @NotNull final Consumer<T> consumer) throws IOException {
+        if (file.exists()) {
+            ParallelFileLoader.loadLines(file.toPath(), this.parallelism, parser, consumer);
+        }
+    }
+    
+    /**
+     * Loads a single {@link PlayerDataEntry} in the legacy per-file YAML
+     * layout. The time the player was last seen is taken from the time the
+     * file was last modified.
+     *
+     * @param path The {@link Path} of the file.
+     * @return The {@link PlayerDataEntry}, or {@code null} if it was skipped.
+     */
+    @Nullable
+    private PlayerDataEntry loadYamlPlayer(@NotNull final Path path) {
+        
+        try {
+            final YamlConfiguration data = new YamlConfiguration();
+            data.loadFromString(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            final PlayerDataEntry playerDataEntry = PlayerDataEntry.deserialize(data);
+            return new PlayerDataEntry(playerDataEntry.getUniqueId(), playerDataEntry.getName(), path.toFile().lastModified());
+        } catch (IOException | InvalidConfigurationException | IllegalArgumentException e) {
+            this.skip("PlayerData file " + path.toString(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Loads a single {@link PrivateLiftSignData} in the legacy per-file YAML
+     * layout.
+     *
+     * @param path The {@link Path} of the file.
+     * @return The {@link PrivateLiftSignData}, or {@code null} if it was
+     *         skipped.
+     */
+    @Nullable
+    private PrivateLiftSignData loadYamlPrivateLiftSign(@NotNull final Path path) {
+        try {
+            return PrivateLiftSignData.deserializeLegacy(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        } catch (IOException | InvalidConfigurationException | SignLiftException e) {
+            this.skip("PrivateLiftSign file " + path.toString(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Parses a single {@link PlayerDataEntry} from a CSV line.
+     *
+     * @param line The line.
+     * @return The {@link PlayerDataEntry}, or {@code null} if it was the
+     *         header or was skipped.
+     */
+    @Nullable
+    private PlayerDataEntry parseCsvPlayer(@NotNull final String line) {
+        
+        final Map<String, String> columns = this.parseCsvLine(line, SignLiftDataConverter.PLAYER_COLUMNS);
+        if (columns == null) {
+            return null;
+        }
+        
+        try {
+            return PlayerDataEntry.deserialize(columns.get(SignLiftDataConverter.KEY_UNIQUE_ID), columns.get(SignLiftDataConverter.KEY_NAME), Long.parseLong(columns.get(SignLiftDataConverter.KEY_LAST_SEEN)));
+        } catch (IllegalArgumentException e) {
+            this.skip("player line: " + line, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Parses a single {@link PrivateLiftSignData} from a CSV line.
+     *
+     * @param line The line.
+     * @return The {@link PrivateLiftSignData}, or {@code null} if it was the
+     *         header or was skipped.
+     */
+    @Nullable
+    private PrivateLiftSignData parseCsvPrivateLiftSign(@NotNull final String line) {
+        
+        final Map<String, String> columns = this.parseCsvLine(line, SignLiftDataConverter.PRIVATE_LIFT_SIGN_COLUMNS);
+        if (columns == null) {
+            return null;
+        }
+        
+        try {
+            final Map<String, Object> data = new HashMap<String, Object>();
+            data.put(SignLiftDataConverter.KEY_WORLD, columns.get(SignLiftDataConverter.KEY_WORLD));
+            data.put(SignLiftDataConverter.KEY_X, Integer.parseInt(columns.get(SignLiftDataConverter.KEY_X)));
+            data.put(SignLiftDataConverter.KEY_Y, Integer.parseInt(columns.get(SignLiftDataConverter.KEY_Y)));
+            data.put(SignLiftDataConverter.KEY_Z, Integer.parseInt(columns.get(SignLiftDataConverter.KEY_Z)));
+            data.put(SignLiftDataConverter.KEY_OWNER_UNIQUE_ID, columns.get(SignLiftDataConverter.KEY_OWNER_UNIQUE_ID));
+            data.put(SignLiftDataConverter.KEY_ADMIN_UNIQUE_IDS, SignLiftDataConverter.splitUniqueIds(columns.get(SignLiftDataConverter.KEY_ADMIN_UNIQUE_IDS)));
+            data.put(SignLiftDataConverter.KEY_MEMBER_UNIQUE_IDS, SignLiftDataConverter.splitUniqueIds(columns.get(SignLiftDataConverter.KEY_MEMBER_UNIQUE_IDS)));
+            return PrivateLiftSignData.deserialize(data);
+        } catch (IllegalArgumentException | SignLiftException e) {
+            this.skip("PrivateLiftSign line: " + line, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Parses a single {@link PlayerDataEntry} from a JSON line.
+     *
+     * @param line The line.
+     * @return The {@link PlayerDataEntry}, or {@code null} if the line was
+     *         blank or was skipped.
+     */
+    @Nullable
+    private PlayerDataEntry parseJsonPlayer(@NotNull final String line) {
+        
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        
+        // JSON is a subset of YAML, so the Bukkit YAML parser reads it as-is.
+        try {
+            final YamlConfiguration data = new YamlConfiguration();
+            data.loadFromString(line);
+            return PlayerDataEntry.deserialize(data.getString(SignLiftDataConverter.KEY_UNIQUE_ID, null), data.getString(SignLiftDataConverter.KEY_NAME, null), data.getLong(SignLiftDataConverter.KEY_LAST_SEEN, 0L));
+        } catch (InvalidConfigurationException | IllegalArgumentException e) {
+            this.skip("player line: " + line, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Parses a single {@link PrivateLiftSignData} from a JSON line.
+     *
+     * @param line The line.
+     * @return The {@link PrivateLiftSignData}, or {@code null} if the line was
+     *         blank or was skipped.
+     */
+    @Nullable
+    private PrivateLiftSignData parseJsonPrivateLiftSign(@NotNull final String line) {
+        
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        
+        try {
+            final YamlConfiguration data = new YamlConfiguration();
+            data.loadFromString(line);
+            return PrivateLiftSignData.deserialize(data.getValues(false));
+        } catch (InvalidConfigurationException | SignLiftException e) {
+            this.skip("PrivateLiftSign line: " + line, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Splits the given CSV line into the given columns.
+     *
+     * @param line The line.
+     * @param columns The names of the columns.
+     * @return The values by column name, or {@code null} if the line was the
+     *         header, was blank, or was skipped.
+     */
+    @Nullable
+    private Map<String, String> parseCsvLine(@NotNull final String line, @NotNull final List<String> columns) {
+        
+        if (line.trim().isEmpty() || line.equals(String.join(",", columns))) {
+            return null;
+        }
+        
+        final List<String> values = new ArrayList<String>(columns.size());
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < line.length(); index++) {
+            final char character = line.charAt(index);
+            if (quoted) {
+                if (character != '"') {
+                    value.append(character);
+                } else if (index + 1 < line.length() && line.charAt(index + 1) == '"') {
+                    value.append('"');
+                    index++;
+                } else {
+                    quoted = false;
+                }
+            } else if (character == '"') {
+                quoted = true;
+            } else if (character == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(character);
+            }
+        }
+        values.add(value.toString());
+        
+        if (quoted || values.size() != columns.size()) {
+            this.skip("line: " + line, new IllegalArgumentException("Expected " + columns.size() + " columns, found " + values.size() + (quoted ? " and an unterminated quote." : ".")));
+            return null;
+        }
+        
+        final Map<String, String> columnValues = new HashMap<String, String>();
+        for (int index = 0; index < columns.size(); index++) {
+            columnValues.put(columns.get(index), values.get(index));
+        }
+        return columnValues;
+    }
+    
+    /**
+     * Splits the given semicolon-separated {@link java.util.UUID}s from a CSV
+     * column.
+     *
+     * @param value The column value.
+     * @return The raw {@link java.util.UUID}s.
+     */
+    @NotNull
+    private static List<String> splitUniqueIds(@NotNull final String value) {
+        return value.isEmpty() ? new ArrayList<String>() : Arrays.asList(value.split(";", -1));
+    }
+    
+    /**
+     * Formats the given {@link PlayerDataEntry} as a CSV line.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry}.
+     * @return The CSV line.
+     */
+    @NotNull
+    private static String formatCsvPlayer(@NotNull final PlayerDataEntry playerDataEntry) {
+        return playerDataEntry.getUniqueId().toString() + "," + SignLiftDataConverter.escapeCsv(playerDataEntry.getName()) + "," + playerDataEntry.getLastSeen();
+    }
+    
+    /**
+     * Formats the given {@link PrivateLiftSignData} as a CSV line, from its
+     * serialized form.
+     *
+     * @param data The {@link PrivateLiftSignData}.
+     * @return The CSV line.
+     */
+    @NotNull
+    private static String formatCsvPrivateLiftSign(@NotNull final PrivateLiftSignData data) {
+        
+        final Map<String, Object> serialized = data.serialize();
+        final StringBuilder line = new StringBuilder();
+        for (final String column : SignLiftDataConverter.PRIVATE_LIFT_SIGN_COLUMNS) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            final Object value = serialized.get(column);
+            if (value instanceof List) {
+                final List<String> uniqueIds = new ArrayList<String>();
+                for (final Object uniqueId : (List<?>) value) {
+                    uniqueIds.add(String.valueOf(uniqueId));
+                }
+                line.append(String.join(";", uniqueIds));
+            } else {
+                line.append(SignLiftDataConverter.escapeCsv(String.valueOf(value)));
+            }
+        }
+        return line.toString();
+    }
+    
+    /**
+     * Formats the given {@link PlayerDataEntry} as a JSON line.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry}.
+     * @return The JSON line.
+     */
+    @NotNull
+    private static String formatJsonPlayer(@NotNull final PlayerDataEntry playerDataEntry) {
+        
+        final StringBuilder line = new StringBuilder("{");
+        SignLiftDataConverter.appendJson(line.append("\"" + SignLiftDataConverter.KEY_UNIQUE_ID + "\": "), playerDataEntry.getUniqueId().toString());
+        SignLiftDataConverter.appendJson(line.append(", \"" + SignLiftDataConverter.KEY_NAME + "\": "), playerDataEntry.getName());
+        SignLiftDataConverter.appendJson(line.append(", \"" + SignLiftDataConverter.KEY_LAST_SEEN + "\": "), playerDataEntry.getLastSeen());
+        return line.append('}').toString();
+    }
+    
+    /**
+     * Formats the given {@link PrivateLiftSignData} as a JSON line, from its
+     * serialized form.
+     *
+     * @param data The {@link PrivateLiftSignData}.
+     * @return The JSON line.
+     */
+    @NotNull
+    private static String formatJsonPrivateLiftSign(@NotNull final PrivateLiftSignData data) {
+        
+        final StringBuilder line = new StringBuilder("{");
+        for (final Map.Entry<String, Object> entry : data.serialize().entrySet()) {
+            if (line.length() > 1) {
+                line.append(", ");
+            }
+            SignLiftDataConverter.appendJson(line, entry.getKey());
+            SignLiftDataConverter.appendJson(line.append(": "), entry.getValue());
+        }
+        return line.append('}').toString();
+    }
+    
+    /**
+     * Appends the given serialized value as JSON. The spaces after the
+     * separators are written so that the line is also valid YAML.
+     *
+     * @param json The {@link StringBuilder} to append to.
+     * @param value The {@link String}, {@link Number}, or {@link List} of
+     *              {@link String}s to append.
+     */
+    private static void appendJson(@NotNull final StringBuilder json, @Nullable final Object value) {
+        
+        if (value instanceof Number) {
+            json.append(value);
+            return;
+        }
+        if (value instanceof List) {
+            json.append('[');
+            for (final Object element : (List<?>) value) {
+                if (json.charAt(json.length() - 1) != '[') {
+                    json.append(", ");
+                }
+                SignLiftDataConverter.appendJson(json, element);
+            }
+            json.append(']');
+            return;
+        }
+        
+        final String string = String.valueOf(value);
+        json.append('"');
+        for (int index = 0; index < string.length(); index++) {
+            final char character = string.charAt(index);
+            if (character == '"' || character == '\\') {
+                json.append('\\').append(character);
+            } else if (character < 0x20 || character == 0x7F) {
+                json.append(String.format("\\u%04x", (int) character));
+            } else {
+                json.append(character);
+            }
+        }
+        json.append('"');
+    }
+    
+    /**
+     * Quotes the given CSV value if it contains a separator, a quote, a line
+     * break, or surrounding whitespace.
+     *
+     * @param value The value.
+     * @return The escaped value.
+     */
+    @NotNull
+    private static String escapeCsv(@NotNull final String value) {
+        
+        boolean quote = value.trim().length() != value.length();
+        for (int index = 0; !quote && index < value.length(); index++) {
+            final char character = value.charAt(index);
+            quote = character == ',' || character == '"' || character == ';' || character == '\r' || character == '\n';
+        }
+        return quote ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+    
+    /**
+     * Reports and counts a record that could not be converted.
+     *
+     * @param record A description of the record.
+     * @param e The reason the record could not be converted.
+     */
+    private void skip(@NotNull final String record, @NotNull final Exception e) {
+        this.skippedCount.incrementAndGet();
+        this.logger.log(Level.WARNING, "Could not convert " + record);
+        this.logger.log(Level.WARNING, "Skipping record.");
+        this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+    }
+    
+    /**
+     * Creates the given folder, which must not contain any files yet.
+     *
+     * @param folder The folder.
+     * @return The folder.
+     * @throws IOException If the folder contains files, or could not be
+     *                     created.
+     */
+    @NotNull
+    private static File createFolder(@NotNull final File folder) throws IOException {
+        
+        final String[] files = folder.list();
+        if (files != null && files.length > 0) {
+            throw new IOException("Directory is not empty at " + folder.getPath());
+        }
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Directory not created at " + folder.getPath());
+        }
+        return folder;
+    }
+    
+    /**
+     * Checks that the given layout is known.
+     *
+     * @param layout The layout.
+     * @throws IllegalArgumentException If the layout is unknown.
+     */
+    private static void checkLayout(@NotNull final String layout) throws IllegalArgumentException {
+        if (!Arrays.asList(SignLiftDataConverter.LAYOUT_YAML, SignLiftDataConverter.LAYOUT_JOURNAL, SignLiftDataConverter.LAYOUT_CSV, SignLiftDataConverter.LAYOUT_JSON_LINES).contains(layout)) {
+            throw new IllegalArgumentException("Unknown layout: " + layout);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+
+/**
+ * Represents a storage backend for all persistent SignLift data: the
+ * {@link PlayerDataEntry}s used to map names to {@link UUID}s, and the
+ * {@link PrivateLiftSignData} (including the owner, admins, and members) of
+ * every {@link org.bspfsystems.signlift.bukkit.liftsign.PrivateLiftSign}.
+ * <p>
+ * Implementations must be thread-safe. Lookups return copies, and are
+ * expected to be answered without loading unrelated data where the backend
+ * allows it.
+ */
+public interface SignLiftStorage {
+    
+    /**
+     * Gets the name of this {@link SignLiftStorage}, as used in the
+     * configuration.
+     *
+     * @return The name of this {@link SignLiftStorage}.
+     */
+    @NotNull
+    String getName();
+    
+    /**
+     * Opens this {@link SignLiftStorage}, creating any files or structures
+     * that do not exist yet. This must be called before anything else, apart
+     * from region lookups made while it is still running.
+     *
+     * @throws IOException If the {@link SignLiftStorage} cannot be opened.
+     */
+    void open() throws IOException;
+    
+    /**
+     * Loads every stored {@link PlayerDataEntry}, passing each one to the
+     * given {@link Consumer}. Individual entries that cannot be read are
+     * skipped and reported by the {@link SignLiftStorage}.
+     * <p>
+     * The {@link Consumer} may be called concurrently from multiple threads,
+     * and so must be thread-safe.
+     *
+     * @param consumer The {@link Consumer} to pass each
+     *                 {@link PlayerDataEntry} to.
+     * @throws IOException If the {@link PlayerDataEntry}s cannot be read.
+     */
+    void loadPlayers(@NotNull Consumer<PlayerDataEntry> consumer) throws IOException;
+    
+    /**
+     * Stores the given {@link PlayerDataEntry}, replacing any existing
+     * {@link PlayerDataEntry} with the same {@link UUID}.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry} to store.
+     * @throws IOException If the {@link PlayerDataEntry} cannot be stored.
+     */
+    void savePlayer(@NotNull PlayerDataEntry playerDataEntry) throws IOException;
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the {@link org.bukkit.World}
+     * with the given name.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @return The {@link PrivateLiftSignData} in the {@link org.bukkit.World}.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be read.
+     */
+    @NotNull
+    List<PrivateLiftSignData> getPrivateLiftSigns(@NotNull String world) throws IOException;
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the chunk at the given chunk
+     * coordinates.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The {@link PrivateLiftSignData} in the chunk.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be read.
+     */
+    @NotNull
+    List<PrivateLiftSignData> getPrivateLiftSignsInChunk(@NotNull String world, int chunkX, int chunkZ) throws IOException;
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the region at the given region
+     * coordinates. A region is 32 by 32 chunks, the same as a Minecraft
+     * region file.
+     * <p>
+     * This may be called from another thread while
+     * {@link SignLiftStorage#open()} is still running. Where the backend
+     * allows it, the region should then be read without waiting for the rest
+     * of the data to finish loading.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link PrivateLiftSignData} in the region.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be read.
+     */
+    @NotNull
+    List<PrivateLiftSignData> getPrivateLiftSignsInRegion(@NotNull String world, int regionX, int regionZ) throws IOException;
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} owned by the player with the given
+     * {@link UUID}.
+     *
+     * @param owner The {@link UUID} of the owner.
+     * @return The {@link PrivateLiftSignData} owned by the player.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be read.
+     */
+    @NotNull
+    List<PrivateLiftSignData> getPrivateLiftSignsOwnedBy(@NotNull UUID owner) throws IOException;
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} that the player with the given
+     * {@link UUID} is an admin or member of.
+     *
+     * @param uniqueId The {@link UUID} of the player.
+     * @return The {@link PrivateLiftSignData} the player has been granted
+     *         access to.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be read.
+     */
+    @NotNull
+    List<PrivateLiftSignData> getPrivateLiftSignsWithAccess(@NotNull UUID uniqueId) throws IOException;
+    
+    /**
+     * Releases the region at the given region coordinates, once no loaded
+     * chunk in it needs its {@link PrivateLiftSignData} any more. Backends
+     * that keep regions read by
+     * {@link SignLiftStorage#getPrivateLiftSignsInRegion(String, int, int)} in
+     * memory may then drop it. This is called from the main server thread, so
+     * it must not wait for I/O.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     */
+    void releasePrivateLiftSignRegion(@NotNull String world, int regionX, int regionZ);
+    
+    /**
+     * Stores the given {@link PrivateLiftSignData}, replacing any
+     * {@link PrivateLiftSignData} at the same position.
+     *
+     * @param data The {@link PrivateLiftSignData} to store.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be stored.
+     */
+    void savePrivateLiftSign(@NotNull PrivateLiftSignData data) throws IOException;
+    
+    /**
+     * Deletes the {@link PrivateLiftSignData} at the given position, if any.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be
+     *                     deleted.
+     */
+    void deletePrivateLiftSign(@NotNull String world, int x, int y, int z) throws IOException;
+    
+    /**
+     * Stores all of the given {@link PrivateLiftSignData} that does not
+     * conflict with already-stored data. This is used to import legacy data,
+     * which is always older than anything already stored.
+     *
+     * @param records The {@link PrivateLiftSignData} to import.
+     * @throws IOException If the {@link PrivateLiftSignData} cannot be
+     *                     stored.
+     */
+    void importPrivateLiftSigns(@NotNull Collection<PrivateLiftSignData> records) throws IOException;
+    
+    /**
+     * Performs any periodic maintenance, such as forcing recent changes to
+     * disk. This is called regularly off of the main server thread, once for
+     * each batch of changes.
+     * <p>
+     * Changes are only guaranteed to survive a crash once they have been
+     * flushed, which allows implementations to make a whole batch of changes
+     * durable at once, rather than each change on its own.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void flush() throws IOException;
+    
+    /**
+     * Closes this {@link SignLiftStorage}, writing out any pending changes.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void close() throws IOException;
+}
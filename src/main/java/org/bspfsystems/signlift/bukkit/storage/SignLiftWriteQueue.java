@@ -0,0 +1,546 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+import org.bspfsystems.signlift.bukkit.util.BlockPosition;
+import org.bspfsystems.signlift.bukkit.util.LongObjectHashMap;
+
+/**
+ * Represents a write-behind queue in front of a {@link SignLiftStorage}.
+ * <p>
+ * Changes are queued from the main server thread without touching the
+ * {@link SignLiftStorage}, and are written in batches by a single writer,
+ * which is run periodically off of the main server thread. Pending changes
+ * are coalesced per key (the position of a {@link PrivateLiftSignData}, or
+ * the {@link UUID} of a {@link PlayerDataEntry}), so that only the latest
+ * state is ever written, no matter how many times it changed in between.
+ * <p>
+ * Reads of {@link PrivateLiftSignData} through this {@link SignLiftWriteQueue}
+ * include changes that have not been written yet.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class SignLiftWriteQueue {
+    
+    /**
+     * Represents the latest pending change to the {@link PrivateLiftSignData}
+     * at a single position.
+     */
+    private static final class PendingSign {
+        
+        private final String world;
+        private final long position;
+        private final PrivateLiftSignData data;
+        private final Runnable onFailure;
+        private final int failures;
+        
+        /**
+         * Constructs a new {@link PendingSign}.
+         *
+         * @param world The name of the {@link org.bukkit.World}.
+         * @param position The packed position.
+         * @param data The {@link PrivateLiftSignData} to save, or {@code null}
+         *             if it is to be deleted.
+         * @param onFailure The {@link Runnable} to run if the change could not
+         *                  be written, if any.
+         * @param failures The number of times the change has already failed
+         *                 to be written.
+         */
+        private PendingSign(@NotNull final String world, final long position, @Nullable final PrivateLiftSignData data, @Nullable final Runnable onFailure, final int failures) {
+            this.world = world;
+            this.position = position;
+            this.data = data;
+            this.onFailure = onFailure;
+            this.failures = failures;
+        }
+    }
+    
+    private final SignLiftStorage storage;
+    private final Logger logger;
+    private final Object writeLock;
+    
+    private HashMap<String, LongObjectHashMap<PendingSign>> pendingSigns;
+    private LinkedHashMap<UUID, PlayerDataEntry> pendingPlayers;
+    private int pendingSignCount;
+    private HashMap<String, LongObjectHashMap<PendingSign>> writingSigns;
+    
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private int lastFlushWrites;
+    private long totalWrites;
+    private long totalCoalesced;
+    private long totalFailures;
+    private boolean closed;
+    
+    /**
+     * Constructs a new, empty {@link SignLiftWriteQueue}.
+     *
+     * @param storage The {@link SignLiftStorage} to write to.
+     * @param logger The {@link Logger} to report failed writes to.
+     */
+    public SignLiftWriteQueue(@NotNull final SignLiftStorage storage, @NotNull final Logger logger) {
+        
+        this.storage = storage;
+        this.logger = logger;
+        this.writeLock = new Object();
+        
+        this.pendingSigns = new HashMap<String, LongObjectHashMap<PendingSign>>();
+        this.pendingPlayers = new LinkedHashMap<UUID, PlayerDataEntry>();
+        this.pendingSignCount = 0;
+        this.writingSigns = new HashMap<String, LongObjectHashMap<PendingSign>>();
+        
+        this.lastFlushNanos = 0L;
+        this.maxFlushNanos = 0L;
+        this.lastFlushWrites = 0;
+        this.totalWrites = 0L;
+        this.totalCoalesced = 0L;
+        this.totalFailures = 0L;
+        this.closed = false;
+    }
+    
+    /**
+     * Queues the given {@link PrivateLiftSignData} to be saved, replacing any
+     * pending change at the same position.
+     *
+     * @param data The {@link PrivateLiftSignData} to save.
+     * @param onFailure The {@link Runnable} to run (off of the main server
+     *                  thread) if it could not be saved, if any.
+     */
+    public void savePrivateLiftSign(@NotNull final PrivateLiftSignData data, @Nullable final Runnable onFailure) {
+        this.queue(new PendingSign(data.getWorld(), data.getPosition(), data, onFailure, 0));
+    }
+    
+    /**
+     * Queues the {@link PrivateLiftSignData} at the given position to be
+     * deleted, replacing any pending change at the same position.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param onFailure The {@link Runnable} to run (off of the main server
+     *                  thread) if it could not be deleted, if any.
+     */
+    public void deletePrivateLiftSign(@NotNull final String world, final int x, final int y, final int z, @Nullable final Runnable onFailure) {
+        this.queue(new PendingSign(world, BlockPosition.pack(x, y, z), null, onFailure, 0));
+    }
+    
+    /**
+     * Queues the given {@link PlayerDataEntry} to be saved, replacing any
+     * pending {@link PlayerDataEntry} for the same player.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry} to save.
+     */
+    public synchronized void savePlayer(@NotNull final PlayerDataEntry playerDataEntry) {
+        if (this.pendingPlayers.put(playerDataEntry.getUniqueId(), playerDataEntry) != null) {
+            this.totalCoalesced++;
+        }
+    }
+    
+    /**
+     * Gets all {@link PrivateLiftSignData} in the given region, including any
+     * changes that have not been written to the {@link SignLiftStorage} yet.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @return The {@link PrivateLiftSignData} in the region.
+     * @throws IOException If the {@link SignLiftStorage} could not be read.
+     * @see SignLiftStorage#getPrivateLiftSignsInRegion(String, int, int)
+     */
+    @NotNull
+    public List<PrivateLiftSignData> getPrivateLiftSignsInRegion(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        // The changes are collected before reading, so that a change that is
+        // written in the meantime is not missed by both.
+        final List<PendingSign> changes = new ArrayList<PendingSign>();
+        synchronized (this) {
+            SignLiftWriteQueue.collect(this.writingSigns.get(world), regionX, regionZ, changes);
+            SignLiftWriteQueue.collect(this.pendingSigns.get(world), regionX, regionZ, changes);
+        }
+        
+        final List<PrivateLiftSignData> stored = this.storage.getPrivateLiftSignsInRegion(world, regionX, regionZ);
+        if (changes.isEmpty()) {
+            return stored;
+        }
+        
+        final LongObjectHashMap<PrivateLiftSignData> records = new LongObjectHashMap<PrivateLiftSignData>();
+        for (final PrivateLiftSignData data : stored) {
+            records.put(data.getPosition(), data);
+        }
+        for (final PendingSign change : changes) {
+            if (change.data == null) {
+                records.remove(change.position);
+            } else {
+                records.put(change.position, change.data);
+            }
+        }
+        return records.values();
+    }
+    
+    /**
+     * Releases the given region in the {@link SignLiftStorage}, once no
+     * loaded chunk in it needs its {@link PrivateLiftSignData} any more.
+     * Pending changes in the region are still written.
+     *
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @see SignLiftStorage#releasePrivateLiftSignRegion(String, int, int)
+     */
+    public void releasePrivateLiftSignRegion(@NotNull final String world, final int regionX, final int regionZ) {
+        this.storage.releasePrivateLiftSignRegion(world, regionX, regionZ);
+    }
+    
+    /**
+     * Gets the number of changes waiting to be written.
+     *
+     * @return The number of changes waiting to be written.
+     */
+    public synchronized int getDepth() {
+        return this.pendingSignCount + this.pendingPlayers.size();
+    }
+    
+    /**
+     * Gets the time taken by the most recent flush that wrote any changes.
+     *
+     * @return The time taken, in nanoseconds.
+     */
+    public synchronized long getLastFlushNanos() {
+        return this.lastFlushNanos;
+    }
+    
+    /**
+     * Gets the longest time taken by any flush.
+     *
+     * @return The longest time taken, in nanoseconds.
+     */
+    public synchronized long getMaxFlushNanos() {
+        return this.maxFlushNanos;
+    }
+    
+    /**
+     * Gets the number of changes written by the most recent flush that wrote
+     * any changes.
+     *
+     * @return The number of changes written.
+     */
+    public synchronized int getLastFlushWrites() {
+        return this.lastFlushWrites;
+    }
+    
+    /**
+     * Gets the total number of changes written.
+     *
+     * @return The total number of changes written.
+     */
+    public synchronized long getTotalWrites() {
+        return this.totalWrites;
+    }
+    
+    /**
+     * Gets the total number of changes that were replaced by a newer change
+     * to the same key before they were written.
+     *
+     * @return The total number of coalesced changes.
+     */
+    public synchronized long getTotalCoalesced() {
+        return this.totalCoalesced;
+    }
+    
+    /**
+     * Gets the total number of changes that could not be written.
+     *
+     * @return The total number of failed changes.
+     */
+    public synchronized long getTotalFailures() {
+        return this.totalFailures;
+    }
+    
+    /**
+     * Writes all pending changes to the {@link SignLiftStorage} as a single
+     * batch, and then flushes the {@link SignLiftStorage}. This must not be
+     * called from the main server thread.
+     * <p>
+     * Only one flush runs at a time. A change that could not be written is
+     * queued again, unless it has been replaced by a newer change. If the
+     * {@link SignLiftStorage} itself could not be flushed, the whole batch is
+     * queued again in the same way, as it may not have reached the disk.
+     */
+    public void flush() {
+        synchronized (this.writeLock) {
+            if (!this.isClosed()) {
+                this.write();
+            }
+        }
+    }
+    
+    /**
+     * Writes all pending changes to the {@link SignLiftStorage}, and then
+     * stops accepting flushes. This is used when the
+     * {@link org.bukkit.plugin.Plugin} is disabled, before the
+     * {@link SignLiftStorage} is closed.
+     *
+     * @return The number of changes that could not be written, and are lost.
+     */
+    public int close() {
+        synchronized (this.writeLock) {
+            
+            if (this.isClosed()) {
+                return 0;
+            }
+            
+            this.write();
+            synchronized (this) {
+                this.closed = true;
+                return this.getDepth();
+            }
+        }
+    }
+    
+    /**
+     * Queues the given {@link PendingSign}, replacing any pending change at
+     * the same position.
+     *
+     * @param change The {@link PendingSign} to queue.
+     */
+    private synchronized void queue(@NotNull final PendingSign change) {
+        
+        final LongObjectHashMap<PendingSign> changes = this.pendingSigns.computeIfAbsent(change.world, world -> new LongObjectHashMap<PendingSign>());
+        if (changes.put(change.position, change) == null) {
+            this.pendingSignCount++;
+        } else {
+            this.totalCoalesced++;
+        }
+    }
+    
+    /**
+     * Checks to see if this {@link SignLiftWriteQueue} has been closed.
+     *
+     * @return {@code true} if it has been closed, {@code false} otherwise.
+     */
+    private synchronized boolean isClosed() {
+        return this.closed;
+    }
+    
+    /**
+     * Takes all pending changes and writes them as a single batch. This must
+     * only be called while holding the write lock.
+     */
+    private void write() {
+        
+        final List<PlayerDataEntry> players;
+        final int count;
+        synchronized (this) {
+            this.writingSigns = this.pendingSigns;
+            this.pendingSigns = new HashMap<String, LongObjectHashMap<PendingSign>>();
+            players = new ArrayList<PlayerDataEntry>(this.pendingPlayers.values());
+            this.pendingPlayers.clear();
+            count = this.pendingSignCount + players.size();
+            this.pendingSignCount = 0;
+        }
+        
+        final long start = System.nanoTime();
+        int failures = 0;
+        final List<PendingSign> writtenSigns = new ArrayList<PendingSign>();
+        final List<PlayerDataEntry> writtenPlayers = new ArrayList<PlayerDataEntry>();
+        for (final LongObjectHashMap<PendingSign> changes : this.writingSigns.values()) {
+            for (final PendingSign change : changes.values()) {
+                if (this.write(change)) {
+                    writtenSigns.add(change);
+                } else {
+                    failures++;
+                }
+            }
+        }
+        for (final PlayerDataEntry playerDataEntry : players) {
+            if (this.write(playerDataEntry)) {
+                writtenPlayers.add(playerDataEntry);
+            } else {
+                failures++;
+            }
+        }
+        
+        boolean flushed = false;
+        try {
+            this.storage.flush();
+            flushed = true;
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to flush the SignLift " + this.storage.getName() + " storage.");
+            this.logger.log(Level.WARNING, "The " + count + " changes in this batch will be written again on the next flush.");
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+        }
+        final long elapsed = System.nanoTime() - start;
+        
+        synchronized (this) {
+            if (!flushed) {
+                for (final PendingSign change : writtenSigns) {
+                    this.requeue(change);
+                }
+                for (final PlayerDataEntry playerDataEntry : writtenPlayers) {
+                    this.pendingPlayers.putIfAbsent(playerDataEntry.getUniqueId(), playerDataEntry);
+                }
+                failures = count;
+            }
+            this.writingSigns = new HashMap<String, LongObjectHashMap<PendingSign>>();
+            if (count > 0) {
+                this.lastFlushNanos = elapsed;
+                this.lastFlushWrites = count;
+            }
+            this.maxFlushNanos = Math.max(this.maxFlushNanos, elapsed);
+            this.totalWrites += count - failures;
+            this.totalFailures += failures;
+        }
+    }
+    
+    /**
+     * Writes the given {@link PendingSign} to the {@link SignLiftStorage}. If
+     * it could not be written, it is queued again unless it has been replaced
+     * by a newer change.
+     * <p>
+     * The failure is only reported in full, and the {@link Runnable} to run
+     * on failure is only run, the first time. After that, the change is
+     * retried quietly, with a reminder each time the number of failures
+     * doubles.
+     *
+     * @param change The {@link PendingSign} to write.
+     * @return {@code true} if it was written, {@code false} otherwise.
+     */
+    private boolean write(@NotNull final PendingSign change) {
+        
+        final int x = BlockPosition.getX(change.position);
+        final int y = BlockPosition.getY(change.position);
+        final int z = BlockPosition.getZ(change.position);
+        try {
+            if (change.data == null) {
+                this.storage.deletePrivateLiftSign(change.world, x, y, z);
+            } else {
+                this.storage.savePrivateLiftSign(change.data);
+            }
+            if (change.failures > 0) {
+                this.logger.log(Level.INFO, "Wrote PrivateLiftSign change at " + change.world + " " + x + "," + y + "," + z + " to storage after " + change.failures + " failed attempts.");
+            }
+            return true;
+        } catch (IOException e) {
+            final int failures = change.failures + 1;
+            if (failures == 1) {
+                this.logger.log(Level.WARNING, "Unable to write PrivateLiftSign change to storage.");
+                this.logger.log(Level.WARNING, "World: " + change.world);
+                this.logger.log(Level.WARNING, "X: " + x);
+                this.logger.log(Level.WARNING, "Y: " + y);
+                this.logger.log(Level.WARNING, "Z: " + z);
+                this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+            } else if ((failures & (failures - 1)) == 0) {
+                this.logger.log(Level.WARNING, "Still unable to write PrivateLiftSign change at " + change.world + " " + x + "," + y + "," + z + " to storage after " + failures + " attempts: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        
+        // The change is retried without its Runnable, as the failure has
+        // already been handled.
+        synchronized (this) {
+            this.requeue(new PendingSign(change.world, change.position, change.data, null, change.failures + 1));
+        }
+        if (change.onFailure != null) {
+            change.onFailure.run();
+        }
+        return false;
+    }
+    
+    /**
+     * Queues the given {@link PendingSign} again after it failed to be
+     * written, unless it has been replaced by a newer change. This must only
+     * be called while holding the lock on this {@link SignLiftWriteQueue}.
+     *
+     * @param change The {@link PendingSign} to queue again.
+     */
+    private void requeue(@NotNull final PendingSign change) {
+        
+        final LongObjectHashMap<PendingSign> changes = this.pendingSigns.computeIfAbsent(change.world, world -> new LongObjectHashMap<PendingSign>());
+        if (changes.get(change.position) == null) {
+            changes.put(change.position, change);
+            this.pendingSignCount++;
+        }
+    }
+    
+    /**
+     * Writes the given {@link PlayerDataEntry} to the {@link SignLiftStorage}.
+     * If it could not be written, it is queued again unless it has been
+     * replaced by a newer {@link PlayerDataEntry}.
+     *
+     * @param playerDataEntry The {@link PlayerDataEntry} to write.
+     * @return {@code true} if it was written, {@code false} otherwise.
+     */
+    private boolean write(@NotNull final PlayerDataEntry playerDataEntry) {
+        
+        try {
+            this.storage.savePlayer(playerDataEntry);
+            return true;
+        } catch (IOException e) {
+            this.logger.log(Level.WARNING, "Unable to save PlayerDataEntry.");
+            this.logger.log(Level.WARNING, "Name : " + playerDataEntry.getName());
+            this.logger.log(Level.WARNING, "UUID : " + playerDataEntry.getUniqueId().toString());
+            this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+        }
+        
+        synchronized (this) {
+            this.pendingPlayers.putIfAbsent(playerDataEntry.getUniqueId(), playerDataEntry);
+        }
+        return false;
+    }
+    
+    /**
+     * Adds the given pending changes that are in the given region to the
+     * given {@link List}.
+     *
+     * @param changes The pending changes in a {@link org.bukkit.World}, if
+     *                any.
+     * @param regionX The region X coordinate.
+     * @param regionZ The region Z coordinate.
+     * @param collected The {@link List} to add the changes to.
+     */
+    private static void collect(@Nullable final LongObjectHashMap<PendingSign> changes, final int regionX, final int regionZ, @NotNull final List<PendingSign> collected) {
+        
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        
+        for (final PendingSign change : changes.values()) {
+            if (BlockPosition.getX(change.position) >> 9 == regionX && BlockPosition.getZ(change.position) >> 9 == regionZ) {
+                collected.add(change);
+            }
+        }
+    }
+}
@@ -0,0 +1,600 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.playerdata.bukkit.PlayerDataEntry;
+
+/**
+ * Represents the embedded SQLite {@link SignLiftStorage}, backed by a single
+ * database file.
+ * <p>
+ * The {@link PrivateLiftSignData} is split into a table of positions and
+ * owners, and a table of admins and members, with indexes on the chunk, the
+ * owner, and the admin/member {@link UUID}s, so that lookups only read the
+ * matching rows. Statements are prepared once when opened, and multi-row
+ * writes are batched into a single transaction.
+ * <p>
+ * Region lookups go through a second, read-only connection with its own
+ * lock. As the database uses write-ahead logging, they see the last committed
+ * data without waiting for a write, or for a long import, to finish.
+ * <p>
+ * The SQLite JDBC driver is bundled with Spigot and its forks, so no
+ * additional libraries are needed.
+ */
+public final class SqliteSignLiftStorage implements SignLiftStorage {
+    
+    private static final String DRIVER = "org.sqlite.JDBC";
+    
+    private static final int ROLE_ADMIN = 1;
+    private static final int ROLE_MEMBER = 2;
+    
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS players (unique_id TEXT NOT NULL PRIMARY KEY, name TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS private_lift_signs (world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL, chunk_x INTEGER NOT NULL, chunk_z INTEGER NOT NULL, owner_unique_id TEXT NOT NULL, PRIMARY KEY (world, x, y, z))",
+        "CREATE INDEX IF NOT EXISTS private_lift_signs_chunk ON private_lift_signs (world, chunk_x, chunk_z)",
+        "CREATE INDEX IF NOT EXISTS private_lift_signs_owner ON private_lift_signs (owner_unique_id)",
+        "CREATE TABLE IF NOT EXISTS private_lift_sign_access (world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL, role INTEGER NOT NULL, unique_id TEXT NOT NULL, PRIMARY KEY (world, x, y, z, role, unique_id))",
+        "CREATE INDEX IF NOT EXISTS private_lift_sign_access_unique_id ON private_lift_sign_access (unique_id)"
+    };
+    
+    // The access rows are joined in, and the results are ordered by position
+    // so that the rows of each PrivateLiftSign are adjacent.
+    private static final String SELECT_PRIVATE_LIFT_SIGNS = "SELECT s.world, s.x, s.y, s.z, s.owner_unique_id, a.role, a.unique_id FROM private_lift_signs s LEFT JOIN private_lift_sign_access a ON a.world = s.world AND a.x = s.x AND a.y = s.y AND a.z = s.z WHERE ";
+    private static final String ORDER_PRIVATE_LIFT_SIGNS = " ORDER BY s.world, s.x, s.y, s.z";
+    
+    private final File databaseFile;
+    private final Logger logger;
+    
+    private Connection connection;
+    
+    private final Object readLock;
+    private volatile Connection readConnection;
+    private PreparedStatement readInRegion;
+    
+    private PreparedStatement selectPlayers;
+    private PreparedStatement savePlayer;
+    
+    private PreparedStatement selectInWorld;
+    private PreparedStatement selectInChunk;
+    private PreparedStatement selectOwnedBy;
+    private PreparedStatement selectWithAccess;
+    
+    private PreparedStatement savePrivateLiftSign;
+    private PreparedStatement importPrivateLiftSign;
+    private PreparedStatement deletePrivateLiftSign;
+    private PreparedStatement deleteAccess;
+    private PreparedStatement insertAccess;
+    
+    /**
+     * Constructs a new {@link SqliteSignLiftStorage} that stores its database
+     * in the given folder.
+     *
+     * @param folder The folder to store the database in.
+     * @param logger The {@link Logger} to report skipped data to.
+     */
+    public SqliteSignLiftStorage(@NotNull final File folder, @NotNull final Logger logger) {
+        this.databaseFile = new File(folder, "SignLift.db");
+        this.logger = logger;
+        this.readLock = new Object();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void open() throws IOException {
+        
+        try {
+            Class.forName(SqliteSignLiftStorage.DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite JDBC driver is not available.", e);
+        }
+        
+        try {
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + this.databaseFile.getPath());
+            try (final Statement statement = this.connection.createStatement()) {
+                
+                // Write-ahead logging lets each change be committed without
+                // waiting on a full sync to disk.
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("PRAGMA synchronous = NORMAL");
+                
+                this.connection.setAutoCommit(false);
+                for (final String sql : SqliteSignLiftStorage.SCHEMA) {
+                    statement.executeUpdate(sql);
+                }
+                this.connection.commit();
+            }
+            
+            this.selectPlayers = this.connection.prepareStatement("SELECT unique_id, name FROM players");
+            this.savePlayer = this.connection.prepareStatement("INSERT OR REPLACE INTO players (unique_id, name) VALUES (?, ?)");
+            
+            this.selectInWorld = this.connection.prepareStatement(SqliteSignLiftStorage.SELECT_PRIVATE_LIFT_SIGNS + "s.world = ?" + SqliteSignLiftStorage.ORDER_PRIVATE_LIFT_SIGNS);
+            this.selectInChunk = this.connection.prepareStatement(SqliteSignLiftStorage.SELECT_PRIVATE_LIFT_SIGNS + "s.world = ? AND s.chunk_x = ? AND s.chunk_z = ?" + SqliteSignLiftStorage.ORDER_PRIVATE_LIFT_SIGNS);
+            this.selectOwnedBy = this.connection.prepareStatement(SqliteSignLiftStorage.SELECT_PRIVATE_LIFT_SIGNS + "s.owner_unique_id = ?" + SqliteSignLiftStorage.ORDER_PRIVATE_LIFT_SIGNS);
+            this.selectWithAccess = this.connection.prepareStatement(SqliteSignLiftStorage.SELECT_PRIVATE_LIFT_SIGNS + "EXISTS (SELECT 1 FROM private_lift_sign_access b WHERE b.unique_id = ? AND b.world = s.world AND b.x = s.x AND b.y = s.y AND b.z = s.z)" + SqliteSignLiftStorage.ORDER_PRIVATE_LIFT_SIGNS);
+            
+            this.savePrivateLiftSign = this.connection.prepareStatement("INSERT OR REPLACE INTO private_lift_signs (world, x, y, z, chunk_x, chunk_z, owner_unique_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+            this.importPrivateLiftSign = this.connection.prepareStatement("INSERT OR IGNORE INTO private_lift_signs (world, x, y, z, chunk_x, chunk_z, owner_unique_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+            this.deletePrivateLiftSign = this.connection.prepareStatement("DELETE FROM private_lift_signs WHERE world = ? AND x = ? AND y = ? AND z = ?");
+            this.deleteAccess = this.connection.prepareStatement("DELETE FROM private_lift_sign_access WHERE world = ? AND x = ? AND y = ? AND z = ?");
+            this.insertAccess = this.connection.prepareStatement("INSERT OR IGNORE INTO private_lift_sign_access (world, x, y, z, role, unique_id) VALUES (?, ?, ?, ?, ?, ?)");
+        } catch (SQLException e) {
+            throw new IOException("Unable to open the SignLift database at " + this.databaseFile.getPath(), e);
+        }
+        
+        // The read-only connection is opened once the schema exists. An
+        // open_mode of 1 is SQLITE_OPEN_READONLY.
+        final Properties properties = new Properties();
+        properties.setProperty("open_mode", "1");
+        synchronized (this.readLock) {
+            try {
+                final Connection readConnection = DriverManager.getConnection("jdbc:sqlite:" + this.databaseFile.getPath(), properties);
+                this.readInRegion = readConnection.prepareStatement(SqliteSignLiftStorage.SELECT_PRIVATE_LIFT_SIGNS + "s.world = ? AND s.chunk_x BETWEEN ? AND ? AND s.chunk_z BETWEEN ? AND ?" + SqliteSignLiftStorage.ORDER_PRIVATE_LIFT_SIGNS);
+                this.readConnection = readConnection;
+            } catch (SQLException e) {
+                throw new IOException("Unable to open a read-only connection to the SignLift database at " + this.databaseFile.getPath(), e);
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void loadPlayers(@NotNull final Consumer<PlayerDataEntry> consumer) throws IOException {
+        
+        try (final ResultSet results = this.selectPlayers.executeQuery()) {
+            while (results.next()) {
+                
+                final String uniqueIdRaw = results.getString(1);
+                final String name = results.getString(2);
+                try {
+                    consumer.accept(new PlayerDataEntry(UUID.fromString(uniqueIdRaw), name));
+                } catch (IllegalArgumentException e) {
+                    this.logger.log(Level.WARNING, "Could not parse UUID of stored PlayerDataEntry: " + uniqueIdRaw);
+                    this.logger.log(Level.WARNING, "Skipping PlayerDataEntry.");
+                    this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Unable to load PlayerDataEntries from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void savePlayer(@NotNull final PlayerDataEntry playerDataEntry) throws IOException {
+        
+        try {
+            this.savePlayer.setString(1, playerDataEntry.getUniqueId().toString());
+            this.savePlayer.setString(2, playerDataEntry.getName());
+            this.savePlayer.executeUpdate();
+            this.connection.commit();
+        } catch (SQLException e) {
+            throw this.rollback("Unable to save PlayerDataEntry to the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public synchronized List<PrivateLiftSignData> getPrivateLiftSigns(@NotNull final String world) throws IOException {
+        
+        try {
+            this.selectInWorld.setString(1, world);
+            return this.select(this.selectInWorld);
+        } catch (SQLException e) {
+            throw new IOException("Unable to load PrivateLiftSigns in World " + world + " from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public synchronized List<PrivateLiftSignData> getPrivateLiftSignsInChunk(@NotNull final String world, final int chunkX, final int chunkZ) throws IOException {
+        
+        try {
+            this.selectInChunk.setString(1, world);
+            this.selectInChunk.setInt(2, chunkX);
+            this.selectInChunk.setInt(3, chunkZ);
+            return this.select(this.selectInChunk);
+        } catch (SQLException e) {
+            throw new IOException("Unable to load PrivateLiftSigns in chunk " + chunkX + "," + chunkZ + " of World " + world + " from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This only waits for other region lookups, not for any writes. If the
+     * database has not been opened yet, an {@link IOException} is thrown
+     * right away.
+     */
+    @NotNull
+    @Override
+    public List<PrivateLiftSignData> getPrivateLiftSignsInRegion(@NotNull final String world, final int regionX, final int regionZ) throws IOException {
+        
+        synchronized (this.readLock) {
+            if (this.readConnection == null) {
+                throw new IOException("The SignLift database at " + this.databaseFile.getPath() + " is not open yet.");
+            }
+            
+            try {
+                this.readInRegion.setString(1, world);
+                this.readInRegion.setInt(2, regionX << 5);
+                this.readInRegion.setInt(3, (regionX << 5) + 31);
+                this.readInRegion.setInt(4, regionZ << 5);
+                this.readInRegion.setInt(5, (regionZ << 5) + 31);
+                return this.select(this.readInRegion);
+            } catch (SQLException e) {
+                throw new IOException("Unable to load PrivateLiftSigns in region " + regionX + "," + regionZ + " of World " + world + " from the SignLift database.", e);
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public synchronized List<PrivateLiftSignData> getPrivateLiftSignsOwnedBy(@NotNull final UUID owner) throws IOException {
+        
+        try {
+            this.selectOwnedBy.setString(1, owner.toString());
+            return this.select(this.selectOwnedBy);
+        } catch (SQLException e) {
+            throw new IOException("Unable to load PrivateLiftSigns owned by " + owner.toString() + " from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public synchronized List<PrivateLiftSignData> getPrivateLiftSignsWithAccess(@NotNull final UUID uniqueId) throws IOException {
+        
+        try {
+            this.selectWithAccess.setString(1, uniqueId.toString());
+            return this.select(this.selectWithAccess);
+        } catch (SQLException e) {
+            throw new IOException("Unable to load PrivateLiftSigns accessible by " + uniqueId.toString() + " from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * No regions are kept in memory, so there is nothing to release.
+     */
+    @Override
+    public void releasePrivateLiftSignRegion(@NotNull final String world, final int regionX, final int regionZ) {
+        // Nothing to release.
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void savePrivateLiftSign(@NotNull final PrivateLiftSignData data) throws IOException {
+        
+        try {
+            this.bindPrivateLiftSign(this.savePrivateLiftSign, data);
+            this.savePrivateLiftSign.executeUpdate();
+            this.bindPosition(this.deleteAccess, data.getWorld(), data.getX(), data.getY(), data.getZ());
+            this.deleteAccess.executeUpdate();
+            this.addAccess(data);
+            this.insertAccess.executeBatch();
+            this.connection.commit();
+        } catch (SQLException e) {
+            throw this.rollback("Unable to save PrivateLiftSign to the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void deletePrivateLiftSign(@NotNull final String world, final int x, final int y, final int z) throws IOException {
+        
+        try {
+            this.bindPosition(this.deletePrivateLiftSign, world, x, y, z);
+            this.deletePrivateLiftSign.executeUpdate();
+            this.bindPosition(this.deleteAccess, world, x, y, z);
+            this.deleteAccess.executeUpdate();
+            this.connection.commit();
+        } catch (SQLException e) {
+            throw this.rollback("Unable to delete PrivateLiftSign from the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void importPrivateLiftSigns(@NotNull final Collection<PrivateLiftSignData> records) throws IOException {
+        
+        if (records.isEmpty()) {
+            return;
+        }
+        
+        final List<PrivateLiftSignData> batch = new ArrayList<PrivateLiftSignData>(records);
+        try {
+            for (final PrivateLiftSignData data : batch) {
+                this.bindPrivateLiftSign(this.importPrivateLiftSign, data);
+                this.importPrivateLiftSign.addBatch();
+            }
+            
+            // Only PrivateLiftSigns that did not already exist were inserted,
+            // and only those get their admins and members imported.
+            final int[] counts = this.importPrivateLiftSign.executeBatch();
+            for (int index = 0; index < counts.length; index++) {
+                if (counts[index] != 0) {
+                    this.addAccess(batch.get(index));
+                }
+            }
+            this.insertAccess.executeBatch();
+            this.connection.commit();
+        } catch (SQLException e) {
+            throw this.rollback("Unable to import PrivateLiftSigns into the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every change is committed as it is made, so this only checkpoints the
+     * write-ahead log into the database file.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        
+        if (this.connection == null) {
+            return;
+        }
+        
+        try (final Statement statement = this.connection.createStatement()) {
+            statement.execute("PRAGMA wal_checkpoint(PASSIVE)");
+        } catch (SQLException e) {
+            throw new IOException("Unable to checkpoint the SignLift database.", e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        
+        synchronized (this.readLock) {
+            if (this.readConnection != null) {
+                try {
+                    this.readConnection.close();
+                } catch (SQLException e) {
+                    this.logger.log(Level.WARNING, "Unable to close the read-only connection to the SignLift database.");
+                    this.logger.log(Level.WARNING, e.getClass().getSimpleName() + " thrown.", e);
+                } finally {
+                    this.readConnection = null;
+                    this.readInRegion = null;
+                }
+            }
+        }
+        
+        if (this.connection == null) {
+            return;
+        }
+        
+        try {
+            this.connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Unable to close the SignLift database.", e);
+        } finally {
+            this.connection = null;
+        }
+    }
+    
+    /**
+     * Executes the given query for {@link PrivateLiftSignData}, grouping the
+     * joined admin and member rows back into each {@link PrivateLiftSignData}.
+     *
+     * @param statement The {@link PreparedStatement} to execute, with its
+     *                  parameters already set.
+     * @return The {@link PrivateLiftSignData} found.
+     * @throws SQLException If the query fails, or the results are malformed.
+     */
+    @NotNull
+    private List<PrivateLiftSignData> select(@NotNull final PreparedStatement statement) throws SQLException {
+        
+        final List<PrivateLiftSignData> records = new ArrayList<PrivateLiftSignData>();
+        try (final ResultSet results = statement.executeQuery()) {
+            
+            String world = null;
+            int x = 0;
+            int y = 0;
+            int z = 0;
+            UUID owner = null;
+            List<UUID> admins = null;
+            List<UUID> members = null;
+            
+            while (results.next()) {
+                
+                final String rowWorld = results.getString(1);
+                final int rowX = results.getInt(2);
+                final int rowY = results.getInt(3);
+                final int rowZ = results.getInt(4);
+                
+                if (owner == null || !rowWorld.equals(world) || rowX != x || rowY != y || rowZ != z) {
+                    if (owner != null) {
+                        records.add(new PrivateLiftSignData(world, x, y, z, owner, admins, members));
+                    }
+                    world = rowWorld;
+                    x = rowX;
+                    y = rowY;
+                    z = rowZ;
+                    owner = SqliteSignLiftStorage.parseUniqueId(results.getString(5));
+                    admins = new ArrayList<UUID>();
+                    members = new ArrayList<UUID>();
+                }
+                
+                // The role and UUID are null if there are no admins or members.
+                final String uniqueIdRaw = results.getString(7);
+                if (uniqueIdRaw != null) {
+                    (results.getInt(6) == SqliteSignLiftStorage.ROLE_ADMIN ? admins : members).add(SqliteSignLiftStorage.parseUniqueId(uniqueIdRaw));
+                }
+            }
+            
+            if (owner != null) {
+                records.add(new PrivateLiftSignData(world, x, y, z, owner, admins, members));
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Binds all columns of the {@code private_lift_signs} table for the given
+     * {@link PrivateLiftSignData}.
+     *
+     * @param statement The {@link PreparedStatement} to bind.
+     * @param data The {@link PrivateLiftSignData} to bind.
+     * @throws SQLException If the parameters cannot be set.
+     */
+    private void bindPrivateLiftSign(@NotNull final PreparedStatement statement, @NotNull final PrivateLiftSignData data) throws SQLException {
+        this.bindPosition(statement, data.getWorld(), data.getX(), data.getY(), data.getZ());
+        statement.setInt(5, data.getX() >> 4);
+        statement.setInt(6, data.getZ() >> 4);
+        statement.setString(7, data.getOwner().toString());
+    }
+    
+    /**
+     * Binds the position of a {@link PrivateLiftSignData} to the first four
+     * parameters of the given {@link PreparedStatement}.
+     *
+     * @param statement The {@link PreparedStatement} to bind.
+     * @param world The name of the {@link org.bukkit.World}.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @throws SQLException If the parameters cannot be set.
+     */
+    private void bindPosition(@NotNull final PreparedStatement statement, @NotNull final String world, final int x, final int y, final int z) throws SQLException {
+        statement.setString(1, world);
+        statement.setInt(2, x);
+        statement.setInt(3, y);
+        statement.setInt(4, z);
+    }
+    
+    /**
+     * Adds a batched insert of each admin and member of the given
+     * {@link PrivateLiftSignData}.
+     *
+     * @param data The {@link PrivateLiftSignData}.
+     * @throws SQLException If the batch cannot be added to.
+     */
+    private void addAccess(@NotNull final PrivateLiftSignData data) throws SQLException {
+        
+        for (final UUID admin : data.getAdmins()) {
+            this.bindPosition(this.insertAccess, data.getWorld(), data.getX(), data.getY(), data.getZ());
+            this.insertAccess.setInt(5, SqliteSignLiftStorage.ROLE_ADMIN);
+            this.insertAccess.setString(6, admin.toString());
+            this.insertAccess.addBatch();
+        }
+        for (final UUID member : data.getMembers()) {
+            this.bindPosition(this.insertAccess, data.getWorld(), data.getX(), data.getY(), data.getZ());
+            this.insertAccess.setInt(5, SqliteSignLiftStorage.ROLE_MEMBER);
+            this.insertAccess.setString(6, member.toString());
+            this.insertAccess.addBatch();
+        }
+    }
+    
+    /**
+     * Rolls back the current transaction after the given
+     * {@link SQLException}, and wraps it in an {@link IOException}.
+     *
+     * @param message The message for the {@link IOException}.
+     * @param e The {@link SQLException} that caused the rollback.
+     * @return The {@link IOException} to throw.
+     */
+    @NotNull
+    private IOException rollback(@NotNull final String message, @NotNull final SQLException e) {
+        
+        try {
+            this.insertAccess.clearBatch();
+            this.importPrivateLiftSign.clearBatch();
+            this.connection.rollback();
+        } catch (SQLException rollbackException) {
+            e.addSuppressed(rollbackException);
+        }
+        return new IOException(message, e);
+    }
+    
+    /**
+     * Parses the given stored {@link UUID}.
+     *
+     * @param uniqueIdRaw The stored {@link UUID}.
+     * @return The {@link UUID}.
+     * @throws SQLException If the stored value is not a valid {@link UUID}.
+     */
+    @NotNull
+    private static UUID parseUniqueId(@NotNull final String uniqueIdRaw) throws SQLException {
+        try {
+            return UUID.fromString(uniqueIdRaw);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Invalid UUID in the SignLift database: " + uniqueIdRaw, e);
+        }
+    }
+}
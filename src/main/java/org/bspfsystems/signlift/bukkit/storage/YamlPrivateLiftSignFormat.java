@@ -0,0 +1,118 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+
+/**
+ * Represents the human-readable YAML {@link PrivateLiftSignFormat}.
+ * <p>
+ * Snapshots are a single {@link YamlConfiguration} holding a list of every
+ * {@link PrivateLiftSignData}. This is much slower to read and write than the
+ * {@link BinaryPrivateLiftSignFormat}, but can be inspected with any text
+ * editor.
+ */
+public final class YamlPrivateLiftSignFormat implements PrivateLiftSignFormat {
+    
+    private static final String KEY_PRIVATE_LIFT_SIGNS = "private_lift_signs";
+    
+    /**
+     * Constructs a new {@link YamlPrivateLiftSignFormat}.
+     */
+    public YamlPrivateLiftSignFormat() {
+        // Nothing to set up.
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getName() {
+        return "yaml";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @NotNull
+    @Override
+    public String getExtension() {
+        return "yml";
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(@NotNull final OutputStream out, @NotNull final Collection<PrivateLiftSignData> records) throws IOException {
+        
+        final List<Map<String, Object>> privateLiftSigns = new ArrayList<Map<String, Object>>(records.size());
+        for (final PrivateLiftSignData data : records) {
+            privateLiftSigns.add(data.serialize());
+        }
+        
+        final YamlConfiguration snapshot = new YamlConfiguration();
+        snapshot.set(YamlPrivateLiftSignFormat.KEY_PRIVATE_LIFT_SIGNS, privateLiftSigns);
+        out.write(snapshot.saveToString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(@NotNull final File file, @NotNull final Consumer<PrivateLiftSignData> consumer) throws IOException {
+        
+        final YamlConfiguration snapshot = new YamlConfiguration();
+        try {
+            snapshot.load(file);
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid PrivateLiftSign snapshot: " + file.getPath(), e);
+        }
+        
+        int index = 0;
+        for (final Map<?, ?> data : snapshot.getMapList(YamlPrivateLiftSignFormat.KEY_PRIVATE_LIFT_SIGNS)) {
+            try {
+                consumer.accept(PrivateLiftSignData.deserialize(data));
+            } catch (SignLiftException e) {
+                throw new IOException("Invalid PrivateLiftSign at index " + index + " in snapshot: " + file.getPath(), e);
+            }
+            index++;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a batch of files that are replaced atomically, with a single
+ * group commit.
+ * <p>
+ * The new contents of each file are written to a temporary file next to it
+ * as soon as they are staged, but are only forced to disk and moved over the
+ * original file when the batch is committed. Staging the same file again
+ * before a commit overwrites its temporary file, so each file is forced at
+ * most once per commit no matter how often it changed, and each directory is
+ * forced once per commit so that the moves themselves are durable.
+ * <p>
+ * A crash before or during a commit leaves every original file intact or
+ * fully replaced, along with leftover temporary files that should be deleted
+ * before the files are next loaded.
+ * <p>
+ * All methods are thread-safe.
+ *
+ * @see AtomicFileBatch#deleteTempFiles(Path)
+ */
+public final class AtomicFileBatch {
+    
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    private final LinkedHashMap<File, File> staged;
+    
+    /**
+     * Constructs a new, empty {@link AtomicFileBatch}.
+     */
+    public AtomicFileBatch() {
+        this.staged = new LinkedHashMap<File, File>();
+    }
+    
+    /**
+     * Stages the given contents to replace the given file when this
+     * {@link AtomicFileBatch} is next committed, replacing any contents that
+     * were already staged for it.
+     *
+     * @param target The file to replace.
+     * @param contents The new contents of the file.
+     * @throws IOException If the temporary file could not be written.
+     */
+    public synchronized void stage(@NotNull final File target, @NotNull final byte[] contents) throws IOException {
+        
+        final File tempFile = new File(target.getParentFile(), target.getName() + AtomicFileBatch.TEMP_SUFFIX);
+        try (final FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(contents);
+        }
+        this.staged.put(target, tempFile);
+    }
+    
+    /**
+     * Deletes the given file right away, discarding any contents that were
+     * staged for it.
+     *
+     * @param target The file to delete.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized void delete(@NotNull final File target) throws IOException {
+        
+        final File tempFile = this.staged.remove(target);
+        if (tempFile != null) {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+        Files.deleteIfExists(target.toPath());
+    }
+    
+    /**
+     * Gets the number of files that are staged and waiting to be committed.
+     *
+     * @return The number of staged files.
+     */
+    public synchronized int size() {
+        return this.staged.size();
+    }
+    
+    /**
+     * Commits all staged files. Every temporary file is forced to disk before
+     * any of them is moved into place, and each affected directory is forced
+     * once after all of them have been moved.
+     * <p>
+     * If the commit fails, the files that were not moved yet stay staged, and
+     * are retried by the next commit.
+     *
+     * @return The number of files that were replaced.
+     * @throws IOException If an I/O error occurs.
+     */
+    public synchronized int commit() throws IOException {
+        
+        if (this.staged.isEmpty()) {
+            return 0;
+        }
+        
+        for (final File tempFile : this.staged.values()) {
+            try (final FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        
+        final Set<File> directories = new LinkedHashSet<File>();
+        int count = 0;
+        final Iterator<Map.Entry<File, File>> iterator = this.staged.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<File, File> entry = iterator.next();
+            AtomicFileBatch.move(entry.getValue(), entry.getKey());
+            directories.add(entry.getKey().getAbsoluteFile().getParentFile());
+            iterator.remove();
+            count++;
+        }
+        
+        for (final File directory : directories) {
+            AtomicFileBatch.forceDirectory(directory);
+        }
+        return count;
+    }
+    
+    /**
+     * Deletes any temporary files left in the given directory by a commit
+     * that did not finish.
+     *
+     * @param directory The directory to clean up.
+     * @throws IOException If the directory cannot be read, or a temporary
+     *                     file cannot be deleted.
+     */
+    public static void deleteTempFiles(@NotNull final Path directory) throws IOException {
+        try (final DirectoryStream<Path> tempFiles = Files.newDirectoryStream(directory, "*" + AtomicFileBatch.TEMP_SUFFIX)) {
+            for (final Path tempFile : tempFiles) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+    
+    /**
+     * Moves the given temporary file over the given file, atomically if the
+     * file system supports it.
+     *
+     * @param tempFile The temporary file.
+     * @param target The file to replace.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void move(@NotNull final File tempFile, @NotNull final File target) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Forces the entries of the given directory to disk, so that files moved
+     * into it survive a crash.
+     *
+     * @param directory The directory to force.
+     */
+    private static void forceDirectory(@NotNull final File directory) {
+        try (final FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened or forced on every platform (such
+            // as Windows), where the moves are still atomic, just not forced.
+        }
+    }
+}
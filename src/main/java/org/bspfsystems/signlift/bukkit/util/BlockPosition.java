@@ -0,0 +1,86 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.util;
+
+/**
+ * Represents utility methods for packing {@link org.bukkit.block.Block}
+ * coordinates into a single {@code long}, so that they can be used as keys
+ * without allocating {@link org.bukkit.Location}s.
+ * <p>
+ * The X and Z coordinates are stored in 26 bits each, and the Y coordinate in
+ * the remaining 12 bits, which covers the full range of any
+ * {@link org.bukkit.World}.
+ */
+public final class BlockPosition {
+    
+    /**
+     * Prevent instantiation.
+     */
+    private BlockPosition() {
+        // No instances.
+    }
+    
+    /**
+     * Packs the given {@link org.bukkit.block.Block} coordinates into a
+     * single {@code long}.
+     * 
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @return The packed coordinates.
+     */
+    public static long pack(final int x, final int y, final int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+    
+    /**
+     * Gets the X coordinate from the given packed coordinates.
+     * 
+     * @param position The packed coordinates.
+     * @return The X coordinate.
+     */
+    public static int getX(final long position) {
+        return (int) (position >> 38);
+    }
+    
+    /**
+     * Gets the Y coordinate from the given packed coordinates.
+     * 
+     * @param position The packed coordinates.
+     * @return The Y coordinate.
+     */
+    public static int getY(final long position) {
+        return (int) (position << 52 >> 52);
+    }
+    
+    /**
+     * Gets the Z coordinate from the given packed coordinates.
+     * 
+     * @param position The packed coordinates.
+     * @return The Z coordinate.
+     */
+    public static int getZ(final long position) {
+        return (int) (position << 26 >> 38);
+    }
+}
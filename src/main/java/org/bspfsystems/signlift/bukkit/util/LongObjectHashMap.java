@@ -0,0 +1,268 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents an open-addressing hash map from primitive {@code long} keys to
+ * non-{@code null} values, such as packed {@link BlockPosition}s.
+ * <p>
+ * Unlike a {@link java.util.HashMap}, keys are never boxed and no entry
+ * objects are created, so lookups do not allocate. Collisions are resolved
+ * with linear probing, and removals shift later entries back instead of
+ * leaving tombstones.
+ * <p>
+ * This is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+public final class LongObjectHashMap<V> {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    
+    /**
+     * Constructs a new, empty {@link LongObjectHashMap}.
+     */
+    public LongObjectHashMap() {
+        this.keys = new long[LongObjectHashMap.DEFAULT_CAPACITY];
+        this.values = new Object[LongObjectHashMap.DEFAULT_CAPACITY];
+        this.mask = LongObjectHashMap.DEFAULT_CAPACITY - 1;
+        this.size = 0;
+    }
+    
+    /**
+     * Gets the value for the given key.
+     *
+     * @param key The key.
+     * @return The value, or {@code null} if there is no value for the key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        
+        int slot = LongObjectHashMap.hash(key) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                return (V) this.values[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Puts the given value for the given key, replacing any existing value.
+     *
+     * @param key The key.
+     * @param value The value.
+     * @return The previous value, or {@code null} if there was none.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(final long key, @NotNull final V value) {
+        
+        int slot = LongObjectHashMap.hash(key) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                final V previous = (V) this.values[slot];
+                this.values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+        
+        // Keep the load factor at or below 0.5, so probe sequences stay
+        // short.
+        if (this.size * 2 > this.keys.length) {
+            this.resize(this.keys.length * 2);
+        }
+        return null;
+    }
+    
+    /**
+     * Removes the value for the given key.
+     *
+     * @param key The key.
+     * @return The removed value, or {@code null} if there was none.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        
+        int slot = LongObjectHashMap.hash(key) & this.mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == key) {
+                final V removed = (V) this.values[slot];
+                this.shiftBack(slot);
+                this.size--;
+                return removed;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the number of entries in this {@link LongObjectHashMap}.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * Gets whether this {@link LongObjectHashMap} has no entries.
+     *
+     * @return {@code true} if there are no entries, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    
+    /**
+     * Gets a copy of the keys in this {@link LongObjectHashMap}, in no
+     * particular order.
+     *
+     * @return A copy of the keys.
+     */
+    @NotNull
+    public long[] keys() {
+        
+        final long[] keys = new long[this.size];
+        int index = 0;
+        for (int slot = 0; slot < this.values.length; slot++) {
+            if (this.values[slot] != null) {
+                keys[index++] = this.keys[slot];
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Gets a copy of the values in this {@link LongObjectHashMap}, in no
+     * particular order.
+     *
+     * @return A copy of the values.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        
+        final List<V> values = new ArrayList<V>(this.size);
+        for (final Object value : this.values) {
+            if (value != null) {
+                values.add((V) value);
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Removes all entries from this {@link LongObjectHashMap}.
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+    
+    /**
+     * Closes the gap left by removing the entry at the given slot by moving
+     * back any later entries in the same probe sequence.
+     *
+     * @param slot The slot of the removed entry.
+     */
+    private void shiftBack(int slot) {
+        
+        int next = (slot + 1) & this.mask;
+        while (this.values[next] != null) {
+            
+            // The entry at next can fill the gap only if its home slot is not
+            // cyclically between the gap and next.
+            final int home = LongObjectHashMap.hash(this.keys[next]) & this.mask;
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.keys[slot] = this.keys[next];
+                this.values[slot] = this.values[next];
+                slot = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.values[slot] = null;
+    }
+    
+    /**
+     * Resizes the tables to the given capacity, re-inserting every entry.
+     *
+     * @param capacity The new capacity, which must be a power of two.
+     */
+    private void resize(final int capacity) {
+        
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        
+        for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+            if (oldValues[oldSlot] == null) {
+                continue;
+            }
+            int slot = LongObjectHashMap.hash(oldKeys[oldSlot]) & this.mask;
+            while (this.values[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = oldKeys[oldSlot];
+            this.values[slot] = oldValues[oldSlot];
+        }
+    }
+    
+    /**
+     * Mixes the bits of the given key, so that packed coordinates that differ
+     * only in their high bits still spread across the table.
+     *
+     * @param key The key.
+     * @return The mixed hash of the key.
+     */
+    private static int hash(final long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) (hash ^ (hash >>> 16));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents utility methods for loading every file in a directory, or
+ * every line of a file, in parallel.
+ * <p>
+ * The directory entries are streamed, rather than listed into an array up
+ * front, and handed out in small batches to a bounded {@link ForkJoinPool}.
+ * Only a limited number of batches may be waiting at once, so memory use does
+ * not grow with the size of the directory.
+ */
+public final class ParallelFileLoader {
+    
+    private static final int BATCH_SIZE = 256;
+    private static final int LINE_BATCH_SIZE = 4096;
+    private static final int MAX_PARALLELISM = 8;
+    
+    /**
+     * Prevent instantiation.
+     */
+    private ParallelFileLoader() {
+        // No instances.
+    }
+    
+    /**
+     * Gets the default number of threads to load files with, based on the
+     * number of available processors.
+     *
+     * @return The default number of threads.
+     */
+    public static int getDefaultParallelism() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), ParallelFileLoader.MAX_PARALLELISM));
+    }
+    
+    /**
+     * Parses every file in the given directory that matches the given glob
+     * with the given parser, and passes each non-{@code null} result to the
+     * given {@link Consumer}.
+     * <p>
+     * Both the parser and the {@link Consumer} are called concurrently from
+     * multiple threads, so they must be thread-safe. The parser should report
+     * and skip any file that it cannot parse by returning {@code null}. This
+     * blocks until every file has been handled.
+     *
+     * @param directory The directory to load the files from.
+     * @param glob The glob that file names must match, such as {@code *.yml}.
+     * @param parallelism The number of threads to load files with.
+     * @param parser The parser for each file.
+     * @param consumer The {@link Consumer} to pass each result to.
+     * @param <T> The type of the parsed results.
+     * @return The number of results passed to the {@link Consumer}.
+     * @throws IOException If the directory cannot be read.
+     */
+    public static <T> int load(@NotNull final Path directory, @NotNull final String glob, final int parallelism, @NotNull final Function<Path, T> parser, @NotNull final Consumer<T> consumer) throws IOException {
+        
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            return ParallelFileLoader.loadAll(stream.iterator(), ParallelFileLoader.BATCH_SIZE, directory.toString(), parallelism, parser, consumer);
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Parses every line of the given file with the given parser, and passes
+     * each non-{@code null} result to the given {@link Consumer}.
+     * <p>
+     * The lines are read sequentially and handed out in batches in the same
+     * way as the files of a directory, so memory use does not grow with the
+     * size of the file. Both the parser and the {@link Consumer} are called
+     * concurrently from multiple threads, so they must be thread-safe, and
+     * the results are not passed on in the order of the lines. The parser
+     * should report and skip any line that it cannot parse by returning
+     * {@code null}. This blocks until every line has been handled.
+     *
+     * @param file The UTF-8 encoded file to load the lines from.
+     * @param parallelism The number of threads to parse lines with.
+     * @param parser The parser for each line.
+     * @param consumer The {@link Consumer} to pass each result to.
+     * @param <T> The type of the parsed results.
+     * @return The number of results passed to the {@link Consumer}.
+     * @throws IOException If the file cannot be read.
+     */
+    public static <T> int loadLines(@NotNull final Path file, final int parallelism, @NotNull final Function<String, T> parser, @NotNull final Consumer<T> consumer) throws IOException {
+        
+        try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return ParallelFileLoader.loadAll(reader.lines().iterator(), ParallelFileLoader.LINE_BATCH_SIZE, file.toString(), parallelism, parser, consumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Parses every item of the given {@link Iterator} in batches of the given
+     * size, and passes each non-{@code null} result to the given
+     * {@link Consumer}.
+     *
+     * @param items The {@link Iterator} of the items to parse.
+     * @param batchSize The number of items in each batch.
+     * @param source The source of the items, for error reporting.
+     * @param parallelism The number of threads to parse items with.
+     * @param parser The parser for each item.
+     * @param consumer The {@link Consumer} to pass each result to.
+     * @param <E> The type of the items.
+     * @param <T> The type of the parsed results.
+     * @return The number of results passed to the {@link Consumer}.
+     * @throws InterruptedIOException If interrupted while waiting.
+     */
+    private static <E, T> int loadAll(@NotNull final Iterator<E> items, final int batchSize, @NotNull final String source, final int parallelism, @NotNull final Function<E, T> parser, @NotNull final Consumer<T> consumer) throws InterruptedIOException {
+        
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        final Semaphore permits = new Semaphore(parallelism * 2);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        final AtomicInteger count = new AtomicInteger();
+        
+        try {
+            
+            List<E> batch = new ArrayList<E>(batchSize);
+            while (items.hasNext()) {
+                batch.add(items.next());
+                if (batch.size() == batchSize) {
+                    tasks.add(ParallelFileLoader.submit(pool, permits, batch, parser, consumer, count));
+                    batch = new ArrayList<E>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                tasks.add(ParallelFileLoader.submit(pool, permits, batch, parser, consumer, count));
+            }
+            
+            // Rethrows anything unexpected thrown by the parser or consumer.
+            for (final ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading from " + source);
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        return count.get();
+    }
+    
+    /**
+     * Submits a batch of items to be parsed, waiting until there is room for
+     * another batch.
+     *
+     * @param pool The {@link ForkJoinPool} to parse the items on.
+     * @param permits The {@link Semaphore} limiting the waiting batches.
+     * @param batch The items to parse.
+     * @param parser The parser for each item.
+     * @param consumer The {@link Consumer} to pass each result to.
+     * @param count The number of results passed to the {@link Consumer}.
+     * @param <E> The type of the items.
+     * @param <T> The type of the parsed results.
+     * @return The submitted {@link ForkJoinTask}.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @NotNull
+    private static <E, T> ForkJoinTask<?> submit(@NotNull final ForkJoinPool pool, @NotNull final Semaphore permits, @NotNull final List<E> batch, @NotNull final Function<E, T> parser, @NotNull final Consumer<T> consumer, @NotNull final AtomicInteger count) throws InterruptedException {
+        
+        permits.acquire();
+        return pool.submit(() -> {
+            try {
+                for (final E item : batch) {
+                    final T result = parser.apply(item);
+                    if (result != null) {
+                        consumer.accept(result);
+                        count.incrementAndGet();
+                    }
+                }
+            } finally {
+                permits.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package org.bspfsystems.signlift.bukkit.util;
+
+import java.util.Arrays;
+
+/**
+ * Represents a table of token buckets keyed by primitive {@code long} keys,
+ * such as packed chunk coordinates.
+ * <p>
+ * Each bucket holds up to a given number of tokens, and gains a token each
+ * time the given refill interval passes. A missing bucket is the same as a
+ * full one, so buckets are only stored while they are not full.
+ * <p>
+ * Buckets are stored in parallel primitive arrays with linear probing, in the
+ * same manner as {@link LongObjectHashMap}, so no objects are created per
+ * bucket. Buckets that have refilled are expired by a timing wheel that is
+ * advanced whenever the table is used. Each stored bucket has exactly one
+ * entry in the wheel, and when that entry comes due the bucket is either
+ * removed (if it has refilled) or moved to the slot in which it will have
+ * refilled. The table only allocates when it, or a wheel slot, grows.
+ * <p>
+ * The capacity and refill interval are given on every call rather than
+ * stored, so that they may change when the configuration is reloaded.
+ * <p>
+ * This is not thread-safe.
+ */
+public final class TokenBucketTable {
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int WHEEL_SLOTS = 64;
+    private static final long WHEEL_SLOT_MILLIS = 250L;
+    
+    private long[] keys;
+    private boolean[] used;
+    private int[] tokens;
+    private long[] refilled;
+    private int mask;
+    private int size;
+    
+    private final long[][] wheel;
+    private final int[] wheelSizes;
+    private int wheelIndex;
+    private long wheelTime;
+    private boolean wheelStarted;
+    
+    /**
+     * Constructs a new, empty {@link TokenBucketTable}.
+     */
+    public TokenBucketTable() {
+        
+        this.keys = new long[TokenBucketTable.DEFAULT_CAPACITY];
+        this.used = new boolean[TokenBucketTable.DEFAULT_CAPACITY];
+        this.tokens = new int[TokenBucketTable.DEFAULT_CAPACITY];
+        this.refilled = new long[TokenBucketTable.DEFAULT_CAPACITY];
+        this.mask = TokenBucketTable.DEFAULT_CAPACITY - 1;
+        this.size = 0;
+        
+        this.wheel = new long[TokenBucketTable.WHEEL_SLOTS][];
+        for (int slot = 0; slot < TokenBucketTable.WHEEL_SLOTS; slot++) {
+            this.wheel[slot] = new long[4];
+        }
+        this.wheelSizes = new int[TokenBucketTable.WHEEL_SLOTS];
+        this.wheelIndex = 0;
+        this.wheelTime = 0L;
+        this.wheelStarted = false;
+    }
+    
+    /**
+     * Checks to see if the bucket for the given key has a token available,
+     * without taking it.
+     *
+     * @param key The key of the bucket.
+     * @param now The current time, in milliseconds.
+     * @param capacity The maximum number of tokens in a bucket.
+     * @param refillMillis The time it takes to gain a token, in milliseconds.
+     * @return {@code true} if a token is available, {@code false} otherwise.
+     */
+    public boolean hasToken(final long key, final long now, final int capacity, final long refillMillis) {
+        
+        this.advance(now, capacity, refillMillis);
+        final int slot = this.find(key);
+        if (slot == -1) {
+            return capacity > 0;
+        }
+        this.refill(slot, now, capacity, refillMillis);
+        return this.tokens[slot] > 0;
+    }
+    
+    /**
+     * Takes a token from the bucket for the given key, if one is available.
+     *
+     * @param key The key of the bucket.
+     * @param now The current time, in milliseconds.
+     * @param capacity The maximum number of tokens in a bucket.
+     * @param refillMillis The time it takes to gain a token, in milliseconds.
+     * @return {@code true} if a token was taken, {@code false} if the bucket
+     *         was empty.
+     */
+    public boolean take(final long key, final long now, final int capacity, final long refillMillis) {
+        
+        this.advance(now, capacity, refillMillis);
+        int slot = this.find(key);
+        if (slot == -1) {
+            if (capacity <= 0) {
+                return false;
+            }
+            slot = this.insert(key);
+            this.tokens[slot] = capacity - 1;
+            this.refilled[slot] = now;
+            this.schedule(key, now + refillMillis);
+            return true;
+        }
+        
+        this.refill(slot, now, capacity, refillMillis);
+        if (this.tokens[slot] <= 0) {
+            return false;
+        }
+        this.tokens[slot]--;
+        return true;
+    }
+    
+    /**
+     * Gets the number of buckets in this {@link TokenBucketTable} that are
+     * not full.
+     *
+     * @return The number of buckets.
+     */
+    public int size() {
+        return this.size;
+    }
+    
+    /**
+     * Removes all buckets from this {@link TokenBucketTable}.
+     */
+    public void clear() {
+        Arrays.fill(this.used, false);
+        Arrays.fill(this.wheelSizes, 0);
+        this.size = 0;
+    }
+    
+    /**
+     * Adds the tokens gained since the bucket in the given slot was last
+     * refilled.
+     *
+     * @param slot The slot of the bucket.
+     * @param now The current time, in milliseconds.
+     * @param capacity The maximum number of tokens in a bucket.
+     * @param refillMillis The time it takes to gain a token, in milliseconds.
+     */
+    private void refill(final int slot, final long now, final int capacity, final long refillMillis) {
+        
+        final long elapsed = now - this.refilled[slot];
+        if (elapsed < refillMillis) {
+            return;
+        }
+        
+        final long gained = refillMillis <= 0L ? capacity : elapsed / refillMillis;
+        if (this.tokens[slot] + gained >= capacity) {
+            this.tokens[slot] = capacity;
+            this.refilled[slot] = now;
+        } else {
+            this.tokens[slot] += (int) gained;
+            this.refilled[slot] += gained * refillMillis;
+        }
+    }
+    
+    /**
+     * Advances the timing wheel to the given time, expiring any buckets that
+     * have refilled.
+     *
+     * @param now The current time, in milliseconds.
+     * @param capacity The maximum number of tokens in a bucket.
+     * @param refillMillis The time it takes to gain a token, in milliseconds.
+     */
+    private void advance(final long now, final int capacity, final long refillMillis) {
+        
+        if (!this.wheelStarted) {
+            this.wheelTime = now;
+            this.wheelStarted = true;
+            return;
+        }
+        
+        long steps = (now - this.wheelTime) / TokenBucketTable.WHEEL_SLOT_MILLIS;
+        if (steps <= 0L) {
+            return;
+        }
+        
+        // After a long pause, every slot only needs to be visited once.
+        if (steps > TokenBucketTable.WHEEL_SLOTS) {
+            this.wheelTime += (steps - TokenBucketTable.WHEEL_SLOTS) * TokenBucketTable.WHEEL_SLOT_MILLIS;
+            steps = TokenBucketTable.WHEEL_SLOTS;
+        }
+        
+        for (; steps > 0L; steps--) {
+            
+            this.wheelTime += TokenBucketTable.WHEEL_SLOT_MILLIS;
+            this.wheelIndex = (this.wheelIndex + 1) & (TokenBucketTable.WHEEL_SLOTS - 1);
+            
+            final long[] due = this.wheel[this.wheelIndex];
+            final int count = this.wheelSizes[this.wheelIndex];
+            this.wheelSizes[this.wheelIndex] = 0;
+            for (int index = 0; index < count; index++) {
+                
+                final int slot = this.find(due[index]);
+                if (slot == -1) {
+                    continue;
+                }
+                
+                this.refill(slot, now, capacity, refillMillis);
+                if (this.tokens[slot] >= capacity) {
+                    this.remove(slot);
+                } else {
+                    this.schedule(due[index], this.refilled[slot] + (capacity - this.tokens[slot]) * refillMillis);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Adds the given key to the slot of the timing wheel that is due at the
+     * given time. Times further away than the wheel spans are added to the
+     * furthest slot, and are moved again when it comes due.
+     *
+     * @param key The key of the bucket.
+     * @param due The time that the bucket will have refilled, in
+     *            milliseconds.
+     */
+    private void schedule(final long key, final long due) {
+        
+        final long ahead = (due - this.wheelTime + TokenBucketTable.WHEEL_SLOT_MILLIS - 1L) / TokenBucketTable.WHEEL_SLOT_MILLIS;
+        final int offset = (int) Math.max(1L, Math.min(TokenBucketTable.WHEEL_SLOTS - 1, ahead));
+        final int index = (this.wheelIndex + offset) & (TokenBucketTable.WHEEL_SLOTS - 1);
+        
+        if (this.wheelSizes[index] == this.wheel[index].length) {
+            this.wheel[index] = Arrays.copyOf(this.wheel[index], this.wheel[index].length * 2);
+        }
+        this.wheel[index][this.wheelSizes[index]++] = key;
+    }
+    
+    /**
+     * Finds the slot of the bucket for the given key.
+     *
+     * @param key The key of the bucket.
+     * @return The slot, or {@code -1} if there is no bucket for the key.
+     */
+    private int find(final long key) {
+        
+        int slot = TokenBucketTable.hash(key) & this.mask;
+        while (this.used[slot]) {
+            if (this.keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Inserts a bucket for the given key, which must not already have one.
+     *
+     * @param key The key of the bucket.
+     * @return The slot of the new bucket.
+     */
+    private int insert(final long key) {
+        
+        // Keep the load factor at or below 0.5, so probe sequences stay
+        // short.
+        if ((this.size + 1) * 2 > this.keys.length) {
+            this.resize(this.keys.length * 2);
+        }
+        
+        int slot = TokenBucketTable.hash(key) & this.mask;
+        while (this.used[slot]) {
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = key;
+        this.used[slot] = true;
+        this.size++;
+        return slot;
+    }
+    
+    /**
+     * Removes the bucket at the given slot, moving back any later buckets in
+     * the same probe sequence to close the gap.
+     *
+     * @param slot The slot of the bucket.
+     */
+    private void remove(int slot) {
+        
+        int next = (slot + 1) & this.mask;
+        while (this.used[next]) {
+            
+            // The bucket at next can fill the gap only if its home slot is
+            // not cyclically between the gap and next.
+            final int home = TokenBucketTable.hash(this.keys[next]) & this.mask;
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.keys[slot] = this.keys[next];
+                this.tokens[slot] = this.tokens[next];
+                this.refilled[slot] = this.refilled[next];
+                slot = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.used[slot] = false;
+        this.size--;
+    }
+    
+    /**
+     * Resizes the tables to the given capacity, re-inserting every bucket.
+     *
+     * @param capacity The new capacity, which must be a power of two.
+     */
+    private void resize(final int capacity) {
+        
+        final long[] oldKeys = this.keys;
+        final boolean[] oldUsed = this.used;
+        final int[] oldTokens = this.tokens;
+        final long[] oldRefilled = this.refilled;
+        
+        this.keys = new long[capacity];
+        this.used = new boolean[capacity];
+        this.tokens = new int[capacity];
+        this.refilled = new long[capacity];
+        this.mask = capacity - 1;
+        
+        for (int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++) {
+            if (!oldUsed[oldSlot]) {
+                continue;
+            }
+            int slot = TokenBucketTable.hash(oldKeys[oldSlot]) & this.mask;
+            while (this.used[slot]) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = oldKeys[oldSlot];
+            this.used[slot] = true;
+            this.tokens[slot] = oldTokens[oldSlot];
+            this.refilled[slot] = oldRefilled[oldSlot];
+        }
+    }
+    
+    /**
+     * Mixes the bits of the given key, so that keys that differ only in their
+     * high bits still spread across the table.
+     *
+     * @param key The key.
+     * @return The mixed hash of the key.
+     */
+    private static int hash(final long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) (hash ^ (hash >>> 16));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.bspfsystems.signlift.bukkit.storage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import org.bspfsystems.signlift.bukkit.exception.SignLiftException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the validation of the access lists of a {@link PrivateLiftSignData}.
+ */
+public final class PrivateLiftSignDataTest {
+    
+    private static final UUID OWNER = new UUID(0L, 1L);
+    private static final UUID ADMIN = new UUID(0L, 2L);
+    private static final UUID MEMBER = new UUID(0L, 3L);
+    
+    /**
+     * Checks that distinct owners, admins, and members are accepted.
+     *
+     * @throws SignLiftException If the access lists are rejected.
+     */
+    @Test
+    public void testValidAccess() throws SignLiftException {
+        PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Collections.singletonList(PrivateLiftSignDataTest.ADMIN), Collections.singletonList(PrivateLiftSignDataTest.MEMBER));
+    }
+    
+    /**
+     * Checks that a record with the owner also listed as an admin is
+     * rejected.
+     */
+    @Test
+    public void testOwnerIsAdmin() {
+        Assertions.assertThrows(SignLiftException.class, () -> PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Collections.singletonList(PrivateLiftSignDataTest.OWNER), Collections.<UUID>emptyList()));
+    }
+    
+    /**
+     * Checks that a record with the owner also listed as a member is
+     * rejected.
+     */
+    @Test
+    public void testOwnerIsMember() {
+        Assertions.assertThrows(SignLiftException.class, () -> PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Collections.<UUID>emptyList(), Collections.singletonList(PrivateLiftSignDataTest.OWNER)));
+    }
+    
+    /**
+     * Checks that a record with a member also listed as an admin is rejected.
+     */
+    @Test
+    public void testMemberIsAdmin() {
+        Assertions.assertThrows(SignLiftException.class, () -> PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Collections.singletonList(PrivateLiftSignDataTest.ADMIN), Collections.singletonList(PrivateLiftSignDataTest.ADMIN)));
+    }
+    
+    /**
+     * Checks that records with duplicate admins or members are rejected.
+     */
+    @Test
+    public void testDuplicates() {
+        
+        Assertions.assertThrows(SignLiftException.class, () -> PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Arrays.asList(PrivateLiftSignDataTest.ADMIN, PrivateLiftSignDataTest.ADMIN), Collections.<UUID>emptyList()));
+        Assertions.assertThrows(SignLiftException.class, () -> PrivateLiftSignData.validateAccess(PrivateLiftSignDataTest.OWNER, Collections.<UUID>emptyList(), Arrays.asList(PrivateLiftSignDataTest.MEMBER, PrivateLiftSignDataTest.MEMBER)));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of the SignLift plugin for
+ * Bukkit servers for Minecraft.
+ *
+ * Copyright (C) 2011      Shannon Wynter (http://fremnet.net/)
+ * Copyright (C) 2012      GoalieGuy6 (https://github.com/goalieguy6/)
+ * Copyright (C) 2018,2020 Matt Ciolkosz (https://github.com/mciolkosz/)
+ * Copyright (C) 2021      BSPF Systems, LLC (https://bspfsystems.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.bspfsystems.signlift.bukkit.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link LongObjectHashMap} against a {@link HashMap} with the same
+ * randomized operations.
+ */
+public final class LongObjectHashMapTest {
+    
+    private static final int OPERATIONS = 500000;
+    
+    /**
+     * Checks that a long random sequence of puts, gets, and removes gives the
+     * same results as a {@link HashMap}, including keys that collide in the
+     * low bits and keys at the edges of the {@code long} range.
+     */
+    @Test
+    public void testRandomOperations() {
+        
+        final Random random = new Random(0x5349474E4C494654L);
+        final LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+        final HashMap<Long, Long> expected = new HashMap<Long, Long>();
+        
+        for (int operation = 0; operation < LongObjectHashMapTest.OPERATIONS; operation++) {
+            
+            final long key = LongObjectHashMapTest.nextKey(random, operation);
+            final int choice = random.nextInt(10);
+            if (choice < 4) {
+                final Long value = random.nextLong();
+                Assertions.assertEquals(expected.put(key, value), map.put(key, value), "put " + key);
+            } else if (choice < 7) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key), "remove " + key);
+            } else {
+                Assertions.assertEquals(expected.get(key), map.get(key), "get " + key);
+            }
+            
+            Assertions.assertEquals(expected.size(), map.size());
+            if (operation % 50000 == 0) {
+                LongObjectHashMapTest.assertSameContents(expected, map);
+            }
+        }
+        LongObjectHashMapTest.assertSameContents(expected, map);
+    }
+    
+    /**
+     * Checks that a {@link LongObjectHashMap} that has grown and been cleared
+     * is empty, and can be filled again.
+     */
+    @Test
+    public void testClear() {
+        
+        final LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+        for (long key = 0L; key < 10000L; key++) {
+            map.put(key << 32, key);
+        }
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertEquals(0, map.keys().length);
+        Assertions.assertNull(map.get(0L));
+        
+        for (long key = 0L; key < 100L; key++) {
+            Assertions.assertNull(map.put(key, key));
+        }
+        Assertions.assertEquals(100, map.size());
+        for (long key = 0L; key < 100L; key++) {
+            Assertions.assertEquals(Long.valueOf(key), map.get(key));
+        }
+    }
+    
+    /**
+     * Picks the next key, drawing from a few ranges so that keys repeat often
+     * enough for replacements and removals to hit.
+     *
+     * @param random The {@link Random} to draw from.
+     * @param operation The index of the current operation.
+     * @return The key.
+     */
+    private static long nextKey(final Random random, final int operation) {
+        
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(4096);
+            case 1:
+                // Packed BlockPositions, which the map is mostly keyed by.
+                return BlockPosition.pack(random.nextInt(64) - 32, random.nextInt(256), random.nextInt(64) - 32);
+            case 2:
+                return (long) random.nextInt(1024) << (32 + random.nextInt(31));
+            default:
+                // Mostly keys from a range that widens over the run, so that
+                // the map keeps growing, and sometimes the edges.
+                final long[] edges = { 0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE };
+                return random.nextInt(8) == 0 ? edges[random.nextInt(edges.length)] : -random.nextInt(1 + operation / 16);
+        }
+    }
+    
+    /**
+     * Checks that the given {@link LongObjectHashMap} has exactly the
+     * contents of the given {@link HashMap}.
+     *
+     * @param expected The expected contents.
+     * @param map The {@link LongObjectHashMap} to check.
+     */
+    private static void assertSameContents(final HashMap<Long, Long> expected, final LongObjectHashMap<Long> map) {
+        
+        Assertions.assertEquals(expected.isEmpty(), map.isEmpty());
+        
+        final long[] keys = map.keys();
+        final long[] expectedKeys = new long[expected.size()];
+        int index = 0;
+        for (final Long key : expected.keySet()) {
+            expectedKeys[index++] = key;
+        }
+        Arrays.sort(keys);
+        Arrays.sort(expectedKeys);
+        Assertions.assertArrayEquals(expectedKeys, keys);
+        
+        final List<Long> values = new ArrayList<Long>(map.values());
+        final List<Long> expectedValues = new ArrayList<Long>(expected.values());
+        values.sort(null);
+        expectedValues.sort(null);
+        Assertions.assertEquals(expectedValues, values);
+    }
+}